@@ -0,0 +1,155 @@
+package com.altruist.projects.ucp.payment.analytics;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.altruist.projects.ucp.payment.analytics.RollupWindow.Bucket;
+import com.altruist.projects.ucp.payment.analytics.RollupWindow.Cell;
+import com.altruist.projects.ucp.payment.analytics.RollupWindow.Key;
+import com.altruist.projects.ucp.payment.dto.PaymentRollup;
+import com.altruist.projects.ucp.payment.model.PaymentSummary;
+import com.altruist.projects.ucp.payment.repository.PaymentSummaryRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-process payment analytics. Each completed payment updates the current per-minute and
+ * per-hour bucket (striped adders keyed by country, method, currency and status), so dashboards read
+ * rollups in O(buckets) instead of scanning the payment table. Closed buckets are periodically
+ * written to the payment_summaries table.
+ */
+@Slf4j
+@Component
+public class PaymentAnalytics {
+
+    public static final String MINUTE = "MINUTE";
+    public static final String HOUR = "HOUR";
+
+    private final PaymentSummaryRepository summaryRepository;
+    private final Clock clock;
+    private final RollupWindow minutes;
+    private final RollupWindow hours;
+
+    public PaymentAnalytics(PaymentSummaryRepository summaryRepository,
+                            Clock clock,
+                            @Value("${payment.analytics.minute-buckets:120}") int minuteBuckets,
+                            @Value("${payment.analytics.hour-buckets:48}") int hourBuckets) {
+        this.summaryRepository = summaryRepository;
+        this.clock = clock;
+        this.minutes = new RollupWindow(MINUTE, TimeUnit.MINUTES.toMillis(1), minuteBuckets);
+        this.hours = new RollupWindow(HOUR, TimeUnit.HOURS.toMillis(1), hourBuckets);
+    }
+
+    /**
+     * Record a completed payment
+     * @param currency currency of the amount and charges, volumes of different currencies are never added up
+     * @param amount amount in minor units
+     * @param charges charges in minor units
+     */
+    public void record(String countryCode, String paymentMethod, Currency currency, String status,
+                       long amount, long charges) {
+        long now = clock.millis();
+        Key key = new Key(countryCode, paymentMethod, currency, status);
+        minutes.record(now, key, amount, charges);
+        hours.record(now, key, amount, charges);
+    }
+
+    /**
+     * Rollups of the most recent buckets, newest first, one entry per bucket, country, payment method and
+     * currency
+     * @param granularity MINUTE or HOUR
+     * @param countryCode optional country filter
+     */
+    public List<PaymentRollup> rollups(String granularity, int buckets, String countryCode) {
+        RollupWindow window = window(granularity);
+        List<PaymentRollup> rollups = new ArrayList<>();
+        for (Bucket bucket : window.recent(clock.millis(), buckets)) {
+            Map<Key, PaymentRollup> byCountryMethodAndCurrency = new LinkedHashMap<>();
+            bucket.cells.forEach((key, cell) -> {
+                if (countryCode != null && !countryCode.equalsIgnoreCase(key.countryCode())) {
+                    return;
+                }
+                PaymentRollup rollup = byCountryMethodAndCurrency.computeIfAbsent(
+                        new Key(key.countryCode(), key.paymentMethod(), key.currency(), null),
+                        k -> PaymentRollup.builder()
+                                .bucketStart(Instant.ofEpochMilli(bucket.startMillis))
+                                .granularity(window.getGranularity())
+                                .countryCode(key.countryCode())
+                                .paymentMethod(key.paymentMethod())
+                                .currency(key.currency())
+                                .build());
+                long count = cell.count.sum();
+                rollup.setCount(rollup.getCount() + count);
+                if (!"SUCCESS".equals(key.status())) {
+                    rollup.setFailedCount(rollup.getFailedCount() + count);
+                }
+                rollup.setVolume(rollup.getVolume() + cell.volume.sum());
+                rollup.setCharges(rollup.getCharges() + cell.charges.sum());
+            });
+            byCountryMethodAndCurrency.values().forEach(rollup ->
+                    rollup.setFailureRate(rollup.getCount() > 0 ? (double) rollup.getFailedCount() / rollup.getCount() : 0.0));
+            rollups.addAll(byCountryMethodAndCurrency.values());
+        }
+        return rollups;
+    }
+
+    /**
+     * Persist every closed, not yet persisted bucket into the summary table
+     */
+    @Scheduled(fixedDelayString = "${payment.analytics.flush-interval-ms:60000}")
+    public void flush() {
+        long now = clock.millis();
+        List<PaymentSummary> summaries = new ArrayList<>();
+        for (RollupWindow window : List.of(minutes, hours)) {
+            for (Bucket bucket : window.claimClosed(now)) {
+                bucket.cells.forEach((key, cell) -> summaries.add(toSummary(window, bucket, key, cell)));
+            }
+        }
+        if (!summaries.isEmpty()) {
+            summaryRepository.saveAll(summaries);
+            log.debug("Persisted {} payment summary rows", summaries.size());
+        }
+    }
+
+    /**
+     * Persisted summaries of a granularity since the given instant
+     */
+    public List<PaymentSummary> persistedSince(String granularity, Instant from) {
+        return summaryRepository.findByGranularityAndBucketStartGreaterThanEqualOrderByBucketStart(
+                window(granularity).getGranularity(), from);
+    }
+
+    private RollupWindow window(String granularity) {
+        if (HOUR.equalsIgnoreCase(granularity)) {
+            return hours;
+        }
+        if (MINUTE.equalsIgnoreCase(granularity)) {
+            return minutes;
+        }
+        throw new IllegalArgumentException("Unsupported granularity: " + granularity);
+    }
+
+    private static PaymentSummary toSummary(RollupWindow window, Bucket bucket, Key key, Cell cell) {
+        return PaymentSummary.builder()
+                .granularity(window.getGranularity())
+                .bucketStart(Instant.ofEpochMilli(bucket.startMillis))
+                .countryCode(key.countryCode())
+                .paymentMethod(key.paymentMethod())
+                .currency(key.currency())
+                .status(key.status())
+                .paymentCount(cell.count.sum())
+                .volume(cell.volume.sum())
+                .charges(cell.charges.sum())
+                .build();
+    }
+}
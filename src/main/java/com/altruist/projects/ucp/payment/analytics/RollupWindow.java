@@ -0,0 +1,118 @@
+package com.altruist.projects.ucp.payment.analytics;
+
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ring of fixed-width time buckets (e.g. the last 120 minutes). A slot is reused by swapping in a
+ * fresh bucket once its time has passed, so recording never locks and memory stays bounded.
+ */
+class RollupWindow {
+
+    /** Cells of one bucket are keyed by country, payment method, currency and status */
+    record Key(String countryCode, String paymentMethod, Currency currency, String status) {
+    }
+
+    /**
+     * Striped counters of one key within a bucket
+     */
+    static final class Cell {
+        final LongAdder count = new LongAdder();
+        final LongAdder volume = new LongAdder(); // Minor units
+        final LongAdder charges = new LongAdder();
+    }
+
+    static final class Bucket {
+        final long startMillis;
+        final Map<Key, Cell> cells = new ConcurrentHashMap<>();
+        final AtomicBoolean persisted = new AtomicBoolean();
+
+        Bucket(long startMillis) {
+            this.startMillis = startMillis;
+        }
+    }
+
+    private final String granularity;
+    private final long widthMillis;
+    private final AtomicReferenceArray<Bucket> slots;
+
+    RollupWindow(String granularity, long widthMillis, int bucketCount) {
+        this.granularity = granularity;
+        this.widthMillis = widthMillis;
+        this.slots = new AtomicReferenceArray<>(bucketCount);
+    }
+
+    void record(long nowMillis, Key key, long amount, long charges) {
+        Cell cell = bucketAt(nowMillis).cells.computeIfAbsent(key, k -> new Cell());
+        cell.count.increment();
+        cell.volume.add(amount);
+        cell.charges.add(charges);
+    }
+
+    /**
+     * Current bucket for the instant, replacing the slot's stale bucket if needed
+     */
+    Bucket bucketAt(long nowMillis) {
+        long start = nowMillis - Math.floorMod(nowMillis, widthMillis);
+        int index = (int) Math.floorMod(start / widthMillis, (long) slots.length());
+        while (true) {
+            Bucket bucket = slots.get(index);
+            if (bucket != null && bucket.startMillis == start) {
+                return bucket;
+            }
+            if (bucket != null && bucket.startMillis > start) {
+                return new Bucket(start); // Clock went backwards, drop the sample rather than corrupt newer data
+            }
+            Bucket fresh = new Bucket(start);
+            if (slots.compareAndSet(index, bucket, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    /**
+     * The most recent buckets, newest first, up to {@code count} of them and never older than the ring
+     */
+    List<Bucket> recent(long nowMillis, int count) {
+        long currentStart = nowMillis - Math.floorMod(nowMillis, widthMillis);
+        int limit = Math.min(count, slots.length());
+        List<Bucket> buckets = new ArrayList<>(limit);
+        for (int i = 0; i < limit; i++) {
+            long start = currentStart - i * widthMillis;
+            Bucket bucket = slots.get((int) Math.floorMod(start / widthMillis, (long) slots.length()));
+            if (bucket != null && bucket.startMillis == start) {
+                buckets.add(bucket);
+            }
+        }
+        return buckets;
+    }
+
+    /**
+     * Buckets that are complete (their time has passed) but not persisted yet; marks them persisted
+     */
+    List<Bucket> claimClosed(long nowMillis) {
+        List<Bucket> closed = new ArrayList<>();
+        for (int i = 0; i < slots.length(); i++) {
+            Bucket bucket = slots.get(i);
+            if (bucket != null && bucket.startMillis + widthMillis <= nowMillis
+                    && bucket.persisted.compareAndSet(false, true)) {
+                closed.add(bucket);
+            }
+        }
+        return closed;
+    }
+
+    String getGranularity() {
+        return granularity;
+    }
+
+    long getWidthMillis() {
+        return widthMillis;
+    }
+}
@@ -0,0 +1,249 @@
+package com.altruist.projects.ucp.payment.archive;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.altruist.projects.ucp.payment.archive.PaymentSegment.RowGroup;
+import com.altruist.projects.ucp.payment.dto.ArchiveSegment;
+import com.altruist.projects.ucp.payment.model.Payment;
+import com.altruist.projects.ucp.payment.model.PaymentStatus;
+import com.altruist.projects.ucp.payment.repository.PaymentRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Moves cold monthly partitions of the payment table into compressed columnar segment files and
+ * answers time range queries over them.
+ *
+ * <p>Every payment carries its partition month. Months older than {@code payment.archive.hot-months}
+ * are streamed by keyset pages into {@code payments-<yyyyMM>-<firstId>-<lastId>.seg}, synced to disk,
+ * renamed into place and only then deleted from the table. A rerun after a crash between the two
+ * steps rewrites the same file, and readers drop duplicate ids, so a partition is never lost or
+ * counted twice. Queries prune segments by the month in their file name and row groups by their
+ * timestamp range.</p>
+ */
+@Slf4j
+@Service
+public class PaymentArchive {
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("payments-(\\d{6})-(\\d+)-(\\d+)\\.seg");
+
+    private final PaymentRepository paymentRepository;
+    private final Clock clock;
+    private final boolean enabled;
+    private final Path directory;
+    private final int hotMonths;
+    private final int pageSize;
+    private final int rowGroupRows;
+
+    public PaymentArchive(PaymentRepository paymentRepository,
+                          Clock clock,
+                          @Value("${payment.archive.enabled:true}") boolean enabled,
+                          @Value("${payment.archive.directory:payment-archive}") String directory,
+                          @Value("${payment.archive.hot-months:3}") int hotMonths,
+                          @Value("${payment.archive.page-size:5000}") int pageSize,
+                          @Value("${payment.archive.row-group-rows:65536}") int rowGroupRows) {
+        if (hotMonths < 1) {
+            throw new IllegalArgumentException("payment.archive.hot-months must be at least 1");
+        }
+        this.paymentRepository = paymentRepository;
+        this.clock = clock;
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.hotMonths = hotMonths;
+        this.pageSize = pageSize;
+        this.rowGroupRows = rowGroupRows;
+    }
+
+    /**
+     * Archive every partition older than the hot months; one run at a time
+     * @return the segments written
+     */
+    @Scheduled(cron = "${payment.archive.cron:0 30 3 * * *}")
+    public synchronized List<ArchiveSegment> archiveColdPartitions() {
+        if (!enabled) {
+            return List.of();
+        }
+        int assigned = paymentRepository.assignMissingPartitionMonths();
+        if (assigned > 0) {
+            log.info("Assigned partition months to {} older payments", assigned);
+        }
+        int firstHotMonth = partitionMonthOf(YearMonth.now(clock).minusMonths(hotMonths - 1L));
+        List<ArchiveSegment> written = new ArrayList<>();
+        for (int month : paymentRepository.findPartitionMonthsBefore(firstHotMonth)) {
+            try {
+                ArchiveSegment segment = archive(month);
+                if (segment != null) {
+                    written.add(segment);
+                }
+            } catch (IOException | UncheckedIOException e) {
+                log.error("Archiving payment partition {} failed, rows kept in the table", month, e);
+            }
+        }
+        return written;
+    }
+
+    private ArchiveSegment archive(int month) throws IOException {
+        Files.createDirectories(directory);
+        Path temporary = directory.resolve("payments-" + month + ".seg.tmp");
+        long firstId = -1;
+        long lastId = 0;
+        try (PaymentSegment.Writer writer = new PaymentSegment.Writer(temporary, month, rowGroupRows)) {
+            List<Payment> page;
+            do {
+                page = paymentRepository.findByPartitionMonthAndIdGreaterThanOrderByIdAsc(month, lastId, Limit.of(pageSize));
+                for (Payment payment : page) {
+                    if (!PaymentStatus.isFinal(payment.getStatus())) {
+                        log.warn("Payment {} of partition {} is still {}, partition not archived",
+                                payment.getId(), month, payment.getStatus());
+                        lastId = -1;
+                        break;
+                    }
+                    writer.append(payment);
+                    firstId = firstId < 0 ? payment.getId() : firstId;
+                    lastId = payment.getId();
+                }
+            } while (lastId >= 0 && page.size() == pageSize);
+        } finally {
+            if (lastId <= 0) {
+                Files.deleteIfExists(temporary);
+            }
+        }
+        if (lastId <= 0) {
+            return null;
+        }
+
+        Path segment = directory.resolve("payments-" + month + "-" + firstId + "-" + lastId + ".seg");
+        Files.move(temporary, segment, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        int deleted = paymentRepository.deletePartition(month, lastId);
+        ArchiveSegment archived = describe(segment, month);
+        log.info("Archived payment partition {}: {} rows into {} ({} bytes), {} rows deleted",
+                month, archived.getRows(), segment.getFileName(), archived.getBytes(), deleted);
+        return archived;
+    }
+
+    /**
+     * Archived payments with a timestamp in {@code [from, to)}, in id order
+     */
+    public List<Payment> find(LocalDateTime from, LocalDateTime to) {
+        int firstMonth = Payment.partitionMonthOf(from);
+        int lastMonth = Payment.partitionMonthOf(to);
+        List<Payment> payments = new ArrayList<>();
+        long[] lastId = {0};
+        for (Path segment : segments()) {
+            int month = monthOf(segment);
+            if (month < firstMonth || month > lastMonth) {
+                continue;
+            }
+            try {
+                PaymentSegment.scan(segment, from, to, payment -> {
+                    // Segments are in id order; a rewritten partition may repeat ids
+                    if (payment.getId() > lastId[0]) {
+                        payments.add(payment);
+                        lastId[0] = payment.getId();
+                    }
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read payment segment " + segment, e);
+            }
+        }
+        return payments;
+    }
+
+    /**
+     * Every archived payment, in id order
+     */
+    public List<Payment> findAll() {
+        return find(LocalDateTime.of(1970, 1, 1, 0, 0), LocalDateTime.of(9999, 12, 31, 0, 0));
+    }
+
+    /**
+     * Segment files on disk, oldest partition first
+     */
+    public List<ArchiveSegment> listSegments() {
+        List<ArchiveSegment> described = new ArrayList<>();
+        for (Path segment : segments()) {
+            try {
+                described.add(describe(segment, monthOf(segment)));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot read payment segment " + segment, e);
+            }
+        }
+        return described;
+    }
+
+    /**
+     * Segment files ordered by first id, which is also partition order
+     */
+    private List<Path> segments() {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> SEGMENT_NAME.matcher(file.getFileName().toString()).matches())
+                    .sorted((a, b) -> Long.compare(firstIdOf(a), firstIdOf(b)))
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list payment archive " + directory, e);
+        }
+    }
+
+    private static ArchiveSegment describe(Path segment, int month) throws IOException {
+        List<RowGroup> groups = PaymentSegment.rowGroups(segment);
+        long rows = 0;
+        long first = Long.MAX_VALUE;
+        long last = Long.MIN_VALUE;
+        for (RowGroup group : groups) {
+            rows += group.rows();
+            first = Math.min(first, group.minTimestamp());
+            last = Math.max(last, group.maxTimestamp());
+        }
+        return ArchiveSegment.builder()
+                .file(segment.toString())
+                .partitionMonth(month)
+                .rows(rows)
+                .rowGroups(groups.size())
+                .bytes(Files.size(segment))
+                .firstTimestamp(groups.isEmpty() ? null : LocalDateTime.ofEpochSecond(first / 1000, 0, ZoneOffset.UTC))
+                .lastTimestamp(groups.isEmpty() ? null : LocalDateTime.ofEpochSecond(last / 1000, 0, ZoneOffset.UTC))
+                .build();
+    }
+
+    private static int monthOf(Path segment) {
+        return Integer.parseInt(matcher(segment).group(1));
+    }
+
+    private static long firstIdOf(Path segment) {
+        return Long.parseLong(matcher(segment).group(2));
+    }
+
+    private static Matcher matcher(Path segment) {
+        Matcher matcher = SEGMENT_NAME.matcher(segment.getFileName().toString());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Not a payment segment: " + segment);
+        }
+        return matcher;
+    }
+
+    private static int partitionMonthOf(YearMonth month) {
+        return month.getYear() * 100 + month.getMonthValue();
+    }
+}
@@ -0,0 +1,338 @@
+package com.altruist.projects.ucp.payment.archive;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.altruist.projects.ucp.payment.model.Payment;
+
+/**
+ * Archived payments of one monthly partition in a compressed columnar file.
+ *
+ * <p>Rows are stored in row groups of up to {@code rowGroupRows} payments. Each group starts with an
+ * uncompressed header (compressed length, row count, first and last timestamp) followed by its
+ * columns, GZIP compressed as one block: ids and timestamps delta encoded, amounts as longs, currencies,
+ * method, status and country dictionary encoded, free text length prefixed. A time range scan reads
+ * the headers and decompresses only the groups that overlap the range.</p>
+ */
+final class PaymentSegment {
+
+    private static final int MAGIC = 0x55435053; // "UCPS"
+    private static final int VERSION = 1;
+
+    private PaymentSegment() {
+    }
+
+    /**
+     * Row group header, readable without decompressing the group
+     */
+    record RowGroup(int compressedBytes, int rows, long minTimestamp, long maxTimestamp) {
+    }
+
+    /**
+     * Appends payments, in id order, to a new segment file
+     */
+    static final class Writer implements Closeable {
+        private final FileOutputStream file;
+        private final DataOutputStream out;
+        private final int rowGroupRows;
+        private final List<Payment> pending;
+        private long rows;
+
+        Writer(Path path, int partitionMonth, int rowGroupRows) throws IOException {
+            this.file = new FileOutputStream(path.toFile());
+            this.out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16));
+            this.rowGroupRows = rowGroupRows;
+            this.pending = new ArrayList<>(Math.min(rowGroupRows, 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(partitionMonth);
+        }
+
+        void append(Payment payment) throws IOException {
+            pending.add(payment);
+            rows++;
+            if (pending.size() == rowGroupRows) {
+                flushRowGroup();
+            }
+        }
+
+        long getRows() {
+            return rows;
+        }
+
+        private void flushRowGroup() throws IOException {
+            if (pending.isEmpty()) {
+                return;
+            }
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(pending.size() * 32);
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            try (DataOutputStream columns = new DataOutputStream(new GZIPOutputStream(buffer, 1 << 16))) {
+                long previousId = 0;
+                for (Payment payment : pending) {
+                    columns.writeLong(payment.getId() - previousId);
+                    previousId = payment.getId();
+                }
+                long previousTimestamp = 0;
+                for (Payment payment : pending) {
+                    long timestamp = epochMillis(payment.getTimestamp());
+                    columns.writeLong(timestamp - previousTimestamp);
+                    previousTimestamp = timestamp;
+                    min = Math.min(min, timestamp);
+                    max = Math.max(max, timestamp);
+                }
+                writeLongs(columns, Payment::getAmount);
+                writeLongs(columns, Payment::getCharges);
+                writeLongs(columns, Payment::getTotalAmount);
+                writeLongs(columns, Payment::getSettlementAmount);
+                writeDictionary(columns, payment -> payment.getCurrency() == null ? null : payment.getCurrency().getCurrencyCode());
+                writeDictionary(columns, payment -> payment.getSettlementCurrency() == null ? null
+                        : payment.getSettlementCurrency().getCurrencyCode());
+                writeDictionary(columns, Payment::getPaymentMethod);
+                writeDictionary(columns, Payment::getStatus);
+                writeDictionary(columns, Payment::getDestinationCountry);
+                writeStrings(columns, Payment::getName);
+                writeStrings(columns, Payment::getToAccount);
+                writeStrings(columns, Payment::getFromAccount);
+                writeStrings(columns, Payment::getDescription);
+                writeStrings(columns, Payment::getExternalReference);
+            }
+            out.writeInt(buffer.size());
+            out.writeInt(pending.size());
+            out.writeLong(min);
+            out.writeLong(max);
+            buffer.writeTo(out);
+            pending.clear();
+        }
+
+        private void writeLongs(DataOutputStream columns, Function<Payment, Long> column) throws IOException {
+            for (Payment payment : pending) {
+                columns.writeLong(column.apply(payment));
+            }
+        }
+
+        private void writeDictionary(DataOutputStream columns, Function<Payment, String> column) throws IOException {
+            Map<String, Integer> codes = new HashMap<>();
+            List<String> values = new ArrayList<>();
+            short[] rowCodes = new short[pending.size()];
+            for (int row = 0; row < rowCodes.length; row++) {
+                String value = column.apply(pending.get(row));
+                rowCodes[row] = value == null ? -1 : codes.computeIfAbsent(value, key -> {
+                    if (values.size() == Short.MAX_VALUE) {
+                        throw new IllegalStateException("More than " + Short.MAX_VALUE + " distinct values in a row group");
+                    }
+                    values.add(key);
+                    return values.size() - 1;
+                }).shortValue();
+            }
+            columns.writeInt(values.size());
+            for (String value : values) {
+                writeString(columns, value);
+            }
+            for (short code : rowCodes) {
+                columns.writeShort(code);
+            }
+        }
+
+        private void writeStrings(DataOutputStream columns, Function<Payment, String> column) throws IOException {
+            for (Payment payment : pending) {
+                writeString(columns, column.apply(payment));
+            }
+        }
+
+        /**
+         * Flush the last row group and force the file to disk
+         */
+        @Override
+        public void close() throws IOException {
+            try {
+                flushRowGroup();
+                out.flush();
+                file.getChannel().force(true);
+            } finally {
+                out.close();
+            }
+        }
+    }
+
+    /**
+     * Row group headers of a segment, without decompressing any group
+     */
+    static List<RowGroup> rowGroups(Path path) throws IOException {
+        List<RowGroup> groups = new ArrayList<>();
+        try (DataInputStream in = open(path)) {
+            RowGroup group;
+            while ((group = nextGroup(in)) != null) {
+                groups.add(group);
+                in.skipNBytes(group.compressedBytes());
+            }
+        }
+        return groups;
+    }
+
+    /**
+     * Hand every archived payment with a timestamp in {@code [from, to)} to {@code sink}, in id order
+     */
+    static void scan(Path path, LocalDateTime from, LocalDateTime to, Consumer<Payment> sink) throws IOException {
+        long fromMillis = epochMillis(from);
+        long toMillis = epochMillis(to);
+        try (DataInputStream in = open(path)) {
+            RowGroup group;
+            while ((group = nextGroup(in)) != null) {
+                if (group.maxTimestamp() < fromMillis || group.minTimestamp() >= toMillis) {
+                    in.skipNBytes(group.compressedBytes());
+                    continue;
+                }
+                byte[] block = in.readNBytes(group.compressedBytes());
+                for (Payment payment : decode(block, group.rows())) {
+                    long timestamp = epochMillis(payment.getTimestamp());
+                    if (timestamp >= fromMillis && timestamp < toMillis) {
+                        sink.accept(payment);
+                    }
+                }
+            }
+        }
+    }
+
+    private static DataInputStream open(Path path) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16));
+        try {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a payment segment: " + path);
+            }
+            in.readInt(); // Partition month, also in the file name
+            return in;
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    private static RowGroup nextGroup(DataInputStream in) throws IOException {
+        int compressedLength;
+        try {
+            compressedLength = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        return new RowGroup(compressedLength, in.readInt(), in.readLong(), in.readLong());
+    }
+
+    private static List<Payment> decode(byte[] block, int rows) throws IOException {
+        List<Payment> payments = new ArrayList<>(rows);
+        for (int row = 0; row < rows; row++) {
+            payments.add(new Payment());
+        }
+        try (DataInputStream columns = new DataInputStream(
+                new GZIPInputStream(new ByteArrayInputStream(block), 1 << 16))) {
+            long id = 0;
+            for (Payment payment : payments) {
+                id += columns.readLong();
+                payment.setId(id);
+            }
+            long timestamp = 0;
+            for (Payment payment : payments) {
+                timestamp += columns.readLong();
+                payment.setTimestamp(LocalDateTime.ofEpochSecond(Math.floorDiv(timestamp, 1000L),
+                        (int) Math.floorMod(timestamp, 1000L) * 1_000_000, ZoneOffset.UTC));
+                payment.setPartitionMonth(Payment.partitionMonthOf(payment.getTimestamp()));
+            }
+            for (Payment payment : payments) {
+                payment.setAmount(columns.readLong());
+            }
+            for (Payment payment : payments) {
+                payment.setCharges(columns.readLong());
+            }
+            for (Payment payment : payments) {
+                payment.setTotalAmount(columns.readLong());
+            }
+            for (Payment payment : payments) {
+                payment.setSettlementAmount(columns.readLong());
+            }
+            String[] currencies = readDictionary(columns, payments.size());
+            String[] settlementCurrencies = readDictionary(columns, payments.size());
+            String[] methods = readDictionary(columns, payments.size());
+            String[] statuses = readDictionary(columns, payments.size());
+            String[] countries = readDictionary(columns, payments.size());
+            for (int row = 0; row < rows; row++) {
+                Payment payment = payments.get(row);
+                payment.setCurrency(currencies[row] == null ? null : Currency.getInstance(currencies[row]));
+                payment.setSettlementCurrency(settlementCurrencies[row] == null ? null
+                        : Currency.getInstance(settlementCurrencies[row]));
+                payment.setPaymentMethod(methods[row]);
+                payment.setStatus(statuses[row]);
+                payment.setDestinationCountry(countries[row]);
+            }
+            for (Payment payment : payments) {
+                payment.setName(readString(columns));
+            }
+            for (Payment payment : payments) {
+                payment.setToAccount(readString(columns));
+            }
+            for (Payment payment : payments) {
+                payment.setFromAccount(readString(columns));
+            }
+            for (Payment payment : payments) {
+                payment.setDescription(readString(columns));
+            }
+            for (Payment payment : payments) {
+                payment.setExternalReference(readString(columns));
+            }
+        }
+        return payments;
+    }
+
+    private static String[] readDictionary(DataInputStream columns, int rows) throws IOException {
+        String[] values = new String[columns.readInt()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = readString(columns);
+        }
+        String[] column = new String[rows];
+        for (int row = 0; row < rows; row++) {
+            int code = columns.readShort();
+            column[row] = code < 0 ? null : values[code];
+        }
+        return column;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        return length < 0 ? null : new String(in.readNBytes(length), StandardCharsets.UTF_8);
+    }
+
+    static long epochMillis(LocalDateTime timestamp) {
+        return timestamp.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+}
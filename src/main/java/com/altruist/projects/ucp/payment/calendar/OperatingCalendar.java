@@ -0,0 +1,114 @@
+package com.altruist.projects.ucp.payment.calendar;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Open intervals of one rule over a date range, precomputed into two sorted arrays of epoch
+ * milliseconds so that "is it open" and "when does it open next" are a single binary search.
+ *
+ * <p>Intervals are resolved through {@link ZonedDateTime}, so DST transitions shorten or
+ * lengthen the affected window instead of shifting it. A window whose end is before its start
+ * runs past midnight and belongs to the day it opens (operating days and holidays are checked
+ * against that day); equal start and end mean open around the clock.</p>
+ */
+public final class OperatingCalendar {
+
+    private final long[] opens;
+    private final long[] closes; // Inclusive, matching the original "not after end time" check
+    private final long coveredUntil;
+
+    /** Last closed gap answered by {@link #nextOpen(long)}: [gapFrom, gapTo) */
+    private volatile long[] lastGap = {0L, 0L};
+
+    private OperatingCalendar(long[] opens, long[] closes, long coveredUntil) {
+        this.opens = opens;
+        this.closes = closes;
+        this.coveredUntil = coveredUntil;
+    }
+
+    /**
+     * Build the calendar for the windows opening on any local date in [from, to]
+     */
+    public static OperatingCalendar build(LocalTime start, LocalTime end, ZoneId zone, Set<DayOfWeek> days,
+                                          Collection<LocalDate> holidays, LocalDate from, LocalDate to) {
+        int capacity = (int) (to.toEpochDay() - from.toEpochDay() + 1);
+        long[] opens = new long[Math.max(capacity, 0)];
+        long[] closes = new long[opens.length];
+        int count = 0;
+
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            if (!days.contains(date.getDayOfWeek()) || holidays.contains(date)) {
+                continue;
+            }
+            long open = ZonedDateTime.of(date, start, zone).toInstant().toEpochMilli();
+            LocalDate closeDate = end.isAfter(start) ? date : date.plusDays(1);
+            long close = ZonedDateTime.of(closeDate, end, zone).toInstant().toEpochMilli();
+            if (end.equals(start)) {
+                close--; // Around the clock, up to the next day's opening
+            }
+
+            if (count > 0 && open <= closes[count - 1] + 1) {
+                closes[count - 1] = Math.max(closes[count - 1], close); // Merge back-to-back windows
+            } else {
+                opens[count] = open;
+                closes[count] = close;
+                count++;
+            }
+        }
+        long coveredUntil = ZonedDateTime.of(to.plusDays(1), LocalTime.MIDNIGHT, zone).toInstant().toEpochMilli();
+        return new OperatingCalendar(Arrays.copyOf(opens, count), Arrays.copyOf(closes, count), coveredUntil);
+    }
+
+    /**
+     * Calendar without any restriction
+     */
+    public static OperatingCalendar alwaysOpen() {
+        return new OperatingCalendar(new long[] {Long.MIN_VALUE}, new long[] {Long.MAX_VALUE}, Long.MAX_VALUE);
+    }
+
+    public boolean isOpen(long epochMilli) {
+        int index = lastOpenAtOrBefore(epochMilli);
+        return index >= 0 && epochMilli <= closes[index];
+    }
+
+    /**
+     * Next opening strictly after the given instant, or null if there is none within the calendar range
+     */
+    public Instant nextOpen(long epochMilli) {
+        long[] gap = lastGap;
+        if (epochMilli >= gap[0] && epochMilli < gap[1]) {
+            return Instant.ofEpochMilli(gap[1]);
+        }
+        int next = lastOpenAtOrBefore(epochMilli) + 1;
+        if (next >= opens.length) {
+            return null;
+        }
+        long gapFrom = next > 0 ? closes[next - 1] + 1 : Long.MIN_VALUE;
+        lastGap = new long[] {gapFrom, opens[next]};
+        return Instant.ofEpochMilli(opens[next]);
+    }
+
+    /**
+     * End of the precomputed range; the calendar must be rebuilt before answering beyond it
+     */
+    public long getCoveredUntil() {
+        return coveredUntil;
+    }
+
+    int size() {
+        return opens.length;
+    }
+
+    private int lastOpenAtOrBefore(long epochMilli) {
+        int index = Arrays.binarySearch(opens, epochMilli);
+        return index >= 0 ? index : -index - 2;
+    }
+}
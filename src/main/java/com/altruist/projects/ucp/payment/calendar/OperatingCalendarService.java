@@ -0,0 +1,129 @@
+package com.altruist.projects.ucp.payment.calendar;
+
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.altruist.projects.ucp.payment.model.CountryPaymentRule;
+import com.altruist.projects.ucp.payment.model.PaymentHoliday;
+import com.altruist.projects.ucp.payment.repository.PaymentHolidayRepository;
+import com.altruist.projects.ucp.payment.rules.RuleSet;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Answers operating-window checks from precomputed {@link OperatingCalendar}s.
+ *
+ * <p>Calendars are built lazily per rule of the active {@link RuleSet} and cover a rolling
+ * horizon ({@code payment.calendar.horizon-days}); the whole cache is dropped when a new rule set
+ * is activated, holidays change or the horizon runs out, so no lookup ever touches the database.</p>
+ */
+@Slf4j
+@Service
+public class OperatingCalendarService {
+
+    private static final long ONE_DAY_MILLIS = 86_400_000L;
+
+    private final PaymentHolidayRepository holidayRepository;
+    private final Clock clock;
+    private final int horizonDays;
+
+    private volatile CalendarCache cache;
+
+    public OperatingCalendarService(PaymentHolidayRepository holidayRepository,
+                                    Clock clock,
+                                    @Value("${payment.calendar.horizon-days:14}") int horizonDays) {
+        this.holidayRepository = holidayRepository;
+        this.clock = clock;
+        this.horizonDays = horizonDays;
+    }
+
+    /**
+     * Outcome of an operating-window check
+     * @param nextOpen next opening when closed, null when open or no opening within the horizon
+     */
+    public record WindowCheck(boolean open, Instant now, Instant nextOpen) {
+    }
+
+    /**
+     * Check whether the rule's operating window is open right now
+     */
+    public WindowCheck check(RuleSet ruleSet, CountryPaymentRule rule) {
+        long now = clock.millis();
+        OperatingCalendar calendar = calendarFor(ruleSet, rule, now);
+        if (calendar.isOpen(now)) {
+            return new WindowCheck(true, Instant.ofEpochMilli(now), null);
+        }
+        return new WindowCheck(false, Instant.ofEpochMilli(now), calendar.nextOpen(now));
+    }
+
+    /**
+     * Drop all calendars, e.g. after holidays changed
+     */
+    public void invalidate() {
+        cache = null;
+    }
+
+    OperatingCalendar calendarFor(RuleSet ruleSet, CountryPaymentRule rule, long now) {
+        if (rule.getOperationStartTime() == null || rule.getOperationEndTime() == null) {
+            return OperatingCalendar.alwaysOpen();
+        }
+        CalendarCache cached = cache;
+        CalendarCache current = cached != null && cached.ruleSetVersion == ruleSet.getVersion()
+                ? cached
+                : rebuildCache(ruleSet.getVersion());
+        // A country and method can have several rules (amount and time bands), persisted ones are told apart by id
+        String key = rule.getId() != null ? "#" + rule.getId() : rule.getCountryCode() + "/" + rule.getPaymentMethod();
+        OperatingCalendar calendar = current.calendars.computeIfAbsent(key, k -> build(rule, current.holidays, now));
+        if (now >= calendar.getCoveredUntil() - ONE_DAY_MILLIS) {
+            // Horizon almost used up, roll this calendar forward from today
+            calendar = build(rule, current.holidays, now);
+            current.calendars.put(key, calendar);
+        }
+        return calendar;
+    }
+
+    private synchronized CalendarCache rebuildCache(long ruleSetVersion) {
+        Map<String, Set<LocalDate>> holidays = new HashMap<>();
+        for (PaymentHoliday holiday : holidayRepository.findAll()) {
+            holidays.computeIfAbsent(holiday.getCountryCode().toUpperCase(Locale.ROOT), code -> new HashSet<>())
+                    .add(holiday.getHolidayDate());
+        }
+        CalendarCache rebuilt = new CalendarCache(ruleSetVersion, holidays);
+        cache = rebuilt;
+        log.debug("Operating calendar cache rebuilt for rule set version {}", ruleSetVersion);
+        return rebuilt;
+    }
+
+    private OperatingCalendar build(CountryPaymentRule rule, Map<String, Set<LocalDate>> holidays, long now) {
+        ZoneId zone = ZoneId.of(rule.getTimezone());
+        Set<DayOfWeek> days = OperatingDays.parse(rule.getOperatingDays());
+        LocalDate today = Instant.ofEpochMilli(now).atZone(zone).toLocalDate();
+        // Start a day early so an overnight window opened yesterday is still covered
+        return OperatingCalendar.build(rule.getOperationStartTime(), rule.getOperationEndTime(), zone, days,
+                holidays.getOrDefault(rule.getCountryCode().toUpperCase(Locale.ROOT), Set.of()),
+                today.minusDays(1), today.plusDays(horizonDays));
+    }
+
+    private static final class CalendarCache {
+        private final long ruleSetVersion;
+        private final Map<String, Set<LocalDate>> holidays;
+        private final Map<String, OperatingCalendar> calendars = new ConcurrentHashMap<>();
+
+        private CalendarCache(long ruleSetVersion, Map<String, Set<LocalDate>> holidays) {
+            this.ruleSetVersion = ruleSetVersion;
+            this.holidays = holidays;
+        }
+    }
+}
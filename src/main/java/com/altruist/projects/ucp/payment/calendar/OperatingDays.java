@@ -0,0 +1,52 @@
+package com.altruist.projects.ucp.payment.calendar;
+
+import java.time.DayOfWeek;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Parses operating day expressions such as {@code MON-FRI}, {@code MON,WED,SAT} or {@code FRI-MON}
+ * (ranges wrap around the week)
+ */
+public final class OperatingDays {
+
+    private OperatingDays() {
+    }
+
+    /**
+     * @return the days, or every day for a null / blank expression
+     * @throws IllegalArgumentException for an unknown day name
+     */
+    public static Set<DayOfWeek> parse(String expression) {
+        if (expression == null || expression.isBlank()) {
+            return EnumSet.allOf(DayOfWeek.class);
+        }
+        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        for (String part : expression.split(",")) {
+            String[] range = part.trim().split("-");
+            if (range.length > 2) {
+                throw new IllegalArgumentException("Invalid operating days '" + expression + "'");
+            }
+            DayOfWeek from = day(range[0], expression);
+            DayOfWeek to = range.length == 2 ? day(range[1], expression) : from;
+            for (DayOfWeek day = from; ; day = day.plus(1)) {
+                days.add(day);
+                if (day == to) {
+                    break;
+                }
+            }
+        }
+        return days;
+    }
+
+    private static DayOfWeek day(String name, String expression) {
+        String key = name.trim().toUpperCase(Locale.ROOT);
+        for (DayOfWeek day : DayOfWeek.values()) {
+            if (key.length() >= 3 && day.name().startsWith(key)) {
+                return day;
+            }
+        }
+        throw new IllegalArgumentException("Invalid day '" + name.trim() + "' in operating days '" + expression + "'");
+    }
+}
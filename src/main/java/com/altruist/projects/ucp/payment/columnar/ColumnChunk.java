@@ -0,0 +1,83 @@
+package com.altruist.projects.ucp.payment.columnar;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.ShortBuffer;
+
+/**
+ * Fixed-capacity block of payment rows stored column by column in direct (off-heap) buffers.
+ *
+ * <p>Rows are appended by one writer at a time (the store's lock); the volatile {@code size}
+ * is written last, so readers scanning rows below the size they read see complete rows.</p>
+ */
+final class ColumnChunk {
+
+    /** Off-heap bytes per row: id, timestamp, amount, charges (8 each, amounts in minor units), country and currency (2 each), method and status (1 each) */
+    static final int ROW_BYTES = 8 * 4 + 2 + 2 + 1 + 1;
+
+    final int capacity;
+    final LongBuffer paymentIds;
+    final LongBuffer timestamps;
+    final LongBuffer amounts;
+    final LongBuffer charges;
+    final ShortBuffer countries;
+    final ShortBuffer currencies;
+    final ByteBuffer methods;
+    final ByteBuffer statuses;
+
+    private volatile long minTimestamp = Long.MAX_VALUE;
+    private volatile long maxTimestamp = Long.MIN_VALUE;
+    private volatile int size;
+
+    ColumnChunk(int capacity) {
+        this.capacity = capacity;
+        this.paymentIds = allocate(capacity * 8L).asLongBuffer();
+        this.timestamps = allocate(capacity * 8L).asLongBuffer();
+        this.amounts = allocate(capacity * 8L).asLongBuffer();
+        this.charges = allocate(capacity * 8L).asLongBuffer();
+        this.countries = allocate(capacity * 2L).asShortBuffer();
+        this.currencies = allocate(capacity * 2L).asShortBuffer();
+        this.methods = allocate(capacity);
+        this.statuses = allocate(capacity);
+    }
+
+    boolean isFull() {
+        return size >= capacity;
+    }
+
+    void append(long paymentId, long timestamp, long amount, long charge, int country, int currency,
+                int method, int status) {
+        int row = size;
+        paymentIds.put(row, paymentId);
+        timestamps.put(row, timestamp);
+        amounts.put(row, amount);
+        charges.put(row, charge);
+        countries.put(row, (short) country);
+        currencies.put(row, (short) currency);
+        methods.put(row, (byte) method);
+        statuses.put(row, (byte) status);
+        if (timestamp < minTimestamp) {
+            minTimestamp = timestamp;
+        }
+        if (timestamp > maxTimestamp) {
+            maxTimestamp = timestamp;
+        }
+        size = row + 1;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Whether any row may fall into [from, to)
+     */
+    boolean overlaps(long from, long to) {
+        return size > 0 && maxTimestamp >= from && minTimestamp < to;
+    }
+
+    private static ByteBuffer allocate(long bytes) {
+        return ByteBuffer.allocateDirect(Math.toIntExact(bytes)).order(ByteOrder.nativeOrder());
+    }
+}
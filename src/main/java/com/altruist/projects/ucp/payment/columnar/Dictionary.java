@@ -0,0 +1,59 @@
+package com.altruist.projects.ucp.payment.columnar;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dictionary encoding of a low-cardinality string column (country, payment method, status)
+ * into small integer ids. Ids are stable for the lifetime of the store.
+ */
+final class Dictionary {
+
+    static final String UNKNOWN = "UNKNOWN";
+
+    private final int maxSize;
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[0];
+
+    Dictionary(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    int idOf(String value) {
+        String key = value == null ? UNKNOWN : value;
+        Integer id = ids.get(key);
+        return id != null ? id : register(key);
+    }
+
+    /**
+     * Id of an existing value, or -1 if the value never occurred
+     */
+    int find(String value) {
+        Integer id = ids.get(value);
+        return id == null ? -1 : id;
+    }
+
+    String valueOf(int id) {
+        return values[id];
+    }
+
+    int size() {
+        return values.length;
+    }
+
+    private synchronized int register(String key) {
+        Integer id = ids.get(key);
+        if (id != null) {
+            return id;
+        }
+        if (values.length >= maxSize) {
+            throw new IllegalStateException("Dictionary full, more than " + maxSize + " distinct values");
+        }
+        String[] grown = Arrays.copyOf(values, values.length + 1);
+        grown[values.length] = key;
+        values = grown; // Publish the value before its id becomes visible
+        ids.put(key, values.length - 1);
+        return values.length - 1;
+    }
+}
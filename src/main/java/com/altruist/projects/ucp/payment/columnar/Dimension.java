@@ -0,0 +1,11 @@
+package com.altruist.projects.ucp.payment.columnar;
+
+/**
+ * Column a columnar aggregate can be grouped by
+ */
+public enum Dimension {
+    NONE,
+    COUNTRY,
+    METHOD,
+    STATUS
+}
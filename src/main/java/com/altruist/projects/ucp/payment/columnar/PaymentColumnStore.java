@@ -0,0 +1,259 @@
+package com.altruist.projects.ucp.payment.columnar;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import com.altruist.projects.ucp.payment.dto.ColumnarAggregate;
+import com.altruist.projects.ucp.payment.model.Payment;
+import com.altruist.projects.ucp.payment.model.PaymentStatus;
+import com.altruist.projects.ucp.payment.repository.PaymentRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Embedded columnar copy of completed payments for month-scale reporting without hydrating
+ * {@link Payment} entities. Each row is a few dozen off-heap bytes (see {@link ColumnChunk});
+ * strings are dictionary encoded. Reports are tight loops over primitive columns, skipping
+ * whole chunks outside the requested time range. Amounts are minor units of the payment
+ * currency, so every aggregate covers one currency.
+ *
+ * <p>Rows are appended by {@code PersistenceStage} once a payment has its final status and can be
+ * rebuilt from the payment table. When {@code payment.columnar.max-chunks} is reached the oldest
+ * chunk is dropped.</p>
+ */
+@Slf4j
+@Component
+public class PaymentColumnStore {
+
+    private static final int REBUILD_PAGE_SIZE = 1000;
+
+    private final PaymentRepository paymentRepository;
+    private final int chunkRows;
+    private final int maxChunks;
+
+    private final Dictionary countries = new Dictionary(Short.MAX_VALUE);
+    private final Dictionary currencies = new Dictionary(Short.MAX_VALUE);
+    private final Dictionary methods = new Dictionary(Byte.MAX_VALUE);
+    private final Dictionary statuses = new Dictionary(Byte.MAX_VALUE);
+
+    /** Published chunk list, replaced (never mutated) under the lock */
+    private volatile ColumnChunk[] chunks = new ColumnChunk[0];
+
+    public PaymentColumnStore(PaymentRepository paymentRepository,
+                              @Value("${payment.columnar.chunk-rows:65536}") int chunkRows,
+                              @Value("${payment.columnar.max-chunks:160}") int maxChunks) {
+        this.paymentRepository = paymentRepository;
+        this.chunkRows = chunkRows;
+        this.maxChunks = maxChunks;
+    }
+
+    /**
+     * Append a completed payment
+     */
+    public void append(Payment payment) {
+        if (payment.getId() == null || payment.getTimestamp() == null) {
+            return;
+        }
+        synchronized (this) {
+            chunks = appendRow(payment, chunks);
+        }
+    }
+
+    /**
+     * Aggregate count, totals and amount percentiles of the payments in [from, to), per currency
+     * @param status optional status filter, e.g. SUCCESS
+     */
+    public List<ColumnarAggregate> aggregate(Instant from, Instant to, Dimension groupBy, String status) {
+        long fromMillis = from.toEpochMilli();
+        long toMillis = to.toEpochMilli();
+        int statusFilter = status == null ? -1 : statuses.find(status);
+        if (status != null && statusFilter < 0) {
+            return List.of();
+        }
+
+        int keys = switch (groupBy) {
+            case NONE -> 1;
+            case COUNTRY -> countries.size();
+            case METHOD -> methods.size();
+            case STATUS -> statuses.size();
+        };
+        int currencyCount = currencies.size();
+        int groups = keys * currencyCount;
+        long[] counts = new long[groups];
+        long[] amountTotals = new long[groups];
+        long[] chargeTotals = new long[groups];
+        long[][] amounts = new long[groups][];
+
+        for (ColumnChunk chunk : chunks) {
+            if (!chunk.overlaps(fromMillis, toMillis)) {
+                continue;
+            }
+            int size = chunk.size();
+            for (int row = 0; row < size; row++) {
+                long timestamp = chunk.timestamps.get(row);
+                if (timestamp < fromMillis || timestamp >= toMillis
+                        || (statusFilter >= 0 && chunk.statuses.get(row) != statusFilter)) {
+                    continue;
+                }
+                int key = switch (groupBy) {
+                    case NONE -> 0;
+                    case COUNTRY -> chunk.countries.get(row);
+                    case METHOD -> chunk.methods.get(row);
+                    case STATUS -> chunk.statuses.get(row);
+                };
+                int currency = chunk.currencies.get(row);
+                if (key >= keys || currency >= currencyCount) {
+                    continue; // Value registered after the scan started
+                }
+                int group = key * currencyCount + currency;
+                long amount = chunk.amounts.get(row);
+                int index = (int) counts[group]++;
+                amountTotals[group] += amount;
+                chargeTotals[group] += chunk.charges.get(row);
+                long[] values = amounts[group];
+                if (values == null || index == values.length) {
+                    amounts[group] = values = values == null ? new long[64] : Arrays.copyOf(values, index * 2);
+                }
+                values[index] = amount;
+            }
+        }
+
+        List<ColumnarAggregate> result = new ArrayList<>();
+        for (int group = 0; group < groups; group++) {
+            if (counts[group] == 0) {
+                continue;
+            }
+            int count = (int) counts[group];
+            long[] sorted = amounts[group];
+            Arrays.sort(sorted, 0, count);
+            int key = group / currencyCount;
+            String currency = currencies.valueOf(group % currencyCount);
+            result.add(ColumnarAggregate.builder()
+                    .key(switch (groupBy) {
+                        case NONE -> "ALL";
+                        case COUNTRY -> countries.valueOf(key);
+                        case METHOD -> methods.valueOf(key);
+                        case STATUS -> statuses.valueOf(key);
+                    })
+                    .currency(Dictionary.UNKNOWN.equals(currency) ? null : Currency.getInstance(currency))
+                    .count(count)
+                    .totalAmount(amountTotals[group])
+                    .totalCharges(chargeTotals[group])
+                    .p50Amount(percentile(sorted, count, 0.50))
+                    .p90Amount(percentile(sorted, count, 0.90))
+                    .p99Amount(percentile(sorted, count, 0.99))
+                    .build());
+        }
+        return result;
+    }
+
+    /**
+     * Reload the store from the payment table (completed payments only), paging by id.
+     * Rows appended while the rebuild runs are carried over to the new chunks.
+     * @return number of rows in the store afterwards
+     */
+    public long rebuild() {
+        ColumnChunk[] rebuilt = new ColumnChunk[0];
+        Set<Long> inFlight = new HashSet<>();
+        long lastId = 0L;
+        List<Payment> page;
+        do {
+            page = paymentRepository.findByIdGreaterThanOrderByIdAsc(lastId, Limit.of(REBUILD_PAGE_SIZE));
+            for (Payment payment : page) {
+                if (!PaymentStatus.isFinal(payment.getStatus())) {
+                    inFlight.add(payment.getId()); // Appended once it completes
+                } else if (payment.getTimestamp() != null) {
+                    rebuilt = appendRow(payment, rebuilt);
+                }
+                lastId = payment.getId();
+            }
+        } while (page.size() == REBUILD_PAGE_SIZE);
+
+        synchronized (this) {
+            // Carry over rows the facade appended that the rebuild did not see completed
+            for (ColumnChunk chunk : chunks) {
+                for (int row = 0; row < chunk.size(); row++) {
+                    long paymentId = chunk.paymentIds.get(row);
+                    if (paymentId > lastId || inFlight.contains(paymentId)) {
+                        rebuilt = copyRow(chunk, row, rebuilt);
+                    }
+                }
+            }
+            chunks = rebuilt;
+        }
+        long rows = size();
+        log.info("Columnar payment store rebuilt with {} rows in {} chunks", rows, rebuilt.length);
+        return rows;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuild();
+    }
+
+    public long size() {
+        long rows = 0;
+        for (ColumnChunk chunk : chunks) {
+            rows += chunk.size();
+        }
+        return rows;
+    }
+
+    public long getOffHeapBytes() {
+        return (long) chunks.length * chunkRows * ColumnChunk.ROW_BYTES;
+    }
+
+    private ColumnChunk[] appendRow(Payment payment, ColumnChunk[] target) {
+        ColumnChunk[] current = writableChunks(target);
+        current[current.length - 1].append(payment.getId(), toEpochMilli(payment.getTimestamp()),
+                payment.getAmount(), payment.getCharges(),
+                countries.idOf(payment.getDestinationCountry()),
+                currencies.idOf(payment.getCurrency() == null ? null : payment.getCurrency().getCurrencyCode()),
+                methods.idOf(payment.getPaymentMethod()), statuses.idOf(payment.getStatus()));
+        return current;
+    }
+
+    private ColumnChunk[] copyRow(ColumnChunk source, int row, ColumnChunk[] target) {
+        ColumnChunk[] current = writableChunks(target);
+        current[current.length - 1].append(source.paymentIds.get(row), source.timestamps.get(row),
+                source.amounts.get(row), source.charges.get(row), source.countries.get(row),
+                source.currencies.get(row), source.methods.get(row), source.statuses.get(row));
+        return current;
+    }
+
+    /**
+     * Chunk list whose last chunk has room, adding a chunk (and dropping the oldest) if needed
+     */
+    private ColumnChunk[] writableChunks(ColumnChunk[] target) {
+        if (target.length > 0 && !target[target.length - 1].isFull()) {
+            return target;
+        }
+        int keep = Math.min(target.length, maxChunks - 1);
+        ColumnChunk[] grown = new ColumnChunk[keep + 1];
+        System.arraycopy(target, target.length - keep, grown, 0, keep);
+        grown[keep] = new ColumnChunk(chunkRows);
+        return grown;
+    }
+
+    private static long percentile(long[] sorted, int count, double quantile) {
+        int rank = (int) Math.ceil(quantile * count);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+
+    private static long toEpochMilli(LocalDateTime timestamp) {
+        return timestamp.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
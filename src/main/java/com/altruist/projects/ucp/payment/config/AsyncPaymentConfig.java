@@ -0,0 +1,47 @@
+package com.altruist.projects.ucp.payment.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Executors of the payment flows that run off request threads
+ */
+@Configuration
+public class AsyncPaymentConfig {
+    
+    /**
+     * Finishes asynchronous payments (status update, response enrichment) once the gateway has
+     * answered, so gateway latency does not hold a request thread
+     */
+    @Bean
+    ThreadPoolTaskExecutor paymentCompletionExecutor(
+            @Value("${payment.async.completion-threads:8}") int threads,
+            @Value("${payment.async.queue-capacity:10000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("payment-completion-");
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+    
+    /**
+     * Runs payment retries, which may block on a synchronous gateway, apart from the completions of
+     * live payments so a retry backlog cannot starve them
+     */
+    @Bean
+    ThreadPoolTaskExecutor paymentRetryExecutor(
+            @Value("${payment.retry.threads:4}") int threads,
+            @Value("${payment.retry.queue-capacity:1000}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("payment-retry-");
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+}
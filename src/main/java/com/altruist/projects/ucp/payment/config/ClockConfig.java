@@ -0,0 +1,18 @@
+package com.altruist.projects.ucp.payment.config;
+
+import java.time.Clock;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Clock used for time-dependent payment rules, replaceable in tests
+ */
+@Configuration
+public class ClockConfig {
+    
+    @Bean
+    Clock clock() {
+        return Clock.systemUTC();
+    }
+}
@@ -1,36 +1,61 @@
 package com.altruist.projects.ucp.payment.config;
 
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalTime;
 import java.util.List;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 import com.altruist.projects.ucp.payment.model.CountryPaymentRule;
+import com.altruist.projects.ucp.payment.dto.RuleImportResponse;
 import com.altruist.projects.ucp.payment.repository.CountryPaymentRuleRepository;
+import com.altruist.projects.ucp.payment.rules.CountryPaymentRuleImportService;
+import com.altruist.projects.ucp.payment.rules.CountryPaymentRuleRegistry;
+import com.altruist.projects.ucp.payment.rules.RuleImportFormat;
 
 import lombok.extern.slf4j.Slf4j;
 
 /**
- * Configuration to initialize default country payment rules
+ * Configuration to initialize country payment rules, either from the rule file given in
+ * payment.rules.import-file or from the built-in defaults
  */
 @Slf4j
 @Configuration
 public class CountryPaymentRuleConfig {
     
     @Bean
-    CommandLineRunner initCountryRules(CountryPaymentRuleRepository repository) {
+    CommandLineRunner initCountryRules(CountryPaymentRuleRepository repository,
+                                       CountryPaymentRuleRegistry ruleRegistry,
+                                       CountryPaymentRuleImportService importService,
+                                       @Value("${payment.rules.import-file:}") String importFile) {
         return args -> {
+            if (!importFile.isBlank()) {
+                log.info("Importing country payment rules from {}", importFile);
+                try (InputStream in = Files.newInputStream(Path.of(importFile))) {
+                    RuleImportResponse result = importService.importRules(in, RuleImportFormat.fromFileName(importFile));
+                    if (CountryPaymentRuleImportService.REJECTED.equals(result.getStatus())) {
+                        throw new IllegalStateException("Invalid country payment rule file " + importFile
+                                + ": " + result.getErrors());
+                    }
+                }
+                return;
+            }
+            
             if (repository.count() == 0) {
                 log.info("Initializing default country payment rules...");
                 
+                // Amount limits are minor units of the local currency (100_00 = 100.00)
                 List<CountryPaymentRule> defaultRules = List.of(
                     // India - INR rules
                     CountryPaymentRule.builder()
                             .countryCode("IN")
-                            .minAmount(100.0)
-                            .maxAmount(200000.0)
+                            .minAmount(100_00L)
+                            .maxAmount(200_000_00L)
                             .operationStartTime(LocalTime.of(6, 0))  // 6:00 AM
                             .operationEndTime(LocalTime.of(22, 0))   // 10:00 PM
                             .timezone("Asia/Kolkata")
@@ -41,8 +66,8 @@ public class CountryPaymentRuleConfig {
                     // United States - USD rules
                     CountryPaymentRule.builder()
                             .countryCode("US")
-                            .minAmount(10.0)
-                            .maxAmount(10000.0)
+                            .minAmount(10_00L)
+                            .maxAmount(10_000_00L)
                             .operationStartTime(LocalTime.of(8, 0))  // 8:00 AM
                             .operationEndTime(LocalTime.of(20, 0))   // 8:00 PM
                             .timezone("America/New_York")
@@ -53,8 +78,8 @@ public class CountryPaymentRuleConfig {
                     // United Kingdom - GBP rules
                     CountryPaymentRule.builder()
                             .countryCode("GB")
-                            .minAmount(5.0)
-                            .maxAmount(5000.0)
+                            .minAmount(5_00L)
+                            .maxAmount(5_000_00L)
                             .operationStartTime(LocalTime.of(7, 0))  // 7:00 AM
                             .operationEndTime(LocalTime.of(21, 0))   // 9:00 PM
                             .timezone("Europe/London")
@@ -65,8 +90,8 @@ public class CountryPaymentRuleConfig {
                     // Singapore - SGD rules
                     CountryPaymentRule.builder()
                             .countryCode("SG")
-                            .minAmount(20.0)
-                            .maxAmount(50000.0)
+                            .minAmount(20_00L)
+                            .maxAmount(50_000_00L)
                             .operationStartTime(LocalTime.of(8, 0))  // 8:00 AM
                             .operationEndTime(LocalTime.of(23, 0))   // 11:00 PM
                             .timezone("Asia/Singapore")
@@ -77,8 +102,8 @@ public class CountryPaymentRuleConfig {
                     // Australia - AUD rules
                     CountryPaymentRule.builder()
                             .countryCode("AU")
-                            .minAmount(10.0)
-                            .maxAmount(15000.0)
+                            .minAmount(10_00L)
+                            .maxAmount(15_000_00L)
                             .operationStartTime(LocalTime.of(7, 0))  // 7:00 AM
                             .operationEndTime(LocalTime.of(22, 0))   // 10:00 PM
                             .timezone("Australia/Sydney")
@@ -92,6 +117,7 @@ public class CountryPaymentRuleConfig {
             } else {
                 log.info("Country payment rules already exist, skipping initialization");
             }
+            ruleRegistry.refresh();
         };
     }
 }
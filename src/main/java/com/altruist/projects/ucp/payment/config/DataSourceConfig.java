@@ -0,0 +1,67 @@
+package com.altruist.projects.ucp.payment.config;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import com.altruist.projects.ucp.payment.datasource.ReadWriteRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Separate connection pools for payments and for read-only work (history, rule listings, reports,
+ * reconciliation), so a large read cannot take the connections payment inserts need. The read pool
+ * connects to payment.datasource.read.url, a replica kept in sync by database replication, or to the
+ * primary database when it is empty.
+ */
+@Slf4j
+@Configuration
+public class DataSourceConfig {
+    
+    @Bean(destroyMethod = "close")
+    HikariDataSource writeDataSource(@Value("${spring.datasource.url}") String url,
+                                     @Value("${spring.datasource.username:}") String username,
+                                     @Value("${spring.datasource.password:}") String password,
+                                     @Value("${payment.datasource.write.pool-size:20}") int poolSize) {
+        return pool("ucp-write", url, username, password, poolSize, false);
+    }
+    
+    @Bean(destroyMethod = "close")
+    HikariDataSource readDataSource(@Value("${spring.datasource.url}") String writeUrl,
+                                    @Value("${spring.datasource.username:}") String writeUsername,
+                                    @Value("${spring.datasource.password:}") String writePassword,
+                                    @Value("${payment.datasource.read.url:}") String url,
+                                    @Value("${payment.datasource.read.username:}") String username,
+                                    @Value("${payment.datasource.read.password:}") String password,
+                                    @Value("${payment.datasource.read.pool-size:10}") int poolSize) {
+        if (url.isBlank()) {
+            log.info("No read replica configured, read-only transactions use a separate pool on the primary");
+            return pool("ucp-read", writeUrl, writeUsername, writePassword, poolSize, true);
+        }
+        return pool("ucp-read", url, username, password, poolSize, true);
+    }
+    
+    @Bean
+    @Primary
+    DataSource dataSource(@Qualifier("writeDataSource") DataSource writeDataSource,
+                          @Qualifier("readDataSource") DataSource readDataSource) {
+        return ReadWriteRoutingDataSource.lazy(writeDataSource, readDataSource);
+    }
+    
+    private static HikariDataSource pool(String name, String url, String username, String password,
+                                         int poolSize, boolean readOnly) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(name);
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setMaximumPoolSize(poolSize);
+        dataSource.setReadOnly(readOnly);
+        return dataSource;
+    }
+}
@@ -0,0 +1,78 @@
+package com.altruist.projects.ucp.payment.config;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.altruist.projects.ucp.payment.fx.FxRateService;
+import com.altruist.projects.ucp.payment.repository.FxRateRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Configuration to initialize the FX rate table, either from the CSV file given in
+ * payment.fx.rates-file ({@code currency,rate} per line, rate = units per base currency unit)
+ * or from built-in indicative rates against USD
+ */
+@Slf4j
+@Configuration
+public class FxRateConfig {
+    
+    @Bean
+    CommandLineRunner initFxRates(FxRateRepository repository,
+                                  FxRateService fxRateService,
+                                  @Value("${payment.fx.rates-file:}") String ratesFile) {
+        return args -> {
+            if (!ratesFile.isBlank()) {
+                log.info("Loading FX rates from {}", ratesFile);
+                fxRateService.update(readRates(Path.of(ratesFile)));
+                return;
+            }
+            
+            if (repository.count() == 0 && !"USD".equals(fxRateService.getBaseCurrency().getCurrencyCode())) {
+                log.warn("No FX rates configured for base currency {}, only same-currency payments will pass",
+                        fxRateService.getBaseCurrency());
+                fxRateService.refresh();
+            } else if (repository.count() == 0) {
+                log.info("Initializing default FX rates against {}...", fxRateService.getBaseCurrency());
+                fxRateService.update(Map.of(
+                        "USD", new BigDecimal("1"),
+                        "INR", new BigDecimal("83.25"),
+                        "GBP", new BigDecimal("0.79"),
+                        "EUR", new BigDecimal("0.92"),
+                        "SGD", new BigDecimal("1.34"),
+                        "AUD", new BigDecimal("1.52")));
+            } else {
+                fxRateService.refresh();
+            }
+        };
+    }
+    
+    private static Map<String, BigDecimal> readRates(Path file) throws IOException {
+        Map<String, BigDecimal> rates = new LinkedHashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] values = line.split(",");
+                if (line.isBlank() || line.startsWith("#") || values[0].trim().equalsIgnoreCase("currency")) {
+                    continue;
+                }
+                if (values.length != 2) {
+                    throw new IllegalStateException("Invalid FX rate line in " + file + ": " + line);
+                }
+                rates.put(values[0].trim().toUpperCase(), new BigDecimal(values[1].trim()));
+            }
+        }
+        return rates;
+    }
+}
@@ -0,0 +1,26 @@
+package com.altruist.projects.ucp.payment.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.altruist.projects.ucp.payment.ids.SnowflakeIdGenerator;
+import com.altruist.projects.ucp.payment.ids.SnowflakeIdentifierGenerator;
+
+/**
+ * Hands this replica's node number to the Hibernate id generator of payments; every replica writing
+ * to the same tables needs its own number
+ */
+@Configuration
+public class PaymentIdConfig {
+    
+    @Bean
+    HibernatePropertiesCustomizer paymentIdNodeCustomizer(@Value("${payment.ids.node:0}") int node) {
+        if (node < 0 || node > SnowflakeIdGenerator.MAX_NODE) {
+            throw new IllegalArgumentException("payment.ids.node must be between 0 and "
+                    + SnowflakeIdGenerator.MAX_NODE + " but was " + node);
+        }
+        return properties -> properties.put(SnowflakeIdentifierGenerator.NODE_SETTING, node);
+    }
+}
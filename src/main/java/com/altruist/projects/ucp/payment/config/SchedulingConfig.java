@@ -0,0 +1,12 @@
+package com.altruist.projects.ucp.payment.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables scheduled background jobs (e.g. analytics rollup persistence)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,140 @@
+package com.altruist.projects.ucp.payment.controller;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.altruist.projects.ucp.payment.analytics.PaymentAnalytics;
+import com.altruist.projects.ucp.payment.columnar.Dimension;
+import com.altruist.projects.ucp.payment.columnar.PaymentColumnStore;
+import com.altruist.projects.ucp.payment.dto.ColumnarAggregate;
+import com.altruist.projects.ucp.payment.dto.PaymentRollup;
+import com.altruist.projects.ucp.payment.duplicate.DuplicatePaymentDetector;
+import com.altruist.projects.ucp.payment.lanes.AccountLanes;
+import com.altruist.projects.ucp.payment.model.PaymentSummary;
+import com.altruist.projects.ucp.payment.pipeline.StageTimings;
+import com.altruist.projects.ucp.payment.retry.PaymentRetryScheduler;
+import com.altruist.projects.ucp.payment.risk.VelocityRiskScorer;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Payment volume, charges and failure rates for ops dashboards
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/analytics")
+@RequiredArgsConstructor
+public class AnalyticsController {
+    
+    private final PaymentAnalytics paymentAnalytics;
+    private final PaymentColumnStore columnStore;
+    private final DuplicatePaymentDetector duplicateDetector;
+    private final VelocityRiskScorer riskScorer;
+    private final StageTimings stageTimings;
+    private final PaymentRetryScheduler retryScheduler;
+    private final AccountLanes accountLanes;
+    
+    /**
+     * Live rollups of the most recent buckets, newest first
+     */
+    @GetMapping("/payments")
+    public ResponseEntity<List<PaymentRollup>> getRollups(
+            @RequestParam(defaultValue = PaymentAnalytics.MINUTE) String granularity,
+            @RequestParam(defaultValue = "60") int buckets,
+            @RequestParam(required = false) String country) {
+        try {
+            return ResponseEntity.ok(paymentAnalytics.rollups(granularity, buckets, country));
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid analytics request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * Persisted summaries (beyond the in-memory window) since the given instant
+     */
+    @GetMapping("/payments/summaries")
+    @Transactional(readOnly = true)
+    public ResponseEntity<List<PaymentSummary>> getSummaries(
+            @RequestParam(defaultValue = PaymentAnalytics.HOUR) String granularity,
+            @RequestParam Instant from) {
+        try {
+            return ResponseEntity.ok(paymentAnalytics.persistedSince(granularity, from));
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid analytics request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * Count, totals and amount percentiles over any time range, scanned from the columnar store
+     */
+    @GetMapping("/payments/report")
+    public ResponseEntity<List<ColumnarAggregate>> getReport(
+            @RequestParam Instant from,
+            @RequestParam Instant to,
+            @RequestParam(defaultValue = "NONE") Dimension groupBy,
+            @RequestParam(required = false) String status) {
+        return ResponseEntity.ok(columnStore.aggregate(from, to, groupBy, status));
+    }
+    
+    /**
+     * Reload the columnar store from the payment table
+     */
+    @PostMapping("/payments/report/rebuild")
+    public ResponseEntity<Map<String, Long>> rebuildReportStore() {
+        log.info("Rebuilding columnar payment store");
+        long rows = columnStore.rebuild();
+        return ResponseEntity.ok(Map.of("rows", rows, "offHeapBytes", columnStore.getOffHeapBytes()));
+    }
+    
+    /**
+     * Duplicate detection counters and Bloom filter false-positive rates
+     */
+    @GetMapping("/duplicates")
+    public ResponseEntity<Map<String, Object>> getDuplicateStats() {
+        return ResponseEntity.ok(duplicateDetector.snapshot());
+    }
+    
+    /**
+     * Retry queue depth and outcomes on this node
+     */
+    @GetMapping("/retries")
+    public ResponseEntity<Map<String, Object>> getRetryStats() {
+        return ResponseEntity.ok(retryScheduler.snapshot());
+    }
+    
+    /**
+     * Per-account payment mailboxes: accounts in flight, queued payments and rejections
+     */
+    @GetMapping("/lanes")
+    public ResponseEntity<Map<String, Object>> getLaneStats() {
+        return ResponseEntity.ok(accountLanes.snapshot());
+    }
+    
+    /**
+     * Risk decisions and scoring latency
+     */
+    @GetMapping("/risk")
+    public ResponseEntity<Map<String, Object>> getRiskStats() {
+        return ResponseEntity.ok(riskScorer.snapshot());
+    }
+    
+    /**
+     * Calls, payments ended and latency of every payment pipeline stage, in chain order
+     */
+    @GetMapping("/stages")
+    public ResponseEntity<List<Map<String, Object>>> getStageTimings() {
+        return ResponseEntity.ok(stageTimings.snapshot());
+    }
+}
@@ -0,0 +1,44 @@
+package com.altruist.projects.ucp.payment.controller;
+
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.altruist.projects.ucp.payment.archive.PaymentArchive;
+import com.altruist.projects.ucp.payment.dto.ArchiveSegment;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Controller for the payment partition archive
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/archive")
+@RequiredArgsConstructor
+public class ArchiveController {
+    
+    private final PaymentArchive paymentArchive;
+    
+    /**
+     * Archive cold partitions now
+     */
+    @PostMapping("/run")
+    public ResponseEntity<List<ArchiveSegment>> run() {
+        log.info("Archiving cold payment partitions on demand");
+        return ResponseEntity.ok(paymentArchive.archiveColdPartitions());
+    }
+    
+    /**
+     * Segment files on disk
+     */
+    @GetMapping("/segments")
+    public ResponseEntity<List<ArchiveSegment>> getSegments() {
+        return ResponseEntity.ok(paymentArchive.listSegments());
+    }
+}
@@ -0,0 +1,37 @@
+package com.altruist.projects.ucp.payment.controller;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.altruist.projects.ucp.payment.dto.PaymentRequest;
+import com.altruist.projects.ucp.payment.dto.PaymentResponse;
+import com.altruist.projects.ucp.payment.service.PaymentFacade;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Non-blocking variant of {@link PaymentController#processPayment(PaymentRequest)}. The request
+ * thread is released while the gateway call is in flight (servlet async), so concurrent payments
+ * are bounded by the concurrency limits rather than the server thread pool.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/async/payments")
+@RequiredArgsConstructor
+public class AsyncPaymentController {
+    
+    private final PaymentFacade paymentFacade;
+    
+    @PostMapping("/process")
+    public CompletableFuture<ResponseEntity<PaymentResponse>> processPayment(@RequestBody PaymentRequest request) {
+        log.info("Received async payment request for: {}", request.getName());
+        return paymentFacade.processPaymentAsync(request).thenApply(PaymentController::toResponseEntity);
+    }
+    
+}
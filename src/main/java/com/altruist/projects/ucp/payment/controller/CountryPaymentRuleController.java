@@ -1,25 +1,47 @@
 package com.altruist.projects.ucp.payment.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
 
+import com.altruist.projects.ucp.payment.calendar.OperatingCalendarService;
+import com.altruist.projects.ucp.payment.dto.RuleImportResponse;
 import com.altruist.projects.ucp.payment.model.CountryPaymentRule;
+import com.altruist.projects.ucp.payment.model.PaymentHoliday;
 import com.altruist.projects.ucp.payment.repository.CountryPaymentRuleRepository;
+import com.altruist.projects.ucp.payment.repository.PaymentHolidayRepository;
+import com.altruist.projects.ucp.payment.rules.CountryPaymentRuleImportService;
+import com.altruist.projects.ucp.payment.rules.CountryPaymentRuleRegistry;
+import com.altruist.projects.ucp.payment.rules.RuleImportFormat;
+import com.altruist.projects.ucp.payment.rules.RuleSet;
+import com.altruist.projects.ucp.payment.web.CachedJsonResponse;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import tools.jackson.databind.json.JsonMapper;
 
 /**
- * Controller for managing country payment rules
+ * Controller for managing country payment rules.
+ * Rule reads are served from the active {@link RuleSet}: each snapshot version is serialized once,
+ * tagged with a strong ETag and answered with 304 on a matching If-None-Match.
  */
 @Slf4j
 @RestController
@@ -28,26 +50,38 @@ import lombok.extern.slf4j.Slf4j;
 public class CountryPaymentRuleController {
     
     private final CountryPaymentRuleRepository ruleRepository;
+    private final CountryPaymentRuleRegistry ruleRegistry;
+    private final CountryPaymentRuleImportService importService;
+    private final PaymentHolidayRepository holidayRepository;
+    private final OperatingCalendarService calendarService;
+    private final JsonMapper jsonMapper;
+    private volatile RuleResponses responses;
     
     /**
      * Get all country payment rules
      */
     @GetMapping
-    public ResponseEntity<List<CountryPaymentRule>> getAllRules() {
-        log.info("Fetching all country payment rules");
-        List<CountryPaymentRule> rules = ruleRepository.findAll();
-        return ResponseEntity.ok(rules);
+    public ResponseEntity<byte[]> getAllRules(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.debug("Fetching all country payment rules");
+        return responses().all.toResponse(ifNoneMatch);
     }
     
     /**
-     * Get rule by country code
+     * Get the country-wide rule of a country
      */
     @GetMapping("/{countryCode}")
-    public ResponseEntity<CountryPaymentRule> getRuleByCountry(@PathVariable String countryCode) {
-        log.info("Fetching rule for country: {}", countryCode);
-        return ruleRepository.findByCountryCodeAndEnabledTrue(countryCode)
-                .map(ResponseEntity::ok)
-                .orElse(ResponseEntity.notFound().build());
+    public ResponseEntity<byte[]> getRuleByCountry(
+            @PathVariable String countryCode,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.debug("Fetching rule for country: {}", countryCode);
+        RuleResponses current = responses();
+        // Only countries with a rule are cached, so arbitrary path values cannot grow the map
+        CachedJsonResponse response = current.byCountry.computeIfAbsent(countryCode.toUpperCase(Locale.ROOT),
+                code -> current.ruleSet.find(code, null)
+                        .map(rule -> CachedJsonResponse.of(jsonMapper, rule))
+                        .orElse(null));
+        return response != null ? response.toResponse(ifNoneMatch) : ResponseEntity.notFound().build();
     }
     
     /**
@@ -57,6 +91,7 @@ public class CountryPaymentRuleController {
     public ResponseEntity<CountryPaymentRule> createRule(@RequestBody CountryPaymentRule rule) {
         log.info("Creating new payment rule for country: {}", rule.getCountryCode());
         CountryPaymentRule savedRule = ruleRepository.save(rule);
+        ruleRegistry.refresh();
         return ResponseEntity.status(HttpStatus.CREATED).body(savedRule);
     }
     
@@ -73,8 +108,88 @@ public class CountryPaymentRuleController {
                 .map(existingRule -> {
                     rule.setId(id);
                     CountryPaymentRule updated = ruleRepository.save(rule);
+                    ruleRegistry.refresh();
                     return ResponseEntity.ok(updated);
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
+    
+    /**
+     * Get bank holidays of a country
+     */
+    @GetMapping("/{countryCode}/holidays")
+    @Transactional(readOnly = true)
+    public ResponseEntity<List<PaymentHoliday>> getHolidays(@PathVariable String countryCode) {
+        return ResponseEntity.ok(holidayRepository.findByCountryCode(countryCode));
+    }
+    
+    /**
+     * Add a bank holiday; no operating window of the country opens on that date
+     */
+    @PostMapping("/{countryCode}/holidays")
+    public ResponseEntity<PaymentHoliday> addHoliday(
+            @PathVariable String countryCode,
+            @RequestBody PaymentHoliday holiday) {
+        log.info("Adding payment holiday {} for country: {}", holiday.getHolidayDate(), countryCode);
+        holiday.setId(null);
+        holiday.setCountryCode(countryCode);
+        PaymentHoliday saved = holidayRepository.save(holiday);
+        calendarService.invalidate();
+        return ResponseEntity.status(HttpStatus.CREATED).body(saved);
+    }
+    
+    /**
+     * Replace all rules with a CSV (text/csv) or JSON array (application/json) request body.
+     * The set is validated as a whole and activated atomically, or rejected with 400 and every error found.
+     */
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/json"})
+    public ResponseEntity<RuleImportResponse> importRules(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) throws IOException {
+        log.info("Importing country payment rules ({})", contentType);
+        return toResponse(importService.importRules(body, RuleImportFormat.fromContentType(contentType)));
+    }
+    
+    /**
+     * Same as the raw import, for a rule file uploaded as multipart form data (field "file")
+     */
+    @PostMapping(value = "/import", consumes = "multipart/form-data")
+    public ResponseEntity<RuleImportResponse> importRuleFile(
+            @RequestParam("file") MultipartFile file) throws IOException {
+        log.info("Importing country payment rules from file: {}", file.getOriginalFilename());
+        try (InputStream in = file.getInputStream()) {
+            return toResponse(importService.importRules(in, RuleImportFormat.fromFileName(file.getOriginalFilename())));
+        }
+    }
+    
+    /**
+     * Serialized responses of the active rule set, rebuilt when a create, update or import activates a new version
+     */
+    private RuleResponses responses() {
+        RuleSet ruleSet = ruleRegistry.current();
+        RuleResponses current = responses;
+        if (current == null || current.ruleSet.getVersion() != ruleSet.getVersion()) {
+            current = new RuleResponses(ruleSet, CachedJsonResponse.of(jsonMapper, ruleSet.getAllRules()));
+            responses = current;
+        }
+        return current;
+    }
+    
+    private static final class RuleResponses {
+        private final RuleSet ruleSet;
+        private final CachedJsonResponse all;
+        private final Map<String, CachedJsonResponse> byCountry = new ConcurrentHashMap<>();
+        
+        private RuleResponses(RuleSet ruleSet, CachedJsonResponse all) {
+            this.ruleSet = ruleSet;
+            this.all = all;
+        }
+    }
+    
+    private ResponseEntity<RuleImportResponse> toResponse(RuleImportResponse response) {
+        if (CountryPaymentRuleImportService.REJECTED.equals(response.getStatus())) {
+            return ResponseEntity.badRequest().body(response);
+        }
+        return ResponseEntity.ok(response);
+    }
 }
@@ -0,0 +1,93 @@
+package com.altruist.projects.ucp.payment.controller;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.altruist.projects.ucp.payment.diagnostics.FlightRecorderService;
+import com.altruist.projects.ucp.payment.dto.FlightRecording;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Admin controller for on-demand Java Flight Recorder recordings
+ * TODO: Restrict to operators once authentication is in place
+ */
+@Slf4j
+@RestController
+@RequestMapping("/admin/jfr")
+@RequiredArgsConstructor
+public class FlightRecorderController {
+    
+    private final FlightRecorderService flightRecorder;
+    
+    /**
+     * Start a bounded recording; 409 if one is running, 400 for unknown settings
+     */
+    @PostMapping("/start")
+    public ResponseEntity<FlightRecording> start(
+            @RequestParam(defaultValue = "300") long durationSeconds,
+            @RequestParam(defaultValue = "default") String settings) throws IOException {
+        try {
+            return ResponseEntity.ok(flightRecorder.start(Duration.ofSeconds(durationSeconds), settings));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    /**
+     * Stop the running recording and write its file; 409 if none is running
+     */
+    @PostMapping("/stop")
+    public ResponseEntity<FlightRecording> stop() {
+        try {
+            return ResponseEntity.ok(flightRecorder.stop());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+    
+    /**
+     * The current or last recording
+     */
+    @GetMapping
+    public ResponseEntity<FlightRecording> status() {
+        return flightRecorder.status()
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    /**
+     * Download the last finished recording, for JDK Mission Control or {@code jfr print}
+     */
+    @GetMapping("/download")
+    public ResponseEntity<Resource> download() {
+        return flightRecorder.finishedFile()
+                .map(FlightRecorderController::attachment)
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    private static ResponseEntity<Resource> attachment(Path file) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(file.getFileName().toString()).build().toString())
+                .body(new FileSystemResource(file));
+    }
+}
@@ -0,0 +1,61 @@
+package com.altruist.projects.ucp.payment.controller;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.altruist.projects.ucp.payment.dto.FxRatesResponse;
+import com.altruist.projects.ucp.payment.fx.FxRateService;
+import com.altruist.projects.ucp.payment.fx.FxRateSnapshot;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Controller for the FX rates used to convert payments between currencies
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/fx/rates")
+@RequiredArgsConstructor
+public class FxRateController {
+    
+    private final FxRateService fxRateService;
+    
+    /**
+     * Active rate snapshot
+     */
+    @GetMapping
+    public ResponseEntity<FxRatesResponse> getRates() {
+        return ResponseEntity.ok(toResponse(fxRateService.current()));
+    }
+    
+    /**
+     * Insert or update rates, e.g. {"INR": 83.40, "GBP": 0.78}, and activate them
+     */
+    @PutMapping
+    public ResponseEntity<FxRatesResponse> updateRates(@RequestBody Map<String, BigDecimal> rates) {
+        log.info("Updating {} FX rates", rates.size());
+        try {
+            return ResponseEntity.ok(toResponse(fxRateService.update(rates)));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rejected FX rate update: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    private static FxRatesResponse toResponse(FxRateSnapshot snapshot) {
+        return FxRatesResponse.builder()
+                .baseCurrency(snapshot.getBaseCurrency().getCurrencyCode())
+                .version(snapshot.getVersion())
+                .loadedAt(snapshot.getLoadedAt())
+                .rates(snapshot.getRates())
+                .build();
+    }
+}
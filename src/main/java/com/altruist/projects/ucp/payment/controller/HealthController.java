@@ -0,0 +1,58 @@
+package com.altruist.projects.ucp.payment.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.altruist.projects.ucp.payment.dto.HealthStatusResponse;
+import com.altruist.projects.ucp.payment.health.PaymentLoadMonitor;
+import com.altruist.projects.ucp.payment.limit.ConcurrencyLimiterRegistry;
+import com.altruist.projects.ucp.payment.routing.GatewayRouter;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Liveness and readiness probes for container health checks and the load balancer
+ */
+@Slf4j
+@RestController
+@RequestMapping("/health")
+@RequiredArgsConstructor
+public class HealthController {
+
+    private final PaymentLoadMonitor loadMonitor;
+    private final ConcurrencyLimiterRegistry concurrencyLimiters;
+    private final GatewayRouter gatewayRouter;
+
+    /**
+     * Liveness - DOWN only when the payment pipeline is stalled and the replica should be restarted
+     */
+    @GetMapping("/live")
+    public ResponseEntity<HealthStatusResponse> liveness() {
+        return toResponse(loadMonitor.liveness());
+    }
+
+    /**
+     * Readiness - DOWN when the replica is saturated and should be taken out of rotation
+     */
+    @GetMapping("/ready")
+    public ResponseEntity<HealthStatusResponse> readiness() {
+        HealthStatusResponse health = loadMonitor.readiness();
+        health.getDetails().put("concurrencyLimits", concurrencyLimiters.snapshot());
+        health.getDetails().put("routing", gatewayRouter.snapshot());
+        if (PaymentLoadMonitor.DOWN.equals(health.getStatus())) {
+            log.warn("Readiness check failed: {}", health.getReasons());
+        }
+        return toResponse(health);
+    }
+
+    private ResponseEntity<HealthStatusResponse> toResponse(HealthStatusResponse health) {
+        HttpStatus status = PaymentLoadMonitor.UP.equals(health.getStatus())
+                ? HttpStatus.OK
+                : HttpStatus.SERVICE_UNAVAILABLE;
+        return ResponseEntity.status(status).body(health);
+    }
+}
@@ -0,0 +1,57 @@
+package com.altruist.projects.ucp.payment.controller;
+
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.altruist.projects.ucp.payment.dto.AccountBalance;
+import com.altruist.projects.ucp.payment.ledger.AccountLedger;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Controller for ledger balances
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/ledger")
+@RequiredArgsConstructor
+public class LedgerController {
+    
+    private final AccountLedger ledger;
+    
+    /**
+     * Balances of an account per currency, from memory
+     */
+    @GetMapping("/accounts/{account}/balances")
+    public ResponseEntity<List<AccountBalance>> getBalances(@PathVariable String account) {
+        return ResponseEntity.ok(ledger.getBalances(account));
+    }
+    
+    /**
+     * Snapshot the balances now
+     */
+    @PostMapping("/snapshots")
+    public ResponseEntity<Map<String, Object>> takeSnapshot() {
+        log.info("Taking ledger snapshot on demand");
+        int balances = ledger.takeSnapshot();
+        Map<String, Object> stats = ledger.snapshot();
+        stats.put("snapshotBalances", balances);
+        return ResponseEntity.ok(stats);
+    }
+    
+    /**
+     * Posting, commit and snapshot counters
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        return ResponseEntity.ok(ledger.snapshot());
+    }
+}
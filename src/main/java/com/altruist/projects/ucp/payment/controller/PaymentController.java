@@ -1,22 +1,29 @@
 package com.altruist.projects.ucp.payment.controller;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.altruist.projects.ucp.payment.dto.PaymentRequest;
 import com.altruist.projects.ucp.payment.dto.PaymentResponse;
 import com.altruist.projects.ucp.payment.model.Payment;
 import com.altruist.projects.ucp.payment.service.PaymentFacade;
+import com.altruist.projects.ucp.payment.web.CachedJsonResponse;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import tools.jackson.databind.json.JsonMapper;
 
 @Slf4j
 @RestController
@@ -25,32 +32,59 @@ import lombok.extern.slf4j.Slf4j;
 public class PaymentController {
     
     private final PaymentFacade paymentFacade;
+    private final JsonMapper jsonMapper;
+    private volatile CachedJsonResponse gateways; // The gateway set is fixed at startup
     
     @PostMapping("/process")
     public ResponseEntity<PaymentResponse> processPayment(@RequestBody PaymentRequest request) {
         log.info("Received payment request for: {}", request.getName());
         
-        PaymentResponse response = paymentFacade.processPayment(request);
-        
+        return toResponseEntity(paymentFacade.processPayment(request));
+    }
+    
+    /**
+     * SUCCESS -> 200, RETRYING (queued for retry) -> 202, REJECTED (load shed) -> 503 with Retry-After,
+     * DUPLICATE -> 409, anything else -> 400
+     */
+    static ResponseEntity<PaymentResponse> toResponseEntity(PaymentResponse response) {
         if ("SUCCESS".equals(response.getStatus())) {
             return ResponseEntity.ok(response);
+        } else if ("RETRYING".equals(response.getStatus())) {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+        } else if ("REJECTED".equals(response.getStatus())) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(response.getRetryAfterSeconds()))
+                    .body(response);
+        } else if ("DUPLICATE".equals(response.getStatus())) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
         } else {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
         }
     }
     
     @GetMapping("/gateways")
-    public ResponseEntity<List<String>> getAvailableGateways() {
-        log.info("Fetching available payment gateways");
-        return ResponseEntity.ok(paymentFacade.getAvailableGateways());
+    public ResponseEntity<byte[]> getAvailableGateways(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.debug("Fetching available payment gateways");
+        CachedJsonResponse response = gateways;
+        if (response == null) {
+            response = CachedJsonResponse.of(jsonMapper, paymentFacade.getAvailableGateways());
+            gateways = response;
+        }
+        return response.toResponse(ifNoneMatch);
     }
     
     @GetMapping("/history")
-    public ResponseEntity<List<Payment>> getPaymentHistory() {
+    public ResponseEntity<List<Payment>> getPaymentHistory(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
         // TODO: Add authentication and authorization in production
         // This endpoint should be secured to prevent unauthorized access to payment data
         log.info("Fetching payment history");
-        List<Payment> history = paymentFacade.getPaymentHistory();
+        List<Payment> history = from == null && to == null
+                ? paymentFacade.getPaymentHistory()
+                : paymentFacade.getPaymentHistory(from == null ? LocalDateTime.of(1970, 1, 1, 0, 0) : from,
+                        to == null ? LocalDateTime.of(9999, 12, 31, 0, 0) : to);
         return ResponseEntity.ok(history);
     }
     
@@ -0,0 +1,56 @@
+package com.altruist.projects.ucp.payment.controller;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.altruist.projects.ucp.payment.events.PaymentEventBus;
+import com.altruist.projects.ucp.payment.events.PaymentEventStream;
+import com.altruist.projects.ucp.payment.events.WebhookDispatcher;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Controller for the payment completion event feed
+ */
+@RestController
+@RequestMapping("/api/events")
+@RequiredArgsConstructor
+public class PaymentEventController {
+    
+    private final PaymentEventBus eventBus;
+    private final PaymentEventStream eventStream;
+    private final WebhookDispatcher webhookDispatcher;
+    
+    /**
+     * Live feed of payments reaching a final status, as Server-Sent Events
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        SseEmitter emitter = eventStream.open(lastEventId);
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+    
+    /**
+     * Ring buffer, subscription and webhook delivery statistics
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>(eventBus.snapshot());
+        stats.put("streamClients", eventStream.getClients());
+        stats.put("webhooks", webhookDispatcher.snapshot());
+        return ResponseEntity.ok(stats);
+    }
+}
@@ -0,0 +1,44 @@
+package com.altruist.projects.ucp.payment.controller;
+
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.altruist.projects.ucp.payment.dto.ReconciliationReport;
+import com.altruist.projects.ucp.payment.reconciliation.ReconciliationService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Controller for reconciling payments against gateway settlement files
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/reconciliation")
+@RequiredArgsConstructor
+public class ReconciliationController {
+    
+    private final ReconciliationService reconciliationService;
+    
+    /**
+     * Reconcile every gateway with a settlement file now
+     */
+    @PostMapping("/run")
+    public ResponseEntity<List<ReconciliationReport>> run() {
+        log.info("Running payment reconciliation on demand");
+        return ResponseEntity.ok(reconciliationService.reconcileAll());
+    }
+    
+    /**
+     * Reports of the last run
+     */
+    @GetMapping("/reports")
+    public ResponseEntity<List<ReconciliationReport>> getLastReports() {
+        return ResponseEntity.ok(reconciliationService.getLastReports());
+    }
+}
@@ -0,0 +1,45 @@
+package com.altruist.projects.ucp.payment.datasource;
+
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Routes connections of read-only transactions ({@code @Transactional(readOnly = true)}) to the
+ * read pool and everything else, including work outside a transaction, to the write pool.
+ *
+ * <p>The transaction manager marks a transaction read-only only after it has asked for a
+ * connection, so the router must sit behind a {@link LazyConnectionDataSourceProxy}, which defers
+ * the choice to the first statement; {@link #lazy(DataSource, DataSource)} builds that pair.</p>
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route {
+        WRITE,
+        READ
+    }
+
+    public ReadWriteRoutingDataSource(DataSource writeDataSource, DataSource readDataSource) {
+        setTargetDataSources(Map.of(Route.WRITE, writeDataSource, Route.READ, readDataSource));
+        setDefaultTargetDataSource(writeDataSource);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    /**
+     * Routing data source behind a lazy connection proxy, ready to be the application's data source
+     */
+    public static DataSource lazy(DataSource writeDataSource, DataSource readDataSource) {
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(writeDataSource, readDataSource));
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? Route.READ : Route.WRITE;
+    }
+}
@@ -0,0 +1,35 @@
+package com.altruist.projects.ucp.payment.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Charge, total and settlement amount calculation of a payment
+ */
+@Name("ucp.ChargeCalculation")
+@Label("Charge Calculation")
+@Category({"UCP", "Payment"})
+@StackTrace(false)
+public class ChargeCalculationEvent extends Event {
+
+    @Label("Destination Country")
+    public String country;
+
+    @Label("Amount")
+    @Description("Minor units of the currency")
+    public long amount;
+
+    @Label("Charges")
+    @Description("Minor units of the currency")
+    public long charges;
+
+    @Label("Currency")
+    public String currency;
+
+    @Label("Settlement Currency")
+    public String settlementCurrency;
+}
@@ -0,0 +1,145 @@
+package com.altruist.projects.ucp.payment.diagnostics;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.format.DateTimeFormatter;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.altruist.projects.ucp.payment.dto.FlightRecording;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Starts and stops one Java Flight Recorder recording at a time on a running replica. A recording
+ * holds the JVM's own events (GC, safepoints, lock contention, allocation) next to the payment
+ * events of this package, stops by itself after its duration, and keeps at most
+ * {@code payment.jfr.max-size-mb} of data. The stopped recording is written to
+ * {@code payment.jfr.directory}, replacing the previous one.
+ */
+@Slf4j
+@Service
+public class FlightRecorderService {
+
+    private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final Clock clock;
+    private final Path directory;
+    private final Duration maxDuration;
+    private final long maxBytes;
+
+    private Recording recording;
+    private Path file;
+
+    public FlightRecorderService(Clock clock,
+                                 @Value("${payment.jfr.directory:jfr-recordings}") String directory,
+                                 @Value("${payment.jfr.max-duration-seconds:900}") long maxDurationSeconds,
+                                 @Value("${payment.jfr.max-size-mb:100}") long maxSizeMb) {
+        this.clock = clock;
+        this.directory = Paths.get(directory);
+        this.maxDuration = Duration.ofSeconds(maxDurationSeconds);
+        this.maxBytes = maxSizeMb * 1024 * 1024;
+    }
+
+    /**
+     * Start a recording
+     * @param duration Requested length, capped at {@code payment.jfr.max-duration-seconds}
+     * @param settings JFR configuration: {@code default} (about 1% overhead) or {@code profile}
+     * @throws IllegalStateException if a recording is already running
+     * @throws IllegalArgumentException if the configuration is unknown
+     */
+    public synchronized FlightRecording start(Duration duration, String settings) throws IOException {
+        if (isRunning()) {
+            throw new IllegalStateException("Recording " + recording.getName() + " is already running");
+        }
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settings);
+        } catch (ParseException | IOException e) {
+            throw new IllegalArgumentException("Unknown JFR settings: " + settings, e);
+        }
+        Files.createDirectories(directory);
+        if (recording != null) {
+            recording.close();
+        }
+        String name = "ucp-" + NAME_FORMAT.format(clock.instant().atZone(clock.getZone()));
+        file = directory.resolve(name + ".jfr");
+        Files.deleteIfExists(file);
+
+        Recording started = new Recording(configuration);
+        started.setName(name);
+        started.setToDisk(true);
+        started.setMaxSize(maxBytes);
+        started.setDuration(duration.compareTo(maxDuration) > 0 || duration.isNegative() || duration.isZero()
+                ? maxDuration : duration);
+        started.setDestination(file); // Written when the recording stops, by itself or on request
+        started.start();
+        recording = started;
+        log.info("Started flight recording {} ({}, {}, at most {} MB)", name, settings,
+                started.getDuration(), maxBytes / 1024 / 1024);
+        return status().orElseThrow();
+    }
+
+    /**
+     * Stop the running recording and write it to its file
+     * @throws IllegalStateException if no recording is running
+     */
+    public synchronized FlightRecording stop() {
+        if (!isRunning()) {
+            throw new IllegalStateException("No recording is running");
+        }
+        recording.stop();
+        log.info("Stopped flight recording {} into {}", recording.getName(), file);
+        return status().orElseThrow();
+    }
+
+    /**
+     * The current or last recording
+     */
+    public synchronized Optional<FlightRecording> status() {
+        if (recording == null) {
+            return Optional.empty();
+        }
+        long bytes = 0;
+        try {
+            bytes = Files.exists(file) ? Files.size(file) : 0;
+        } catch (IOException e) {
+            log.debug("Cannot read size of {}", file, e);
+        }
+        return Optional.of(FlightRecording.builder()
+                .name(recording.getName())
+                .state(recording.getState().name())
+                .startedAt(recording.getStartTime())
+                .stoppedAt(recording.getStopTime())
+                .duration(recording.getDuration())
+                .maxBytes(recording.getMaxSize())
+                .file(file.toString())
+                .bytes(bytes)
+                .build());
+    }
+
+    /**
+     * File of the last recording, once it has stopped
+     */
+    public synchronized Optional<Path> finishedFile() {
+        if (recording == null || isRunning() || !Files.exists(file)) {
+            return Optional.empty();
+        }
+        return Optional.of(file);
+    }
+
+    private boolean isRunning() {
+        return recording != null
+                && (recording.getState() == RecordingState.RUNNING || recording.getState() == RecordingState.DELAYED);
+    }
+}
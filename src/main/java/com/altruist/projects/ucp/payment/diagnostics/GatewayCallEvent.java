@@ -0,0 +1,40 @@
+package com.altruist.projects.ucp.payment.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One call of a gateway provider, from the request until its response. For a non-blocking call the
+ * event is committed on the thread that completed it.
+ */
+@Name("ucp.GatewayCall")
+@Label("Gateway Call")
+@Category({"UCP", "Payment"})
+@StackTrace(false)
+public class GatewayCallEvent extends Event {
+
+    @Label("Gateway Type")
+    public String gatewayType;
+
+    @Label("Provider")
+    public String providerId;
+
+    @Label("Attempt")
+    @Description("1 for the first provider, higher after failover")
+    public int attempt;
+
+    @Label("Retry Attempt")
+    @Description("0 for a payment's first gateway call, n for its n-th retry")
+    public int retryAttempt;
+
+    @Label("Non-blocking")
+    public boolean async;
+
+    @Label("Outcome")
+    @Description("The gateway's status, or the exception class if the call threw")
+    public String outcome;
+}
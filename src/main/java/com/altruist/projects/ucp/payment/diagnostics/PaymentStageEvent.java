@@ -0,0 +1,36 @@
+package com.altruist.projects.ucp.payment.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One run of a payment pipeline stage. A stage that suspends on the gateway ends when the call is
+ * started; the call itself is a {@link GatewayCallEvent}.
+ */
+@Name("ucp.PaymentStage")
+@Label("Payment Stage")
+@Category({"UCP", "Payment"})
+@Description("Time spent in one stage of the payment pipeline")
+@StackTrace(false)
+public class PaymentStageEvent extends Event {
+
+    @Label("Stage")
+    public String stage;
+
+    @Label("Phase")
+    public String phase;
+
+    @Label("Destination Country")
+    public String country;
+
+    @Label("Payment Method")
+    public String paymentMethod;
+
+    @Label("Ended Payment")
+    @Description("The stage returned the final response, e.g. a rejection")
+    public boolean endedPayment;
+}
@@ -0,0 +1,27 @@
+package com.altruist.projects.ucp.payment.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * One call of a Spring Data repository method, e.g. {@code PaymentRepository.save}, including the
+ * wait for a connection and the flush of a transaction it commits
+ */
+@Name("ucp.RepositoryCall")
+@Label("Repository Call")
+@Category({"UCP", "Persistence"})
+@StackTrace(false)
+public class RepositoryCallEvent extends Event {
+
+    @Label("Repository")
+    public String repository;
+
+    @Label("Method")
+    public String method;
+
+    @Label("Failed")
+    public boolean failed;
+}
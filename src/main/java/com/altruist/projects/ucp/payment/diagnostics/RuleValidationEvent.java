@@ -0,0 +1,34 @@
+package com.altruist.projects.ucp.payment.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Check of a payment against the rules of its destination country
+ */
+@Name("ucp.RuleValidation")
+@Label("Country Rule Validation")
+@Category({"UCP", "Payment"})
+@StackTrace(false)
+public class RuleValidationEvent extends Event {
+
+    @Label("Destination Country")
+    public String country;
+
+    @Label("Payment Method")
+    public String paymentMethod;
+
+    @Label("Amount")
+    @Description("Minor units of the currency")
+    public long amount;
+
+    @Label("Currency")
+    public String currency;
+
+    @Label("Valid")
+    public boolean valid;
+}
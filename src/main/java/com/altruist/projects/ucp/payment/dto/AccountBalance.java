@@ -0,0 +1,26 @@
+package com.altruist.projects.ucp.payment.dto;
+
+import java.util.Currency;
+
+import com.altruist.projects.ucp.payment.money.MinorUnitsSerializer;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import tools.jackson.databind.annotation.JsonSerialize;
+
+/**
+ * Ledger balance of an account in one currency
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountBalance {
+
+    private String account;
+    private Currency currency;
+    @JsonSerialize(using = MinorUnitsSerializer.class)
+    private Long balance; // Minor units, credits minus debits
+}
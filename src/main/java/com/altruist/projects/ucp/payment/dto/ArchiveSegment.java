@@ -0,0 +1,26 @@
+package com.altruist.projects.ucp.payment.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One compressed segment file of archived payments
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchiveSegment {
+
+    private String file;
+    private int partitionMonth; // yyyyMM
+    private long rows;
+    private int rowGroups;
+    private long bytes;
+    private LocalDateTime firstTimestamp;
+    private LocalDateTime lastTimestamp;
+}
@@ -0,0 +1,38 @@
+package com.altruist.projects.ucp.payment.dto;
+
+import java.util.Currency;
+
+import com.altruist.projects.ucp.payment.money.MinorUnitsSerializer;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import tools.jackson.databind.annotation.JsonSerialize;
+
+/**
+ * Aggregate of the payments of one dimension value (or all payments) in one currency, scanned from
+ * the columnar store
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ColumnarAggregate {
+    
+    private String key;
+    private Currency currency; // Of the amounts, null for payments without one
+    private long count;
+    // Amounts are minor units
+    @JsonSerialize(using = MinorUnitsSerializer.class)
+    private long totalAmount;
+    @JsonSerialize(using = MinorUnitsSerializer.class)
+    private long totalCharges;
+    @JsonSerialize(using = MinorUnitsSerializer.class)
+    private long p50Amount;
+    @JsonSerialize(using = MinorUnitsSerializer.class)
+    private long p90Amount;
+    @JsonSerialize(using = MinorUnitsSerializer.class)
+    private long p99Amount;
+    
+}
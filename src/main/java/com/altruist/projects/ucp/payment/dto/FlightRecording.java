@@ -0,0 +1,28 @@
+package com.altruist.projects.ucp.payment.dto;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * State of an on-demand Java Flight Recorder recording
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlightRecording {
+
+    private String name;
+    private String state; // RUNNING, or CLOSED once written to the file
+    private Instant startedAt;
+    private Instant stoppedAt;
+    private Duration duration;
+    private long maxBytes;
+    private String file;
+    private long bytes; // Size of the file, once written
+}
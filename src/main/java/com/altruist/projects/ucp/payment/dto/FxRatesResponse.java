@@ -0,0 +1,26 @@
+package com.altruist.projects.ucp.payment.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Active FX rate snapshot: units of each currency per one unit of the base currency
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FxRatesResponse {
+    
+    private String baseCurrency;
+    private long version;
+    private Instant loadedAt;
+    private Map<String, BigDecimal> rates;
+    
+}
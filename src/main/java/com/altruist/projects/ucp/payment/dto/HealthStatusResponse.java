@@ -0,0 +1,21 @@
+package com.altruist.projects.ucp.payment.dto;
+
+import java.util.List;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HealthStatusResponse {
+
+    private String status; // "UP" or "DOWN"
+    private List<String> reasons;
+    private Map<String, Object> details;
+
+}
@@ -0,0 +1,38 @@
+package com.altruist.projects.ucp.payment.dto;
+
+import java.time.Instant;
+import java.util.Currency;
+
+import com.altruist.projects.ucp.payment.money.MinorUnitsSerializer;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import tools.jackson.databind.annotation.JsonSerialize;
+
+/**
+ * A payment reached a final status. Sequences increase by one per event, so a gap tells a
+ * consumer it missed events.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentEvent {
+
+    private long sequence;
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    private long paymentId;
+    private String status;
+    @JsonSerialize(using = MinorUnitsSerializer.class)
+    private long amount;
+    @JsonSerialize(using = MinorUnitsSerializer.class)
+    private long totalAmount;
+    private Currency currency;
+    private String paymentMethod;
+    private String destinationCountry;
+    private String externalReference;
+    private Instant occurredAt;
+}
@@ -1,9 +1,16 @@
 package com.altruist.projects.ucp.payment.dto;
 
+import java.util.Currency;
+
+import com.altruist.projects.ucp.payment.money.MinorUnitsDeserializer;
+import com.altruist.projects.ucp.payment.money.MinorUnitsSerializer;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import tools.jackson.databind.annotation.JsonDeserialize;
+import tools.jackson.databind.annotation.JsonSerialize;
 
 @Data
 @Builder
@@ -18,6 +25,9 @@ public class PaymentRequest {
     @Builder.Default
     private String destinationCountry = "IN"; // Default to India
     private String paymentMethod; // "UPI" or "CARD" or "APPLE_PAY"
-    private Double amount;
+    @JsonSerialize(using = MinorUnitsSerializer.class)
+    @JsonDeserialize(using = MinorUnitsDeserializer.class)
+    private long amount; // Minor units (1000.50 on the wire = 100050)
+    private Currency currency; // ISO 4217, defaults to the destination country's currency
     
 }
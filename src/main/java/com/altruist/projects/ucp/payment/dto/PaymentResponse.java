@@ -1,9 +1,15 @@
 package com.altruist.projects.ucp.payment.dto;
 
+import java.util.Currency;
+
+import com.altruist.projects.ucp.payment.money.MinorUnitsSerializer;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import tools.jackson.databind.annotation.JsonSerialize;
 
 @Data
 @Builder
@@ -11,11 +17,20 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class PaymentResponse {
     
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
     private Long paymentId;
     private String status;
     private String message;
-    private Double totalAmount;
-    private Double charges;
+    @JsonSerialize(using = MinorUnitsSerializer.class)
+    private Long totalAmount; // Minor units, null when the payment was not charged
+    @JsonSerialize(using = MinorUnitsSerializer.class)
+    private Long charges;
+    private Currency currency;
+    @JsonSerialize(using = MinorUnitsSerializer.class)
+    private Long settlementAmount; // Amount in the destination's local currency
+    private Currency settlementCurrency;
     private String gatewayUsed;
+    private String externalReference; // Processor's transaction reference, as in its settlement files
+    private Long retryAfterSeconds; // Set when the payment was shed with status "REJECTED"
     
 }
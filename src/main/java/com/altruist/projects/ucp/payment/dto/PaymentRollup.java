@@ -0,0 +1,36 @@
+package com.altruist.projects.ucp.payment.dto;
+
+import java.time.Instant;
+import java.util.Currency;
+
+import com.altruist.projects.ucp.payment.money.MinorUnitsSerializer;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import tools.jackson.databind.annotation.JsonSerialize;
+
+/**
+ * Aggregated payments of one country, payment method and currency within one time bucket
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentRollup {
+    
+    private Instant bucketStart;
+    private String granularity; // "MINUTE" or "HOUR"
+    private String countryCode;
+    private String paymentMethod;
+    private Currency currency; // Of volume and charges
+    private long count;
+    private long failedCount;
+    @JsonSerialize(using = MinorUnitsSerializer.class)
+    private long volume; // Minor units
+    @JsonSerialize(using = MinorUnitsSerializer.class)
+    private long charges;
+    private double failureRate;
+    
+}
@@ -0,0 +1,33 @@
+package com.altruist.projects.ucp.payment.dto;
+
+import java.time.Instant;
+import java.util.Map;
+
+import com.altruist.projects.ucp.payment.reconciliation.DiscrepancyType;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of reconciling one gateway type against its settlement file
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationReport {
+
+    private String gatewayType;
+    private String settlementFile;
+    private String reportFile; // CSV listing every discrepancy
+    private Instant startedAt;
+    private long durationMillis;
+    private long settlementRows;
+    private long paymentsScanned;
+    private long matched;
+    private int partitions; // 1 when the settlement file was joined in memory
+    private Map<DiscrepancyType, Long> discrepancies;
+    private String error; // Set when the run failed, e.g. on an unreadable file
+}
@@ -0,0 +1,21 @@
+package com.altruist.projects.ucp.payment.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RuleImportResponse {
+    
+    private String status; // "ACTIVATED" or "REJECTED"
+    private int rulesImported;
+    private Long ruleSetVersion;
+    private List<String> errors;
+    
+}
@@ -0,0 +1,121 @@
+package com.altruist.projects.ucp.payment.duplicate;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Small direct-mapped table of recently admitted fingerprints, used to confirm (or refute) a Bloom
+ * filter hit and to record the fingerprints of Bloom misses. Each slot is one word, a 39-bit fingerprint tag, a released flag and a 24-bit time
+ * tick, so check-and-insert is a single CAS and two concurrent submissions of the same payment cannot
+ * both be admitted. A colliding fingerprint simply evicts the slot, so a Bloom hit without
+ * confirmation is treated as unconfirmed rather than as unique.
+ */
+final class ConfirmationCache {
+
+    /**
+     * What the slot held when a fingerprint was checked
+     */
+    enum Outcome {
+        /** The fingerprint, recorded within the window: a confirmed duplicate, nothing recorded */
+        DUPLICATE,
+        /** The fingerprint, released within the window because its payment did not go through */
+        RELEASED,
+        /** The fingerprint, recorded before the window */
+        EXPIRED,
+        /** Another fingerprint recorded within the window, which may have evicted this one */
+        EVICTED,
+        /** Nothing relevant: an empty slot or another fingerprint recorded before the window */
+        ABSENT
+    }
+
+    private static final int TICK_BITS = 24;
+    private static final long TICK_MASK = (1L << TICK_BITS) - 1;
+    private static final long RELEASED = 1L << TICK_BITS;
+    private static final int TAG_SHIFT = TICK_BITS + 1;
+    private static final long TICK_MILLIS = 100;
+
+    private final AtomicLongArray slots;
+    private final int slotMask;
+    private final long windowTicks;
+
+    /**
+     * @param slotCount power of two, at most 2^24 so the index bits and the tag bits do not overlap
+     */
+    ConfirmationCache(int slotCount, long windowMillis) {
+        if (Integer.bitCount(slotCount) != 1 || slotCount > (1 << TICK_BITS)) {
+            throw new IllegalArgumentException("slotCount must be a power of two <= 2^24");
+        }
+        this.slots = new AtomicLongArray(slotCount);
+        this.slotMask = slotCount - 1;
+        this.windowTicks = Math.max(1, windowMillis / TICK_MILLIS);
+    }
+
+    /**
+     * Record a fingerprint the Bloom filter has not seen. Skips the confirmation bookkeeping of
+     * {@link #checkAndRecord}: the slot is only read to catch an identical submission that raced past
+     * the Bloom filter and was recorded first, which the CAS makes visible to exactly one of the two.
+     * @return false if that identical submission is already recorded (a duplicate), otherwise true
+     */
+    boolean recordNew(long fingerprint, long nowMillis) {
+        int index = (int) fingerprint & slotMask;
+        long tag = fingerprint >>> TAG_SHIFT;
+        long tick = (nowMillis / TICK_MILLIS) & TICK_MASK;
+        long slot;
+        do {
+            slot = slots.get(index);
+            if (slot != 0 && classify(slot, tag, tick) == Outcome.DUPLICATE) {
+                return false;
+            }
+        } while (!slots.compareAndSet(index, slot, (tag << TAG_SHIFT) | tick));
+        return true;
+    }
+
+    /**
+     * Record the fingerprint unless it was recorded (and not released) within the window
+     * @return {@link Outcome#DUPLICATE} if it was, otherwise what the slot held before recording
+     */
+    Outcome checkAndRecord(long fingerprint, long nowMillis) {
+        int index = (int) fingerprint & slotMask;
+        long tag = fingerprint >>> TAG_SHIFT;
+        long tick = (nowMillis / TICK_MILLIS) & TICK_MASK;
+        while (true) {
+            long slot = slots.get(index);
+            Outcome outcome = classify(slot, tag, tick);
+            if (outcome == Outcome.DUPLICATE) {
+                return outcome;
+            }
+            if (slots.compareAndSet(index, slot, (tag << TAG_SHIFT) | tick)) {
+                return outcome;
+            }
+        }
+    }
+
+    /**
+     * Forget a fingerprint, e.g. because its payment failed and may be legitimately retried. The slot
+     * keeps a released marker so the retry is not mistaken for a Bloom false positive.
+     */
+    void remove(long fingerprint) {
+        int index = (int) fingerprint & slotMask;
+        long slot = slots.get(index);
+        if (slot != 0 && (slot >>> TAG_SHIFT) == fingerprint >>> TAG_SHIFT) {
+            slots.compareAndSet(index, slot, slot | RELEASED);
+        }
+    }
+
+    private Outcome classify(long slot, long tag, long tick) {
+        if (slot == 0) {
+            return Outcome.ABSENT;
+        }
+        boolean live = ((tick - slot) & TICK_MASK) < windowTicks;
+        if ((slot >>> TAG_SHIFT) != tag) {
+            return live ? Outcome.EVICTED : Outcome.ABSENT;
+        }
+        if (!live) {
+            return Outcome.EXPIRED;
+        }
+        return (slot & RELEASED) != 0 ? Outcome.RELEASED : Outcome.DUPLICATE;
+    }
+
+    long getMemoryBytes() {
+        return slots.length() * 8L;
+    }
+}
@@ -0,0 +1,164 @@
+package com.altruist.projects.ucp.payment.duplicate;
+
+import java.time.Clock;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.altruist.projects.ucp.payment.dto.PaymentRequest;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Detects accidental double submissions (same source and destination account, amount and currency
+ * within {@code payment.duplicate.window-seconds}) in constant memory and time, without querying
+ * the payment table.
+ *
+ * <p>A sliding Bloom filter answers "definitely new" for almost every payment, which then only
+ * records its fingerprint in the {@link ConfirmationCache}; that record is a CAS, so of two identical
+ * submissions racing past the filter together only one is admitted. Only a Bloom hit consults the
+ * cache, which confirms the duplicate or exposes the hit as a false positive. Only confirmed
+ * duplicates are flagged or rejected.</p>
+ */
+@Slf4j
+@Component
+public class DuplicatePaymentDetector {
+
+    public enum Action {
+        /** Fail confirmed duplicates with status DUPLICATE */
+        REJECT,
+        /** Log and count confirmed duplicates but process them */
+        FLAG,
+        /** Detection disabled */
+        OFF
+    }
+
+    public enum Verdict {
+        UNIQUE,
+        DUPLICATE
+    }
+
+    private final Clock clock;
+    private final Action action;
+    private final long windowMillis;
+    private final SlidingBloomFilter bloomFilter;
+    private final ConfirmationCache confirmationCache;
+
+    private final LongAdder checks = new LongAdder();
+    private final LongAdder bloomHits = new LongAdder();
+    private final LongAdder confirmedDuplicates = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+    private final LongAdder evictedHits = new LongAdder();
+    private final LongAdder expiredHits = new LongAdder();
+    private final LongAdder resubmissions = new LongAdder();
+
+    public DuplicatePaymentDetector(Clock clock,
+                                    @Value("${payment.duplicate.action:REJECT}") String action,
+                                    @Value("${payment.duplicate.window-seconds:30}") int windowSeconds,
+                                    @Value("${payment.duplicate.generations:4}") int generations,
+                                    @Value("${payment.duplicate.bits-per-generation:1048576}") int bitsPerGeneration,
+                                    @Value("${payment.duplicate.hash-functions:4}") int hashFunctions,
+                                    @Value("${payment.duplicate.confirmation-slots:65536}") int confirmationSlots) {
+        this.clock = clock;
+        this.action = Action.valueOf(action.toUpperCase(Locale.ROOT));
+        this.windowMillis = TimeUnit.SECONDS.toMillis(windowSeconds);
+        // The live generations always cover at least the whole window
+        long generationMillis = Math.max(1, windowMillis / Math.max(1, generations - 1));
+        this.bloomFilter = new SlidingBloomFilter(generations, generationMillis, bitsPerGeneration, hashFunctions);
+        this.confirmationCache = new ConfirmationCache(confirmationSlots, windowMillis);
+    }
+
+    /**
+     * Check a payment against recent submissions and remember it
+     * @return DUPLICATE only for a confirmed duplicate that should be rejected
+     */
+    public Verdict check(PaymentRequest request) {
+        if (action == Action.OFF || (request.getFromAccount() == null && request.getToAccount() == null)) {
+            return Verdict.UNIQUE;
+        }
+        checks.increment();
+        long now = clock.millis();
+        long fingerprint = fingerprint(request);
+
+        boolean bloomHit = bloomFilter.mightContain(fingerprint, now);
+        bloomFilter.add(fingerprint, now);
+        if (!bloomHit) {
+            if (confirmationCache.recordNew(fingerprint, now)) {
+                return Verdict.UNIQUE;
+            }
+        } else {
+            bloomHits.increment();
+            ConfirmationCache.Outcome outcome = confirmationCache.checkAndRecord(fingerprint, now);
+            if (outcome != ConfirmationCache.Outcome.DUPLICATE) {
+                countUnconfirmedHit(outcome);
+                return Verdict.UNIQUE;
+            }
+        }
+
+        confirmedDuplicates.increment();
+        log.warn("Likely duplicate payment from {} to {} within {}s ({})",
+                request.getFromAccount(), request.getToAccount(), windowMillis / 1000, action);
+        return action == Action.REJECT ? Verdict.DUPLICATE : Verdict.UNIQUE;
+    }
+
+    /**
+     * Forget a payment that did not go through, so a retry is not taken for a duplicate
+     */
+    public void release(PaymentRequest request) {
+        if (action != Action.OFF) {
+            confirmationCache.remove(fingerprint(request));
+        }
+    }
+
+    public long getWindowSeconds() {
+        return windowMillis / 1000;
+    }
+
+    /**
+     * Detection counters, the observed false-positive rate of the Bloom filter (hits on fingerprints
+     * the cache never saw, over payments that were not duplicates) and its estimated rate from the fill
+     * ratio. Hits the cache cannot confirm because the entry was evicted, aged out of the window or
+     * released for a resubmission are counted separately.
+     */
+    public Map<String, Object> snapshot() {
+        long checked = checks.sum();
+        long confirmed = confirmedDuplicates.sum();
+        long refuted = falsePositives.sum();
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("action", action);
+        snapshot.put("windowSeconds", windowMillis / 1000);
+        snapshot.put("checks", checked);
+        snapshot.put("bloomHits", bloomHits.sum());
+        snapshot.put("confirmedDuplicates", confirmed);
+        snapshot.put("falsePositives", refuted);
+        snapshot.put("evictedHits", evictedHits.sum());
+        snapshot.put("expiredHits", expiredHits.sum());
+        snapshot.put("resubmissions", resubmissions.sum());
+        snapshot.put("observedFalsePositiveRate", checked > confirmed ? (double) refuted / (checked - confirmed) : 0.0);
+        snapshot.put("estimatedFalsePositiveRate", bloomFilter.estimatedFalsePositiveRate(clock.millis()));
+        snapshot.put("memoryBytes", bloomFilter.getMemoryBytes() + confirmationCache.getMemoryBytes());
+        return snapshot;
+    }
+
+    private void countUnconfirmedHit(ConfirmationCache.Outcome outcome) {
+        switch (outcome) {
+            case RELEASED -> resubmissions.increment();
+            case EXPIRED -> expiredHits.increment();
+            case EVICTED -> evictedHits.increment();
+            case ABSENT -> falsePositives.increment();
+            case DUPLICATE -> {
+                // Counted as a confirmed duplicate
+            }
+        }
+    }
+
+    private static long fingerprint(PaymentRequest request) {
+        return PaymentFingerprint.of(request.getFromAccount(), request.getToAccount(),
+                request.getAmount(), request.getCurrency());
+    }
+}
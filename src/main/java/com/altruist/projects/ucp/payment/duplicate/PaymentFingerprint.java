@@ -0,0 +1,52 @@
+package com.altruist.projects.ucp.payment.duplicate;
+
+import java.util.Currency;
+
+/**
+ * 64-bit fingerprint of the fields that make two payment requests look like the same payment
+ * (source and destination account, amount and currency). Computed over the characters directly,
+ * so fingerprinting allocates nothing.
+ */
+final class PaymentFingerprint {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private PaymentFingerprint() {
+    }
+
+    /**
+     * @return a non-zero fingerprint
+     */
+    static long of(String fromAccount, String toAccount, long amount, Currency currency) {
+        long hash = FNV_OFFSET;
+        hash = mix(hash, fromAccount);
+        hash = mix(hash, toAccount);
+        hash = (hash ^ amount) * FNV_PRIME;
+        hash = (hash ^ (currency == null ? 0 : currency.getNumericCode())) * FNV_PRIME;
+        hash = finish(hash);
+        return hash == 0 ? 1 : hash;
+    }
+
+    /**
+     * Murmur3 64-bit finalizer, spreads every input bit over the whole word
+     */
+    static long finish(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static long mix(long hash, String value) {
+        if (value == null) {
+            return (hash ^ 0xff) * FNV_PRIME;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+        }
+        return (hash ^ value.length()) * FNV_PRIME; // Field separator, "ab"+"c" differs from "a"+"bc"
+    }
+}
@@ -0,0 +1,126 @@
+package com.altruist.projects.ucp.payment.duplicate;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bloom filter over a sliding time window, built from a ring of generations that each cover
+ * {@code generationMillis}. Fingerprints are added to the current generation and looked up in
+ * every generation still inside the window; a generation is cleared when the ring wraps onto it.
+ * Memory is fixed at {@code generations x bitsPerGeneration} bits whatever the traffic.
+ */
+final class SlidingBloomFilter {
+
+    private static final class Generation {
+        final AtomicLongArray bits;
+        final LongAdder setBits = new LongAdder();
+        volatile long epoch = -1;
+
+        Generation(int words) {
+            this.bits = new AtomicLongArray(words);
+        }
+    }
+
+    private final Generation[] generations;
+    private final long generationMillis;
+    private final int hashFunctions;
+    private final long bitMask;
+
+    /**
+     * @param bitsPerGeneration power of two
+     */
+    SlidingBloomFilter(int generationCount, long generationMillis, int bitsPerGeneration, int hashFunctions) {
+        if (Integer.bitCount(bitsPerGeneration) != 1 || bitsPerGeneration < 64) {
+            throw new IllegalArgumentException("bitsPerGeneration must be a power of two >= 64");
+        }
+        this.generations = new Generation[generationCount];
+        for (int i = 0; i < generationCount; i++) {
+            generations[i] = new Generation(bitsPerGeneration / 64);
+        }
+        this.generationMillis = generationMillis;
+        this.hashFunctions = hashFunctions;
+        this.bitMask = bitsPerGeneration - 1L;
+    }
+
+    /**
+     * Whether the fingerprint may have been added within the window (false = definitely not)
+     */
+    boolean mightContain(long fingerprint, long nowMillis) {
+        long epoch = nowMillis / generationMillis;
+        long h2 = PaymentFingerprint.finish(fingerprint ^ 0x9e3779b97f4a7c15L) | 1;
+        for (Generation generation : generations) {
+            long age = epoch - generation.epoch;
+            if (age >= 0 && age < generations.length && contains(generation, fingerprint, h2)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    void add(long fingerprint, long nowMillis) {
+        Generation generation = current(nowMillis / generationMillis);
+        long h2 = PaymentFingerprint.finish(fingerprint ^ 0x9e3779b97f4a7c15L) | 1;
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = (fingerprint + i * h2) & bitMask;
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long previous;
+            do {
+                previous = generation.bits.get(word);
+            } while ((previous & mask) == 0 && !generation.bits.compareAndSet(word, previous, previous | mask));
+            if ((previous & mask) == 0) {
+                generation.setBits.increment();
+            }
+        }
+    }
+
+    /**
+     * Probability that a fingerprint never added is reported as present: one minus the chance that
+     * every live generation misses, each missing with 1 - fill^k
+     */
+    double estimatedFalsePositiveRate(long nowMillis) {
+        long epoch = nowMillis / generationMillis;
+        double allMiss = 1.0;
+        for (Generation generation : generations) {
+            long age = epoch - generation.epoch;
+            if (age >= 0 && age < generations.length) {
+                double fill = (double) generation.setBits.sum() / (bitMask + 1);
+                allMiss *= 1.0 - Math.pow(fill, hashFunctions);
+            }
+        }
+        return 1.0 - allMiss;
+    }
+
+    long getMemoryBytes() {
+        return generations.length * ((bitMask + 1) / 8);
+    }
+
+    private boolean contains(Generation generation, long fingerprint, long h2) {
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = (fingerprint + i * h2) & bitMask;
+            if ((generation.bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Generation of the epoch, clearing the slot first if it still holds an older epoch
+     */
+    private Generation current(long epoch) {
+        Generation generation = generations[(int) Math.floorMod(epoch, (long) generations.length)];
+        if (generation.epoch != epoch) {
+            synchronized (generation) {
+                if (generation.epoch < epoch) {
+                    for (int i = 0; i < generation.bits.length(); i++) {
+                        generation.bits.set(i, 0L);
+                    }
+                    generation.setBits.reset();
+                    generation.epoch = epoch;
+                }
+            }
+        }
+        return generation;
+    }
+}
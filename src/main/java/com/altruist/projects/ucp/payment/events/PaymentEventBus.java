@@ -0,0 +1,302 @@
+package com.altruist.projects.ucp.payment.events;
+
+import java.lang.invoke.VarHandle;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.altruist.projects.ucp.payment.dto.PaymentEvent;
+import com.altruist.projects.ucp.payment.model.Payment;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-process bus of payment completion events on a preallocated ring buffer.
+ *
+ * <p>Publishing claims a sequence with one atomic increment and copies a few fields into the slot
+ * of that sequence; it never allocates, locks or waits for a consumer. Each {@link Subscription} reads
+ * the ring on its own thread with its own cursor. A consumer that falls more than a ring behind is
+ * lapped: the overwritten events are skipped and counted as lost, so a slow consumer costs only itself.</p>
+ *
+ * <p>A consumer with nothing to read spins briefly and then sleeps until an event is published, so
+ * idle subscriptions cost no wakeups. Publishing checks one counter and unparks sleeping consumers
+ * only when there are any.</p>
+ */
+@Slf4j
+@Component
+public class PaymentEventBus {
+
+    private static final long FREE = -1;
+    private static final long WRITING = -2;
+
+    private final Clock clock;
+    private final Slot[] slots;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong();
+    private final LongAdder stale = new LongAdder();
+    private final AtomicInteger sleepers = new AtomicInteger();
+    private final Map<String, Subscription> subscriptions = new ConcurrentHashMap<>();
+
+    public PaymentEventBus(Clock clock,
+                           @Value("${payment.events.ring-size:8192}") int ringSize) {
+        if (ringSize < 2 || Integer.bitCount(ringSize) != 1) {
+            throw new IllegalArgumentException("payment.events.ring-size must be a power of two");
+        }
+        this.clock = clock;
+        this.slots = new Slot[ringSize];
+        for (int i = 0; i < ringSize; i++) {
+            slots[i] = new Slot();
+        }
+        this.mask = ringSize - 1;
+    }
+
+    /**
+     * Publish the completion of a payment
+     * @return the sequence of the event
+     */
+    public long publish(Payment payment) {
+        long sequence = claimed.getAndIncrement();
+        Slot slot = slots[(int) sequence & mask];
+        long previous;
+        do {
+            previous = slot.sequence.get();
+            if (previous > sequence) {
+                // This publisher stalled for a whole lap; its event is already lost to every consumer
+                stale.increment();
+                return sequence;
+            }
+            if (previous == WRITING) {
+                Thread.onSpinWait();
+            }
+        } while (previous == WRITING || !slot.sequence.compareAndSet(previous, WRITING));
+
+        slot.paymentId = payment.getId() == null ? 0 : payment.getId();
+        slot.status = payment.getStatus();
+        slot.amount = payment.getAmount();
+        slot.totalAmount = payment.getTotalAmount();
+        slot.currency = payment.getCurrency();
+        slot.paymentMethod = payment.getPaymentMethod();
+        slot.destinationCountry = payment.getDestinationCountry();
+        slot.externalReference = payment.getExternalReference();
+        slot.occurredAtMillis = clock.millis();
+        slot.sequence.set(sequence);
+        // Read after the slot is written; a consumer announces itself before its last look at the slot
+        if (sleepers.get() > 0) {
+            wakeSleepers();
+        }
+        return sequence;
+    }
+
+    private void wakeSleepers() {
+        for (Subscription subscription : subscriptions.values()) {
+            if (subscription.sleeping) {
+                LockSupport.unpark(subscription.thread);
+            }
+        }
+    }
+
+    /**
+     * Sequence the next event will get
+     */
+    public long getPublished() {
+        return claimed.get();
+    }
+
+    public int getCapacity() {
+        return slots.length;
+    }
+
+    /**
+     * Start a consumer thread that hands batches of events to {@code handler}, in sequence order
+     * @param fromSequence First sequence to deliver; older events that are no longer in the ring are counted as lost
+     * @param maxBatch Largest batch handed to the handler at once
+     */
+    public Subscription subscribe(String name, long fromSequence, int maxBatch, Consumer<List<PaymentEvent>> handler) {
+        Subscription subscription = new Subscription(name, Math.max(0, fromSequence), maxBatch, handler);
+        if (subscriptions.putIfAbsent(name, subscription) != null) {
+            throw new IllegalStateException("Event subscription " + name + " already exists");
+        }
+        subscription.thread.start();
+        return subscription;
+    }
+
+    /**
+     * Published events, stale publishes and the lag and losses of every subscription
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        long published = claimed.get();
+        snapshot.put("capacity", slots.length);
+        snapshot.put("published", published);
+        snapshot.put("stale", stale.sum());
+        Map<String, Object> consumers = new LinkedHashMap<>();
+        subscriptions.values().forEach(subscription -> {
+            Map<String, Object> consumer = new LinkedHashMap<>();
+            consumer.put("next", subscription.next);
+            consumer.put("lag", Math.max(0, published - subscription.next));
+            consumer.put("delivered", subscription.delivered);
+            consumer.put("lost", subscription.lost);
+            consumer.put("handlerErrors", subscription.handlerErrors);
+            consumer.put("sleeping", subscription.sleeping);
+            consumers.put(subscription.name, consumer);
+        });
+        snapshot.put("subscriptions", consumers);
+        return snapshot;
+    }
+
+    /**
+     * One consumer of the ring, reading on its own daemon thread until closed
+     */
+    public final class Subscription implements AutoCloseable {
+        private static final int SPINS = 100;
+
+        private final String name;
+        private final int maxBatch;
+        private final Consumer<List<PaymentEvent>> handler;
+        private final Thread thread;
+        private volatile boolean running = true;
+        private volatile boolean sleeping;
+        // Written by the consumer thread only
+        private volatile long next;
+        private volatile long delivered;
+        private volatile long lost;
+        private volatile long handlerErrors;
+
+        private Subscription(String name, long fromSequence, int maxBatch, Consumer<List<PaymentEvent>> handler) {
+            this.name = name;
+            this.next = fromSequence;
+            this.maxBatch = maxBatch;
+            this.handler = handler;
+            this.thread = new Thread(this::run, "payment-events-" + name);
+            this.thread.setDaemon(true);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getLost() {
+            return lost;
+        }
+
+        private void run() {
+            int idle = 0;
+            while (running) {
+                List<PaymentEvent> batch = poll();
+                if (batch.isEmpty()) {
+                    idle = idle(idle);
+                    continue;
+                }
+                idle = 0;
+                try {
+                    handler.accept(batch);
+                } catch (RuntimeException e) {
+                    handlerErrors++;
+                    log.warn("Payment event subscription {} failed on events {}-{}", name,
+                            batch.get(0).getSequence(), batch.get(batch.size() - 1).getSequence(), e);
+                }
+                delivered += batch.size();
+            }
+        }
+
+        /**
+         * Events from the cursor up to the first one not yet published
+         */
+        List<PaymentEvent> poll() {
+            long head = claimed.get();
+            long cursor = next;
+            if (head - cursor > slots.length) {
+                lost += head - slots.length - cursor;
+                cursor = head - slots.length;
+            }
+            List<PaymentEvent> batch = new ArrayList<>(Math.min(maxBatch, (int) Math.max(0, head - cursor)));
+            while (batch.size() < maxBatch && cursor < head) {
+                Slot slot = slots[(int) cursor & mask];
+                long sequence = slot.sequence.get();
+                if (sequence == cursor) {
+                    PaymentEvent event = slot.read(cursor);
+                    VarHandle.acquireFence();
+                    if (slot.sequence.get() == cursor) {
+                        batch.add(event);
+                    } else {
+                        lost++; // Overwritten while it was copied
+                    }
+                } else if (sequence > cursor) {
+                    lost++; // Overwritten before it was read
+                } else {
+                    break; // Claimed, not yet written
+                }
+                cursor++;
+            }
+            next = cursor;
+            return batch;
+        }
+
+        private int idle(int idle) {
+            if (idle < SPINS) {
+                Thread.onSpinWait();
+                return idle + 1;
+            }
+            sleeping = true;
+            sleepers.incrementAndGet();
+            // Checked after announcing, so a publisher either sees this sleeper or wrote the slot first
+            if (running && slots[(int) next & mask].sequence.get() < next) {
+                LockSupport.park(this);
+            }
+            sleepers.decrementAndGet();
+            sleeping = false;
+            return 0;
+        }
+
+        /**
+         * Stop the consumer thread; safe to call from the handler
+         */
+        @Override
+        public void close() {
+            running = false;
+            subscriptions.remove(name, this);
+            LockSupport.unpark(thread);
+        }
+    }
+
+    private static final class Slot {
+        private final AtomicLong sequence = new AtomicLong(FREE);
+        private long paymentId;
+        private String status;
+        private long amount;
+        private long totalAmount;
+        private Currency currency;
+        private String paymentMethod;
+        private String destinationCountry;
+        private String externalReference;
+        private long occurredAtMillis;
+
+        private PaymentEvent read(long sequence) {
+            return PaymentEvent.builder()
+                    .sequence(sequence)
+                    .paymentId(paymentId)
+                    .status(status)
+                    .amount(amount)
+                    .totalAmount(totalAmount)
+                    .currency(currency)
+                    .paymentMethod(paymentMethod)
+                    .destinationCountry(destinationCountry)
+                    .externalReference(externalReference)
+                    .occurredAt(Instant.ofEpochMilli(occurredAtMillis))
+                    .build();
+        }
+    }
+}
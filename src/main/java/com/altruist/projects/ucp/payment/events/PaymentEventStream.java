@@ -0,0 +1,82 @@
+package com.altruist.projects.ucp.payment.events;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.altruist.projects.ucp.payment.dto.PaymentEvent;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Live Server-Sent Events feed of payment events. Every client is its own bus subscription, so a
+ * client that reads slowly falls behind and loses events on its own; the subscription of an idle
+ * client sleeps until the next event is published. The event id is the sequence;
+ * a client reconnecting with {@code Last-Event-ID} resumes after it while the events are still in the ring.
+ */
+@Slf4j
+@Component
+public class PaymentEventStream {
+
+    private final PaymentEventBus eventBus;
+    private final int maxClients;
+    private final long timeoutMillis;
+    private final AtomicInteger clients = new AtomicInteger();
+    private final AtomicLong clientIds = new AtomicLong();
+
+    public PaymentEventStream(PaymentEventBus eventBus,
+                              @Value("${payment.events.sse.max-clients:100}") int maxClients,
+                              @Value("${payment.events.sse.timeout-ms:1800000}") long timeoutMillis) {
+        this.eventBus = eventBus;
+        this.maxClients = maxClients;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Open a feed for one client
+     * @param lastEventId Sequence the client saw last, or null to start with the next event
+     * @return the emitter, or null if {@code payment.events.sse.max-clients} feeds are open
+     */
+    public SseEmitter open(Long lastEventId) {
+        if (clients.incrementAndGet() > maxClients) {
+            clients.decrementAndGet();
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        long from = lastEventId == null ? eventBus.getPublished() : lastEventId + 1;
+        PaymentEventBus.Subscription subscription = eventBus.subscribe("sse-" + clientIds.incrementAndGet(), from, 100,
+                events -> send(emitter, events));
+        Runnable close = () -> {
+            subscription.close();
+            clients.decrementAndGet();
+        };
+        emitter.onCompletion(close);
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> emitter.complete());
+        return emitter;
+    }
+
+    public int getClients() {
+        return clients.get();
+    }
+
+    private static void send(SseEmitter emitter, List<PaymentEvent> events) {
+        try {
+            for (PaymentEvent event : events) {
+                emitter.send(SseEmitter.event()
+                        .id(Long.toString(event.getSequence()))
+                        .name("payment")
+                        .data(event, MediaType.APPLICATION_JSON));
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Payment event stream closed: {}", e.getMessage());
+            emitter.complete();
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.altruist.projects.ucp.payment.events;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import com.altruist.projects.ucp.payment.dto.PaymentEvent;
+
+import lombok.extern.slf4j.Slf4j;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Delivers payment events to the webhook endpoints in {@code payment.events.webhook.urls}.
+ *
+ * <p>One bus subscription fans events out to a bounded queue per endpoint, so a slow or failing
+ * endpoint only backs up its own queue. Each endpoint's worker posts JSON arrays of up to
+ * {@code batch-size} events, waiting up to {@code linger-ms} to fill a batch, and retries a failed
+ * post with exponential backoff. A batch that still fails after {@code max-attempts}, and events
+ * arriving at a full queue, are dropped and counted. Receivers get an {@code Idempotency-Key} naming
+ * the batch's sequence range, so a retried delivery can be recognized.</p>
+ */
+@Slf4j
+@Component
+public class WebhookDispatcher implements SmartLifecycle {
+
+    private final PaymentEventBus eventBus;
+    private final JsonMapper jsonMapper;
+    private final List<URI> urls;
+    private final int batchSize;
+    private final int queueCapacity;
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final long lingerMillis;
+    private final Duration timeout;
+    private final HttpClient httpClient;
+
+    private final List<Endpoint> endpoints = new ArrayList<>();
+    private PaymentEventBus.Subscription subscription;
+
+    public WebhookDispatcher(PaymentEventBus eventBus,
+                             JsonMapper jsonMapper,
+                             @Value("${payment.events.webhook.urls:}") String urls,
+                             @Value("${payment.events.webhook.batch-size:100}") int batchSize,
+                             @Value("${payment.events.webhook.queue-capacity:10000}") int queueCapacity,
+                             @Value("${payment.events.webhook.max-attempts:5}") int maxAttempts,
+                             @Value("${payment.events.webhook.base-delay-ms:500}") long baseDelayMillis,
+                             @Value("${payment.events.webhook.max-delay-ms:30000}") long maxDelayMillis,
+                             @Value("${payment.events.webhook.linger-ms:50}") long lingerMillis,
+                             @Value("${payment.events.webhook.timeout-ms:5000}") long timeoutMillis) {
+        this.eventBus = eventBus;
+        this.jsonMapper = jsonMapper;
+        this.urls = Arrays.stream(urls.split(","))
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .map(URI::create)
+                .toList();
+        this.batchSize = batchSize;
+        this.queueCapacity = queueCapacity;
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.lingerMillis = lingerMillis;
+        this.timeout = Duration.ofMillis(timeoutMillis);
+        this.httpClient = HttpClient.newBuilder().connectTimeout(timeout).build();
+    }
+
+    /**
+     * Delivery statistics per endpoint
+     */
+    public synchronized Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        for (Endpoint endpoint : endpoints) {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("queued", endpoint.queue.size());
+            stats.put("delivered", endpoint.delivered.sum());
+            stats.put("batches", endpoint.batches.sum());
+            stats.put("retries", endpoint.retries.sum());
+            stats.put("failed", endpoint.failed.sum());
+            stats.put("dropped", endpoint.dropped.sum());
+            snapshot.put(endpoint.url.toString(), stats);
+        }
+        return snapshot;
+    }
+
+    private void fanOut(List<PaymentEvent> events) {
+        for (Endpoint endpoint : endpoints) {
+            for (PaymentEvent event : events) {
+                if (!endpoint.queue.offer(event)) {
+                    endpoint.dropped.increment();
+                }
+            }
+        }
+    }
+
+    long backoffMillis(int attempt) {
+        return Math.min(maxDelayMillis, baseDelayMillis << Math.min(attempt - 1, 20));
+    }
+
+    @Override
+    public synchronized void start() {
+        if (urls.isEmpty() || subscription != null) {
+            return;
+        }
+        for (int i = 0; i < urls.size(); i++) {
+            Endpoint endpoint = new Endpoint(urls.get(i));
+            endpoint.worker = new Thread(endpoint::run, "payment-webhook-" + i);
+            endpoint.worker.setDaemon(true);
+            endpoint.worker.start();
+            endpoints.add(endpoint);
+        }
+        subscription = eventBus.subscribe("webhooks", eventBus.getPublished(), batchSize, this::fanOut);
+        log.info("Delivering payment events to {} webhook endpoint(s)", urls.size());
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (subscription != null) {
+            subscription.close();
+            subscription = null;
+        }
+        endpoints.forEach(endpoint -> endpoint.worker.interrupt());
+        endpoints.clear();
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return subscription != null;
+    }
+
+    private final class Endpoint {
+        private final URI url;
+        private final BlockingQueue<PaymentEvent> queue = new ArrayBlockingQueue<>(queueCapacity);
+        private final LongAdder delivered = new LongAdder();
+        private final LongAdder batches = new LongAdder();
+        private final LongAdder retries = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+        private Thread worker;
+
+        private Endpoint(URI url) {
+            this.url = url;
+        }
+
+        private void run() {
+            List<PaymentEvent> batch = new ArrayList<>(batchSize);
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    PaymentEvent first = queue.poll(1, TimeUnit.SECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    long lingerUntil = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+                    while (batch.size() < batchSize) {
+                        queue.drainTo(batch, batchSize - batch.size());
+                        long remaining = lingerUntil - System.nanoTime();
+                        if (batch.size() == batchSize || remaining <= 0) {
+                            break;
+                        }
+                        PaymentEvent event = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                        if (event != null) {
+                            batch.add(event);
+                        }
+                    }
+                    deliver(batch);
+                    batch.clear();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void deliver(List<PaymentEvent> batch) throws InterruptedException {
+            String range = batch.get(0).getSequence() + "-" + batch.get(batch.size() - 1).getSequence();
+            HttpRequest request = HttpRequest.newBuilder(url)
+                    .timeout(timeout)
+                    .header("Content-Type", "application/json")
+                    .header("Idempotency-Key", "payment-events-" + range)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(jsonMapper.writeValueAsBytes(batch)))
+                    .build();
+            for (int attempt = 1; ; attempt++) {
+                String failure;
+                try {
+                    int status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                    if (status >= 200 && status < 300) {
+                        delivered.add(batch.size());
+                        batches.increment();
+                        return;
+                    }
+                    failure = "HTTP " + status;
+                } catch (IOException e) {
+                    failure = e.toString();
+                }
+                if (attempt >= maxAttempts) {
+                    failed.add(batch.size());
+                    log.warn("Dropping payment events {} for {} after {} attempts: {}", range, url, attempt, failure);
+                    return;
+                }
+                retries.increment();
+                log.debug("Webhook delivery of payment events {} to {} failed ({}), attempt {}", range, url, failure, attempt);
+                Thread.sleep(backoffMillis(attempt));
+            }
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.altruist.projects.ucp.payment.fx;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.altruist.projects.ucp.payment.model.FxRate;
+import com.altruist.projects.ucp.payment.repository.FxRateRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Holds the active {@link FxRateSnapshot}. Payments convert against it without locks or database
+ * reads; the rate table is reloaded every {@code payment.fx.refresh-interval-ms} (and after every
+ * update) into a complete new snapshot that is swapped in with a single volatile write.
+ */
+@Slf4j
+@Service
+public class FxRateService {
+
+    private final FxRateRepository rateRepository;
+    private final Clock clock;
+    private final Currency baseCurrency;
+    private final TransactionTemplate transactionTemplate;
+    private final AtomicLong versions = new AtomicLong();
+    private volatile FxRateSnapshot current;
+
+    public FxRateService(FxRateRepository rateRepository,
+                         Clock clock,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${payment.fx.base-currency:USD}") String baseCurrency) {
+        this.rateRepository = rateRepository;
+        this.clock = clock;
+        this.baseCurrency = Currency.getInstance(baseCurrency);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Active snapshot, loaded from the database on first use
+     */
+    public FxRateSnapshot current() {
+        FxRateSnapshot snapshot = current;
+        if (snapshot == null) {
+            synchronized (this) {
+                snapshot = current;
+                if (snapshot == null) {
+                    snapshot = refresh();
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * Reload every rate from the database and activate them as a new snapshot
+     */
+    @Scheduled(fixedDelayString = "${payment.fx.refresh-interval-ms:300000}")
+    public synchronized FxRateSnapshot refresh() {
+        return activate(rateRepository.findAll());
+    }
+
+    /**
+     * Activate an already persisted set of rates as a whole
+     */
+    public synchronized FxRateSnapshot activate(List<FxRate> rates) {
+        FxRateSnapshot snapshot = FxRateSnapshot.of(versions.incrementAndGet(), clock.instant(), baseCurrency, rates);
+        current = snapshot;
+        log.info("Activated FX rate snapshot version {} with {} rates against {}",
+                snapshot.getVersion(), rates.size(), baseCurrency);
+        return snapshot;
+    }
+
+    /**
+     * Insert or update rates (units per base currency unit) and activate the result
+     * @throws IllegalArgumentException if a currency code is unknown or a rate is not positive
+     */
+    public FxRateSnapshot update(Map<String, BigDecimal> rates) {
+        Instant now = clock.instant();
+        List<FxRate> changes = new ArrayList<>();
+        for (Map.Entry<String, BigDecimal> entry : rates.entrySet()) {
+            Currency currency = Currency.getInstance(entry.getKey());
+            if (entry.getValue() == null || entry.getValue().signum() <= 0) {
+                throw new IllegalArgumentException("Rate of " + currency + " must be positive");
+            }
+            changes.add(FxRate.builder().currency(currency).rate(entry.getValue()).updatedAt(now).build());
+        }
+        List<FxRate> all = transactionTemplate.execute(status -> {
+            for (FxRate change : changes) {
+                FxRate rate = rateRepository.findByCurrency(change.getCurrency()).orElse(change);
+                rate.setRate(change.getRate());
+                rate.setUpdatedAt(now);
+                rateRepository.save(rate);
+            }
+            return rateRepository.findAll();
+        });
+        // Swap only after commit, so the snapshot never holds rates that were rolled back
+        return activate(all);
+    }
+
+    public Currency getBaseCurrency() {
+        return baseCurrency;
+    }
+}
@@ -0,0 +1,120 @@
+package com.altruist.projects.ucp.payment.fx;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Currency;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.altruist.projects.ucp.payment.model.FxRate;
+
+/**
+ * Immutable set of exchange rates, activated as a whole by {@link FxRateService}.
+ *
+ * <p>Rates are kept in a primitive array indexed by the currency's ISO 4217 numeric code, so a
+ * conversion is two array reads and a multiplication: no map lookup, lock or boxing.</p>
+ */
+public final class FxRateSnapshot {
+
+    /** ISO 4217 numeric codes are three digits */
+    private static final int CURRENCY_IDS = 1000;
+
+    private final long version;
+    private final Instant loadedAt;
+    private final Currency baseCurrency;
+    private final double[] perBase; // Units of the currency per base unit, 0 = no rate
+    private final Currency[] currencies;
+
+    private FxRateSnapshot(long version, Instant loadedAt, Currency baseCurrency, List<FxRate> rates) {
+        this.version = version;
+        this.loadedAt = loadedAt;
+        this.baseCurrency = baseCurrency;
+        this.perBase = new double[CURRENCY_IDS];
+        this.currencies = new Currency[CURRENCY_IDS];
+        for (FxRate rate : rates) {
+            int id = idOf(rate.getCurrency());
+            if (currencies[id] != null && !currencies[id].equals(rate.getCurrency())) {
+                throw new IllegalArgumentException("Currencies " + currencies[id] + " and " + rate.getCurrency()
+                        + " share numeric code " + id);
+            }
+            if (rate.getRate() == null || rate.getRate().signum() <= 0) {
+                throw new IllegalArgumentException("Rate of " + rate.getCurrency() + " must be positive");
+            }
+            currencies[id] = rate.getCurrency();
+            perBase[id] = rate.getRate().doubleValue();
+        }
+        perBase[idOf(baseCurrency)] = 1.0;
+        currencies[idOf(baseCurrency)] = baseCurrency;
+    }
+
+    public static FxRateSnapshot of(long version, Instant loadedAt, Currency baseCurrency, List<FxRate> rates) {
+        return new FxRateSnapshot(version, loadedAt, baseCurrency, rates);
+    }
+
+    /**
+     * Whether the currency can be converted with this snapshot; false for a currency without an ISO
+     * numeric code, which can never have a rate
+     */
+    public boolean supports(Currency currency) {
+        int id = currency.getNumericCode();
+        return id > 0 && id < CURRENCY_IDS && perBase[id] > 0;
+    }
+
+    /**
+     * Convert minor units between two currencies, rounded half up to the minor unit
+     * @throws IllegalArgumentException if either currency has no rate
+     */
+    public long convert(long amount, Currency from, Currency to) {
+        if (from.equals(to)) {
+            return amount;
+        }
+        return Math.round(amount * rate(from, to));
+    }
+
+    /**
+     * Units of {@code to} per unit of {@code from}
+     * @throws IllegalArgumentException if either currency has no rate
+     */
+    public double rate(Currency from, Currency to) {
+        double fromRate = perBase[idOf(from)];
+        double toRate = perBase[idOf(to)];
+        if (fromRate <= 0 || toRate <= 0) {
+            throw new IllegalArgumentException("No exchange rate from " + from + " to " + to);
+        }
+        return toRate / fromRate;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Instant getLoadedAt() {
+        return loadedAt;
+    }
+
+    public Currency getBaseCurrency() {
+        return baseCurrency;
+    }
+
+    /**
+     * All rates against the base currency by currency code
+     */
+    public Map<String, BigDecimal> getRates() {
+        Map<String, BigDecimal> rates = new TreeMap<>();
+        for (int id = 0; id < CURRENCY_IDS; id++) {
+            if (currencies[id] != null) {
+                rates.put(currencies[id].getCurrencyCode(), BigDecimal.valueOf(perBase[id]));
+            }
+        }
+        return rates;
+    }
+
+    private static int idOf(Currency currency) {
+        int id = currency.getNumericCode();
+        if (id <= 0 || id >= CURRENCY_IDS) {
+            throw new IllegalArgumentException("Currency " + currency + " has no ISO numeric code");
+        }
+        return id;
+    }
+}
@@ -1,5 +1,7 @@
 package com.altruist.projects.ucp.payment.gateway;
 
+import java.util.UUID;
+
 import org.springframework.stereotype.Component;
 
 import com.altruist.projects.ucp.payment.dto.PaymentRequest;
@@ -29,6 +31,7 @@ public class ApplePayPaymentGateway implements PaymentGateway {
                     .status("SUCCESS")
                     .message("Payment processed successfully via Apple Pay")
                     .gatewayUsed("APPLE_PAY")
+                    .externalReference(UUID.randomUUID().toString())
                     .build();
                     
         } catch (Exception e) {
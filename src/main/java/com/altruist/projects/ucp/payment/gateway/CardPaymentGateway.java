@@ -1,5 +1,7 @@
 package com.altruist.projects.ucp.payment.gateway;
 
+import java.util.UUID;
+
 import org.springframework.stereotype.Component;
 
 import com.altruist.projects.ucp.payment.dto.PaymentRequest;
@@ -27,6 +29,7 @@ public class CardPaymentGateway implements PaymentGateway {
                     .status("SUCCESS")
                     .message("Payment processed successfully via Card")
                     .gatewayUsed("CARD")
+                    .externalReference(UUID.randomUUID().toString())
                     .build();
                     
         } catch (Exception e) {
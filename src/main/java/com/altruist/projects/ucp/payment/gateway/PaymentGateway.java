@@ -1,5 +1,7 @@
 package com.altruist.projects.ucp.payment.gateway;
 
+import java.util.concurrent.CompletableFuture;
+
 import com.altruist.projects.ucp.payment.dto.PaymentRequest;
 import com.altruist.projects.ucp.payment.dto.PaymentResponse;
 
@@ -13,9 +15,29 @@ public interface PaymentGateway {
      */
     PaymentResponse processPayment(PaymentRequest request);
     
+    /**
+     * Process payment without blocking the caller, for processors with a non-blocking client.
+     * Defaults to running {@link #processPayment(PaymentRequest)} on the calling thread.
+     */
+    default CompletableFuture<PaymentResponse> processPaymentAsync(PaymentRequest request) {
+        try {
+            return CompletableFuture.completedFuture(processPayment(request));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    
     /**
      * Get the gateway type
      */
     String getGatewayType();
     
+    /**
+     * Get the provider id, unique among gateways of the same type.
+     * Several providers (e.g. two card processors) can serve one gateway type.
+     */
+    default String getProviderId() {
+        return getGatewayType();
+    }
+    
 }
@@ -0,0 +1,53 @@
+package com.altruist.projects.ucp.payment.gateway.simulation;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+
+import com.altruist.projects.ucp.payment.gateway.PaymentGateway;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Wraps every {@link PaymentGateway} in a {@link SimulatedLatencyGateway} when the
+ * {@code loadtest} profile is active.
+ *
+ * <p>Defaults come from {@code payment.simulation.*} and can be overridden per gateway type,
+ * e.g. {@code payment.simulation.CARD.median-latency-ms=250}.</p>
+ */
+@Slf4j
+@Configuration
+@Profile("loadtest")
+public class SimulatedGatewayConfig {
+
+    private static final String PREFIX = "payment.simulation.";
+
+    @Bean
+    static BeanPostProcessor simulatedGatewayPostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof PaymentGateway gateway) || bean instanceof SimulatedLatencyGateway) {
+                    return bean;
+                }
+                String type = gateway.getGatewayType();
+                long median = property(environment, type, "median-latency-ms", Long.class, 50L);
+                long p99 = property(environment, type, "p99-latency-ms", Long.class, 400L);
+                double errorRate = property(environment, type, "error-rate", Double.class, 0.01);
+                double timeoutRate = property(environment, type, "timeout-rate", Double.class, 0.001);
+                long timeout = property(environment, type, "timeout-ms", Long.class, 5000L);
+
+                log.info("Simulating {} gateway: median={}ms, p99={}ms, errorRate={}, timeoutRate={}, timeout={}ms",
+                        type, median, p99, errorRate, timeoutRate, timeout);
+                return new SimulatedLatencyGateway(gateway, median, p99, errorRate, timeoutRate, timeout);
+            }
+        };
+    }
+
+    private static <T> T property(Environment environment, String gatewayType, String key, Class<T> type, T defaultValue) {
+        T fallback = environment.getProperty(PREFIX + key, type, defaultValue);
+        return environment.getProperty(PREFIX + gatewayType + "." + key, type, fallback);
+    }
+}
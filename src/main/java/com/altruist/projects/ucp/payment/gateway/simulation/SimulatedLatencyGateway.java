@@ -0,0 +1,123 @@
+package com.altruist.projects.ucp.payment.gateway.simulation;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.altruist.projects.ucp.payment.dto.PaymentRequest;
+import com.altruist.projects.ucp.payment.dto.PaymentResponse;
+import com.altruist.projects.ucp.payment.gateway.PaymentGateway;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Decorator that makes a gateway adapter behave like a real processor for load testing:
+ * log-normally distributed latency, random declines and timeouts.
+ * Only wired in by {@link SimulatedGatewayConfig} under the {@code loadtest} profile.
+ */
+@Slf4j
+public class SimulatedLatencyGateway implements PaymentGateway {
+
+    /** z-score of the 99th percentile of the standard normal distribution */
+    private static final double Z_99 = 2.326;
+
+    private final PaymentGateway delegate;
+    private final double medianLatencyMillis;
+    private final double sigma;
+    private final double errorRate;
+    private final double timeoutRate;
+    private final long timeoutMillis;
+
+    public SimulatedLatencyGateway(PaymentGateway delegate, long medianLatencyMillis, long p99LatencyMillis,
+                                   double errorRate, double timeoutRate, long timeoutMillis) {
+        if (p99LatencyMillis < medianLatencyMillis) {
+            throw new IllegalArgumentException("p99 latency must not be below the median for " + delegate.getGatewayType());
+        }
+        this.delegate = delegate;
+        this.medianLatencyMillis = medianLatencyMillis;
+        this.sigma = medianLatencyMillis > 0 ? Math.log((double) p99LatencyMillis / medianLatencyMillis) / Z_99 : 0.0;
+        this.errorRate = errorRate;
+        this.timeoutRate = timeoutRate;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public PaymentResponse processPayment(PaymentRequest request) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double outcome = random.nextDouble();
+
+        if (outcome < timeoutRate) {
+            sleep(timeoutMillis);
+            return failed("Simulated gateway timeout after " + timeoutMillis + "ms");
+        }
+
+        sleep(sampleLatencyMillis(random));
+
+        if (outcome < timeoutRate + errorRate) {
+            return failed("Simulated gateway decline");
+        }
+        return delegate.processPayment(request);
+    }
+
+    /**
+     * Same behaviour as {@link #processPayment(PaymentRequest)}, but the latency is a timer
+     * instead of a sleeping thread
+     */
+    @Override
+    public CompletableFuture<PaymentResponse> processPaymentAsync(PaymentRequest request) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double outcome = random.nextDouble();
+        boolean timeout = outcome < timeoutRate;
+        long delayMillis = timeout ? timeoutMillis : sampleLatencyMillis(random);
+
+        return CompletableFuture.supplyAsync(() -> {
+            if (timeout) {
+                return failed("Simulated gateway timeout after " + timeoutMillis + "ms");
+            }
+            if (outcome < timeoutRate + errorRate) {
+                return failed("Simulated gateway decline");
+            }
+            return delegate.processPayment(request);
+        }, CompletableFuture.delayedExecutor(Math.max(delayMillis, 0), TimeUnit.MILLISECONDS));
+    }
+
+    @Override
+    public String getGatewayType() {
+        return delegate.getGatewayType();
+    }
+
+    @Override
+    public String getProviderId() {
+        return delegate.getProviderId();
+    }
+
+    /**
+     * Log-normal latency: median * e^(sigma * Z)
+     */
+    long sampleLatencyMillis(ThreadLocalRandom random) {
+        if (medianLatencyMillis <= 0) {
+            return 0;
+        }
+        return Math.round(medianLatencyMillis * Math.exp(sigma * random.nextGaussian()));
+    }
+
+    private PaymentResponse failed(String message) {
+        return PaymentResponse.builder()
+                .status("FAILED")
+                .message(message)
+                .gatewayUsed(getGatewayType())
+                .build();
+    }
+
+    private void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.debug("Simulated latency interrupted for {} gateway", getGatewayType());
+        }
+    }
+}
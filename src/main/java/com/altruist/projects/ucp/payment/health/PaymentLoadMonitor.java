@@ -0,0 +1,215 @@
+package com.altruist.projects.ucp.payment.health;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.altruist.projects.ucp.payment.dto.HealthStatusResponse;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Tracks the load state of the payment pipeline (in-flight payments, connection
+ * pool usage and gateway health) and derives readiness / liveness from it.
+ */
+@Slf4j
+@Component
+public class PaymentLoadMonitor {
+
+    public static final String UP = "UP";
+    public static final String DOWN = "DOWN";
+
+    private final ObjectProvider<HikariDataSource> dataSources;
+    private final int maxInFlight;
+    private final double maxPoolUsage;
+    private final int gatewayFailureThreshold;
+    private final long stallTimeoutNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger laneWaits = new AtomicInteger();
+    private final AtomicLong lastCompletedNanos = new AtomicLong(System.nanoTime());
+    private final Map<String, AtomicInteger> consecutiveGatewayFailures = new ConcurrentHashMap<>();
+
+    public PaymentLoadMonitor(ObjectProvider<HikariDataSource> dataSources,
+                              @Value("${payment.health.max-in-flight:200}") int maxInFlight,
+                              @Value("${payment.health.max-pool-usage:0.9}") double maxPoolUsage,
+                              @Value("${payment.health.gateway-failure-threshold:5}") int gatewayFailureThreshold,
+                              @Value("${payment.health.stall-timeout-seconds:60}") long stallTimeoutSeconds) {
+        this.dataSources = dataSources;
+        this.maxInFlight = maxInFlight;
+        this.maxPoolUsage = maxPoolUsage;
+        this.gatewayFailureThreshold = gatewayFailureThreshold;
+        this.stallTimeoutNanos = TimeUnit.SECONDS.toNanos(stallTimeoutSeconds);
+    }
+
+    /**
+     * Register the gateways so they are reported before their first payment
+     */
+    public void registerGateways(Collection<String> gatewayTypes) {
+        gatewayTypes.forEach(type -> consecutiveGatewayFailures.putIfAbsent(type, new AtomicInteger()));
+    }
+
+    /**
+     * Admit a payment into the pipeline
+     * @return false if the replica is already at its in-flight limit and the payment must be shed
+     */
+    public boolean tryStartPayment() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current + laneWaits.get() >= maxInFlight) {
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Release a payment previously admitted by {@link #tryStartPayment()}
+     */
+    public void paymentFinished() {
+        inFlight.decrementAndGet();
+        lastCompletedNanos.set(System.nanoTime());
+    }
+
+    /**
+     * Admit a request thread about to block until an earlier payment of its account has finished.
+     * Such threads count against the in-flight limit like running payments, as both hold a request thread.
+     * @return false if the replica is already at its in-flight limit and the payment must be shed
+     */
+    public boolean tryStartLaneWait() {
+        int current;
+        do {
+            current = laneWaits.get();
+            if (current + inFlight.get() >= maxInFlight) {
+                return false;
+            }
+        } while (!laneWaits.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Release a wait previously admitted by {@link #tryStartLaneWait()}
+     */
+    public void laneWaitFinished() {
+        laneWaits.decrementAndGet();
+    }
+
+    /**
+     * Record the outcome of a gateway call
+     */
+    public void recordGatewayOutcome(String gatewayType, boolean success) {
+        AtomicInteger failures = consecutiveGatewayFailures.computeIfAbsent(gatewayType, type -> new AtomicInteger());
+        if (success) {
+            failures.set(0);
+        } else if (failures.incrementAndGet() == gatewayFailureThreshold) {
+            log.warn("Gateway {} marked unhealthy after {} consecutive failures", gatewayType, gatewayFailureThreshold);
+        }
+    }
+
+    public boolean isGatewayHealthy(String gatewayType) {
+        AtomicInteger failures = consecutiveGatewayFailures.get(gatewayType);
+        return failures == null || failures.get() < gatewayFailureThreshold;
+    }
+
+    public int getInFlightPayments() {
+        return inFlight.get();
+    }
+
+    public int getLaneWaits() {
+        return laneWaits.get();
+    }
+
+    /**
+     * Liveness only fails when payments are in flight but none has completed
+     * within the stall timeout, i.e. the pipeline is wedged and a restart helps.
+     */
+    public HealthStatusResponse liveness() {
+        List<String> reasons = new ArrayList<>();
+        long sinceLastCompletion = System.nanoTime() - lastCompletedNanos.get();
+        if (inFlight.get() > 0 && sinceLastCompletion > stallTimeoutNanos) {
+            reasons.add(String.format("No payment completed in the last %d seconds with %d in flight",
+                    TimeUnit.NANOSECONDS.toSeconds(sinceLastCompletion), inFlight.get()));
+        }
+
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("inFlightPayments", inFlight.get());
+        details.put("secondsSinceLastCompletion", TimeUnit.NANOSECONDS.toSeconds(sinceLastCompletion));
+        return build(reasons, details);
+    }
+
+    /**
+     * Readiness fails when the replica should be taken out of rotation: in-flight limit reached (request
+     * threads waiting on account lanes included), connection pool saturated or no healthy gateway left.
+     */
+    public HealthStatusResponse readiness() {
+        List<String> reasons = new ArrayList<>();
+        Map<String, Object> details = new LinkedHashMap<>();
+
+        int current = inFlight.get();
+        int waiting = laneWaits.get();
+        details.put("inFlightPayments", current);
+        details.put("laneWaits", waiting);
+        details.put("maxInFlightPayments", maxInFlight);
+        if (current + waiting >= maxInFlight) {
+            reasons.add(String.format("In-flight payments %d and account lane waits %d reached limit %d",
+                    current, waiting, maxInFlight));
+        }
+
+        Map<String, Object> pools = new LinkedHashMap<>();
+        dataSources.orderedStream().forEach(dataSource -> {
+            HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+            if (pool == null) {
+                return; // Pool not started yet
+            }
+            int max = dataSource.getMaximumPoolSize();
+            double usage = max > 0 ? (double) pool.getActiveConnections() / max : 0.0;
+            Map<String, Object> poolDetails = new LinkedHashMap<>();
+            poolDetails.put("active", pool.getActiveConnections());
+            poolDetails.put("idle", pool.getIdleConnections());
+            poolDetails.put("max", max);
+            poolDetails.put("awaitingConnection", pool.getThreadsAwaitingConnection());
+            poolDetails.put("usage", usage);
+            poolDetails.put("readOnly", dataSource.isReadOnly());
+            pools.put(dataSource.getPoolName(), poolDetails);
+
+            // A busy read pool slows reports, not payments
+            if (!dataSource.isReadOnly() && (usage >= maxPoolUsage || pool.getThreadsAwaitingConnection() > 0)) {
+                reasons.add(String.format("Connection pool %s saturated (%d/%d active, %d waiting)",
+                        dataSource.getPoolName(), pool.getActiveConnections(), max,
+                        pool.getThreadsAwaitingConnection()));
+            }
+        });
+        details.put("connectionPools", pools);
+
+        Map<String, String> gateways = new LinkedHashMap<>();
+        consecutiveGatewayFailures.forEach((type, failures) ->
+                gateways.put(type, failures.get() < gatewayFailureThreshold ? UP : DOWN));
+        details.put("gateways", gateways);
+        if (!gateways.isEmpty() && !gateways.containsValue(UP)) {
+            reasons.add("No healthy payment gateway available");
+        }
+
+        return build(reasons, details);
+    }
+
+    private HealthStatusResponse build(List<String> reasons, Map<String, Object> details) {
+        return HealthStatusResponse.builder()
+                .status(reasons.isEmpty() ? UP : DOWN)
+                .reasons(reasons)
+                .details(details)
+                .build();
+    }
+}
@@ -0,0 +1,80 @@
+package com.altruist.projects.ucp.payment.ids;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Time-ordered 64-bit ids that need no coordination between replicas.
+ *
+ * <p>An id is 41 bits of milliseconds since {@link #EPOCH}, 10 bits of node number and 12 bits of
+ * sequence within the millisecond, so ids of one node strictly increase and ids of all nodes sort by
+ * creation time to the millisecond. The last millisecond and sequence live in one {@link AtomicLong}
+ * advanced by compare-and-set, so no thread ever blocks. When a millisecond's 4096 ids are used up, or
+ * the clock steps back, the generator runs ahead of the clock on the same counter instead of waiting:
+ * ids stay unique and ordered, and the clock catches up.</p>
+ */
+public final class SnowflakeIdGenerator {
+
+    /** 2026-01-01T00:00:00Z; the 41-bit timestamp lasts until 2095 */
+    public static final long EPOCH = 1_767_225_600_000L;
+
+    public static final int NODE_BITS = 10;
+    public static final int SEQUENCE_BITS = 12;
+    public static final int MAX_NODE = (1 << NODE_BITS) - 1;
+
+    private static final Map<Integer, SnowflakeIdGenerator> NODES = new ConcurrentHashMap<>();
+
+    private final long node;
+    private final LongSupplier clock;
+    private final AtomicLong last; // (millis since EPOCH << SEQUENCE_BITS) | sequence of the last id
+
+    public SnowflakeIdGenerator(int node, LongSupplier clock) {
+        if (node < 0 || node > MAX_NODE) {
+            throw new IllegalArgumentException("Node number must be between 0 and " + MAX_NODE + " but was " + node);
+        }
+        this.node = node;
+        this.clock = clock;
+        this.last = new AtomicLong(-1L);
+    }
+
+    /**
+     * The generator of a node shared by the whole JVM, so every user of the node number draws from one
+     * sequence
+     */
+    public static SnowflakeIdGenerator forNode(int node) {
+        return NODES.computeIfAbsent(node, number -> new SnowflakeIdGenerator(number, System::currentTimeMillis));
+    }
+
+    public long nextId() {
+        long now = (clock.getAsLong() - EPOCH) << SEQUENCE_BITS;
+        long previous;
+        long next;
+        do {
+            previous = last.get();
+            next = now > previous ? now : previous + 1; // Same millisecond, sequence exhausted or clock behind
+        } while (!last.compareAndSet(previous, next));
+        long millis = next >>> SEQUENCE_BITS;
+        return (millis << (NODE_BITS + SEQUENCE_BITS)) | (node << SEQUENCE_BITS) | (next & ((1L << SEQUENCE_BITS) - 1));
+    }
+
+    public int getNode() {
+        return (int) node;
+    }
+
+    /**
+     * Creation time of an id, to the millisecond
+     */
+    public static Instant timestampOf(long id) {
+        return Instant.ofEpochMilli((id >>> (NODE_BITS + SEQUENCE_BITS)) + EPOCH);
+    }
+
+    /**
+     * Node number that generated an id
+     */
+    public static int nodeOf(long id) {
+        return (int) ((id >>> SEQUENCE_BITS) & MAX_NODE);
+    }
+}
@@ -0,0 +1,40 @@
+package com.altruist.projects.ucp.payment.ids;
+
+import java.lang.reflect.Member;
+import java.util.EnumSet;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+import org.hibernate.generator.GeneratorCreationContext;
+
+/**
+ * Hibernate side of {@link SnowflakeId}. Ids are known before the insert, so inserts can be batched
+ * and need no round trip for the key.
+ */
+public class SnowflakeIdentifierGenerator implements BeforeExecutionGenerator {
+
+    /** Hibernate setting carrying the node number, set from {@code payment.ids.node} */
+    public static final String NODE_SETTING = "ucp.ids.node";
+
+    private final transient SnowflakeIdGenerator generator;
+
+    public SnowflakeIdentifierGenerator(SnowflakeId config, Member member, GeneratorCreationContext context) {
+        Object node = context.getServiceRegistry().requireService(ConfigurationService.class)
+                .getSettings().get(NODE_SETTING);
+        this.generator = SnowflakeIdGenerator.forNode(node == null ? 0 : Integer.parseInt(node.toString()));
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue,
+                           EventType eventType) {
+        return generator.nextId();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+}
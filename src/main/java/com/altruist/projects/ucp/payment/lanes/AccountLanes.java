@@ -0,0 +1,216 @@
+package com.altruist.projects.ucp.payment.lanes;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.altruist.projects.ucp.payment.health.PaymentLoadMonitor;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Serializes payments per debited account without database locks.
+ *
+ * <p>Every account with payments in flight has a mailbox: a chain of completion signals where each
+ * payment starts only once the previous payment of the same account has finished, including its
+ * persistence. Payments of different accounts never wait for each other. Mailboxes exist only while
+ * an account has payments in flight, and a mailbox already holding {@code maxDepth} payments rejects
+ * further ones so a hot account cannot pile up requests.</p>
+ *
+ * <p>A blocking payment that has to wait parks its request thread before pipeline admission control
+ * sees it, so the wait is admitted by the {@link PaymentLoadMonitor}: parked threads count against the
+ * replica's in-flight limit and readiness, and a wait beyond that limit is shed like a full mailbox.</p>
+ *
+ * <p>The ordering holds within this replica; replicas sharing the database need account-affine
+ * routing for the same guarantee.</p>
+ */
+@Slf4j
+@Component
+public class AccountLanes {
+
+    private final Executor completionExecutor;
+    private final PaymentLoadMonitor loadMonitor;
+    private final boolean enabled;
+    private final int maxDepth;
+
+    private final Map<String, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    private final AtomicInteger peakDepth = new AtomicInteger();
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder waited = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder shedWaits = new LongAdder();
+
+    public AccountLanes(@Qualifier("paymentCompletionExecutor") Executor completionExecutor,
+                        PaymentLoadMonitor loadMonitor,
+                        @Value("${payment.lanes.enabled:true}") boolean enabled,
+                        @Value("${payment.lanes.max-depth:32}") int maxDepth) {
+        if (maxDepth < 1) {
+            throw new IllegalArgumentException("payment.lanes.max-depth must be at least 1");
+        }
+        this.completionExecutor = completionExecutor;
+        this.loadMonitor = loadMonitor;
+        this.enabled = enabled;
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Payments of one account admitted to this replica and not finished yet
+     */
+    private static final class Mailbox {
+        private volatile int depth;
+        private CompletableFuture<Void> tail = CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Place in an account's mailbox: starts when {@code previous} completes, completes {@code done}
+     */
+    private record Turn(String account, CompletableFuture<Void> previous, CompletableFuture<Void> done, long enteredNanos) {
+    }
+
+    /**
+     * Run a blocking task on the calling thread once every earlier payment of the account has finished.
+     * Returns {@code whenFull} instead when the account's mailbox is full, or when the task would have to
+     * wait and the load monitor admits no more waiting threads.
+     */
+    public <T> T execute(String account, Supplier<T> task, Supplier<T> whenFull) {
+        if (!enabled || account == null) {
+            return task.get();
+        }
+        Turn turn = enter(account);
+        if (turn == null) {
+            return whenFull.get();
+        }
+        boolean mustWait = !turn.previous().isDone();
+        if (mustWait && !loadMonitor.tryStartLaneWait()) {
+            // Hold the place until the previous payment finishes, so the next one still waits for it
+            turn.previous().whenComplete((ignored, error) -> leave(turn));
+            shedWaits.increment();
+            log.warn("Shedding payment from account {}, replica at capacity with waiting request threads", account);
+            return whenFull.get();
+        }
+        try {
+            if (mustWait) {
+                try {
+                    turn.previous().join();
+                } finally {
+                    loadMonitor.laneWaitFinished();
+                }
+                waited(turn);
+            }
+            return task.get();
+        } finally {
+            leave(turn);
+        }
+    }
+
+    /**
+     * Start a non-blocking task once every earlier payment of the account has finished: on the calling
+     * thread when the account is idle, otherwise on the completion executor. The returned future completes
+     * with {@code whenFull} when the account's mailbox is full.
+     */
+    public <T> CompletableFuture<T> submit(String account, Supplier<CompletableFuture<T>> task, Supplier<T> whenFull) {
+        if (!enabled || account == null) {
+            return start(task);
+        }
+        Turn turn = enter(account);
+        if (turn == null) {
+            return CompletableFuture.completedFuture(whenFull.get());
+        }
+        CompletableFuture<T> result;
+        if (turn.previous().isDone()) {
+            result = start(task);
+        } else {
+            result = turn.previous().thenComposeAsync(ignored -> {
+                waited(turn);
+                return start(task);
+            }, completionExecutor);
+        }
+        result.whenComplete((response, error) -> leave(turn));
+        return result;
+    }
+
+    private static <T> CompletableFuture<T> start(Supplier<CompletableFuture<T>> task) {
+        try {
+            return task.get();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Append a turn to the account's mailbox, or {@code null} when it is full
+     */
+    private Turn enter(String account) {
+        Turn[] turn = new Turn[1];
+        Mailbox entered = mailboxes.compute(account, (key, mailbox) -> {
+            Mailbox target = mailbox == null ? new Mailbox() : mailbox;
+            if (target.depth >= maxDepth) {
+                return target;
+            }
+            target.depth++;
+            CompletableFuture<Void> done = new CompletableFuture<>();
+            turn[0] = new Turn(key, target.tail, done, System.nanoTime());
+            target.tail = done;
+            return target;
+        });
+        if (turn[0] == null) {
+            rejected.increment();
+            log.warn("Rejecting payment from account {}, {} payments already queued", account, entered.depth);
+            return null;
+        }
+        admitted.increment();
+        peakDepth.accumulateAndGet(entered.depth, Math::max);
+        return turn[0];
+    }
+
+    private void waited(Turn turn) {
+        waited.increment();
+        waitNanos.add(System.nanoTime() - turn.enteredNanos());
+    }
+
+    private void leave(Turn turn) {
+        turn.done().complete(null);
+        mailboxes.computeIfPresent(turn.account(), (key, mailbox) -> --mailbox.depth == 0 ? null : mailbox);
+    }
+
+    /**
+     * Mailbox depths and wait counters for ops dashboards
+     */
+    public Map<String, Object> snapshot() {
+        int active = 0;
+        int queued = 0;
+        int deepest = 0;
+        for (Mailbox mailbox : mailboxes.values()) {
+            int depth = mailbox.depth;
+            if (depth > 0) {
+                active++;
+                queued += depth - 1;
+                deepest = Math.max(deepest, depth);
+            }
+        }
+        long waits = waited.sum();
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("enabled", enabled);
+        snapshot.put("maxDepth", maxDepth);
+        snapshot.put("activeAccounts", active);
+        snapshot.put("queuedPayments", queued);
+        snapshot.put("deepestMailbox", deepest);
+        snapshot.put("peakDepth", peakDepth.get());
+        snapshot.put("admitted", admitted.sum());
+        snapshot.put("waited", waits);
+        snapshot.put("averageWaitMillis", waits == 0 ? 0.0 : waitNanos.sum() / 1_000_000.0 / waits);
+        snapshot.put("rejected", rejected.sum());
+        snapshot.put("shedWaits", shedWaits.sum());
+        return snapshot;
+    }
+}
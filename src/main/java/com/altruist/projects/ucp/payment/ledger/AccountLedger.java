@@ -0,0 +1,380 @@
+package com.altruist.projects.ucp.payment.ledger;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Currency;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.altruist.projects.ucp.payment.dto.AccountBalance;
+import com.altruist.projects.ucp.payment.model.LedgerEntry;
+import com.altruist.projects.ucp.payment.model.LedgerSnapshot;
+import com.altruist.projects.ucp.payment.model.Payment;
+import com.altruist.projects.ucp.payment.model.PaymentStatus;
+import com.altruist.projects.ucp.payment.repository.LedgerEntryRepository;
+import com.altruist.projects.ucp.payment.repository.LedgerSnapshotRepository;
+import com.altruist.projects.ucp.payment.repository.PaymentRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Double-entry ledger of successful payments with in-memory account balances.
+ *
+ * <p>A successful payment posts a debit of its total to {@code fromAccount}, a credit of its amount to
+ * {@code toAccount} and a credit of its charges to the fee account. Balances are {@link LongAdder} cells
+ * per account and currency, updated when the payment is posted, so reads and concurrent postings to a
+ * hot account never lock. Postings are queued and a single writer inserts them in group commits of up
+ * to {@code batch-size} postings, waiting up to {@code linger-ms} to fill a batch; a failed commit is
+ * retried so the table never falls behind the balances for good. The queue holds at most
+ * {@code queue-capacity} postings: when the writer falls that far behind, posting blocks the payment's
+ * completion thread until there is room, which slows payment completion to the commit rate instead of
+ * growing the backlog.</p>
+ *
+ * <p>Postings still queued when the process dies are lost, although their payments are already
+ * {@code SUCCESS}. At startup the balances are therefore the latest snapshot (every balance through the
+ * highest committed entry id) plus the entries committed after it, and then every SUCCESS payment
+ * without ledger entries is posted again. The balances include this replica's postings only, so the
+ * ledger should run on one replica or behind account-affine routing.</p>
+ */
+@Slf4j
+@Component
+public class AccountLedger implements SmartLifecycle {
+
+    private final LedgerEntryRepository entryRepository;
+    private final LedgerSnapshotRepository snapshotRepository;
+    private final PaymentRepository paymentRepository;
+    private final Clock clock;
+    private final boolean enabled;
+    private final String feeAccount;
+    private final int batchSize;
+    private final long lingerMillis;
+    private final BlockingQueue<List<LedgerEntry>> queue;
+
+    private final Map<String, Map<Currency, LongAdder>> balances = new ConcurrentHashMap<>();
+    private final Object commitLock = new Object();
+    private final LongAdder posted = new LongAdder();
+    private final LongAdder committed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder commitFailures = new LongAdder();
+    private final LongAdder blockedPosts = new LongAdder();
+    private final LongAdder reconciled = new LongAdder();
+
+    private volatile long snapshotThroughEntryId;
+    private volatile boolean running;
+    private Thread writer;
+
+    public AccountLedger(LedgerEntryRepository entryRepository,
+                         LedgerSnapshotRepository snapshotRepository,
+                         PaymentRepository paymentRepository,
+                         Clock clock,
+                         @Value("${payment.ledger.enabled:true}") boolean enabled,
+                         @Value("${payment.ledger.fee-account:UCP-FEES}") String feeAccount,
+                         @Value("${payment.ledger.batch-size:500}") int batchSize,
+                         @Value("${payment.ledger.linger-ms:20}") long lingerMillis,
+                         @Value("${payment.ledger.queue-capacity:20000}") int queueCapacity) {
+        this.entryRepository = entryRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.paymentRepository = paymentRepository;
+        this.clock = clock;
+        this.enabled = enabled;
+        this.feeAccount = feeAccount;
+        this.batchSize = batchSize;
+        this.lingerMillis = lingerMillis;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    /**
+     * Post the entries of a successful payment; other statuses post nothing. Blocks while the
+     * commit queue is full (backpressure on the completing thread, counted as {@code blockedPosts}).
+     */
+    public void post(Payment payment) {
+        if (!enabled || !PaymentStatus.SUCCESS.name().equals(payment.getStatus())) {
+            return;
+        }
+        Instant now = clock.instant();
+        List<LedgerEntry> entries = new ArrayList<>(3);
+        entries.add(entry(payment, payment.getFromAccount(), -payment.getTotalAmount(), now));
+        entries.add(entry(payment, payment.getToAccount(), payment.getAmount(), now));
+        if (payment.getCharges() != 0) {
+            entries.add(entry(payment, feeAccount, payment.getCharges(), now));
+        }
+        for (LedgerEntry entry : entries) {
+            cell(entry.getAccount(), entry.getCurrency()).add(entry.getAmount());
+        }
+        posted.increment();
+        if (queue.offer(entries)) {
+            return;
+        }
+        blockedPosts.increment();
+        log.warn("Ledger commit queue full, payment {} waits for the writer", payment.getId());
+        try {
+            queue.put(entries);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            // Posted again from the payment table at the next start
+            log.error("Interrupted before queueing the ledger entries of payment {}", payment.getId());
+        }
+    }
+
+    private static LedgerEntry entry(Payment payment, String account, long amount, Instant postedAt) {
+        return LedgerEntry.builder()
+                .paymentId(payment.getId())
+                .account(account)
+                .currency(payment.getCurrency())
+                .amount(amount)
+                .postedAt(postedAt)
+                .build();
+    }
+
+    private LongAdder cell(String account, Currency currency) {
+        return balances.computeIfAbsent(account, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(currency, key -> new LongAdder());
+    }
+
+    /**
+     * Balance of an account in one currency, 0 if it never had an entry in it
+     */
+    public long getBalance(String account, Currency currency) {
+        Map<Currency, LongAdder> cells = balances.get(account);
+        LongAdder cell = cells == null ? null : cells.get(currency);
+        return cell == null ? 0L : cell.sum();
+    }
+
+    /**
+     * Balances of an account in every currency it has entries in
+     */
+    public List<AccountBalance> getBalances(String account) {
+        Map<Currency, LongAdder> cells = balances.get(account);
+        if (cells == null) {
+            return List.of();
+        }
+        List<AccountBalance> result = new ArrayList<>(cells.size());
+        cells.forEach((currency, cell) -> result.add(new AccountBalance(account, currency, cell.sum())));
+        result.sort(Comparator.comparing(balance -> balance.getCurrency().getCurrencyCode()));
+        return result;
+    }
+
+    /**
+     * Store the balances through the highest committed entry: the previous snapshot plus the
+     * entries committed since
+     *
+     * @return number of balances stored, 0 if nothing was committed since the last snapshot
+     */
+    @Scheduled(fixedDelayString = "${payment.ledger.snapshot-interval-ms:300000}",
+               initialDelayString = "${payment.ledger.snapshot-interval-ms:300000}")
+    public synchronized int takeSnapshot() {
+        if (!enabled) {
+            return 0;
+        }
+        Long throughEntryId;
+        synchronized (commitLock) {
+            // The writer commits in id order, so every id up to the maximum is committed
+            throughEntryId = entryRepository.findMaxId();
+        }
+        long previous = snapshotThroughEntryId;
+        if (throughEntryId == null || throughEntryId <= previous) {
+            return 0;
+        }
+        Map<String, Map<Currency, Long>> totals = new LinkedHashMap<>();
+        for (LedgerSnapshot row : snapshotRepository.findByThroughEntryId(previous)) {
+            totals.computeIfAbsent(row.getAccount(), key -> new LinkedHashMap<>())
+                    .merge(row.getCurrency(), row.getBalance(), Long::sum);
+        }
+        for (AccountBalance delta : entryRepository.sumBalances(previous, throughEntryId)) {
+            totals.computeIfAbsent(delta.getAccount(), key -> new LinkedHashMap<>())
+                    .merge(delta.getCurrency(), delta.getBalance(), Long::sum);
+        }
+        Instant takenAt = clock.instant();
+        List<LedgerSnapshot> rows = new ArrayList<>();
+        totals.forEach((account, currencies) -> currencies.forEach((currency, balance) -> rows.add(
+                LedgerSnapshot.builder()
+                        .throughEntryId(throughEntryId)
+                        .account(account)
+                        .currency(currency)
+                        .balance(balance)
+                        .takenAt(takenAt)
+                        .build())));
+        snapshotRepository.saveAll(rows);
+        snapshotRepository.deleteOlderThan(throughEntryId);
+        snapshotThroughEntryId = throughEntryId;
+        log.info("Ledger snapshot of {} balances through entry {}", rows.size(), throughEntryId);
+        return rows.size();
+    }
+
+    /**
+     * Load the balances from the latest snapshot and the entries committed after it
+     */
+    synchronized void rebuild() {
+        balances.clear();
+        Long latest = snapshotRepository.findLatestThroughEntryId();
+        long through = latest == null ? 0L : latest;
+        int snapshotRows = 0;
+        if (latest != null) {
+            for (LedgerSnapshot row : snapshotRepository.findByThroughEntryId(through)) {
+                cell(row.getAccount(), row.getCurrency()).add(row.getBalance());
+                snapshotRows++;
+            }
+        }
+        List<AccountBalance> deltas = entryRepository.sumBalances(through, Long.MAX_VALUE);
+        for (AccountBalance delta : deltas) {
+            cell(delta.getAccount(), delta.getCurrency()).add(delta.getBalance());
+        }
+        snapshotThroughEntryId = through;
+        log.info("Ledger balances of {} accounts rebuilt from {} snapshot rows through entry {} and {} later balances",
+                balances.size(), snapshotRows, through, deltas.size());
+    }
+
+    /**
+     * Post the SUCCESS payments that have no ledger entries, e.g. because the process died with their
+     * postings still queued. Runs at startup, before payments are taken and with the writer running.
+     *
+     * @return number of payments posted
+     */
+    int reconcile() {
+        int count = 0;
+        long afterId = Long.MIN_VALUE;
+        while (true) {
+            List<Payment> page = paymentRepository.findUnpostedSuccessful(afterId, Limit.of(batchSize));
+            for (Payment payment : page) {
+                post(payment);
+                afterId = payment.getId();
+            }
+            count += page.size();
+            if (page.size() < batchSize) {
+                break;
+            }
+        }
+        reconciled.add(count);
+        if (count > 0) {
+            log.warn("Posted {} successful payments that had no ledger entries", count);
+        }
+        return count;
+    }
+
+    /**
+     * Posting, commit and snapshot counters
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("enabled", enabled);
+        snapshot.put("accounts", balances.size());
+        snapshot.put("posted", posted.sum());
+        snapshot.put("committed", committed.sum());
+        snapshot.put("queued", queue.size());
+        snapshot.put("queueCapacity", queue.size() + queue.remainingCapacity());
+        snapshot.put("blockedPosts", blockedPosts.sum());
+        snapshot.put("reconciled", reconciled.sum());
+        snapshot.put("batches", batches.sum());
+        snapshot.put("commitFailures", commitFailures.sum());
+        snapshot.put("snapshotThroughEntryId", snapshotThroughEntryId);
+        return snapshot;
+    }
+
+    private void run() {
+        List<List<LedgerEntry>> batch = new ArrayList<>(batchSize);
+        try {
+            while (running || !queue.isEmpty()) {
+                List<LedgerEntry> first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long lingerUntil = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = lingerUntil - System.nanoTime();
+                    if (batch.size() == batchSize || remaining <= 0) {
+                        break;
+                    }
+                    List<LedgerEntry> next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                    }
+                }
+                commit(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Ledger writer interrupted with {} postings not committed", batch.size() + queue.size());
+        }
+    }
+
+    private void commit(List<List<LedgerEntry>> batch) throws InterruptedException {
+        List<LedgerEntry> entries = new ArrayList<>(batch.size() * 3);
+        batch.forEach(entries::addAll);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                synchronized (commitLock) {
+                    entryRepository.saveAll(entries);
+                }
+                committed.add(batch.size());
+                batches.increment();
+                return;
+            } catch (RuntimeException e) {
+                commitFailures.increment();
+                entries.forEach(entry -> entry.setId(null));
+                log.warn("Ledger commit of {} postings failed (attempt {}): {}", batch.size(), attempt, e.toString());
+                Thread.sleep(Math.min(30_000L, 100L << Math.min(attempt, 10)));
+            }
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!enabled || running) {
+            return;
+        }
+        rebuild();
+        running = true;
+        writer = new Thread(this::run, "ledger-writer");
+        writer.setDaemon(true);
+        writer.start();
+        reconcile();
+    }
+
+    /**
+     * Lets the writer commit what is queued before returning
+     */
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        writer = null;
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Balances are rebuilt before the web server takes payments and postings are committed after
+     * it has stopped
+     */
+    @Override
+    public int getPhase() {
+        return DEFAULT_PHASE - 2048;
+    }
+}
@@ -0,0 +1,152 @@
+package com.altruist.projects.ucp.payment.limit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Adaptive concurrency limiter using AIMD (additive increase, multiplicative decrease)
+ * driven by measured latency.
+ *
+ * <p>The limit grows by one for every successful sample taken while the limiter is
+ * well utilised and is cut by {@code backoffRatio} whenever a call fails or the smoothed
+ * short-term latency exceeds {@code latencyTolerance} times the long-term baseline.
+ * Comparing smoothed latencies (instead of single samples) keeps heavy-tailed processors
+ * from collapsing the limit, and after a cut the limiter waits one limit's worth of
+ * samples before cutting again. Admission is a single CAS on the in-flight counter,
+ * so rejected calls cost almost nothing.</p>
+ */
+@Slf4j
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double SHORT_TERM_SMOOTHING = 0.1;
+    private static final double BASELINE_SMOOTHING = 0.01;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double latencyTolerance;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private volatile int limit;
+    private double estimatedLimit;
+    private double shortTermLatencyNanos;
+    private double baselineLatencyNanos;
+    private int samplesUntilNextDecrease;
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit,
+                                      double backoffRatio, double latencyTolerance) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Invalid limits for " + name + ": initial=" + initialLimit
+                    + ", min=" + minLimit + ", max=" + maxLimit);
+        }
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyTolerance = latencyTolerance;
+        this.limit = initialLimit;
+        this.estimatedLimit = initialLimit;
+    }
+
+    /**
+     * Try to admit a call. Every successful acquire must be followed by exactly one of
+     * {@link #onSuccess(long)}, {@link #onDropped()} or {@link #onIgnore()}.
+     */
+    public boolean tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= limit) {
+                rejected.increment();
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Release a call that completed normally and feed its latency into the limit
+     */
+    public void onSuccess(long latencyNanos) {
+        int current = inFlight.getAndDecrement();
+        synchronized (this) {
+            if (baselineLatencyNanos == 0) {
+                shortTermLatencyNanos = latencyNanos;
+                baselineLatencyNanos = latencyNanos;
+            }
+            shortTermLatencyNanos += (latencyNanos - shortTermLatencyNanos) * SHORT_TERM_SMOOTHING;
+            baselineLatencyNanos += (latencyNanos - baselineLatencyNanos) * BASELINE_SMOOTHING;
+
+            if (shortTermLatencyNanos > baselineLatencyNanos * latencyTolerance) {
+                decrease();
+            } else if (current * 2 >= limit) {
+                // Only probe upwards while the current limit is actually being used
+                estimatedLimit = Math.min(maxLimit, estimatedLimit + 1);
+                limit = (int) estimatedLimit;
+            }
+            countSample();
+        }
+    }
+
+    /**
+     * Release a call that failed or timed out, treating it as an overload signal
+     */
+    public void onDropped() {
+        inFlight.decrementAndGet();
+        synchronized (this) {
+            decrease();
+            countSample();
+        }
+    }
+
+    /**
+     * Release a call without taking a sample (e.g. rejected by validation before doing real work)
+     */
+    public void onIgnore() {
+        inFlight.decrementAndGet();
+    }
+
+    private void countSample() {
+        if (samplesUntilNextDecrease > 0) {
+            samplesUntilNextDecrease--;
+        }
+    }
+
+    private void decrease() {
+        if (samplesUntilNextDecrease > 0) {
+            return; // Already backed off within the last window of samples
+        }
+        samplesUntilNextDecrease = limit;
+        estimatedLimit = Math.max(minLimit, estimatedLimit * backoffRatio);
+        int newLimit = (int) estimatedLimit;
+        if (newLimit != limit) {
+            log.debug("Concurrency limit for {} reduced from {} to {}", name, limit, newLimit);
+        }
+        limit = newLimit;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public synchronized double getBaselineLatencyMillis() {
+        return baselineLatencyNanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,93 @@
+package com.altruist.projects.ucp.payment.limit;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Holds the global payment concurrency limiter and one limiter per gateway type,
+ * so a slow processor only throttles its own traffic.
+ */
+@Slf4j
+@Component
+public class ConcurrencyLimiterRegistry {
+
+    public static final String GLOBAL = "GLOBAL";
+
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double latencyTolerance;
+    private final long retryAfterSeconds;
+
+    private final AdaptiveConcurrencyLimiter globalLimiter;
+    private final Map<String, AdaptiveConcurrencyLimiter> gatewayLimiters = new ConcurrentHashMap<>();
+
+    public ConcurrencyLimiterRegistry(@Value("${payment.limit.initial-limit:20}") int initialLimit,
+                                      @Value("${payment.limit.min-limit:2}") int minLimit,
+                                      @Value("${payment.limit.max-limit:200}") int maxLimit,
+                                      @Value("${payment.limit.backoff-ratio:0.9}") double backoffRatio,
+                                      @Value("${payment.limit.latency-tolerance:2.0}") double latencyTolerance,
+                                      @Value("${payment.limit.retry-after-seconds:1}") long retryAfterSeconds) {
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyTolerance = latencyTolerance;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.globalLimiter = create(GLOBAL);
+    }
+
+    /**
+     * Create limiters up front for the known gateway types
+     */
+    public void registerGateways(Collection<String> gatewayTypes) {
+        gatewayTypes.forEach(this::forGateway);
+        log.info("Concurrency limiters initialized for gateways: {}", gatewayTypes);
+    }
+
+    public AdaptiveConcurrencyLimiter global() {
+        return globalLimiter;
+    }
+
+    public AdaptiveConcurrencyLimiter forGateway(String gatewayType) {
+        return gatewayLimiters.computeIfAbsent(gatewayType, this::create);
+    }
+
+    /**
+     * Suggested client back-off for rejected payments (Retry-After header)
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    /**
+     * Current limit, in-flight and rejection counts per limiter
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> limits = new LinkedHashMap<>();
+        limits.put(GLOBAL, describe(globalLimiter));
+        gatewayLimiters.forEach((type, limiter) -> limits.put(type, describe(limiter)));
+        return limits;
+    }
+
+    private AdaptiveConcurrencyLimiter create(String name) {
+        return new AdaptiveConcurrencyLimiter(name, initialLimit, minLimit, maxLimit, backoffRatio, latencyTolerance);
+    }
+
+    private Map<String, Object> describe(AdaptiveConcurrencyLimiter limiter) {
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("limit", limiter.getLimit());
+        details.put("inFlight", limiter.getInFlight());
+        details.put("rejected", limiter.getRejected());
+        details.put("baselineLatencyMillis", limiter.getBaselineLatencyMillis());
+        return details;
+    }
+}
@@ -1,16 +1,23 @@
 package com.altruist.projects.ucp.payment.model;
 
 import java.time.LocalTime;
+import java.util.Currency;
+
+import com.altruist.projects.ucp.payment.money.MinorUnitsDeserializer;
+import com.altruist.projects.ucp.payment.money.MinorUnitsSerializer;
 
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import tools.jackson.databind.annotation.JsonDeserialize;
+import tools.jackson.databind.annotation.JsonSerialize;
 
 /**
  * Country Payment Rule entity to store payment validation rules per country
@@ -23,19 +30,46 @@ import lombok.NoArgsConstructor;
 @Table(name = "country_payment_rules")
 public class CountryPaymentRule {
     
+    // Sequence ids (allocated in blocks) let Hibernate batch inserts during bulk imports
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "country_payment_rule_seq")
+    @SequenceGenerator(name = "country_payment_rule_seq", allocationSize = 50)
     private Long id;
     
-    private String countryCode;
+    private String countryCode; // "*" = applies to every country
+    
+    private String paymentMethod; // null = applies to every payment method of the country
+    
+    // Further match dimensions: the rule applies to payments in [bandMinAmount, bandMaxAmount) of the rule
+    // currency, made between activeFrom and activeUntil (rule timezone). Null bounds match anything.
+    @JsonSerialize(using = MinorUnitsSerializer.class)
+    @JsonDeserialize(using = MinorUnitsDeserializer.class)
+    private Long bandMinAmount;
+    @JsonSerialize(using = MinorUnitsSerializer.class)
+    @JsonDeserialize(using = MinorUnitsDeserializer.class)
+    private Long bandMaxAmount;
+    private LocalTime activeFrom;
+    private LocalTime activeUntil; // Before activeFrom means the band runs past midnight
     
-    // Amount range validation
-    private Double minAmount;
-    private Double maxAmount;
+    // Among matching rules the highest priority wins, then the most specific (country, method,
+    // amount band, time band, in that order of weight); null = 0
+    private Integer priority;
     
-    // Time-based validation (daytime operation hours)
+    // Amount range validation, minor units of the rule currency (null = no limit)
+    @JsonSerialize(using = MinorUnitsSerializer.class)
+    @JsonDeserialize(using = MinorUnitsDeserializer.class)
+    private Long minAmount;
+    @JsonSerialize(using = MinorUnitsSerializer.class)
+    @JsonDeserialize(using = MinorUnitsDeserializer.class)
+    private Long maxAmount;
+    
+    private Currency currency; // Currency of the amount range; null = the country's local currency
+    
+    // Time-based validation (operation hours, an end before the start means the window runs past midnight)
     private LocalTime operationStartTime; // e.g., 08:00
-    private LocalTime operationEndTime;   // e.g., 20:00
+    private LocalTime operationEndTime;   // e.g., 20:00, or 02:00 for an overnight window
+    
+    private String operatingDays; // e.g., "MON-FRI" or "MON,WED,SAT"; null = every day
     
     private String timezone; // e.g., "Asia/Kolkata", "America/New_York"
     
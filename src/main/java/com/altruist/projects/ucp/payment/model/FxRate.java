@@ -0,0 +1,43 @@
+package com.altruist.projects.ucp.payment.model;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Currency;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Exchange rate of one currency against the base currency (payment.fx.base-currency)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "fx_rates")
+public class FxRate {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "fx_rate_seq")
+    @SequenceGenerator(name = "fx_rate_seq", allocationSize = 50)
+    private Long id;
+    
+    @Column(unique = true, nullable = false)
+    private Currency currency;
+    
+    // Units of this currency per one unit of the base currency, e.g. 83.25 INR per USD
+    @Column(precision = 19, scale = 8, nullable = false)
+    private BigDecimal rate;
+    
+    private Instant updatedAt;
+}
@@ -0,0 +1,48 @@
+package com.altruist.projects.ucp.payment.model;
+
+import java.time.Instant;
+import java.util.Currency;
+
+import com.altruist.projects.ucp.payment.money.MinorUnitsSerializer;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import tools.jackson.databind.annotation.JsonSerialize;
+
+/**
+ * One side of a double-entry posting: the entries of a payment sum to zero per currency
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "ledger_entries", indexes = {
+        @Index(name = "idx_ledger_entries_account", columnList = "account"),
+        @Index(name = "idx_ledger_entries_payment", columnList = "paymentId")})
+public class LedgerEntry {
+    
+    // Sequence ids (allocated in blocks) let Hibernate batch the inserts of a group commit
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ledger_entry_seq")
+    @SequenceGenerator(name = "ledger_entry_seq", allocationSize = 500)
+    private Long id;
+    
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    private Long paymentId;
+    private String account;
+    private Currency currency;
+    @JsonSerialize(using = MinorUnitsSerializer.class)
+    private long amount; // Minor units, negative for a debit
+    private Instant postedAt;
+}
@@ -0,0 +1,40 @@
+package com.altruist.projects.ucp.payment.model;
+
+import java.time.Instant;
+import java.util.Currency;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Balance of one account and currency including every ledger entry up to {@code throughEntryId}
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "ledger_snapshots",
+       indexes = @Index(name = "idx_ledger_snapshots_through", columnList = "throughEntryId"))
+public class LedgerSnapshot {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ledger_snapshot_seq")
+    @SequenceGenerator(name = "ledger_snapshot_seq", allocationSize = 500)
+    private Long id;
+    
+    private long throughEntryId;
+    private String account;
+    private Currency currency;
+    private long balance; // Minor units
+    private Instant takenAt;
+}
@@ -1,37 +1,73 @@
 package com.altruist.projects.ucp.payment.model;
 
 import java.time.LocalDateTime;
+import java.util.Currency;
 
+import com.altruist.projects.ucp.payment.ids.SnowflakeId;
+import com.altruist.projects.ucp.payment.money.MinorUnitsSerializer;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
 import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import tools.jackson.databind.annotation.JsonSerialize;
 
 @Entity
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+@Table(indexes = {
+        @Index(name = "idx_payment_partition_month", columnList = "partitionMonth"),
+        @Index(name = "idx_payment_timestamp", columnList = "timestamp")})
 public class Payment {
     
+    // Time-ordered ids generated on this replica: no key round trip, batchable inserts, no clash across replicas
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
+    @JsonFormat(shape = JsonFormat.Shape.STRING) // Written as a string: Snowflake ids exceed 2^53
     private Long id;
     
     private String name;
     private String toAccount;
     private String fromAccount;
     private String description;
-    private Double amount;
-    private Double charges;
-    private Double totalAmount;
+    // Money columns are BIGINT minor units of the payment currency
+    @JsonSerialize(using = MinorUnitsSerializer.class)
+    private long amount;
+    @JsonSerialize(using = MinorUnitsSerializer.class)
+    private long charges;
+    @JsonSerialize(using = MinorUnitsSerializer.class)
+    private long totalAmount;
+    private Currency currency;
+    @JsonSerialize(using = MinorUnitsSerializer.class)
+    private long settlementAmount; // Amount converted into the destination's local currency
+    private Currency settlementCurrency;
     private String paymentMethod;
     private String status;
+    private String externalReference; // Processor's transaction reference, matched by reconciliation
     private String destinationCountry;
     private LocalDateTime timestamp;
+    private Integer partitionMonth; // yyyyMM of the timestamp; whole months are archived at once
+    
+    @PrePersist
+    void assignPartitionMonth() {
+        if (partitionMonth == null && timestamp != null) {
+            partitionMonth = partitionMonthOf(timestamp);
+        }
+    }
+    
+    /**
+     * Partition key of a payment timestamp, e.g. 202610
+     */
+    public static int partitionMonthOf(LocalDateTime timestamp) {
+        return timestamp.getYear() * 100 + timestamp.getMonthValue();
+    }
     
 }
@@ -0,0 +1,45 @@
+package com.altruist.projects.ucp.payment.model;
+
+import java.time.Instant;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Pending retry of a payment whose gateway call failed. A replica claims due rows in batches by
+ * setting a claim token and a lease; rows whose lease expired (the replica died) are claimed again.
+ * The version guards against writing back a row another replica has claimed since.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "payment_retries",
+       indexes = @Index(name = "idx_payment_retries_due", columnList = "dueAt"))
+public class PaymentRetry {
+    
+    @Id
+    @JsonFormat(shape = JsonFormat.Shape.STRING)
+    private Long paymentId;
+    
+    private int attempt; // Retry attempt to run next, starting at 1
+    private Instant dueAt;
+    
+    private String claimToken;
+    private String leaseOwner; // Node id of the claiming replica
+    private Instant leaseUntil;
+    
+    private String lastError;
+    
+    @Version
+    private Long version;
+}
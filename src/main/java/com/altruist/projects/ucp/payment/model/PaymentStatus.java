@@ -0,0 +1,41 @@
+package com.altruist.projects.ucp.payment.model;
+
+/**
+ * Lifecycle of a stored payment. A payment is saved {@code IN_FLIGHT} just before its gateway
+ * call and ends {@code SUCCESS} or {@code FAILED}; a failed call with retries left parks it as
+ * {@code RETRYING} until the retry scheduler picks it up again.
+ *
+ * <pre>
+ * PENDING -> IN_FLIGHT -> SUCCESS | FAILED | RETRYING
+ * RETRYING -> IN_FLIGHT | FAILED
+ * </pre>
+ */
+public enum PaymentStatus {
+    PENDING,
+    IN_FLIGHT,
+    RETRYING,
+    SUCCESS,
+    FAILED;
+
+    public boolean isFinal() {
+        return this == SUCCESS || this == FAILED;
+    }
+
+    public boolean canTransitionTo(PaymentStatus next) {
+        return switch (this) {
+            case PENDING -> next == IN_FLIGHT;
+            case IN_FLIGHT -> next == SUCCESS || next == FAILED || next == RETRYING;
+            case RETRYING -> next == IN_FLIGHT || next == FAILED;
+            case SUCCESS, FAILED -> false;
+        };
+    }
+
+    /**
+     * Whether a stored status string is final. {@code null} (rows saved before statuses were
+     * tracked) counts as in flight; statuses of other gateways' vocabularies count as final.
+     */
+    public static boolean isFinal(String status) {
+        return status != null && !PENDING.name().equals(status) && !IN_FLIGHT.name().equals(status)
+                && !RETRYING.name().equals(status);
+    }
+}
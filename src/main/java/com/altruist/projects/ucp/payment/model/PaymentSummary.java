@@ -0,0 +1,51 @@
+package com.altruist.projects.ucp.payment.model;
+
+import java.time.Instant;
+import java.util.Currency;
+
+import com.altruist.projects.ucp.payment.money.MinorUnitsSerializer;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import tools.jackson.databind.annotation.JsonSerialize;
+
+/**
+ * Persisted per-minute / per-hour payment rollup of one country, payment method, currency and status
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "payment_summaries",
+       indexes = @Index(name = "idx_payment_summaries_bucket", columnList = "granularity, bucketStart"))
+public class PaymentSummary {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payment_summary_seq")
+    @SequenceGenerator(name = "payment_summary_seq", allocationSize = 50)
+    private Long id;
+    
+    private String granularity; // "MINUTE" or "HOUR"
+    private Instant bucketStart;
+    
+    private String countryCode;
+    private String paymentMethod;
+    private Currency currency; // Of volume and charges
+    private String status;
+    
+    private Long paymentCount;
+    @JsonSerialize(using = MinorUnitsSerializer.class)
+    private Long volume; // Minor units
+    @JsonSerialize(using = MinorUnitsSerializer.class)
+    private Long charges;
+}
@@ -8,6 +8,8 @@
  * <ul>
  *   <li>{@link com.altruist.projects.ucp.payment.model.Payment} - Payment transaction entity</li>
  *   <li>{@link com.altruist.projects.ucp.payment.model.CountryPaymentRule} - Country-specific payment validation rules</li>
+ *   <li>{@link com.altruist.projects.ucp.payment.model.PaymentHoliday} - Country bank holidays closing the operating window</li>
+ *   <li>{@link com.altruist.projects.ucp.payment.model.PaymentRetry} - Queued retry of a failed gateway call</li>
  * </ul>
  * 
  * <h2>Key Features:</h2>
@@ -0,0 +1,35 @@
+package com.altruist.projects.ucp.payment.money;
+
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.DeserializationContext;
+import tools.jackson.databind.ValueDeserializer;
+
+/**
+ * Reads a JSON decimal (or numeric string) amount such as 1000.5 into minor units (100050).
+ * The number is taken from its text, so no binary floating point is involved.
+ */
+public class MinorUnitsDeserializer extends ValueDeserializer<Long> {
+
+    @Override
+    public Long deserialize(JsonParser p, DeserializationContext ctxt) {
+        JsonToken token = p.currentToken();
+        try {
+            if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+                return Money.toMinorUnits(p.getDecimalValue());
+            }
+            if (token == JsonToken.VALUE_STRING) {
+                return Money.parse(p.getString());
+            }
+        } catch (ArithmeticException | NumberFormatException e) {
+            return (Long) ctxt.handleWeirdStringValue(Long.class, p.getString(),
+                    "not an amount with at most %d decimals", Money.SCALE);
+        }
+        return (Long) ctxt.handleUnexpectedToken(Long.class, p);
+    }
+
+    @Override
+    public Class<?> handledType() {
+        return Long.class;
+    }
+}
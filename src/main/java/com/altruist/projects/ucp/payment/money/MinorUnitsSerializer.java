@@ -0,0 +1,16 @@
+package com.altruist.projects.ucp.payment.money;
+
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.SerializationContext;
+import tools.jackson.databind.ValueSerializer;
+
+/**
+ * Writes a minor-unit amount as a JSON decimal with two places, e.g. 101000 -> 1010.00
+ */
+public class MinorUnitsSerializer extends ValueSerializer<Long> {
+
+    @Override
+    public void serialize(Long value, JsonGenerator gen, SerializationContext ctxt) {
+        gen.writeNumber(Money.toDecimal(value));
+    }
+}
@@ -0,0 +1,102 @@
+package com.altruist.projects.ucp.payment.money;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fixed-point money helpers. Amounts travel through the payment pipeline as {@code long} minor
+ * units (hundredths of the currency unit: cents, paise, pence) next to an ISO 4217 {@link Currency},
+ * so comparisons and totals are exact and never box. Decimals only exist at the edges
+ * (JSON, CSV and log messages).
+ */
+public final class Money {
+
+    /** Decimal places of a minor-unit amount */
+    public static final int SCALE = 2;
+
+    /** Currency used for countries without an ISO 3166 currency of their own */
+    public static final Currency DEFAULT_CURRENCY = Currency.getInstance("USD");
+
+    private static final long BASIS_POINTS = 10_000L;
+
+    private static final Map<String, Currency> CURRENCY_BY_COUNTRY = new ConcurrentHashMap<>();
+
+    private Money() {
+    }
+
+    /**
+     * Parse a decimal amount such as "1000" or "99.95" into minor units
+     * @throws ArithmeticException if the amount has more than two decimals or overflows
+     * @throws NumberFormatException if the value is not a number
+     */
+    public static long parse(String decimal) {
+        return toMinorUnits(new BigDecimal(decimal.trim()));
+    }
+
+    /**
+     * Convert a decimal amount into minor units
+     * @throws ArithmeticException if the amount has more than two decimals or overflows
+     */
+    public static long toMinorUnits(BigDecimal decimal) {
+        return decimal.movePointRight(SCALE).longValueExact();
+    }
+
+    public static BigDecimal toDecimal(long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    /**
+     * Plain decimal text of an amount, e.g. 100050 -> "1000.50"
+     */
+    public static String format(long minorUnits) {
+        return toDecimal(minorUnits).toPlainString();
+    }
+
+    /**
+     * Share of an amount in basis points (1/100 of a percent), rounded half up to the minor unit
+     */
+    public static long basisPoints(long minorUnits, long basisPoints) {
+        long product = Math.multiplyExact(minorUnits, basisPoints);
+        long half = product >= 0 ? BASIS_POINTS / 2 : -BASIS_POINTS / 2;
+        return (product + half) / BASIS_POINTS;
+    }
+
+    /**
+     * Local currency of a destination country ("EU" and "UK" included), {@link #DEFAULT_CURRENCY} if it has none
+     */
+    public static Currency currencyOf(String countryCode) {
+        if (countryCode == null) {
+            return DEFAULT_CURRENCY;
+        }
+        return CURRENCY_BY_COUNTRY.computeIfAbsent(countryCode, Money::lookupCurrency);
+    }
+
+    /**
+     * Whether the currency's minor unit fits {@link #SCALE}; three-decimal currencies (e.g. KWD) do not
+     */
+    public static boolean isSupported(Currency currency) {
+        int digits = currency.getDefaultFractionDigits();
+        return digits >= 0 && digits <= SCALE;
+    }
+
+    private static Currency lookupCurrency(String countryCode) {
+        String code = countryCode.toUpperCase(Locale.ROOT);
+        switch (code) {
+            case "EU", "EUR":
+                return Currency.getInstance("EUR");
+            case "UK":
+                return Currency.getInstance("GBP");
+            default:
+                try {
+                    Currency currency = Currency.getInstance(new Locale("", code));
+                    return currency != null ? currency : DEFAULT_CURRENCY;
+                } catch (IllegalArgumentException e) {
+                    return DEFAULT_CURRENCY;
+                }
+        }
+    }
+}
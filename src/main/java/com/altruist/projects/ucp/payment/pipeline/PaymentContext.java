@@ -0,0 +1,88 @@
+package com.altruist.projects.ucp.payment.pipeline;
+
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import com.altruist.projects.ucp.payment.dto.PaymentRequest;
+import com.altruist.projects.ucp.payment.dto.PaymentResponse;
+import com.altruist.projects.ucp.payment.limit.AdaptiveConcurrencyLimiter;
+import com.altruist.projects.ucp.payment.model.Payment;
+import com.altruist.projects.ucp.payment.routing.RoutedProvider;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * State of one payment as it moves through the {@link PaymentPipeline}. Only one stage works on a
+ * context at a time, so it needs no synchronization.
+ */
+@Getter
+@Setter
+public class PaymentContext {
+
+    private final PaymentRequest request;
+    private final boolean async;
+    private final long startNanos = System.nanoTime();
+
+    private Currency settlementCurrency;
+    private long charges;
+    private long totalAmount;
+    private long settlementAmount;
+    private RoutedProvider provider;
+    private AdaptiveConcurrencyLimiter gatewayLimiter;
+    private Payment payment;
+    /** Gateway response once the gateway answered, then the final response */
+    private PaymentResponse response;
+    private boolean gatewaySucceeded;
+    private long gatewayNanos = -1;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private CompletableFuture<PaymentResponse> pending;
+
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private Map<String, Object> attributes;
+
+    /** Stages whose completion hooks are due, a prefix of the chain */
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    int passedStages;
+
+    public PaymentContext(PaymentRequest request, boolean async) {
+        this.request = request;
+        this.async = async;
+    }
+
+    /**
+     * Suspend the chain until the gateway call completes; the next stage runs with its
+     * response in {@link #getResponse()}, or the payment fails with its exception
+     */
+    public void suspend(CompletableFuture<PaymentResponse> gatewayCall) {
+        this.pending = gatewayCall;
+    }
+
+    CompletableFuture<PaymentResponse> takePending() {
+        CompletableFuture<PaymentResponse> future = pending;
+        pending = null;
+        return future;
+    }
+
+    /**
+     * State of stages that are not known to the pipeline
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getAttribute(String name) {
+        return attributes == null ? null : (T) attributes.get(name);
+    }
+
+    public void setAttribute(String name, Object value) {
+        if (attributes == null) {
+            attributes = new HashMap<>(4);
+        }
+        attributes.put(name, value);
+    }
+}
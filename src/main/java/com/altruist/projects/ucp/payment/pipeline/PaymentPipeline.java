@@ -0,0 +1,157 @@
+package com.altruist.projects.ucp.payment.pipeline;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import jdk.jfr.EventType;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import com.altruist.projects.ucp.payment.diagnostics.PaymentStageEvent;
+import com.altruist.projects.ucp.payment.dto.PaymentRequest;
+import com.altruist.projects.ucp.payment.dto.PaymentResponse;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs every {@link PaymentStage} bean for a payment. The chain is sorted once at startup into an
+ * array; a payment walks it with an index, without reflection, streams or per-stage allocation.
+ *
+ * <p>A stage ends the payment by returning a response. A stage may instead suspend the chain on the
+ * gateway call; the remaining stages then run on the calling thread if the gateway already answered
+ * (synchronous path), otherwise on the payment completion executor. When the payment has finished,
+ * the completion hooks of the stages that passed run in reverse order.</p>
+ *
+ * <p>Every stage run is also a {@link PaymentStageEvent} for Java Flight Recorder; when no recording
+ * enables it, the event is not even created and costs one check.</p>
+ */
+@Slf4j
+@Component
+public class PaymentPipeline {
+
+    private static final EventType STAGE_EVENT = EventType.getEventType(PaymentStageEvent.class);
+
+    private final PaymentStage[] stages;
+    private final PaymentStageListener[] listeners;
+    private final Executor completionExecutor;
+
+    public PaymentPipeline(List<PaymentStage> stages,
+                           List<PaymentStageListener> listeners,
+                           @Qualifier("paymentCompletionExecutor") Executor completionExecutor) {
+        List<PaymentStage> sorted = new ArrayList<>(stages);
+        sorted.sort(Comparator.comparing(PaymentStage::getPhase).thenComparingInt(PaymentStage::getOrder));
+        this.stages = sorted.toArray(new PaymentStage[0]);
+        this.listeners = listeners.toArray(new PaymentStageListener[0]);
+        this.completionExecutor = completionExecutor;
+        for (PaymentStageListener listener : this.listeners) {
+            listener.onCompiled(List.of(this.stages));
+        }
+        log.info("Payment pipeline compiled: {}", getStageNames());
+    }
+
+    /**
+     * Run a payment through the chain
+     * @param async Whether gateways are called through their non-blocking API
+     */
+    public CompletableFuture<PaymentResponse> execute(PaymentRequest request, boolean async) {
+        PaymentContext context = new PaymentContext(request, async);
+        CompletableFuture<PaymentResponse> result;
+        try {
+            result = resume(context, 0);
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        return result.whenComplete((response, error) -> complete(context, response, error));
+    }
+
+    public List<String> getStageNames() {
+        List<String> names = new ArrayList<>(stages.length);
+        for (PaymentStage stage : stages) {
+            names.add(stage.getPhase() + ":" + stage.getName());
+        }
+        return names;
+    }
+
+    private CompletableFuture<PaymentResponse> resume(PaymentContext context, int from) {
+        for (int i = from; i < stages.length; i++) {
+            PaymentStage stage = stages[i];
+            PaymentStageEvent event = STAGE_EVENT.isEnabled() ? new PaymentStageEvent() : null;
+            if (event != null) {
+                event.begin();
+            }
+            long startNanos = System.nanoTime();
+            PaymentResponse response = stage.process(context);
+            long elapsed = System.nanoTime() - startNanos;
+            if (event != null) {
+                event.end();
+                if (event.shouldCommit()) {
+                    event.stage = stage.getName();
+                    event.phase = stage.getPhase().name();
+                    event.country = context.getRequest().getDestinationCountry();
+                    event.paymentMethod = context.getRequest().getPaymentMethod();
+                    event.endedPayment = response != null;
+                    event.commit();
+                }
+            }
+            for (PaymentStageListener listener : listeners) {
+                listener.onStage(i, stage, elapsed, response);
+            }
+            if (response != null) {
+                context.setResponse(response);
+                return CompletableFuture.completedFuture(response);
+            }
+            context.passedStages = i + 1;
+
+            CompletableFuture<PaymentResponse> pending = context.takePending();
+            if (pending != null) {
+                int next = i + 1;
+                return onCompletionExecutor(pending, (gatewayResponse, error) -> {
+                    if (error != null) {
+                        return CompletableFuture.<PaymentResponse>failedFuture(unwrap(error));
+                    }
+                    context.setResponse(gatewayResponse);
+                    return resume(context, next);
+                }).thenCompose(Function.identity());
+            }
+        }
+        if (context.getResponse() == null) {
+            throw new IllegalStateException("No payment stage produced a response");
+        }
+        return CompletableFuture.completedFuture(context.getResponse());
+    }
+
+    private void complete(PaymentContext context, PaymentResponse response, Throwable error) {
+        Throwable cause = error == null ? null : unwrap(error);
+        for (int i = context.passedStages - 1; i >= 0; i--) {
+            try {
+                stages[i].onComplete(context, response, cause);
+            } catch (RuntimeException e) {
+                log.error("Completion hook of payment stage {} failed", stages[i].getName(), e);
+            }
+        }
+    }
+
+    /**
+     * Continue on the calling thread when the gateway already answered (synchronous path),
+     * otherwise on the completion executor so blocking persistence never runs on a timer thread
+     */
+    private <T> CompletableFuture<T> onCompletionExecutor(CompletableFuture<PaymentResponse> future,
+                                                          BiFunction<PaymentResponse, Throwable, T> continuation) {
+        return future.isDone() ? future.handle(continuation) : future.handleAsync(continuation, completionExecutor);
+    }
+
+    /**
+     * The exception a payment failed with, without the {@link CompletionException} wrapper
+     */
+    public static RuntimeException unwrap(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause instanceof RuntimeException runtime ? runtime : new CompletionException(cause);
+    }
+}
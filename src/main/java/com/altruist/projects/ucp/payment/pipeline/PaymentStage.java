@@ -0,0 +1,56 @@
+package com.altruist.projects.ucp.payment.pipeline;
+
+import com.altruist.projects.ucp.payment.dto.PaymentResponse;
+
+/**
+ * One step of payment processing. Stages are Spring beans collected by {@link PaymentPipeline} at
+ * startup and run in {@link Phase} order, then by {@link #getOrder()} within a phase, so a new
+ * check (rate limit, risk rule, ...) is added by declaring a bean rather than editing the facade.
+ */
+public interface PaymentStage {
+
+    enum Phase {
+        /** Admission control: load shedding and concurrency limits */
+        ADMIT,
+        /** Request defaults such as destination country and currency */
+        ENRICH,
+        /** Checks that may fail or decline the payment */
+        VALIDATE,
+        /** Charges and settlement amounts */
+        PRICE,
+        /** Gateway provider selection */
+        ROUTE,
+        /** Gateway call; may suspend the chain until the gateway answers */
+        EXECUTE,
+        /** Final status and response */
+        PERSIST
+    }
+
+    Phase getPhase();
+
+    /**
+     * Position within the phase, lower first
+     */
+    default int getOrder() {
+        return 0;
+    }
+
+    default String getName() {
+        return getClass().getSimpleName();
+    }
+
+    /**
+     * Run the stage
+     * @return null to continue with the next stage, or the response that ends the payment
+     */
+    PaymentResponse process(PaymentContext context);
+
+    /**
+     * Called once the payment has finished, in reverse order, for every stage whose
+     * {@link #process(PaymentContext)} returned null
+     * @param response The final response, null if the payment failed with an exception
+     * @param error The exception the payment failed with, or null
+     */
+    default void onComplete(PaymentContext context, PaymentResponse response, Throwable error) {
+    }
+}
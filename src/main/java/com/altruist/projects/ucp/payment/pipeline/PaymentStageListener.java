@@ -0,0 +1,25 @@
+package com.altruist.projects.ucp.payment.pipeline;
+
+import java.util.List;
+
+import com.altruist.projects.ucp.payment.dto.PaymentResponse;
+
+/**
+ * Observes every stage run of the {@link PaymentPipeline}, e.g. for timings
+ */
+public interface PaymentStageListener {
+
+    /**
+     * Called once with the compiled chain; {@code index} arguments refer to this list
+     */
+    default void onCompiled(List<PaymentStage> stages) {
+    }
+
+    /**
+     * Called after a stage returned
+     * @param elapsedNanos Time spent in {@link PaymentStage#process(PaymentContext)}; for a stage that
+     * suspends the chain this excludes the wait for the gateway
+     * @param response The response the stage ended the payment with, or null
+     */
+    void onStage(int index, PaymentStage stage, long elapsedNanos, PaymentResponse response);
+}
@@ -0,0 +1,73 @@
+package com.altruist.projects.ucp.payment.pipeline;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.stereotype.Component;
+
+import com.altruist.projects.ucp.payment.dto.PaymentResponse;
+
+/**
+ * Per-stage call counts, payments ended and latency of the payment pipeline, kept in arrays
+ * indexed by the stage's position in the chain
+ */
+@Component
+public class StageTimings implements PaymentStageListener {
+
+    private volatile List<PaymentStage> stages = List.of();
+    private LongAdder[] calls = new LongAdder[0];
+    private LongAdder[] ended = new LongAdder[0];
+    private LongAdder[] nanos = new LongAdder[0];
+    private LongAccumulator[] maxNanos = new LongAccumulator[0];
+
+    @Override
+    public void onCompiled(List<PaymentStage> compiled) {
+        int size = compiled.size();
+        calls = new LongAdder[size];
+        ended = new LongAdder[size];
+        nanos = new LongAdder[size];
+        maxNanos = new LongAccumulator[size];
+        for (int i = 0; i < size; i++) {
+            calls[i] = new LongAdder();
+            ended[i] = new LongAdder();
+            nanos[i] = new LongAdder();
+            maxNanos[i] = new LongAccumulator(Long::max, 0L);
+        }
+        stages = compiled; // Published last
+    }
+
+    @Override
+    public void onStage(int index, PaymentStage stage, long elapsedNanos, PaymentResponse response) {
+        calls[index].increment();
+        nanos[index].add(elapsedNanos);
+        maxNanos[index].accumulate(elapsedNanos);
+        if (response != null) {
+            ended[index].increment();
+        }
+    }
+
+    /**
+     * One entry per stage in chain order
+     */
+    public List<Map<String, Object>> snapshot() {
+        List<PaymentStage> compiled = stages;
+        List<Map<String, Object>> snapshot = new ArrayList<>(compiled.size());
+        for (int i = 0; i < compiled.size(); i++) {
+            long count = calls[i].sum();
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("stage", compiled.get(i).getName());
+            entry.put("phase", compiled.get(i).getPhase());
+            entry.put("order", compiled.get(i).getOrder());
+            entry.put("calls", count);
+            entry.put("ended", ended[i].sum());
+            entry.put("avgMicros", count == 0 ? 0.0 : nanos[i].sum() / 1_000.0 / count);
+            entry.put("maxMicros", maxNanos[i].get() / 1_000.0);
+            snapshot.add(entry);
+        }
+        return snapshot;
+    }
+}
@@ -0,0 +1,82 @@
+package com.altruist.projects.ucp.payment.pipeline.stage;
+
+import org.springframework.stereotype.Component;
+
+import com.altruist.projects.ucp.payment.analytics.PaymentAnalytics;
+import com.altruist.projects.ucp.payment.dto.PaymentRequest;
+import com.altruist.projects.ucp.payment.dto.PaymentResponse;
+import com.altruist.projects.ucp.payment.health.PaymentLoadMonitor;
+import com.altruist.projects.ucp.payment.limit.AdaptiveConcurrencyLimiter;
+import com.altruist.projects.ucp.payment.limit.ConcurrencyLimiterRegistry;
+import com.altruist.projects.ucp.payment.model.PaymentStatus;
+import com.altruist.projects.ucp.payment.pipeline.PaymentContext;
+import com.altruist.projects.ucp.payment.pipeline.PaymentStage;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sheds load before doing any work once the replica is at capacity or the global concurrency
+ * limit is reached, and records the outcome of every admitted payment
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AdmissionStage implements PaymentStage {
+
+    private final PaymentLoadMonitor loadMonitor;
+    private final ConcurrencyLimiterRegistry concurrencyLimiters;
+    private final PaymentAnalytics paymentAnalytics;
+
+    @Override
+    public Phase getPhase() {
+        return Phase.ADMIT;
+    }
+
+    @Override
+    public PaymentResponse process(PaymentContext context) {
+        PaymentRequest request = context.getRequest();
+        if (!loadMonitor.tryStartPayment()) {
+            log.warn("Rejecting payment request for: {}, {} payments already in flight",
+                    request.getName(), loadMonitor.getInFlightPayments());
+            return Responses.rejected("Payment service is at capacity, please retry later",
+                    concurrencyLimiters.getRetryAfterSeconds());
+        }
+
+        AdaptiveConcurrencyLimiter limiter = concurrencyLimiters.global();
+        if (!limiter.tryAcquire()) {
+            loadMonitor.paymentFinished();
+            log.warn("Rejecting payment request for: {}, concurrency limit {} reached",
+                    request.getName(), limiter.getLimit());
+            return Responses.rejected("Payment service is at capacity, please retry later",
+                    concurrencyLimiters.getRetryAfterSeconds());
+        }
+        return null;
+    }
+
+    @Override
+    public void onComplete(PaymentContext context, PaymentResponse response, Throwable error) {
+        PaymentRequest request = context.getRequest();
+        AdaptiveConcurrencyLimiter limiter = concurrencyLimiters.global();
+        try {
+            if (error != null) {
+                limiter.onDropped();
+                if (request.getPaymentMethod() != null && request.getAmount() > 0) {
+                    paymentAnalytics.record(request.getDestinationCountry(), request.getPaymentMethod(),
+                            request.getCurrency(), "ERROR", request.getAmount(), 0L);
+                }
+            } else if (response.getPaymentId() == null) {
+                limiter.onIgnore(); // Rejected before any real work, not a latency sample
+            } else {
+                limiter.onSuccess(System.nanoTime() - context.getStartNanos());
+                // A payment left RETRYING is pending; the retry scheduler records its final status
+                if (!PaymentStatus.RETRYING.name().equals(response.getStatus())) {
+                    paymentAnalytics.record(request.getDestinationCountry(), request.getPaymentMethod(),
+                            request.getCurrency(), response.getStatus(), request.getAmount(), response.getCharges());
+                }
+            }
+        } finally {
+            loadMonitor.paymentFinished();
+        }
+    }
+}
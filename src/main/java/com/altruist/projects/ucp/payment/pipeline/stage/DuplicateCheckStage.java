@@ -0,0 +1,56 @@
+package com.altruist.projects.ucp.payment.pipeline.stage;
+
+import org.springframework.stereotype.Component;
+
+import com.altruist.projects.ucp.payment.dto.PaymentResponse;
+import com.altruist.projects.ucp.payment.duplicate.DuplicatePaymentDetector;
+import com.altruist.projects.ucp.payment.duplicate.DuplicatePaymentDetector.Verdict;
+import com.altruist.projects.ucp.payment.model.PaymentStatus;
+import com.altruist.projects.ucp.payment.pipeline.PaymentContext;
+import com.altruist.projects.ucp.payment.pipeline.PaymentStage;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Rejects accidental double submissions without a database lookup
+ */
+@Component
+@RequiredArgsConstructor
+public class DuplicateCheckStage implements PaymentStage {
+
+    private final DuplicatePaymentDetector duplicateDetector;
+
+    @Override
+    public Phase getPhase() {
+        return Phase.VALIDATE;
+    }
+
+    @Override
+    public int getOrder() {
+        return 200;
+    }
+
+    @Override
+    public PaymentResponse process(PaymentContext context) {
+        if (duplicateDetector.check(context.getRequest()) == Verdict.DUPLICATE) {
+            return PaymentResponse.builder()
+                    .status("DUPLICATE")
+                    .message("Duplicate of a payment submitted in the last "
+                            + duplicateDetector.getWindowSeconds() + " seconds")
+                    .build();
+        }
+        return null;
+    }
+
+    /**
+     * A payment that did not go through may be resubmitted straight away; one queued for retry
+     * still counts as submitted
+     */
+    @Override
+    public void onComplete(PaymentContext context, PaymentResponse response, Throwable error) {
+        if (error != null || !("SUCCESS".equals(response.getStatus())
+                || PaymentStatus.RETRYING.name().equals(response.getStatus()))) {
+            duplicateDetector.release(context.getRequest());
+        }
+    }
+}
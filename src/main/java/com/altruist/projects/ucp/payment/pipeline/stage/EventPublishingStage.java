@@ -0,0 +1,40 @@
+package com.altruist.projects.ucp.payment.pipeline.stage;
+
+import org.springframework.stereotype.Component;
+
+import com.altruist.projects.ucp.payment.dto.PaymentResponse;
+import com.altruist.projects.ucp.payment.events.PaymentEventBus;
+import com.altruist.projects.ucp.payment.model.PaymentStatus;
+import com.altruist.projects.ucp.payment.pipeline.PaymentContext;
+import com.altruist.projects.ucp.payment.pipeline.PaymentStage;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Publishes the completion of a payment stored with a final status; retried payments are published
+ * by the retry scheduler once they complete
+ */
+@Component
+@RequiredArgsConstructor
+public class EventPublishingStage implements PaymentStage {
+
+    private final PaymentEventBus eventBus;
+
+    @Override
+    public Phase getPhase() {
+        return Phase.PERSIST;
+    }
+
+    @Override
+    public int getOrder() {
+        return 200;
+    }
+
+    @Override
+    public PaymentResponse process(PaymentContext context) {
+        if (PaymentStatus.isFinal(context.getPayment().getStatus())) {
+            eventBus.publish(context.getPayment());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,149 @@
+package com.altruist.projects.ucp.payment.pipeline.stage;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+import org.springframework.stereotype.Component;
+
+import com.altruist.projects.ucp.payment.diagnostics.GatewayCallEvent;
+import com.altruist.projects.ucp.payment.dto.PaymentRequest;
+import com.altruist.projects.ucp.payment.dto.PaymentResponse;
+import com.altruist.projects.ucp.payment.gateway.PaymentGateway;
+import com.altruist.projects.ucp.payment.health.PaymentLoadMonitor;
+import com.altruist.projects.ucp.payment.model.Payment;
+import com.altruist.projects.ucp.payment.model.PaymentStatus;
+import com.altruist.projects.ucp.payment.pipeline.PaymentContext;
+import com.altruist.projects.ucp.payment.pipeline.PaymentPipeline;
+import com.altruist.projects.ucp.payment.pipeline.PaymentStage;
+import com.altruist.projects.ucp.payment.repository.PaymentRepository;
+import com.altruist.projects.ucp.payment.retry.PaymentRetryScheduler;
+import com.altruist.projects.ucp.payment.routing.GatewayRouter;
+import com.altruist.projects.ucp.payment.routing.RoutedProvider;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Saves the payment record as {@code IN_FLIGHT} and calls the selected provider, failing over to
+ * the next one on failure. Asynchronous payments go through
+ * {@link PaymentGateway#processPaymentAsync(PaymentRequest)}, so no thread waits for the gateway.
+ * When every provider failed and the failure is retryable, the payment continues as {@code RETRYING}
+ * and is handed to the {@link PaymentRetryScheduler} by {@link RetrySchedulingStage}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class GatewayExecutionStage implements PaymentStage {
+
+    private final GatewayRouter gatewayRouter;
+    private final PaymentRepository paymentRepository;
+    private final PaymentLoadMonitor loadMonitor;
+    private final PaymentRetryScheduler retryScheduler;
+
+    @Override
+    public Phase getPhase() {
+        return Phase.EXECUTE;
+    }
+
+    @Override
+    public PaymentResponse process(PaymentContext context) {
+        PaymentRequest request = context.getRequest();
+        Payment payment = Payment.builder()
+                .name(request.getName())
+                .toAccount(request.getToAccount())
+                .fromAccount(request.getFromAccount())
+                .description(request.getDescription())
+                .amount(request.getAmount())
+                .currency(request.getCurrency())
+                .settlementAmount(context.getSettlementAmount())
+                .settlementCurrency(context.getSettlementCurrency())
+                .paymentMethod(request.getPaymentMethod())
+                .destinationCountry(request.getDestinationCountry())
+                .status(PaymentStatus.IN_FLIGHT.name())
+                .timestamp(LocalDateTime.now())
+                .build();
+
+        Payment savedPayment = paymentRepository.save(payment);
+        context.setPayment(savedPayment);
+        log.debug("Payment record saved with ID: {}", savedPayment.getId());
+
+        RoutedProvider provider = context.getProvider();
+        String gatewayType = provider.getGatewayType();
+        long gatewayStartNanos = System.nanoTime();
+        context.suspend(callWithFailover(request, provider, gatewayType, 1, 0L, context.isAsync())
+                .whenComplete((response, error) -> {
+                    boolean gatewaySucceeded = error == null && "SUCCESS".equals(response.getStatus());
+                    loadMonitor.recordGatewayOutcome(gatewayType, gatewaySucceeded);
+                    context.setGatewaySucceeded(gatewaySucceeded);
+                    context.setGatewayNanos(System.nanoTime() - gatewayStartNanos);
+                })
+                .handle((response, error) -> {
+                    if (!retryScheduler.isRetryable(response, error)) {
+                        if (error != null) {
+                            throw error instanceof CompletionException completion ? completion : new CompletionException(error);
+                        }
+                        return response;
+                    }
+                    String reason = error != null ? PaymentPipeline.unwrap(error).getMessage()
+                            : response == null ? "no response" : response.getMessage();
+                    return PaymentResponse.builder()
+                            .status(PaymentStatus.RETRYING.name())
+                            .message("Gateway call failed, payment will be retried: " + reason)
+                            .gatewayUsed(gatewayType)
+                            .build();
+                }));
+        return null;
+    }
+
+    /**
+     * Call the provider chosen by the router, failing over to the next best provider of the
+     * same payment method until one succeeds or the attempt budget is used up.
+     * Completes exceptionally with the last exception if the last attempt threw.
+     */
+    private CompletableFuture<PaymentResponse> callWithFailover(PaymentRequest request, RoutedProvider provider,
+                                                                String gatewayType, int attempt, long triedMask,
+                                                                boolean async) {
+        long attemptStartNanos = System.nanoTime();
+        GatewayCallEvent event = new GatewayCallEvent();
+        event.begin();
+        CompletableFuture<PaymentResponse> call;
+        try {
+            call = async
+                    ? provider.getGateway().processPaymentAsync(request)
+                    : CompletableFuture.completedFuture(provider.getGateway().processPayment(request));
+        } catch (RuntimeException e) {
+            call = CompletableFuture.failedFuture(e);
+        }
+
+        return call.handle((response, error) -> {
+            boolean succeeded = error == null && response != null && "SUCCESS".equals(response.getStatus());
+            provider.record(System.nanoTime() - attemptStartNanos, succeeded);
+            event.end();
+            if (event.shouldCommit()) {
+                event.gatewayType = gatewayType;
+                event.providerId = provider.getProviderId();
+                event.attempt = attempt;
+                event.async = async;
+                event.outcome = error != null ? PaymentPipeline.unwrap(error).getClass().getSimpleName()
+                        : response == null ? null : response.getStatus();
+                event.commit();
+            }
+            if (succeeded) {
+                return CompletableFuture.completedFuture(response);
+            }
+
+            log.warn("Payment attempt {} via provider {} failed: {}", attempt, provider.getProviderId(),
+                    error != null ? PaymentPipeline.unwrap(error).getMessage() : response.getMessage());
+            long tried = GatewayRouter.markTried(triedMask, provider);
+            RoutedProvider next = attempt < gatewayRouter.getMaxAttempts() ? gatewayRouter.select(gatewayType, tried) : null;
+            if (next == null) {
+                return error != null
+                        ? CompletableFuture.<PaymentResponse>failedFuture(PaymentPipeline.unwrap(error))
+                        : CompletableFuture.completedFuture(response);
+            }
+            return callWithFailover(request, next, gatewayType, attempt + 1, tried, async);
+        }).thenCompose(Function.identity());
+    }
+}
@@ -0,0 +1,37 @@
+package com.altruist.projects.ucp.payment.pipeline.stage;
+
+import org.springframework.stereotype.Component;
+
+import com.altruist.projects.ucp.payment.dto.PaymentResponse;
+import com.altruist.projects.ucp.payment.ledger.AccountLedger;
+import com.altruist.projects.ucp.payment.pipeline.PaymentContext;
+import com.altruist.projects.ucp.payment.pipeline.PaymentStage;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Posts the ledger entries of a payment stored as successful; retried payments are posted by the
+ * retry scheduler once they succeed
+ */
+@Component
+@RequiredArgsConstructor
+public class LedgerPostingStage implements PaymentStage {
+
+    private final AccountLedger ledger;
+
+    @Override
+    public Phase getPhase() {
+        return Phase.PERSIST;
+    }
+
+    @Override
+    public int getOrder() {
+        return 150;
+    }
+
+    @Override
+    public PaymentResponse process(PaymentContext context) {
+        ledger.post(context.getPayment());
+        return null;
+    }
+}
@@ -0,0 +1,50 @@
+package com.altruist.projects.ucp.payment.pipeline.stage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.altruist.projects.ucp.payment.dto.PaymentRequest;
+import com.altruist.projects.ucp.payment.dto.PaymentResponse;
+import com.altruist.projects.ucp.payment.money.Money;
+import com.altruist.projects.ucp.payment.pipeline.PaymentContext;
+import com.altruist.projects.ucp.payment.pipeline.PaymentStage;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Fills in the destination country and payment currency when they are not given, and settles
+ * in the destination's local currency
+ */
+@Slf4j
+@Component
+public class PaymentDefaultsStage implements PaymentStage {
+
+    private final String defaultCountry;
+
+    public PaymentDefaultsStage(@Value("${payment.default.country:IN}") String defaultCountry) {
+        this.defaultCountry = defaultCountry;
+    }
+
+    @Override
+    public Phase getPhase() {
+        return Phase.ENRICH;
+    }
+
+    @Override
+    public PaymentResponse process(PaymentContext context) {
+        PaymentRequest request = context.getRequest();
+        if (request.getDestinationCountry() == null || request.getDestinationCountry().isEmpty()) {
+            request.setDestinationCountry(defaultCountry);
+            log.debug("Using default country: {}", defaultCountry);
+        }
+
+        // Amounts are in minor units of the payment currency, the destination's own unless given
+        if (request.getCurrency() == null) {
+            request.setCurrency(Money.currencyOf(request.getDestinationCountry()));
+        } else if (!Money.isSupported(request.getCurrency())) {
+            return Responses.failed("Unsupported currency: " + request.getCurrency());
+        }
+        context.setSettlementCurrency(Money.currencyOf(request.getDestinationCountry()));
+        return null;
+    }
+}
@@ -0,0 +1,56 @@
+package com.altruist.projects.ucp.payment.pipeline.stage;
+
+import org.springframework.stereotype.Component;
+
+import com.altruist.projects.ucp.payment.columnar.PaymentColumnStore;
+import com.altruist.projects.ucp.payment.dto.PaymentResponse;
+import com.altruist.projects.ucp.payment.model.Payment;
+import com.altruist.projects.ucp.payment.model.PaymentStatus;
+import com.altruist.projects.ucp.payment.pipeline.PaymentContext;
+import com.altruist.projects.ucp.payment.pipeline.PaymentStage;
+import com.altruist.projects.ucp.payment.repository.PaymentRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Updates the payment record with the gateway's status and the charges, and enriches the
+ * gateway response with them
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PersistenceStage implements PaymentStage {
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentColumnStore columnStore;
+
+    @Override
+    public Phase getPhase() {
+        return Phase.PERSIST;
+    }
+
+    @Override
+    public PaymentResponse process(PaymentContext context) {
+        PaymentResponse response = context.getResponse();
+        Payment savedPayment = context.getPayment();
+        savedPayment.setStatus(response.getStatus());
+        savedPayment.setExternalReference(response.getExternalReference());
+        savedPayment.setCharges(context.getCharges());
+        savedPayment.setTotalAmount(context.getTotalAmount());
+        paymentRepository.save(savedPayment);
+        if (PaymentStatus.isFinal(savedPayment.getStatus())) {
+            columnStore.append(savedPayment); // Retried payments are appended once they complete
+        }
+
+        response.setPaymentId(savedPayment.getId());
+        response.setCharges(context.getCharges());
+        response.setTotalAmount(context.getTotalAmount());
+        response.setCurrency(context.getRequest().getCurrency());
+        response.setSettlementAmount(context.getSettlementAmount());
+        response.setSettlementCurrency(context.getSettlementCurrency());
+
+        log.info("Payment processed with status: {}", response.getStatus());
+        return null;
+    }
+}
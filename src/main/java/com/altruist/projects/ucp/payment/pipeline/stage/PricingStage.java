@@ -0,0 +1,61 @@
+package com.altruist.projects.ucp.payment.pipeline.stage;
+
+import org.springframework.stereotype.Component;
+
+import com.altruist.projects.ucp.payment.diagnostics.ChargeCalculationEvent;
+import com.altruist.projects.ucp.payment.dto.PaymentRequest;
+import com.altruist.projects.ucp.payment.dto.PaymentResponse;
+import com.altruist.projects.ucp.payment.fx.FxRateService;
+import com.altruist.projects.ucp.payment.money.Money;
+import com.altruist.projects.ucp.payment.pipeline.PaymentContext;
+import com.altruist.projects.ucp.payment.pipeline.PaymentStage;
+import com.altruist.projects.ucp.payment.strategy.ChargeStrategy;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Calculates charges based on destination country, the total and the settlement amount
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PricingStage implements PaymentStage {
+
+    private final ChargeStrategy chargeStrategy;
+    private final FxRateService fxRateService;
+
+    @Override
+    public Phase getPhase() {
+        return Phase.PRICE;
+    }
+
+    @Override
+    public PaymentResponse process(PaymentContext context) {
+        PaymentRequest request = context.getRequest();
+        ChargeCalculationEvent event = new ChargeCalculationEvent();
+        event.begin();
+        long charges = chargeStrategy.calculateCharges(request.getDestinationCountry(), request.getAmount());
+        long totalAmount = Math.addExact(request.getAmount(), charges);
+        context.setCharges(charges);
+        context.setTotalAmount(totalAmount);
+        context.setSettlementAmount(fxRateService.current()
+                .convert(request.getAmount(), request.getCurrency(), context.getSettlementCurrency()));
+        event.end();
+        if (event.shouldCommit()) {
+            event.country = request.getDestinationCountry();
+            event.amount = request.getAmount();
+            event.charges = charges;
+            event.currency = request.getCurrency() == null ? null : request.getCurrency().getCurrencyCode();
+            event.settlementCurrency = context.getSettlementCurrency() == null ? null
+                    : context.getSettlementCurrency().getCurrencyCode();
+            event.commit();
+        }
+
+        if (log.isInfoEnabled()) {
+            log.info("Calculated charges: {} {} for country: {}, Total amount: {}", Money.format(charges),
+                    request.getCurrency(), request.getDestinationCountry(), Money.format(totalAmount));
+        }
+        return null;
+    }
+}
@@ -0,0 +1,44 @@
+package com.altruist.projects.ucp.payment.pipeline.stage;
+
+import org.springframework.stereotype.Component;
+
+import com.altruist.projects.ucp.payment.dto.PaymentRequest;
+import com.altruist.projects.ucp.payment.dto.PaymentResponse;
+import com.altruist.projects.ucp.payment.fx.FxRateSnapshot;
+import com.altruist.projects.ucp.payment.fx.FxRateService;
+import com.altruist.projects.ucp.payment.pipeline.PaymentContext;
+import com.altruist.projects.ucp.payment.pipeline.PaymentStage;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Requires a payment method and a positive amount, and an exchange rate when the payment is not
+ * in the settlement currency
+ */
+@Component
+@RequiredArgsConstructor
+public class RequestValidationStage implements PaymentStage {
+
+    private final FxRateService fxRateService;
+
+    @Override
+    public Phase getPhase() {
+        return Phase.VALIDATE;
+    }
+
+    @Override
+    public PaymentResponse process(PaymentContext context) {
+        PaymentRequest request = context.getRequest();
+        if (request.getPaymentMethod() == null || request.getAmount() <= 0) {
+            return Responses.failed("Payment method and amount are required");
+        }
+
+        FxRateSnapshot rates = fxRateService.current();
+        if (!request.getCurrency().equals(context.getSettlementCurrency())
+                && (!rates.supports(request.getCurrency()) || !rates.supports(context.getSettlementCurrency()))) {
+            return Responses.failed("No exchange rate from " + request.getCurrency() + " to "
+                    + context.getSettlementCurrency());
+        }
+        return null;
+    }
+}
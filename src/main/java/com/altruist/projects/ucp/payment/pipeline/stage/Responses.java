@@ -0,0 +1,27 @@
+package com.altruist.projects.ucp.payment.pipeline.stage;
+
+import com.altruist.projects.ucp.payment.dto.PaymentResponse;
+
+/**
+ * Responses the built-in stages end a payment with
+ */
+final class Responses {
+
+    private Responses() {
+    }
+
+    static PaymentResponse failed(String message) {
+        return PaymentResponse.builder()
+                .status("FAILED")
+                .message(message)
+                .build();
+    }
+
+    static PaymentResponse rejected(String message, long retryAfterSeconds) {
+        return PaymentResponse.builder()
+                .status("REJECTED")
+                .message(message)
+                .retryAfterSeconds(retryAfterSeconds)
+                .build();
+    }
+}
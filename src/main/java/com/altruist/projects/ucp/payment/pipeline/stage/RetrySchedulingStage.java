@@ -0,0 +1,39 @@
+package com.altruist.projects.ucp.payment.pipeline.stage;
+
+import org.springframework.stereotype.Component;
+
+import com.altruist.projects.ucp.payment.dto.PaymentResponse;
+import com.altruist.projects.ucp.payment.model.PaymentStatus;
+import com.altruist.projects.ucp.payment.pipeline.PaymentContext;
+import com.altruist.projects.ucp.payment.pipeline.PaymentStage;
+import com.altruist.projects.ucp.payment.retry.PaymentRetryScheduler;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Queues the retry of a payment stored as {@code RETRYING}, once its status is persisted
+ */
+@Component
+@RequiredArgsConstructor
+public class RetrySchedulingStage implements PaymentStage {
+
+    private final PaymentRetryScheduler retryScheduler;
+
+    @Override
+    public Phase getPhase() {
+        return Phase.PERSIST;
+    }
+
+    @Override
+    public int getOrder() {
+        return 100;
+    }
+
+    @Override
+    public PaymentResponse process(PaymentContext context) {
+        if (PaymentStatus.RETRYING.name().equals(context.getResponse().getStatus())) {
+            retryScheduler.enqueue(context.getPayment(), context.getResponse().getMessage());
+        }
+        return null;
+    }
+}
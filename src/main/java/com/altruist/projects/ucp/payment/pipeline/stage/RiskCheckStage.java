@@ -0,0 +1,53 @@
+package com.altruist.projects.ucp.payment.pipeline.stage;
+
+import org.springframework.stereotype.Component;
+
+import com.altruist.projects.ucp.payment.dto.PaymentRequest;
+import com.altruist.projects.ucp.payment.dto.PaymentResponse;
+import com.altruist.projects.ucp.payment.pipeline.PaymentContext;
+import com.altruist.projects.ucp.payment.pipeline.PaymentStage;
+import com.altruist.projects.ucp.payment.risk.RiskAssessment;
+import com.altruist.projects.ucp.payment.risk.RiskAssessment.Decision;
+import com.altruist.projects.ucp.payment.risk.RiskScorer;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Scores fraud risk from the in-memory velocity of the paying account
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RiskCheckStage implements PaymentStage {
+
+    private final RiskScorer riskScorer;
+
+    @Override
+    public Phase getPhase() {
+        return Phase.VALIDATE;
+    }
+
+    @Override
+    public int getOrder() {
+        return 300;
+    }
+
+    @Override
+    public PaymentResponse process(PaymentContext context) {
+        PaymentRequest request = context.getRequest();
+        RiskAssessment risk = riskScorer.assess(request);
+        if (risk.getDecision() == Decision.BLOCK) {
+            log.warn("Payment from {} blocked by risk checks, score {}: {}",
+                    request.getFromAccount(), risk.getScore(), risk.getReasons());
+            return PaymentResponse.builder()
+                    .status("DECLINED")
+                    .message("Payment declined by risk checks: " + String.join("; ", risk.getReasons()))
+                    .build();
+        } else if (risk.getDecision() == Decision.REVIEW) {
+            log.warn("Payment from {} flagged for review, score {}: {}",
+                    request.getFromAccount(), risk.getScore(), risk.getReasons());
+        }
+        return null;
+    }
+}
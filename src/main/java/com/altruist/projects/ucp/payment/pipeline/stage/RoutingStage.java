@@ -0,0 +1,76 @@
+package com.altruist.projects.ucp.payment.pipeline.stage;
+
+import org.springframework.stereotype.Component;
+
+import com.altruist.projects.ucp.payment.dto.PaymentRequest;
+import com.altruist.projects.ucp.payment.dto.PaymentResponse;
+import com.altruist.projects.ucp.payment.health.PaymentLoadMonitor;
+import com.altruist.projects.ucp.payment.limit.AdaptiveConcurrencyLimiter;
+import com.altruist.projects.ucp.payment.limit.ConcurrencyLimiterRegistry;
+import com.altruist.projects.ucp.payment.pipeline.PaymentContext;
+import com.altruist.projects.ucp.payment.pipeline.PaymentStage;
+import com.altruist.projects.ucp.payment.routing.GatewayRouter;
+import com.altruist.projects.ucp.payment.routing.RoutedProvider;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Selects the payment provider from the payment method and live provider statistics, and holds
+ * a permit of the gateway's concurrency limit until the payment has finished
+ */
+@Slf4j
+@Component
+public class RoutingStage implements PaymentStage {
+
+    private final GatewayRouter gatewayRouter;
+    private final ConcurrencyLimiterRegistry concurrencyLimiters;
+
+    public RoutingStage(GatewayRouter gatewayRouter,
+                        PaymentLoadMonitor loadMonitor,
+                        ConcurrencyLimiterRegistry concurrencyLimiters) {
+        this.gatewayRouter = gatewayRouter;
+        this.concurrencyLimiters = concurrencyLimiters;
+        loadMonitor.registerGateways(gatewayRouter.getPaymentMethods());
+        concurrencyLimiters.registerGateways(gatewayRouter.getPaymentMethods());
+    }
+
+    @Override
+    public Phase getPhase() {
+        return Phase.ROUTE;
+    }
+
+    @Override
+    public PaymentResponse process(PaymentContext context) {
+        PaymentRequest request = context.getRequest();
+        RoutedProvider provider = gatewayRouter.select(request.getPaymentMethod(), 0L);
+        if (provider == null) {
+            log.error("No gateway found for payment method: {}", request.getPaymentMethod());
+            return Responses.failed("Unsupported payment method: " + request.getPaymentMethod());
+        }
+
+        // Per-gateway limit so a slow processor only throttles its own payment method
+        String gatewayType = provider.getGatewayType();
+        AdaptiveConcurrencyLimiter gatewayLimiter = concurrencyLimiters.forGateway(gatewayType);
+        if (!gatewayLimiter.tryAcquire()) {
+            log.warn("Rejecting payment for {} gateway, concurrency limit {} reached",
+                    gatewayType, gatewayLimiter.getLimit());
+            return Responses.rejected("Payment gateway " + gatewayType + " is at capacity, please retry later",
+                    concurrencyLimiters.getRetryAfterSeconds());
+        }
+        context.setProvider(provider);
+        context.setGatewayLimiter(gatewayLimiter);
+        return null;
+    }
+
+    /**
+     * Gateway latency is a sample for the limit only when the gateway succeeded
+     */
+    @Override
+    public void onComplete(PaymentContext context, PaymentResponse response, Throwable error) {
+        if (context.isGatewaySucceeded()) {
+            context.getGatewayLimiter().onSuccess(context.getGatewayNanos());
+        } else {
+            context.getGatewayLimiter().onDropped();
+        }
+    }
+}
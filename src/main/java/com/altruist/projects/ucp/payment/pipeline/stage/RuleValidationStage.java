@@ -0,0 +1,63 @@
+package com.altruist.projects.ucp.payment.pipeline.stage;
+
+import org.springframework.stereotype.Component;
+
+import com.altruist.projects.ucp.payment.diagnostics.RuleValidationEvent;
+import com.altruist.projects.ucp.payment.dto.PaymentRequest;
+import com.altruist.projects.ucp.payment.dto.PaymentResponse;
+import com.altruist.projects.ucp.payment.pipeline.PaymentContext;
+import com.altruist.projects.ucp.payment.pipeline.PaymentStage;
+import com.altruist.projects.ucp.payment.validation.CountryPaymentRuleValidator;
+import com.altruist.projects.ucp.payment.validation.CountryPaymentRuleValidator.ValidationResult;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Validates country-specific rules (amount range and time window)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RuleValidationStage implements PaymentStage {
+
+    private final CountryPaymentRuleValidator ruleValidator;
+
+    @Override
+    public Phase getPhase() {
+        return Phase.VALIDATE;
+    }
+
+    @Override
+    public int getOrder() {
+        return 100;
+    }
+
+    @Override
+    public PaymentResponse process(PaymentContext context) {
+        PaymentRequest request = context.getRequest();
+        RuleValidationEvent event = new RuleValidationEvent();
+        event.begin();
+        ValidationResult validationResult = ruleValidator.validate(
+            request.getDestinationCountry(),
+            request.getPaymentMethod(),
+            request.getAmount(),
+            request.getCurrency()
+        );
+        event.end();
+        if (event.shouldCommit()) {
+            event.country = request.getDestinationCountry();
+            event.paymentMethod = request.getPaymentMethod();
+            event.amount = request.getAmount();
+            event.currency = request.getCurrency() == null ? null : request.getCurrency().getCurrencyCode();
+            event.valid = validationResult.isValid();
+            event.commit();
+        }
+
+        if (!validationResult.isValid()) {
+            log.warn("Payment validation failed: {}", validationResult.getErrorMessage());
+            return Responses.failed(validationResult.getErrorMessage());
+        }
+        return null;
+    }
+}
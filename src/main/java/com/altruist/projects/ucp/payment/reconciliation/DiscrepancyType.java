@@ -0,0 +1,19 @@
+package com.altruist.projects.ucp.payment.reconciliation;
+
+/**
+ * Kinds of disagreement between the payment table and a processor's settlement file
+ */
+public enum DiscrepancyType {
+    /** Both sides know the payment but report different statuses */
+    STATUS_MISMATCH,
+    /** Both sides know the payment but with a different amount or currency */
+    AMOUNT_MISMATCH,
+    /** A successful payment the processor did not settle */
+    MISSING_SETTLEMENT,
+    /** A settled transaction without a payment */
+    UNKNOWN_PAYMENT,
+    /** A payment that never got a final status and the processor does not know */
+    STUCK,
+    /** A settlement file row that could not be parsed */
+    MALFORMED_ROW
+}
@@ -0,0 +1,95 @@
+package com.altruist.projects.ucp.payment.reconciliation;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Line handling shared by the reconciler: a comma splitter without regex or quoting (references,
+ * statuses, amounts and currency codes contain no commas) and hash-partitioned spill files
+ */
+final class ReconciliationFiles {
+
+    private ReconciliationFiles() {
+    }
+
+    /**
+     * Split a line into exactly {@code columns} values
+     * @throws IllegalArgumentException if the line has fewer columns
+     */
+    static String[] split(String line, int columns) {
+        String[] values = new String[columns];
+        int start = 0;
+        for (int i = 0; i < columns; i++) {
+            int end = line.indexOf(',', start);
+            if (end < 0) {
+                if (i != columns - 1) {
+                    throw new IllegalArgumentException("expected " + columns + " columns");
+                }
+                end = line.length();
+            }
+            values[i] = line.substring(start, end);
+            start = end + 1;
+        }
+        return values;
+    }
+
+    /**
+     * Partition of a join key. Mixes the hash so that the keys of one partition still spread
+     * over the buckets of the per-partition hash table.
+     */
+    static int partitionOf(String key, int partitions) {
+        long mixed = (key.hashCode() & 0xffffffffL) * 0x9E3779B97F4A7C15L;
+        return (int) ((mixed >>> 32) % partitions);
+    }
+
+    /**
+     * One spill file per partition, written sequentially
+     */
+    static final class PartitionWriter implements Closeable {
+        private final Path[] paths;
+        private final BufferedWriter[] writers;
+
+        PartitionWriter(Path directory, String prefix, int partitions) throws IOException {
+            this.paths = new Path[partitions];
+            this.writers = new BufferedWriter[partitions];
+            for (int i = 0; i < partitions; i++) {
+                paths[i] = directory.resolve(prefix + "-" + i + ".csv");
+                writers[i] = Files.newBufferedWriter(paths[i], StandardCharsets.UTF_8);
+            }
+        }
+
+        void write(String key, String line) {
+            try {
+                BufferedWriter writer = writers[partitionOf(key, writers.length)];
+                writer.write(line);
+                writer.newLine();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        Path path(int partition) {
+            return paths[partition];
+        }
+
+        @Override
+        public void close() throws IOException {
+            IOException failure = null;
+            for (BufferedWriter writer : writers) {
+                try {
+                    writer.close();
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+}
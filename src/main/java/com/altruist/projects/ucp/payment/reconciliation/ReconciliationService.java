@@ -0,0 +1,107 @@
+package com.altruist.projects.ucp.payment.reconciliation;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.altruist.projects.ucp.payment.dto.ReconciliationReport;
+import com.altruist.projects.ucp.payment.repository.PaymentRepository;
+import com.altruist.projects.ucp.payment.routing.GatewayRouter;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reconciles the payments of every gateway type against the processor's settlement file
+ * {@code <settlement-dir>/<gatewayType>.csv} (columns {@code externalReference,status,amount,currency}),
+ * nightly and on demand, and writes a discrepancy report per gateway type into the report directory.
+ */
+@Slf4j
+@Service
+public class ReconciliationService {
+
+    private static final DateTimeFormatter REPORT_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")
+            .withZone(ZoneOffset.UTC);
+
+    private final GatewayRouter gatewayRouter;
+    private final Clock clock;
+    private final SettlementReconciler reconciler;
+    private final Path settlementDirectory;
+    private final Path reportDirectory;
+    private final Duration settlementLag;
+
+    private volatile List<ReconciliationReport> lastReports = List.of();
+
+    public ReconciliationService(PaymentRepository paymentRepository,
+                                 GatewayRouter gatewayRouter,
+                                 Clock clock,
+                                 @Value("${payment.reconciliation.settlement-dir:settlements}") String settlementDirectory,
+                                 @Value("${payment.reconciliation.report-dir:reconciliation-reports}") String reportDirectory,
+                                 @Value("${payment.reconciliation.page-size:5000}") int pageSize,
+                                 @Value("${payment.reconciliation.partition-bytes:8388608}") long partitionBytes,
+                                 @Value("${payment.reconciliation.settlement-lag-minutes:60}") long settlementLagMinutes) {
+        this.gatewayRouter = gatewayRouter;
+        this.clock = clock;
+        this.reconciler = new SettlementReconciler(paymentRepository, pageSize, partitionBytes);
+        this.settlementDirectory = Paths.get(settlementDirectory);
+        this.reportDirectory = Paths.get(reportDirectory);
+        this.settlementLag = Duration.ofMinutes(settlementLagMinutes);
+    }
+
+    /**
+     * Reconcile every gateway type that has a settlement file; one run at a time
+     */
+    @Scheduled(cron = "${payment.reconciliation.cron:0 30 2 * * *}")
+    public synchronized List<ReconciliationReport> reconcileAll() {
+        Instant startedAt = clock.instant();
+        LocalDateTime cutoff = LocalDateTime.now(clock).minus(settlementLag);
+        List<ReconciliationReport> reports = new ArrayList<>();
+        for (String gatewayType : gatewayRouter.getPaymentMethods()) {
+            Path settlementFile = settlementDirectory.resolve(gatewayType + ".csv");
+            if (!Files.isRegularFile(settlementFile)) {
+                log.debug("No settlement file {} for gateway {}", settlementFile, gatewayType);
+                continue;
+            }
+            reports.add(reconcile(gatewayType, settlementFile, cutoff, startedAt));
+        }
+        lastReports = List.copyOf(reports);
+        return lastReports;
+    }
+
+    public List<ReconciliationReport> getLastReports() {
+        return lastReports;
+    }
+
+    private ReconciliationReport reconcile(String gatewayType, Path settlementFile, LocalDateTime cutoff, Instant startedAt) {
+        long startNanos = System.nanoTime();
+        ReconciliationReport report;
+        try {
+            Files.createDirectories(reportDirectory);
+            Path reportFile = reportDirectory.resolve(gatewayType + "-" + REPORT_TIMESTAMP.format(startedAt) + ".csv");
+            report = reconciler.reconcile(gatewayType, settlementFile, reportFile, cutoff, startedAt);
+        } catch (IOException | UncheckedIOException | IllegalArgumentException e) {
+            log.error("Reconciliation of {} against {} failed", gatewayType, settlementFile, e);
+            report = ReconciliationReport.builder()
+                    .gatewayType(gatewayType)
+                    .settlementFile(settlementFile.toString())
+                    .startedAt(startedAt)
+                    .error(e.getMessage())
+                    .build();
+        }
+        report.setDurationMillis(Duration.ofNanos(System.nanoTime() - startNanos).toMillis());
+        return report;
+    }
+}
@@ -0,0 +1,307 @@
+package com.altruist.projects.ucp.payment.reconciliation;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Currency;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Limit;
+
+import com.altruist.projects.ucp.payment.dto.ReconciliationReport;
+import com.altruist.projects.ucp.payment.model.Payment;
+import com.altruist.projects.ucp.payment.model.PaymentStatus;
+import com.altruist.projects.ucp.payment.money.Money;
+import com.altruist.projects.ucp.payment.reconciliation.ReconciliationFiles.PartitionWriter;
+import com.altruist.projects.ucp.payment.repository.PaymentRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Joins one gateway type's payments with its settlement file on the external reference.
+ *
+ * <p>The settlement file is the build side of a hash join and the payments, read in keyset pages,
+ * the probe side. A file up to {@code partitionBytes} is joined in memory. A larger one is joined
+ * as a grace hash join: both sides are first spilled to partition files by a hash of the reference,
+ * then each partition is joined in memory on its own, so the heap holds about {@code partitionBytes}
+ * worth of settlement rows however large the file is.</p>
+ */
+@Slf4j
+final class SettlementReconciler {
+
+    private static final int MAX_PARTITIONS = 256;
+    private static final String SUCCESS = "SUCCESS";
+
+    private final PaymentRepository paymentRepository;
+    private final int pageSize;
+    private final long partitionBytes;
+
+    SettlementReconciler(PaymentRepository paymentRepository, int pageSize, long partitionBytes) {
+        this.paymentRepository = paymentRepository;
+        this.pageSize = pageSize;
+        this.partitionBytes = partitionBytes;
+    }
+
+    /**
+     * Reconcile and write every discrepancy to {@code reportFile}
+     * @param cutoff Payments after this time may not be settled yet and are not reported missing
+     * @throws IllegalArgumentException if the settlement file lacks a required column
+     */
+    ReconciliationReport reconcile(String gatewayType, Path settlementFile, Path reportFile,
+                                   LocalDateTime cutoff, Instant startedAt) throws IOException {
+        int partitions = (int) Math.min(MAX_PARTITIONS,
+                Math.max(1, (Files.size(settlementFile) + partitionBytes - 1) / partitionBytes));
+        Run run = new Run(reportFile);
+        try (run) {
+            if (partitions == 1) {
+                Map<String, SettlementRecord> settlements = new HashMap<>();
+                readSettlementFile(settlementFile, run, record -> settlements.put(record.externalReference(), record));
+                scanPayments(gatewayType, cutoff, run, payment -> probe(settlements, payment, run));
+                reportUnknown(settlements, run);
+            } else {
+                joinPartitioned(gatewayType, settlementFile, reportFile.getParent(), partitions, cutoff, run);
+            }
+        }
+        log.info("Reconciled {} payments of {} against {} settlement rows in {} partition(s): {}",
+                run.paymentsScanned, gatewayType, run.settlementRows, partitions, run.counts());
+        return ReconciliationReport.builder()
+                .gatewayType(gatewayType)
+                .settlementFile(settlementFile.toString())
+                .reportFile(reportFile.toString())
+                .startedAt(startedAt)
+                .settlementRows(run.settlementRows)
+                .paymentsScanned(run.paymentsScanned)
+                .matched(run.matched)
+                .partitions(partitions)
+                .discrepancies(run.counts())
+                .build();
+    }
+
+    private void joinPartitioned(String gatewayType, Path settlementFile, Path workDirectory, int partitions,
+                                 LocalDateTime cutoff, Run run) throws IOException {
+        Path spill = Files.createTempDirectory(workDirectory, ".spill-" + gatewayType + "-");
+        try {
+            PartitionWriter settlementParts = new PartitionWriter(spill, "settlement", partitions);
+            PartitionWriter paymentParts = new PartitionWriter(spill, "payment", partitions);
+            try (settlementParts; paymentParts) {
+                readSettlementFile(settlementFile, run,
+                        record -> settlementParts.write(record.externalReference(), record.toSpill()));
+                scanPayments(gatewayType, cutoff, run,
+                        payment -> paymentParts.write(payment.externalReference(), payment.toSpill()));
+            }
+
+            // Only one partition's settlements are held in memory at a time
+            for (int partition = 0; partition < partitions; partition++) {
+                Map<String, SettlementRecord> settlements = new HashMap<>();
+                String line;
+                try (BufferedReader reader = Files.newBufferedReader(settlementParts.path(partition), StandardCharsets.UTF_8)) {
+                    while ((line = reader.readLine()) != null) {
+                        SettlementRecord record = SettlementRecord.fromSpill(line);
+                        settlements.put(record.externalReference(), record);
+                    }
+                }
+                try (BufferedReader reader = Files.newBufferedReader(paymentParts.path(partition), StandardCharsets.UTF_8)) {
+                    while ((line = reader.readLine()) != null) {
+                        probe(settlements, PaymentRow.fromSpill(line), run);
+                    }
+                }
+                reportUnknown(settlements, run);
+            }
+        } finally {
+            try (Stream<Path> files = Files.list(spill)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            Files.deleteIfExists(spill);
+        }
+    }
+
+    private void readSettlementFile(Path settlementFile, Run run, Consumer<SettlementRecord> sink) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(settlementFile, StandardCharsets.UTF_8)) {
+            String header = reader.readLine();
+            if (header == null) {
+                return;
+            }
+            Map<String, Integer> columns = new HashMap<>();
+            String[] names = header.replace("\uFEFF", "").split(",");
+            for (int i = 0; i < names.length; i++) {
+                columns.put(names[i].trim().toLowerCase(Locale.ROOT), i);
+            }
+            Integer reference = columns.get("externalreference");
+            Integer status = columns.get("status");
+            Integer amount = columns.get("amount");
+            Integer currency = columns.get("currency");
+            if (reference == null || status == null || amount == null || currency == null) {
+                throw new IllegalArgumentException("Settlement file " + settlementFile.getFileName()
+                        + " must have the columns externalReference, status, amount and currency");
+            }
+
+            String line;
+            long lineNumber = 1;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    sink.accept(SettlementRecord.parse(ReconciliationFiles.split(line, names.length),
+                            reference, status, amount, currency));
+                    run.settlementRows++;
+                } catch (IllegalArgumentException e) {
+                    run.report(DiscrepancyType.MALFORMED_ROW, null, "line " + lineNumber + ": " + e.getMessage(),
+                            null, null, null, null, null);
+                }
+            }
+        }
+    }
+
+    private void scanPayments(String gatewayType, LocalDateTime cutoff, Run run, Consumer<PaymentRow> sink) {
+        long lastId = 0L;
+        List<Payment> page;
+        do {
+            page = paymentRepository.findByPaymentMethodAndIdGreaterThanOrderByIdAsc(gatewayType, lastId, Limit.of(pageSize));
+            for (Payment payment : page) {
+                run.paymentsScanned++;
+                boolean recent = payment.getTimestamp() == null || payment.getTimestamp().isAfter(cutoff);
+                if (payment.getExternalReference() != null) {
+                    sink.accept(new PaymentRow(payment.getId(), payment.getExternalReference(), payment.getStatus(),
+                            payment.getAmount(), payment.getCurrency(), recent));
+                } else if (isInFlight(payment.getStatus()) && !recent) {
+                    // Never reached a final status and cannot be matched without a reference
+                    run.report(DiscrepancyType.STUCK, payment.getId(), null, null, null,
+                            payment.getAmount(), null, payment.getCurrency());
+                }
+            }
+            if (!page.isEmpty()) {
+                lastId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == pageSize);
+    }
+
+    private static void probe(Map<String, SettlementRecord> settlements, PaymentRow payment, Run run) {
+        SettlementRecord settlement = settlements.remove(payment.externalReference());
+        if (settlement == null) {
+            if (!payment.recent()) {
+                if (isInFlight(payment.status())) {
+                    run.report(DiscrepancyType.STUCK, payment.id(), payment.externalReference(), null, null,
+                            payment.amount(), null, payment.currency());
+                } else if (SUCCESS.equals(payment.status())) {
+                    run.report(DiscrepancyType.MISSING_SETTLEMENT, payment.id(), payment.externalReference(),
+                            payment.status(), null, payment.amount(), null, payment.currency());
+                }
+            }
+            return;
+        }
+
+        run.matched++;
+        if (!settlement.status().equals(payment.status())) {
+            run.report(DiscrepancyType.STATUS_MISMATCH, payment.id(), payment.externalReference(), payment.status(),
+                    settlement.status(), payment.amount(), settlement.amount(), payment.currency());
+        }
+        if (settlement.amount() != payment.amount() || !settlement.currency().equals(payment.currency())) {
+            run.report(DiscrepancyType.AMOUNT_MISMATCH, payment.id(), payment.externalReference(), payment.status(),
+                    settlement.status(), payment.amount(), settlement.amount(), settlement.currency());
+        }
+    }
+
+    private static void reportUnknown(Map<String, SettlementRecord> settlements, Run run) {
+        for (SettlementRecord settlement : settlements.values()) {
+            run.report(DiscrepancyType.UNKNOWN_PAYMENT, null, settlement.externalReference(), null,
+                    settlement.status(), null, settlement.amount(), settlement.currency());
+        }
+    }
+
+    /**
+     * Saved before the gateway call and never completed. Payments queued for retry are not stuck.
+     */
+    private static boolean isInFlight(String status) {
+        return status == null || PaymentStatus.PENDING.name().equals(status) || PaymentStatus.IN_FLIGHT.name().equals(status);
+    }
+
+    /**
+     * Probe side row, also the payment spill file form
+     */
+    private record PaymentRow(long id, String externalReference, String status, long amount, Currency currency,
+                              boolean recent) {
+
+        String toSpill() {
+            return id + "," + externalReference + ',' + (status == null ? "" : status) + ',' + amount + ','
+                    + (currency == null ? "" : currency.getCurrencyCode()) + ',' + (recent ? '1' : '0');
+        }
+
+        static PaymentRow fromSpill(String line) {
+            String[] values = ReconciliationFiles.split(line, 6);
+            return new PaymentRow(Long.parseLong(values[0]), values[1], values[2].isEmpty() ? null : values[2],
+                    Long.parseLong(values[3]), values[4].isEmpty() ? null : Currency.getInstance(values[4]),
+                    values[5].equals("1"));
+        }
+    }
+
+    /**
+     * Counters and the discrepancy report of one run
+     */
+    private static final class Run implements AutoCloseable {
+        private final BufferedWriter report;
+        private final long[] discrepancies = new long[DiscrepancyType.values().length];
+        private long settlementRows;
+        private long paymentsScanned;
+        private long matched;
+
+        Run(Path reportFile) throws IOException {
+            this.report = Files.newBufferedWriter(reportFile, StandardCharsets.UTF_8);
+            report.write("type,paymentId,externalReference,paymentStatus,settlementStatus,paymentAmount,settlementAmount,currency");
+            report.newLine();
+        }
+
+        void report(DiscrepancyType type, Long paymentId, String reference, String paymentStatus,
+                    String settlementStatus, Long paymentAmount, Long settlementAmount, Currency currency) {
+            discrepancies[type.ordinal()]++;
+            try {
+                report.write(type.name());
+                report.write(',');
+                report.write(paymentId == null ? "" : paymentId.toString());
+                report.write(',');
+                report.write(reference == null ? "" : reference.replace(',', ';'));
+                report.write(',');
+                report.write(paymentStatus == null ? "" : paymentStatus);
+                report.write(',');
+                report.write(settlementStatus == null ? "" : settlementStatus);
+                report.write(',');
+                report.write(paymentAmount == null ? "" : Money.format(paymentAmount));
+                report.write(',');
+                report.write(settlementAmount == null ? "" : Money.format(settlementAmount));
+                report.write(',');
+                report.write(currency == null ? "" : currency.getCurrencyCode());
+                report.newLine();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        Map<DiscrepancyType, Long> counts() {
+            Map<DiscrepancyType, Long> counts = new EnumMap<>(DiscrepancyType.class);
+            for (DiscrepancyType type : DiscrepancyType.values()) {
+                counts.put(type, discrepancies[type.ordinal()]);
+            }
+            return counts;
+        }
+
+        @Override
+        public void close() throws IOException {
+            report.close();
+        }
+    }
+}
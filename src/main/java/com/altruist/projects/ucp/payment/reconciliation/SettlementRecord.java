@@ -0,0 +1,41 @@
+package com.altruist.projects.ucp.payment.reconciliation;
+
+import java.util.Currency;
+import java.util.Locale;
+
+import com.altruist.projects.ucp.payment.money.Money;
+
+/**
+ * One settled transaction: processor reference, final status and amount in minor units
+ */
+record SettlementRecord(String externalReference, String status, long amount, Currency currency) {
+
+    /**
+     * Parse a row of the settlement file by the column positions of its header
+     * @throws IllegalArgumentException if the row is incomplete or a value is invalid
+     */
+    static SettlementRecord parse(String[] values, int reference, int status, int amount, int currency) {
+        String ref = values[reference].trim();
+        if (ref.isEmpty()) {
+            throw new IllegalArgumentException("missing externalReference");
+        }
+        try {
+            return new SettlementRecord(ref, values[status].trim().toUpperCase(Locale.ROOT),
+                    Money.parse(values[amount].trim()), Currency.getInstance(values[currency].trim().toUpperCase(Locale.ROOT)));
+        } catch (ArithmeticException | NumberFormatException e) {
+            throw new IllegalArgumentException("invalid amount '" + values[amount].trim() + "'");
+        }
+    }
+
+    /**
+     * Spill file form, read back by {@link #fromSpill(String)}
+     */
+    String toSpill() {
+        return externalReference + ',' + status + ',' + amount + ',' + currency.getCurrencyCode();
+    }
+
+    static SettlementRecord fromSpill(String line) {
+        String[] values = ReconciliationFiles.split(line, 4);
+        return new SettlementRecord(values[0], values[1], Long.parseLong(values[2]), Currency.getInstance(values[3]));
+    }
+}
@@ -10,6 +10,9 @@ import com.altruist.projects.ucp.payment.model.CountryPaymentRule;
 @Repository
 public interface CountryPaymentRuleRepository extends JpaRepository<CountryPaymentRule, Long> {
     
-    Optional<CountryPaymentRule> findByCountryCodeAndEnabledTrue(String countryCode);
+    /**
+     * Country-wide rule (not specific to a payment method)
+     */
+    Optional<CountryPaymentRule> findByCountryCodeAndPaymentMethodIsNullAndEnabledTrue(String countryCode);
     
 }
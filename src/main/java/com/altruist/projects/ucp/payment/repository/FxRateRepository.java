@@ -0,0 +1,16 @@
+package com.altruist.projects.ucp.payment.repository;
+
+import java.util.Currency;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.altruist.projects.ucp.payment.model.FxRate;
+
+@Repository
+public interface FxRateRepository extends JpaRepository<FxRate, Long> {
+    
+    Optional<FxRate> findByCurrency(Currency currency);
+    
+}
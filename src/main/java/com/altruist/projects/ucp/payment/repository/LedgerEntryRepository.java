@@ -0,0 +1,32 @@
+package com.altruist.projects.ucp.payment.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.altruist.projects.ucp.payment.dto.AccountBalance;
+import com.altruist.projects.ucp.payment.model.LedgerEntry;
+
+@Repository
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long> {
+    
+    /**
+     * Highest committed entry id, read from the primary so a snapshot never misses a commit
+     */
+    @Transactional
+    @Query("select max(e.id) from LedgerEntry e")
+    Long findMaxId();
+    
+    /**
+     * Net amount per account and currency of the entries with an id in {@code (afterId, throughId]}
+     */
+    @Transactional
+    @Query("select new com.altruist.projects.ucp.payment.dto.AccountBalance(e.account, e.currency, sum(e.amount))"
+            + " from LedgerEntry e where e.id > :afterId and e.id <= :throughId group by e.account, e.currency")
+    List<AccountBalance> sumBalances(@Param("afterId") long afterId, @Param("throughId") long throughId);
+    
+}
@@ -0,0 +1,35 @@
+package com.altruist.projects.ucp.payment.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.altruist.projects.ucp.payment.model.LedgerSnapshot;
+
+@Repository
+public interface LedgerSnapshotRepository extends JpaRepository<LedgerSnapshot, Long> {
+    
+    /**
+     * Entry id the latest complete snapshot runs through, {@code null} before the first snapshot
+     */
+    @Transactional
+    @Query("select max(s.throughEntryId) from LedgerSnapshot s")
+    Long findLatestThroughEntryId();
+    
+    @Transactional
+    List<LedgerSnapshot> findByThroughEntryId(long throughEntryId);
+    
+    /**
+     * Drop the snapshots superseded by the one through the given entry id
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from LedgerSnapshot s where s.throughEntryId < :throughEntryId")
+    int deleteOlderThan(@Param("throughEntryId") long throughEntryId);
+    
+}
@@ -0,0 +1,15 @@
+package com.altruist.projects.ucp.payment.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.altruist.projects.ucp.payment.model.PaymentHoliday;
+
+@Repository
+public interface PaymentHolidayRepository extends JpaRepository<PaymentHoliday, Long> {
+    
+    List<PaymentHoliday> findByCountryCode(String countryCode);
+    
+}
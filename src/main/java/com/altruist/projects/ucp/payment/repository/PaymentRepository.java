@@ -1,11 +1,81 @@
 package com.altruist.projects.ucp.payment.repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.altruist.projects.ucp.payment.model.Payment;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
     
+    /**
+     * Point lookups read the primary rather than a possibly lagging replica, so the retry
+     * scheduler sees the status it last wrote
+     */
+    @Override
+    @Transactional
+    Optional<Payment> findById(Long id);
+    
+    /**
+     * Keyset page: the next payments after the given id, in id order
+     */
+    @Transactional(readOnly = true)
+    List<Payment> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+    
+    /**
+     * Keyset page of one payment method's payments after the given id, in id order
+     */
+    @Transactional(readOnly = true)
+    List<Payment> findByPaymentMethodAndIdGreaterThanOrderByIdAsc(String paymentMethod, Long id, Limit limit);
+    
+    /**
+     * Payments with a timestamp in {@code [from, to)}, in id order
+     */
+    @Transactional(readOnly = true)
+    List<Payment> findByTimestampGreaterThanEqualAndTimestampLessThanOrderByIdAsc(LocalDateTime from, LocalDateTime to);
+    
+    /**
+     * Keyset page of the SUCCESS payments after the given id that have no ledger entry, in id order.
+     * Reads the primary, where the ledger commits.
+     */
+    @Transactional
+    @Query("select p from Payment p where p.status = 'SUCCESS' and p.id > :afterId"
+            + " and not exists (select e.id from LedgerEntry e where e.paymentId = p.id) order by p.id")
+    List<Payment> findUnpostedSuccessful(@Param("afterId") long afterId, Limit limit);
+    
+    /**
+     * Keyset page of one monthly partition, in id order
+     */
+    @Transactional(readOnly = true)
+    List<Payment> findByPartitionMonthAndIdGreaterThanOrderByIdAsc(Integer partitionMonth, Long id, Limit limit);
+    
+    @Query("select distinct p.partitionMonth from Payment p where p.partitionMonth < :before order by p.partitionMonth")
+    List<Integer> findPartitionMonthsBefore(@Param("before") int before);
+    
+    /**
+     * Assign the partition of rows stored before payments had one
+     */
+    @Transactional
+    @Modifying
+    @Query("update Payment p set p.partitionMonth = extract(year from p.timestamp) * 100 + extract(month from p.timestamp)"
+            + " where p.partitionMonth is null and p.timestamp is not null")
+    int assignMissingPartitionMonths();
+    
+    /**
+     * Drop the archived rows of a partition, up to the last archived id
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from Payment p where p.partitionMonth = :month and p.id <= :maxId")
+    int deletePartition(@Param("month") int month, @Param("maxId") long maxId);
+    
 }
@@ -0,0 +1,41 @@
+package com.altruist.projects.ucp.payment.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.altruist.projects.ucp.payment.model.PaymentRetry;
+
+@Repository
+public interface PaymentRetryRepository extends JpaRepository<PaymentRetry, Long> {
+    
+    /**
+     * Ids of unleased retries due before the horizon, earliest first
+     */
+    @Query("select r.paymentId from PaymentRetry r where r.dueAt <= :horizon"
+            + " and (r.leaseUntil is null or r.leaseUntil < :now) order by r.dueAt")
+    List<Long> findClaimable(@Param("horizon") Instant horizon, @Param("now") Instant now, Limit limit);
+    
+    /**
+     * Lease the given retries unless another replica leased them first
+     * @return number of rows claimed
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update PaymentRetry r set r.claimToken = :token, r.leaseOwner = :owner, r.leaseUntil = :leaseUntil,"
+            + " r.version = r.version + 1"
+            + " where r.paymentId in :ids and (r.leaseUntil is null or r.leaseUntil < :now)")
+    int claim(@Param("ids") Collection<Long> ids, @Param("token") String token, @Param("owner") String owner,
+              @Param("leaseUntil") Instant leaseUntil, @Param("now") Instant now);
+    
+    List<PaymentRetry> findByClaimToken(String claimToken);
+    
+}
@@ -0,0 +1,16 @@
+package com.altruist.projects.ucp.payment.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.altruist.projects.ucp.payment.model.PaymentSummary;
+
+@Repository
+public interface PaymentSummaryRepository extends JpaRepository<PaymentSummary, Long> {
+    
+    List<PaymentSummary> findByGranularityAndBucketStartGreaterThanEqualOrderByBucketStart(String granularity, Instant from);
+    
+}
@@ -0,0 +1,464 @@
+package com.altruist.projects.ucp.payment.retry;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+import com.altruist.projects.ucp.payment.analytics.PaymentAnalytics;
+import com.altruist.projects.ucp.payment.columnar.PaymentColumnStore;
+import com.altruist.projects.ucp.payment.diagnostics.GatewayCallEvent;
+import com.altruist.projects.ucp.payment.dto.PaymentRequest;
+import com.altruist.projects.ucp.payment.dto.PaymentResponse;
+import com.altruist.projects.ucp.payment.events.PaymentEventBus;
+import com.altruist.projects.ucp.payment.health.PaymentLoadMonitor;
+import com.altruist.projects.ucp.payment.ledger.AccountLedger;
+import com.altruist.projects.ucp.payment.limit.AdaptiveConcurrencyLimiter;
+import com.altruist.projects.ucp.payment.limit.ConcurrencyLimiterRegistry;
+import com.altruist.projects.ucp.payment.model.Payment;
+import com.altruist.projects.ucp.payment.model.PaymentRetry;
+import com.altruist.projects.ucp.payment.model.PaymentStatus;
+import com.altruist.projects.ucp.payment.pipeline.PaymentPipeline;
+import com.altruist.projects.ucp.payment.repository.PaymentRepository;
+import com.altruist.projects.ucp.payment.repository.PaymentRetryRepository;
+import com.altruist.projects.ucp.payment.routing.GatewayRouter;
+import com.altruist.projects.ucp.payment.routing.RoutedProvider;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Retries payments whose gateway call failed, with exponential backoff and jitter, from the
+ * persistent {@code payment_retries} queue.
+ *
+ * <p>Every {@code payment.retry.poll-interval-ms} this replica leases a batch of retries due within
+ * {@code payment.retry.lookahead-seconds} with one query and one conditional update, and schedules
+ * them on an in-memory {@link TimingWheel} ticking every {@code payment.retry.tick-ms}. Pending
+ * retries therefore cost one indexed range scan per poll rather than a query per row, and replicas
+ * never run the same retry while its lease holds. A replica that dies leaves its leases to expire,
+ * after which another replica claims the rows.</p>
+ *
+ * <p>A retry calls its gateway like the pipeline does: under the gateway's concurrency limit (a retry
+ * finding it full is put back for another backoff without using up an attempt), feeding the gateway
+ * health of the load monitor and as a {@link GatewayCallEvent}. The final status is recorded in the
+ * payment analytics, which count a payment left {@code RETRYING} as pending.</p>
+ *
+ * <p>Retries run on their own bounded {@code paymentRetryExecutor}, since a synchronous gateway
+ * blocks the attempt's thread and must not starve the completions of live payments. A retry that
+ * executor rejects is released at once and claimed again at a later poll.</p>
+ */
+@Slf4j
+@Component
+public class PaymentRetryScheduler implements SmartLifecycle {
+
+    private static final int WHEEL_SIZE = 64;
+    private static final int WHEEL_LEVELS = 4;
+
+    private final PaymentRetryRepository retryRepository;
+    private final PaymentRepository paymentRepository;
+    private final GatewayRouter gatewayRouter;
+    private final PaymentColumnStore columnStore;
+    private final PaymentEventBus eventBus;
+    private final AccountLedger ledger;
+    private final ConcurrencyLimiterRegistry concurrencyLimiters;
+    private final PaymentLoadMonitor loadMonitor;
+    private final PaymentAnalytics paymentAnalytics;
+    private final Clock clock;
+    private final Executor executor;
+    private final String nodeId;
+    private final boolean enabled;
+    private final int maxAttempts;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final long tickMillis;
+    private final long pollIntervalMillis;
+    private final long lookaheadMillis;
+    private final long leaseMillis;
+    private final int batchSize;
+    private final int maxInMemory;
+    private final TimingWheel<PaymentRetry> wheel;
+
+    private final LongAdder enqueued = new LongAdder();
+    private final LongAdder claimed = new LongAdder();
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder rescheduled = new LongAdder();
+    private final LongAdder deferred = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+
+    private ScheduledExecutorService ticker;
+    private long nextPollMillis;
+    private volatile int scheduled;
+
+    public PaymentRetryScheduler(PaymentRetryRepository retryRepository,
+                                 PaymentRepository paymentRepository,
+                                 GatewayRouter gatewayRouter,
+                                 PaymentColumnStore columnStore,
+                                 PaymentEventBus eventBus,
+                                 AccountLedger ledger,
+                                 ConcurrencyLimiterRegistry concurrencyLimiters,
+                                 PaymentLoadMonitor loadMonitor,
+                                 PaymentAnalytics paymentAnalytics,
+                                 Clock clock,
+                                 @Qualifier("paymentRetryExecutor") Executor executor,
+                                 @Value("${payment.node-id:local}") String nodeId,
+                                 @Value("${payment.retry.enabled:true}") boolean enabled,
+                                 @Value("${payment.retry.max-attempts:5}") int maxAttempts,
+                                 @Value("${payment.retry.base-delay-ms:2000}") long baseDelayMillis,
+                                 @Value("${payment.retry.max-delay-ms:300000}") long maxDelayMillis,
+                                 @Value("${payment.retry.tick-ms:100}") long tickMillis,
+                                 @Value("${payment.retry.poll-interval-ms:1000}") long pollIntervalMillis,
+                                 @Value("${payment.retry.lookahead-seconds:30}") int lookaheadSeconds,
+                                 @Value("${payment.retry.lease-seconds:300}") int leaseSeconds,
+                                 @Value("${payment.retry.batch-size:500}") int batchSize,
+                                 @Value("${payment.retry.max-in-memory:50000}") int maxInMemory) {
+        this.retryRepository = retryRepository;
+        this.paymentRepository = paymentRepository;
+        this.gatewayRouter = gatewayRouter;
+        this.columnStore = columnStore;
+        this.eventBus = eventBus;
+        this.ledger = ledger;
+        this.concurrencyLimiters = concurrencyLimiters;
+        this.loadMonitor = loadMonitor;
+        this.paymentAnalytics = paymentAnalytics;
+        this.clock = clock;
+        this.executor = executor;
+        this.nodeId = nodeId;
+        this.enabled = enabled;
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.tickMillis = tickMillis;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.lookaheadMillis = TimeUnit.SECONDS.toMillis(lookaheadSeconds);
+        // The lease outlives the lookahead so a claimed retry still holds it when it fires
+        this.leaseMillis = lookaheadMillis + TimeUnit.SECONDS.toMillis(leaseSeconds);
+        this.batchSize = batchSize;
+        this.maxInMemory = maxInMemory;
+        this.wheel = new TimingWheel<>(tickMillis, WHEEL_SIZE, WHEEL_LEVELS, clock.millis());
+    }
+
+    /**
+     * Whether a failed gateway call should be retried instead of failing the payment:
+     * the gateway threw or answered FAILED
+     */
+    public boolean isRetryable(PaymentResponse response, Throwable error) {
+        return enabled && maxAttempts > 0
+                && (error != null || response == null || PaymentStatus.FAILED.name().equals(response.getStatus()));
+    }
+
+    /**
+     * Queue the first retry of a payment left {@code RETRYING}
+     */
+    public void enqueue(Payment payment, String lastError) {
+        retryRepository.save(PaymentRetry.builder()
+                .paymentId(payment.getId())
+                .attempt(1)
+                .dueAt(clock.instant().plusMillis(backoffMillis(1)))
+                .lastError(truncate(lastError))
+                .build());
+        enqueued.increment();
+        log.info("Payment {} queued for retry: {}", payment.getId(), lastError);
+    }
+
+    /**
+     * Delay before a retry attempt: exponential in the attempt, capped, with the upper half jittered
+     * so that retries of one outage do not all hit the gateway at once
+     */
+    long backoffMillis(int attempt) {
+        long delay = Math.min(maxDelayMillis, baseDelayMillis << Math.min(attempt - 1, 30));
+        long half = delay / 2;
+        return delay - half + ThreadLocalRandom.current().nextLong(half + 1);
+    }
+
+    /**
+     * Claim due retries when the poll interval has passed and fire those that have come due
+     */
+    void tick() {
+        long now = clock.millis();
+        try {
+            if (now >= nextPollMillis) {
+                nextPollMillis = now + pollIntervalMillis;
+                claimDue(now);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Claiming payment retries failed: {}", e.getMessage());
+        }
+        wheel.advance(now, this::dispatch);
+        scheduled = wheel.size();
+    }
+
+    private void claimDue(long now) {
+        Instant nowInstant = Instant.ofEpochMilli(now);
+        Instant horizon = nowInstant.plusMillis(lookaheadMillis);
+        Instant leaseUntil = nowInstant.plusMillis(leaseMillis);
+        while (wheel.size() < maxInMemory) {
+            int limit = Math.min(batchSize, maxInMemory - wheel.size());
+            List<Long> ids = retryRepository.findClaimable(horizon, nowInstant, Limit.of(limit));
+            if (ids.isEmpty()) {
+                return;
+            }
+            String token = nodeId + "-" + UUID.randomUUID();
+            if (retryRepository.claim(ids, token, nodeId, leaseUntil, nowInstant) > 0) {
+                List<PaymentRetry> retries = retryRepository.findByClaimToken(token);
+                for (PaymentRetry retry : retries) {
+                    wheel.schedule(retry, retry.getDueAt().toEpochMilli());
+                }
+                claimed.add(retries.size());
+                log.debug("Claimed {} payment retries due before {}", retries.size(), horizon);
+            }
+            if (ids.size() < limit) {
+                return;
+            }
+        }
+    }
+
+    private void dispatch(PaymentRetry retry) {
+        try {
+            executor.execute(() -> attempt(retry));
+        } catch (RejectedExecutionException e) {
+            // Released rather than left to its lease, so a later poll claims it again
+            if (requeue(retry, pollIntervalMillis)) {
+                rejected.increment();
+                log.warn("Retry of payment {} rejected by the executor, released until {}",
+                        retry.getPaymentId(), retry.getDueAt());
+            }
+        }
+    }
+
+    /**
+     * Run one retry attempt and record its outcome
+     */
+    void attempt(PaymentRetry retry) {
+        if (retry.getLeaseUntil() != null && !clock.instant().isBefore(retry.getLeaseUntil())) {
+            log.warn("Lease on the retry of payment {} expired before it ran", retry.getPaymentId());
+            return;
+        }
+        Payment payment = paymentRepository.findById(retry.getPaymentId()).orElse(null);
+        if (payment == null || PaymentStatus.isFinal(payment.getStatus())) {
+            delete(retry);
+            return;
+        }
+        if (PaymentStatus.IN_FLIGHT.name().equals(payment.getStatus())) {
+            log.warn("Payment {} was left in flight by an expired lease, retrying", payment.getId());
+        }
+
+        RoutedProvider provider = gatewayRouter.select(payment.getPaymentMethod(), 0L);
+        if (provider == null) {
+            finish(retry, payment, PaymentStatus.FAILED, null, "No gateway for " + payment.getPaymentMethod());
+            return;
+        }
+        String gatewayType = provider.getGatewayType();
+        AdaptiveConcurrencyLimiter gatewayLimiter = concurrencyLimiters.forGateway(gatewayType);
+        if (!gatewayLimiter.tryAcquire()) {
+            defer(retry, gatewayType);
+            return;
+        }
+        payment.setStatus(PaymentStatus.IN_FLIGHT.name());
+        paymentRepository.save(payment);
+
+        long startNanos = System.nanoTime();
+        GatewayCallEvent event = new GatewayCallEvent();
+        event.begin();
+        CompletableFuture<PaymentResponse> call;
+        try {
+            call = provider.getGateway().processPaymentAsync(toRequest(payment));
+        } catch (RuntimeException e) {
+            call = CompletableFuture.failedFuture(e);
+        }
+        call.whenComplete((response, error) -> {
+            // Cheap bookkeeping on the completing thread, so latencies exclude executor queueing
+            long elapsed = System.nanoTime() - startNanos;
+            boolean success = isSuccess(response, error);
+            provider.record(elapsed, success);
+            loadMonitor.recordGatewayOutcome(gatewayType, success);
+            if (success) {
+                gatewayLimiter.onSuccess(elapsed);
+            } else {
+                gatewayLimiter.onDropped();
+            }
+            event.end();
+            if (event.shouldCommit()) {
+                event.gatewayType = gatewayType;
+                event.providerId = provider.getProviderId();
+                event.attempt = 1;
+                event.retryAttempt = retry.getAttempt();
+                event.async = true;
+                event.outcome = error != null ? PaymentPipeline.unwrap(error).getClass().getSimpleName()
+                        : response == null ? null : response.getStatus();
+                event.commit();
+            }
+        }).whenCompleteAsync((response, error) -> {
+            // Off the thread that completed the gateway call (e.g. a gateway's timer), which must not run
+            // the saves, ledger posting and event publishing of the outcome
+            if (isSuccess(response, error)) {
+                finish(retry, payment, PaymentStatus.SUCCESS, response.getExternalReference(), null);
+                return;
+            }
+            String reason = error != null ? PaymentPipeline.unwrap(error).getMessage()
+                    : response == null ? "no response" : response.getMessage();
+            if (retry.getAttempt() >= maxAttempts || !isRetryable(response, error)) {
+                finish(retry, payment, PaymentStatus.FAILED, null, reason);
+            } else {
+                reschedule(retry, payment, reason);
+            }
+        }, executor);
+    }
+
+    private void finish(PaymentRetry retry, Payment payment, PaymentStatus status, String externalReference,
+                        String reason) {
+        payment.setStatus(status.name());
+        payment.setExternalReference(externalReference);
+        paymentRepository.save(payment);
+        columnStore.append(payment);
+        ledger.post(payment);
+        eventBus.publish(payment);
+        paymentAnalytics.record(payment.getDestinationCountry(), payment.getPaymentMethod(), payment.getCurrency(),
+                status.name(), payment.getAmount(), payment.getCharges());
+        if (status == PaymentStatus.SUCCESS) {
+            succeeded.increment();
+            log.info("Payment {} succeeded on retry attempt {}", payment.getId(), retry.getAttempt());
+        } else {
+            exhausted.increment();
+            log.warn("Payment {} failed after {} retry attempts: {}", payment.getId(), retry.getAttempt(), reason);
+        }
+        delete(retry);
+    }
+
+    private void reschedule(PaymentRetry retry, Payment payment, String reason) {
+        payment.setStatus(PaymentStatus.RETRYING.name());
+        paymentRepository.save(payment);
+        int next = retry.getAttempt() + 1;
+        retry.setAttempt(next);
+        retry.setLastError(truncate(reason));
+        if (requeue(retry, backoffMillis(next))) {
+            rescheduled.increment();
+            log.info("Payment {} retry attempt {} failed ({}), next attempt at {}",
+                    payment.getId(), next - 1, reason, retry.getDueAt());
+        }
+    }
+
+    /**
+     * Put a retry whose gateway is at its concurrency limit back for another backoff of the same attempt
+     */
+    private void defer(PaymentRetry retry, String gatewayType) {
+        if (requeue(retry, backoffMillis(retry.getAttempt()))) {
+            deferred.increment();
+            log.debug("Retry of payment {} deferred until {}, {} gateway at its concurrency limit",
+                    retry.getPaymentId(), retry.getDueAt(), gatewayType);
+        }
+    }
+
+    /**
+     * Release the lease and make the retry due after the given delay
+     * @return false if another node claimed it meanwhile
+     */
+    private boolean requeue(PaymentRetry retry, long delayMillis) {
+        retry.setDueAt(clock.instant().plusMillis(delayMillis));
+        retry.setClaimToken(null);
+        retry.setLeaseOwner(null);
+        retry.setLeaseUntil(null);
+        try {
+            retryRepository.save(retry);
+            return true;
+        } catch (OptimisticLockingFailureException e) {
+            conflicts.increment();
+            log.warn("Retry of payment {} was claimed by another node meanwhile", retry.getPaymentId());
+            return false;
+        }
+    }
+
+    private void delete(PaymentRetry retry) {
+        try {
+            retryRepository.delete(retry);
+        } catch (OptimisticLockingFailureException e) {
+            conflicts.increment();
+            log.warn("Retry of payment {} was claimed by another node meanwhile", retry.getPaymentId());
+        }
+    }
+
+    private static boolean isSuccess(PaymentResponse response, Throwable error) {
+        return error == null && response != null && PaymentStatus.SUCCESS.name().equals(response.getStatus());
+    }
+
+    private static PaymentRequest toRequest(Payment payment) {
+        return PaymentRequest.builder()
+                .name(payment.getName())
+                .toAccount(payment.getToAccount())
+                .fromAccount(payment.getFromAccount())
+                .description(payment.getDescription())
+                .destinationCountry(payment.getDestinationCountry())
+                .paymentMethod(payment.getPaymentMethod())
+                .amount(payment.getAmount())
+                .currency(payment.getCurrency())
+                .build();
+    }
+
+    private static String truncate(String message) {
+        return message == null || message.length() <= 255 ? message : message.substring(0, 255);
+    }
+
+    /**
+     * Queue counters of this replica
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("enabled", enabled);
+        snapshot.put("nodeId", nodeId);
+        snapshot.put("pending", retryRepository.count());
+        snapshot.put("scheduled", scheduled);
+        snapshot.put("enqueued", enqueued.sum());
+        snapshot.put("claimed", claimed.sum());
+        snapshot.put("succeeded", succeeded.sum());
+        snapshot.put("rescheduled", rescheduled.sum());
+        snapshot.put("deferred", deferred.sum());
+        snapshot.put("rejected", rejected.sum());
+        snapshot.put("exhausted", exhausted.sum());
+        snapshot.put("conflicts", conflicts.sum());
+        return snapshot;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (!enabled || ticker != null) {
+            return;
+        }
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "payment-retry-wheel");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleWithFixedDelay(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+        log.info("Payment retry scheduler started on node {}", nodeId);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+            ticker = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return ticker != null;
+    }
+}
@@ -0,0 +1,109 @@
+package com.altruist.projects.ucp.payment.retry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel. Level {@code L} has {@code wheelSize} slots of
+ * {@code tickMillis * wheelSize^L} each; an entry sits on the lowest level whose span covers its
+ * delay and moves down a level each time its slot comes round, so scheduling is O(1) and each tick
+ * only touches the entries due in it. Deadlines beyond the top level's span circle the top level
+ * until they are in range.
+ *
+ * <p>Not thread-safe: the retry scheduler drives it from a single thread.</p>
+ */
+final class TimingWheel<T> {
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final long[] spans; // Base ticks per slot on each level
+    private final List<List<Entry<T>>> slots;
+    private long currentTick;
+    private int size;
+
+    TimingWheel(long tickMillis, int wheelSize, int levels, long startMillis) {
+        if (tickMillis <= 0 || wheelSize < 2 || levels < 1) {
+            throw new IllegalArgumentException("Invalid timing wheel " + tickMillis + "ms x " + wheelSize + " x " + levels);
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.spans = new long[levels];
+        this.slots = new ArrayList<>(levels * wheelSize);
+        long span = 1;
+        for (int level = 0; level < levels; level++) {
+            spans[level] = span;
+            span = Math.multiplyExact(span, wheelSize);
+            for (int slot = 0; slot < wheelSize; slot++) {
+                slots.add(new ArrayList<>());
+            }
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    /**
+     * Schedule an item; deadlines already passed fire on the next tick
+     */
+    void schedule(T item, long deadlineMillis) {
+        place(new Entry<>(item, Math.max(deadlineMillis / tickMillis, currentTick + 1)));
+        size++;
+    }
+
+    /**
+     * Advance to {@code nowMillis}, handing every item that has come due to {@code expired}
+     * in deadline order
+     */
+    void advance(long nowMillis, Consumer<T> expired) {
+        long nowTick = nowMillis / tickMillis;
+        if (size == 0) {
+            currentTick = Math.max(currentTick, nowTick);
+            return;
+        }
+        while (currentTick < nowTick && size > 0) {
+            currentTick++;
+            for (int level = spans.length - 1; level > 0; level--) {
+                if (currentTick % spans[level] == 0) {
+                    cascade(level);
+                }
+            }
+            List<Entry<T>> due = slot(0, currentTick);
+            if (!due.isEmpty()) {
+                List<Entry<T>> fired = new ArrayList<>(due);
+                due.clear();
+                size -= fired.size();
+                fired.forEach(entry -> expired.accept(entry.item));
+            }
+        }
+        currentTick = Math.max(currentTick, nowTick);
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void cascade(int level) {
+        List<Entry<T>> slot = slot(level, currentTick);
+        if (slot.isEmpty()) {
+            return;
+        }
+        List<Entry<T>> moved = new ArrayList<>(slot);
+        slot.clear();
+        moved.forEach(this::place);
+    }
+
+    private void place(Entry<T> entry) {
+        long delay = entry.tick - currentTick;
+        int level = 0;
+        while (level < spans.length - 1 && delay >= spans[level + 1]) {
+            level++;
+        }
+        slot(level, entry.tick).add(entry);
+    }
+
+    private List<Entry<T>> slot(int level, long tick) {
+        return slots.get(level * wheelSize + (int) ((tick / spans[level]) % wheelSize));
+    }
+
+    private record Entry<T>(T item, long tick) {
+    }
+}
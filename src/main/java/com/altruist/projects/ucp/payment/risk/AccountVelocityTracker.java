@@ -0,0 +1,91 @@
+package com.altruist.projects.ucp.payment.risk;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-account velocity windows (last minute, hour and day) held in memory.
+ *
+ * <p>Accounts are spread over lock stripes; each stripe is an access-ordered map that evicts its
+ * least recently active account once full, so memory is bounded by {@code maxAccounts} windows of
+ * about 1 KB each and contention is limited to accounts sharing a stripe.</p>
+ */
+final class AccountVelocityTracker {
+
+    private static final long SECOND = 1_000L;
+    private static final long MINUTE = 60 * SECOND;
+    private static final long HOUR = 60 * MINUTE;
+
+    private final Stripe[] stripes;
+
+    AccountVelocityTracker(int stripeCount, int maxAccounts) {
+        if (Integer.bitCount(stripeCount) != 1) {
+            throw new IllegalArgumentException("Stripe count must be a power of two: " + stripeCount);
+        }
+        this.stripes = new Stripe[stripeCount];
+        int perStripe = Math.max(1, maxAccounts / stripeCount);
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe(perStripe);
+        }
+    }
+
+    /**
+     * Record a payment of the account and return its velocity including that payment
+     * @param amount Amount in minor units of the FX base currency
+     */
+    VelocityFeatures record(String account, long now, long amount, String destinationCountry) {
+        Stripe stripe = stripes[mix(account.hashCode()) & (stripes.length - 1)];
+        synchronized (stripe) {
+            Window window = stripe.get(account);
+            if (window == null) {
+                window = new Window();
+                stripe.put(account, window);
+            }
+            window.lastMinute.add(now, amount, destinationCountry);
+            window.lastHour.add(now, amount, destinationCountry);
+            window.lastDay.add(now, amount, destinationCountry);
+            return new VelocityFeatures(
+                    window.lastMinute.count(now), window.lastMinute.sum(now),
+                    window.lastHour.count(now), window.lastHour.sum(now),
+                    window.lastDay.count(now), window.lastDay.sum(now),
+                    window.lastDay.distinctCountries(now));
+        }
+    }
+
+    int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16) ^ (hash >>> 7);
+    }
+
+    private static final class Window {
+        // 6 x 10 s, 12 x 5 min and 24 x 1 h slots
+        final SlidingCounter lastMinute = new SlidingCounter(6, 10 * SECOND, false);
+        final SlidingCounter lastHour = new SlidingCounter(12, 5 * MINUTE, false);
+        final SlidingCounter lastDay = new SlidingCounter(24, HOUR, true);
+    }
+
+    private static final class Stripe extends LinkedHashMap<String, Window> {
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        Stripe(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Window> eldest) {
+            return size() > capacity;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.altruist.projects.ucp.payment.risk;
+
+import java.util.List;
+
+import lombok.Value;
+
+/**
+ * Outcome of a risk assessment: a score from 0 to 100, the decision it maps to and the
+ * features that contributed to it
+ */
+@Value
+public class RiskAssessment {
+
+    public enum Decision {
+        ALLOW,
+        /** Processed, but logged for review */
+        REVIEW,
+        /** Declined before reaching a gateway */
+        BLOCK
+    }
+
+    private static final RiskAssessment ALLOW = new RiskAssessment(0, Decision.ALLOW, List.of());
+
+    int score;
+    Decision decision;
+    List<String> reasons;
+
+    public static RiskAssessment allow() {
+        return ALLOW;
+    }
+}
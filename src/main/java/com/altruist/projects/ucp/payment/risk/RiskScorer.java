@@ -0,0 +1,18 @@
+package com.altruist.projects.ucp.payment.risk;
+
+import com.altruist.projects.ucp.payment.dto.PaymentRequest;
+
+/**
+ * Scores a validated payment for fraud risk before a gateway is selected.
+ * Implementations run on the payment hot path and must answer from memory.
+ */
+public interface RiskScorer {
+
+    /**
+     * Score a payment and remember it for later assessments of the same account
+     * @param request The validated payment request, amount in minor units of its currency
+     * @return The assessment; {@link RiskAssessment.Decision#BLOCK} declines the payment
+     */
+    RiskAssessment assess(PaymentRequest request);
+
+}
@@ -0,0 +1,105 @@
+package com.altruist.projects.ucp.payment.risk;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Ring of fixed-width time slots holding a payment count and an amount sum, plus (optionally) the
+ * destination countries paid to with the slot each was last seen in, so distinct countries are counted
+ * exactly. Slots are reset lazily when the ring wraps around, so the window slides in steps of one slot.
+ * Not thread-safe; {@link AccountVelocityTracker} guards it with the stripe lock.
+ */
+final class SlidingCounter {
+
+    private final long slotMillis;
+    private final long[] slotIds;
+    private final int[] counts;
+    private final long[] sums;
+    private final boolean trackCountries;
+    private String[] countries = new String[0];
+    private long[] countrySlotIds = new long[0];
+    private int countryCount;
+
+    SlidingCounter(int slots, long slotMillis, boolean trackCountries) {
+        this.slotMillis = slotMillis;
+        this.slotIds = new long[slots];
+        this.counts = new int[slots];
+        this.sums = new long[slots];
+        this.trackCountries = trackCountries;
+        Arrays.fill(slotIds, -1L);
+    }
+
+    void add(long now, long amount, String country) {
+        long slotId = now / slotMillis;
+        int index = (int) (slotId % slotIds.length);
+        if (slotIds[index] != slotId) {
+            slotIds[index] = slotId;
+            counts[index] = 0;
+            sums[index] = 0;
+        }
+        counts[index]++;
+        sums[index] += amount;
+        if (trackCountries && country != null) {
+            addCountry(slotId, country);
+        }
+    }
+
+    int count(long now) {
+        long oldest = now / slotMillis - slotIds.length;
+        int count = 0;
+        for (int i = 0; i < slotIds.length; i++) {
+            if (slotIds[i] > oldest) {
+                count += counts[i];
+            }
+        }
+        return count;
+    }
+
+    long sum(long now) {
+        long oldest = now / slotMillis - slotIds.length;
+        long sum = 0;
+        for (int i = 0; i < slotIds.length; i++) {
+            if (slotIds[i] > oldest) {
+                sum += sums[i];
+            }
+        }
+        return sum;
+    }
+
+    int distinctCountries(long now) {
+        long oldest = now / slotMillis - slotIds.length;
+        int distinct = 0;
+        for (int i = 0; i < countryCount; i++) {
+            if (countrySlotIds[i] > oldest) {
+                distinct++;
+            }
+        }
+        return distinct;
+    }
+
+    private void addCountry(long slotId, String country) {
+        for (int i = 0; i < countryCount; i++) {
+            if (Objects.equals(countries[i], country)) {
+                countrySlotIds[i] = slotId;
+                return;
+            }
+        }
+        // Drop countries that have left the window before growing
+        long oldest = slotId - slotIds.length;
+        int kept = 0;
+        for (int i = 0; i < countryCount; i++) {
+            if (countrySlotIds[i] > oldest) {
+                countries[kept] = countries[i];
+                countrySlotIds[kept++] = countrySlotIds[i];
+            }
+        }
+        Arrays.fill(countries, kept, countryCount, null);
+        countryCount = kept;
+        if (countryCount == countries.length) {
+            countries = Arrays.copyOf(countries, Math.max(4, countryCount * 2));
+            countrySlotIds = Arrays.copyOf(countrySlotIds, countries.length);
+        }
+        countries[countryCount] = country;
+        countrySlotIds[countryCount++] = slotId;
+    }
+}
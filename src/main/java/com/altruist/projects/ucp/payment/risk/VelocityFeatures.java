@@ -0,0 +1,18 @@
+package com.altruist.projects.ucp.payment.risk;
+
+import lombok.Value;
+
+/**
+ * Velocity of one account including the payment being scored. Sums are in minor units of the
+ * FX base currency so that payments in different currencies add up.
+ */
+@Value
+public class VelocityFeatures {
+    int countLastMinute;
+    long sumLastMinute;
+    int countLastHour;
+    long sumLastHour;
+    int countLastDay;
+    long sumLastDay;
+    int distinctCountriesLastDay;
+}
@@ -0,0 +1,177 @@
+package com.altruist.projects.ucp.payment.risk;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.altruist.projects.ucp.payment.dto.PaymentRequest;
+import com.altruist.projects.ucp.payment.fx.FxRateService;
+import com.altruist.projects.ucp.payment.fx.FxRateSnapshot;
+import com.altruist.projects.ucp.payment.money.Money;
+import com.altruist.projects.ucp.payment.risk.RiskAssessment.Decision;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Scores payments by the velocity of the paying account: payment count and amount over the last
+ * minute, hour and day and the number of destination countries over the last day. Each exceeded
+ * threshold adds to the score; the score is then compared with the review and block scores.
+ * Amount thresholds are in the FX base currency.
+ */
+@Slf4j
+@Component
+public class VelocityRiskScorer implements RiskScorer {
+
+    private final Clock clock;
+    private final FxRateService fxRateService;
+    private final AccountVelocityTracker tracker;
+    private final boolean enabled;
+    private final int maxPerMinute;
+    private final int maxPerHour;
+    private final int maxPerDay;
+    private final long maxAmountPerHour;
+    private final long maxAmountPerDay;
+    private final int maxCountriesPerDay;
+    private final int reviewScore;
+    private final int blockScore;
+    private final long budgetNanos;
+
+    private final LongAdder reviewed = new LongAdder();
+    private final LongAdder blocked = new LongAdder();
+    private final LongAdder assessed = new LongAdder();
+    private final LongAdder scoringNanos = new LongAdder();
+    private final LongAccumulator maxScoringNanos = new LongAccumulator(Long::max, 0L);
+    private final LongAdder overBudget = new LongAdder();
+
+    public VelocityRiskScorer(Clock clock,
+                              FxRateService fxRateService,
+                              @Value("${payment.risk.enabled:true}") boolean enabled,
+                              @Value("${payment.risk.stripes:64}") int stripes,
+                              @Value("${payment.risk.max-accounts:50000}") int maxAccounts,
+                              @Value("${payment.risk.max-per-minute:10}") int maxPerMinute,
+                              @Value("${payment.risk.max-per-hour:60}") int maxPerHour,
+                              @Value("${payment.risk.max-per-day:200}") int maxPerDay,
+                              @Value("${payment.risk.max-amount-per-hour:20000.00}") String maxAmountPerHour,
+                              @Value("${payment.risk.max-amount-per-day:100000.00}") String maxAmountPerDay,
+                              @Value("${payment.risk.max-countries-per-day:3}") int maxCountriesPerDay,
+                              @Value("${payment.risk.review-score:40}") int reviewScore,
+                              @Value("${payment.risk.block-score:70}") int blockScore,
+                              @Value("${payment.risk.budget-micros:1000}") long budgetMicros) {
+        this.clock = clock;
+        this.fxRateService = fxRateService;
+        this.tracker = new AccountVelocityTracker(stripes, maxAccounts);
+        this.enabled = enabled;
+        this.maxPerMinute = maxPerMinute;
+        this.maxPerHour = maxPerHour;
+        this.maxPerDay = maxPerDay;
+        this.maxAmountPerHour = Money.parse(maxAmountPerHour);
+        this.maxAmountPerDay = Money.parse(maxAmountPerDay);
+        this.maxCountriesPerDay = maxCountriesPerDay;
+        this.reviewScore = reviewScore;
+        this.blockScore = blockScore;
+        this.budgetNanos = TimeUnit.MICROSECONDS.toNanos(budgetMicros);
+    }
+
+    @Override
+    public RiskAssessment assess(PaymentRequest request) {
+        if (!enabled || request.getFromAccount() == null) {
+            return RiskAssessment.allow();
+        }
+        long startNanos = System.nanoTime();
+        VelocityFeatures features = tracker.record(request.getFromAccount(), clock.millis(),
+                toBaseCurrency(request.getAmount(), request.getCurrency()), request.getDestinationCountry());
+
+        int score = 0;
+        List<String> reasons = null;
+        if (features.getCountLastMinute() > maxPerMinute) {
+            score += 40;
+            reasons = reason(reasons, features.getCountLastMinute() + " payments in the last minute");
+        }
+        if (features.getCountLastHour() > maxPerHour) {
+            score += 25;
+            reasons = reason(reasons, features.getCountLastHour() + " payments in the last hour");
+        }
+        if (features.getCountLastDay() > maxPerDay) {
+            score += 20;
+            reasons = reason(reasons, features.getCountLastDay() + " payments in the last day");
+        }
+        if (features.getSumLastHour() > maxAmountPerHour) {
+            score += 30;
+            reasons = reason(reasons, Money.format(features.getSumLastHour()) + " "
+                    + fxRateService.getBaseCurrency() + " paid in the last hour");
+        }
+        if (features.getSumLastDay() > maxAmountPerDay) {
+            score += 25;
+            reasons = reason(reasons, Money.format(features.getSumLastDay()) + " "
+                    + fxRateService.getBaseCurrency() + " paid in the last day");
+        }
+        if (features.getDistinctCountriesLastDay() > maxCountriesPerDay) {
+            score += 30;
+            reasons = reason(reasons, features.getDistinctCountriesLastDay() + " destination countries in the last day");
+        }
+
+        long elapsed = System.nanoTime() - startNanos;
+        assessed.increment();
+        scoringNanos.add(elapsed);
+        maxScoringNanos.accumulate(elapsed);
+        if (elapsed > budgetNanos) {
+            overBudget.increment();
+        }
+
+        if (reasons == null) {
+            return RiskAssessment.allow();
+        }
+        score = Math.min(score, 100);
+        Decision decision = score >= blockScore ? Decision.BLOCK : score >= reviewScore ? Decision.REVIEW : Decision.ALLOW;
+        if (decision == Decision.BLOCK) {
+            blocked.increment();
+        } else if (decision == Decision.REVIEW) {
+            reviewed.increment();
+        }
+        return new RiskAssessment(score, decision, reasons);
+    }
+
+    /**
+     * Assessment counters and scoring latency
+     */
+    public Map<String, Object> snapshot() {
+        long count = assessed.sum();
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("enabled", enabled);
+        snapshot.put("assessed", count);
+        snapshot.put("reviewed", reviewed.sum());
+        snapshot.put("blocked", blocked.sum());
+        snapshot.put("trackedAccounts", tracker.size());
+        snapshot.put("avgScoringMicros", count == 0 ? 0.0 : scoringNanos.sum() / 1_000.0 / count);
+        snapshot.put("maxScoringMicros", maxScoringNanos.get() / 1_000.0);
+        snapshot.put("overBudget", overBudget.sum());
+        return snapshot;
+    }
+
+    /**
+     * Velocity sums are kept in the FX base currency; amounts without a rate count as they are
+     */
+    private long toBaseCurrency(long amount, Currency currency) {
+        FxRateSnapshot rates = fxRateService.current();
+        Currency base = rates.getBaseCurrency();
+        if (currency == null || currency.equals(base) || !rates.supports(currency)) {
+            return amount;
+        }
+        return rates.convert(amount, currency, base);
+    }
+
+    private static List<String> reason(List<String> reasons, String reason) {
+        List<String> list = reasons == null ? new ArrayList<>(2) : reasons;
+        list.add(reason);
+        return list;
+    }
+}
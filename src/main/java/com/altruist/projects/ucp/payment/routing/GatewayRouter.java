@@ -0,0 +1,183 @@
+package com.altruist.projects.ucp.payment.routing;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import com.altruist.projects.ucp.payment.gateway.PaymentGateway;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Routing engine choosing a provider among all gateways registered for a payment method.
+ *
+ * <p>Groups are built once at startup into immutable arrays. The primary provider is picked
+ * at random proportionally to its score (configured weight, scaled by live latency and error
+ * EWMAs, latency relative to the fastest provider of the group), so traffic shifts away from a degrading provider without starving it of the probe
+ * traffic it needs to recover. Failover candidates are tracked in a bitmask of tried providers
+ * and picked by best score, so selection allocates nothing and takes no locks.</p>
+ *
+ * <p>Weights are configured per provider id, e.g. {@code payment.routing.weights.CARD=100}.</p>
+ */
+@Slf4j
+@Component
+public class GatewayRouter {
+
+    private static final int DEFAULT_WEIGHT = 100;
+
+    private final Map<String, RoutedProvider[]> groups;
+    private final int maxAttempts;
+    private final double errorPenalty;
+    private final double probeFloor;
+    private final double latencyFloor;
+
+    public GatewayRouter(List<PaymentGateway> gateways, Environment environment) {
+        this.maxAttempts = environment.getProperty("payment.routing.max-attempts", Integer.class, 2);
+        this.errorPenalty = environment.getProperty("payment.routing.error-penalty", Double.class, 4.0);
+        this.probeFloor = environment.getProperty("payment.routing.probe-floor", Double.class, 0.05);
+        this.latencyFloor = environment.getProperty("payment.routing.latency-floor", Double.class, 0.25);
+
+        Map<String, List<PaymentGateway>> byType = new TreeMap<>();
+        for (PaymentGateway gateway : gateways) {
+            byType.computeIfAbsent(gateway.getGatewayType(), type -> new ArrayList<>()).add(gateway);
+        }
+
+        Map<String, RoutedProvider[]> built = new LinkedHashMap<>();
+        byType.forEach((type, members) -> {
+            if (members.size() > Long.SIZE) {
+                throw new IllegalStateException("At most " + Long.SIZE + " providers are supported for " + type);
+            }
+            RoutedProvider[] group = new RoutedProvider[members.size()];
+            for (int i = 0; i < group.length; i++) {
+                PaymentGateway gateway = members.get(i);
+                for (int j = 0; j < i; j++) {
+                    if (group[j].getProviderId().equals(gateway.getProviderId())) {
+                        throw new IllegalStateException("Duplicate provider id " + gateway.getProviderId() + " for " + type);
+                    }
+                }
+                int weight = environment.getProperty("payment.routing.weights." + gateway.getProviderId(),
+                        Integer.class, DEFAULT_WEIGHT);
+                group[i] = new RoutedProvider(gateway, i, weight);
+            }
+            built.put(type, group);
+            log.info("Routing group {} -> {}", type, members.stream().map(PaymentGateway::getProviderId).toList());
+        });
+        this.groups = Map.copyOf(built);
+    }
+
+    /**
+     * Select the next provider for a payment method
+     * @param paymentMethod payment method / gateway type, case insensitive
+     * @param triedMask bitmask of providers already tried for this payment ({@code 0} for the first attempt)
+     * @return the provider to use, or null if the method is unsupported or every provider was tried
+     */
+    public RoutedProvider select(String paymentMethod, long triedMask) {
+        if (paymentMethod == null) {
+            return null;
+        }
+        RoutedProvider[] group = groups.get(paymentMethod.toUpperCase(Locale.ROOT));
+        if (group == null) {
+            return null;
+        }
+        if (group.length == 1) {
+            return triedMask == 0 ? group[0] : null;
+        }
+        return triedMask == 0 ? selectWeighted(group) : selectBestUntried(group, triedMask);
+    }
+
+    /**
+     * Bitmask to pass to {@link #select(String, long)} after trying {@code provider}
+     */
+    public static long markTried(long triedMask, RoutedProvider provider) {
+        return triedMask | (1L << provider.getIndex());
+    }
+
+    private RoutedProvider selectWeighted(RoutedProvider[] group) {
+        double fastest = fastestMillis(group);
+        double total = 0.0;
+        for (RoutedProvider provider : group) {
+            total += provider.score(errorPenalty, probeFloor, fastest, latencyFloor);
+        }
+        double pick = ThreadLocalRandom.current().nextDouble() * total;
+        for (RoutedProvider provider : group) {
+            pick -= provider.score(errorPenalty, probeFloor, fastest, latencyFloor);
+            if (pick < 0) {
+                return provider;
+            }
+        }
+        return group[group.length - 1];
+    }
+
+    private RoutedProvider selectBestUntried(RoutedProvider[] group, long triedMask) {
+        double fastest = fastestMillis(group);
+        RoutedProvider best = null;
+        double bestScore = -1.0;
+        for (RoutedProvider provider : group) {
+            if ((triedMask & (1L << provider.getIndex())) != 0) {
+                continue;
+            }
+            double score = provider.score(errorPenalty, probeFloor, fastest, latencyFloor);
+            if (score > bestScore) {
+                best = provider;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Lowest smoothed latency of the group, or -1 when no provider has succeeded yet
+     */
+    private static double fastestMillis(RoutedProvider[] group) {
+        double fastest = -1.0;
+        for (RoutedProvider provider : group) {
+            double latency = provider.getLatencyMillis();
+            if (latency >= 0 && (fastest < 0 || latency < fastest)) {
+                fastest = latency;
+            }
+        }
+        return fastest;
+    }
+
+    /**
+     * Maximum number of providers tried for one payment
+     */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Supported payment methods (gateway types)
+     */
+    public List<String> getPaymentMethods() {
+        return List.copyOf(new TreeMap<>(groups).keySet());
+    }
+
+    /**
+     * Weight and live statistics per provider, grouped by payment method
+     */
+    public Map<String, Object> snapshot() {
+        Map<String, Object> snapshot = new TreeMap<>();
+        groups.forEach((type, group) -> {
+            Map<String, Object> providers = new LinkedHashMap<>();
+            double fastest = fastestMillis(group);
+            for (RoutedProvider provider : group) {
+                Map<String, Object> stats = new LinkedHashMap<>();
+                stats.put("weight", provider.getWeight());
+                stats.put("latencyMillis", provider.getLatencyMillis());
+                stats.put("errorRate", provider.getErrorRate());
+                stats.put("score", provider.score(errorPenalty, probeFloor, fastest, latencyFloor));
+                providers.put(provider.getProviderId(), stats);
+            }
+            snapshot.put(type, providers);
+        });
+        return snapshot;
+    }
+}
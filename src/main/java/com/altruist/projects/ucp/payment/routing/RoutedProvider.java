@@ -0,0 +1,104 @@
+package com.altruist.projects.ucp.payment.routing;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.altruist.projects.ucp.payment.gateway.PaymentGateway;
+
+/**
+ * A payment provider inside a routing group together with its live statistics.
+ *
+ * <p>Latency and error rate are exponentially weighted moving averages stored as
+ * {@code double} bits in {@link AtomicLong}s and updated with CAS, so recording an
+ * outcome never takes a lock. Only successful calls feed the latency average: a provider
+ * that fails fast must not look fast.</p>
+ */
+public class RoutedProvider {
+
+    private static final double LATENCY_SMOOTHING = 0.2;
+    private static final double ERROR_SMOOTHING = 0.1;
+    private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final PaymentGateway gateway;
+    private final int index;
+    private final int weight;
+    private final AtomicLong latencyMillisBits = new AtomicLong(Double.doubleToRawLongBits(-1.0));
+    private final AtomicLong errorRateBits = new AtomicLong(Double.doubleToRawLongBits(0.0));
+
+    RoutedProvider(PaymentGateway gateway, int index, int weight) {
+        this.gateway = gateway;
+        this.index = index;
+        this.weight = weight;
+    }
+
+    /**
+     * Record the outcome of a call through this provider
+     */
+    public void record(long latencyNanos, boolean success) {
+        long current;
+        double next;
+        if (success) {
+            double latencyMillis = latencyNanos / NANOS_PER_MILLI;
+            do {
+                current = latencyMillisBits.get();
+                double previous = Double.longBitsToDouble(current);
+                next = previous < 0 ? latencyMillis : previous + (latencyMillis - previous) * LATENCY_SMOOTHING;
+            } while (!latencyMillisBits.compareAndSet(current, Double.doubleToRawLongBits(next)));
+        }
+
+        double sample = success ? 0.0 : 1.0;
+        do {
+            current = errorRateBits.get();
+            double previous = Double.longBitsToDouble(current);
+            next = previous + (sample - previous) * ERROR_SMOOTHING;
+        } while (!errorRateBits.compareAndSet(current, Double.doubleToRawLongBits(next)));
+    }
+
+    /**
+     * Routing score: higher is better. Weight scaled down by error rate, with a small floor so a
+     * provider that failed still gets probe traffic and can recover, and by latency relative to the
+     * fastest provider of the group. The latency factor never drops below {@code latencyFloor}, so
+     * when that is above {@code probeFloor} a slow healthy provider still outscores a failing one.
+     *
+     * @param fastestMillis lowest latency in the group, or -1 when no provider has succeeded yet
+     */
+    double score(double errorPenalty, double probeFloor, double fastestMillis, double latencyFloor) {
+        double health = Math.max(Math.pow(1.0 - getErrorRate(), errorPenalty), probeFloor);
+        double latency = getLatencyMillis();
+        if (latency < 0 || fastestMillis < 0) {
+            return weight * health;
+        }
+        return weight * health * Math.max((fastestMillis + 1.0) / (latency + 1.0), latencyFloor);
+    }
+
+    public PaymentGateway getGateway() {
+        return gateway;
+    }
+
+    public String getProviderId() {
+        return gateway.getProviderId();
+    }
+
+    public String getGatewayType() {
+        return gateway.getGatewayType();
+    }
+
+    int getIndex() {
+        return index;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+
+    /**
+     * Smoothed latency in milliseconds, or -1 before the first call
+     */
+    public double getLatencyMillis() {
+        return Double.longBitsToDouble(latencyMillisBits.get());
+    }
+
+    public double getErrorRate() {
+        return Double.longBitsToDouble(errorRateBits.get());
+    }
+}
@@ -0,0 +1,200 @@
+package com.altruist.projects.ucp.payment.rules;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.DateTimeException;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.altruist.projects.ucp.payment.calendar.OperatingDays;
+import com.altruist.projects.ucp.payment.dto.RuleImportResponse;
+import com.altruist.projects.ucp.payment.model.CountryPaymentRule;
+import com.altruist.projects.ucp.payment.money.Money;
+import com.altruist.projects.ucp.payment.repository.CountryPaymentRuleRepository;
+import com.altruist.projects.ucp.payment.routing.GatewayRouter;
+import com.altruist.projects.ucp.payment.rules.RuleImportParser.ParsedRules;
+
+import lombok.extern.slf4j.Slf4j;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Bulk import of country payment rules. The upload is streamed and validated as a whole;
+ * only a fully valid set replaces the stored rules (in one transaction, with batched inserts)
+ * and is then activated in {@link CountryPaymentRuleRegistry} in a single swap.
+ * Payments keep using the previous snapshot until then.
+ */
+@Slf4j
+@Service
+public class CountryPaymentRuleImportService {
+
+    public static final String ACTIVATED = "ACTIVATED";
+    public static final String REJECTED = "REJECTED";
+
+    private final CountryPaymentRuleRepository ruleRepository;
+    private final CountryPaymentRuleRegistry ruleRegistry;
+    private final GatewayRouter gatewayRouter;
+    private final RuleImportParser parser;
+    private final TransactionTemplate transactionTemplate;
+
+    public CountryPaymentRuleImportService(CountryPaymentRuleRepository ruleRepository,
+                                           CountryPaymentRuleRegistry ruleRegistry,
+                                           GatewayRouter gatewayRouter,
+                                           JsonMapper jsonMapper,
+                                           PlatformTransactionManager transactionManager) {
+        this.ruleRepository = ruleRepository;
+        this.ruleRegistry = ruleRegistry;
+        this.gatewayRouter = gatewayRouter;
+        this.parser = new RuleImportParser(jsonMapper);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Replace all country payment rules with the uploaded set
+     * @return ACTIVATED with the new rule set version, or REJECTED with every validation error found
+     */
+    public RuleImportResponse importRules(InputStream in, RuleImportFormat format) throws IOException {
+        ParsedRules parsed = parser.parse(in, format);
+        List<String> errors = new ArrayList<>(parsed.errors());
+        if (errors.isEmpty()) {
+            validate(parsed, errors);
+        }
+        if (!errors.isEmpty()) {
+            log.warn("Rejected country payment rule import with {} errors", errors.size());
+            return RuleImportResponse.builder()
+                    .status(REJECTED)
+                    .errors(errors)
+                    .build();
+        }
+
+        // Swap only after commit, so the snapshot never holds rules that were rolled back, and under the
+        // registry lock, so a concurrent change committed later is not overwritten by this one
+        RuleSet ruleSet = ruleRegistry.replace(() -> transactionTemplate.execute(status -> {
+            ruleRepository.deleteAllInBatch();
+            return ruleRepository.saveAll(parsed.rules());
+        }));
+
+        return RuleImportResponse.builder()
+                .status(ACTIVATED)
+                .rulesImported(ruleSet.getAllRules().size())
+                .ruleSetVersion(ruleSet.getVersion())
+                .errors(List.of())
+                .build();
+    }
+
+    private void validate(ParsedRules parsed, List<String> errors) {
+        if (parsed.rules().isEmpty()) {
+            errors.add("Rule set is empty");
+            return;
+        }
+
+        Set<String> paymentMethods = Set.copyOf(gatewayRouter.getPaymentMethods());
+        Map<String, Integer> seen = new HashMap<>();
+        for (int i = 0; i < parsed.rules().size() && errors.size() < RuleImportParser.MAX_ERRORS; i++) {
+            CountryPaymentRule rule = parsed.rules().get(i);
+            String row = "Row " + parsed.rowNumbers().get(i) + ": ";
+
+            String countryCode = rule.getCountryCode();
+            if (countryCode == null || !(countryCode.matches("[A-Za-z]{2}") || RuleSet.ANY_COUNTRY.equals(countryCode))) {
+                errors.add(row + "countryCode must be a 2-letter ISO code or * but was '" + countryCode + "'");
+                continue;
+            }
+            rule.setCountryCode(countryCode.toUpperCase(Locale.ROOT));
+
+            if (rule.getPaymentMethod() != null) {
+                rule.setPaymentMethod(rule.getPaymentMethod().toUpperCase(Locale.ROOT));
+                if (!paymentMethods.contains(rule.getPaymentMethod())) {
+                    errors.add(row + "unsupported paymentMethod '" + rule.getPaymentMethod() + "'");
+                }
+            }
+
+            if (rule.getCurrency() != null && !Money.isSupported(rule.getCurrency())) {
+                errors.add(row + "unsupported currency '" + rule.getCurrency() + "'");
+            }
+            if (rule.getMinAmount() != null && rule.getMinAmount() < 0) {
+                errors.add(row + "minAmount must not be negative");
+            }
+            if (rule.getMinAmount() != null && rule.getMaxAmount() != null
+                    && rule.getMaxAmount() < rule.getMinAmount()) {
+                errors.add(row + "maxAmount must not be below minAmount");
+            }
+
+            if (rule.getBandMinAmount() != null && rule.getBandMinAmount() < 0) {
+                errors.add(row + "bandMinAmount must not be negative");
+            }
+            if (rule.getBandMinAmount() != null && rule.getBandMaxAmount() != null
+                    && rule.getBandMaxAmount() <= rule.getBandMinAmount()) {
+                errors.add(row + "bandMaxAmount must be above bandMinAmount");
+            }
+            boolean hasAmounts = rule.getMinAmount() != null || rule.getMaxAmount() != null
+                    || rule.getBandMinAmount() != null || rule.getBandMaxAmount() != null;
+            if (RuleSet.ANY_COUNTRY.equals(rule.getCountryCode()) && hasAmounts && rule.getCurrency() == null) {
+                errors.add(row + "currency is required for amounts of a rule for every country");
+            }
+
+            boolean hasStart = rule.getOperationStartTime() != null;
+            boolean hasEnd = rule.getOperationEndTime() != null;
+            if (hasStart != hasEnd) {
+                errors.add(row + "operationStartTime and operationEndTime must be given together");
+            } else if (hasStart) {
+                if (rule.getTimezone() == null) {
+                    errors.add(row + "timezone is required with operation hours");
+                } else {
+                    try {
+                        ZoneId.of(rule.getTimezone());
+                    } catch (DateTimeException e) {
+                        errors.add(row + "unknown timezone '" + rule.getTimezone() + "'");
+                    }
+                }
+            }
+
+            if ((rule.getActiveFrom() != null) != (rule.getActiveUntil() != null)) {
+                errors.add(row + "activeFrom and activeUntil must be given together");
+            } else if (rule.getActiveFrom() != null && !hasStart) {
+                if (rule.getTimezone() == null) {
+                    errors.add(row + "timezone is required with activeFrom and activeUntil");
+                } else {
+                    try {
+                        ZoneId.of(rule.getTimezone());
+                    } catch (DateTimeException e) {
+                        errors.add(row + "unknown timezone '" + rule.getTimezone() + "'");
+                    }
+                }
+            }
+
+            if (rule.getOperatingDays() != null) {
+                try {
+                    OperatingDays.parse(rule.getOperatingDays());
+                } catch (IllegalArgumentException e) {
+                    errors.add(row + e.getMessage());
+                }
+            }
+
+            if (rule.getEnabled() == null) {
+                rule.setEnabled(true);
+            }
+
+            String key = rule.getCountryCode() + "/" + (rule.getPaymentMethod() == null ? "*" : rule.getPaymentMethod())
+                    + band(rule.getBandMinAmount() == null ? null : Money.format(rule.getBandMinAmount()),
+                           rule.getBandMaxAmount() == null ? null : Money.format(rule.getBandMaxAmount()))
+                    + band(rule.getActiveFrom(), rule.getActiveUntil())
+                    + (rule.getPriority() == null ? "" : " priority " + rule.getPriority());
+            Integer previous = seen.putIfAbsent(key, parsed.rowNumbers().get(i));
+            if (previous != null) {
+                errors.add(row + "duplicate rule for " + key + " (first defined at row " + previous + ")");
+            }
+        }
+    }
+
+    private static String band(Object from, Object until) {
+        return from == null && until == null ? "" : " [" + (from == null ? "" : from) + ", " + (until == null ? "" : until) + ")";
+    }
+}
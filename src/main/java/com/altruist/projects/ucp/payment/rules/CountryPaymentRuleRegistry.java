@@ -0,0 +1,78 @@
+package com.altruist.projects.ucp.payment.rules;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.altruist.projects.ucp.payment.model.CountryPaymentRule;
+import com.altruist.projects.ucp.payment.repository.CountryPaymentRuleRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Holds the active {@link RuleSet}. Payments read it without touching the database;
+ * rule changes build a complete new snapshot and swap it in with a single volatile write.
+ *
+ * <p>Every activation holds the registry's lock, and so does a whole rule replacement from its
+ * commit to its activation. Activations therefore follow commit order: a rule set committed earlier
+ * can never replace one committed later, and a refresh reads either before or after a replacement.</p>
+ */
+@Slf4j
+@Component
+public class CountryPaymentRuleRegistry {
+
+    private final CountryPaymentRuleRepository ruleRepository;
+    private final AtomicLong versions = new AtomicLong();
+    private volatile RuleSet current;
+
+    public CountryPaymentRuleRegistry(CountryPaymentRuleRepository ruleRepository) {
+        this.ruleRepository = ruleRepository;
+    }
+
+    /**
+     * Active snapshot, loaded from the database on first use
+     */
+    public RuleSet current() {
+        RuleSet ruleSet = current;
+        if (ruleSet == null) {
+            synchronized (this) {
+                ruleSet = current;
+                if (ruleSet == null) {
+                    ruleSet = refresh();
+                }
+            }
+        }
+        return ruleSet;
+    }
+
+    /**
+     * Reload every rule from the database and activate them as a new snapshot.
+     * Read in a read-write transaction so a change just written is never missed on a lagging replica.
+     */
+    @Transactional
+    public synchronized RuleSet refresh() {
+        return activate(ruleRepository.findAll());
+    }
+
+    /**
+     * Commit a replacement of the stored rules and activate what was committed, holding the lock from
+     * before the commit until the activation
+     * @param commit runs and commits the replacement, returning the rules now stored
+     */
+    public synchronized RuleSet replace(Supplier<List<CountryPaymentRule>> commit) {
+        return activate(commit.get());
+    }
+
+    /**
+     * Activate an already persisted rule set as a whole
+     */
+    public synchronized RuleSet activate(List<CountryPaymentRule> rules) {
+        RuleSet ruleSet = RuleSet.of(versions.incrementAndGet(), rules);
+        current = ruleSet;
+        log.info("Activated country payment rule set version {} with {} rules", ruleSet.getVersion(), rules.size());
+        return ruleSet;
+    }
+}
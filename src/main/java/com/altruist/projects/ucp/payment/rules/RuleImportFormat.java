@@ -0,0 +1,22 @@
+package com.altruist.projects.ucp.payment.rules;
+
+import java.util.Locale;
+
+/**
+ * Supported rule set upload formats
+ */
+public enum RuleImportFormat {
+    CSV,
+    JSON;
+
+    public static RuleImportFormat fromContentType(String contentType) {
+        if (contentType != null && contentType.toLowerCase(Locale.ROOT).contains("json")) {
+            return JSON;
+        }
+        return CSV;
+    }
+
+    public static RuleImportFormat fromFileName(String fileName) {
+        return fileName != null && fileName.toLowerCase(Locale.ROOT).endsWith(".json") ? JSON : CSV;
+    }
+}
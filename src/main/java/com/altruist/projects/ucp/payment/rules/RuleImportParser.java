@@ -0,0 +1,222 @@
+package com.altruist.projects.ucp.payment.rules;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.altruist.projects.ucp.payment.model.CountryPaymentRule;
+import com.altruist.projects.ucp.payment.money.Money;
+
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.MappingIterator;
+import tools.jackson.databind.ObjectMapper;
+
+/**
+ * Streams rule definitions out of a CSV or JSON upload one row / element at a time.
+ *
+ * <p>CSV needs a header row naming the columns, e.g.
+ * {@code countryCode,paymentMethod,minAmount,maxAmount,operationStartTime,operationEndTime,timezone,operatingDays,enabled,description},
+ * optionally with the match columns {@code bandMinAmount,bandMaxAmount,activeFrom,activeUntil,priority};
+ * only {@code countryCode} is mandatory. JSON is an array of rule objects.</p>
+ */
+class RuleImportParser {
+
+    /** Parsing stops collecting errors beyond this many, the upload is rejected anyway */
+    static final int MAX_ERRORS = 100;
+
+    private final ObjectMapper objectMapper;
+
+    RuleImportParser(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Parsed rows, each with the row number (CSV line or JSON array position) used in error messages
+     */
+    record ParsedRules(List<CountryPaymentRule> rules, List<Integer> rowNumbers, List<String> errors) {
+    }
+
+    ParsedRules parse(InputStream in, RuleImportFormat format) throws IOException {
+        ParsedRules parsed = new ParsedRules(new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        if (format == RuleImportFormat.JSON) {
+            parseJson(in, parsed);
+        } else {
+            parseCsv(in, parsed);
+        }
+        return parsed;
+    }
+
+    private void parseJson(InputStream in, ParsedRules parsed) {
+        int element = 0;
+        try (MappingIterator<CountryPaymentRule> iterator = objectMapper.readerFor(CountryPaymentRule.class).readValues(in)) {
+            while (iterator.hasNextValue()) {
+                element++;
+                CountryPaymentRule rule = iterator.nextValue();
+                rule.setId(null);
+                parsed.rules().add(rule);
+                parsed.rowNumbers().add(element);
+            }
+        } catch (JacksonException e) {
+            parsed.errors().add(String.format("Element %d: invalid JSON - %s", element + 1, e.getOriginalMessage()));
+        }
+    }
+
+    private void parseCsv(InputStream in, ParsedRules parsed) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String headerLine = reader.readLine();
+        if (headerLine == null) {
+            parsed.errors().add("CSV upload is empty");
+            return;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> header = splitCsvLine(stripBom(headerLine));
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("countrycode")) {
+            parsed.errors().add("Line 1: CSV header must contain a countryCode column");
+            return;
+        }
+
+        String line;
+        int lineNumber = 1;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                List<String> values = splitCsvLine(line);
+                CountryPaymentRule rule = CountryPaymentRule.builder()
+                        .countryCode(value(values, columns, "countrycode"))
+                        .paymentMethod(value(values, columns, "paymentmethod"))
+                        .minAmount(toMinorUnits(value(values, columns, "minamount")))
+                        .maxAmount(toMinorUnits(value(values, columns, "maxamount")))
+                        .currency(toCurrency(value(values, columns, "currency")))
+                        .operationStartTime(toTime(value(values, columns, "operationstarttime")))
+                        .operationEndTime(toTime(value(values, columns, "operationendtime")))
+                        .timezone(value(values, columns, "timezone"))
+                        .operatingDays(value(values, columns, "operatingdays"))
+                        .enabled(toBoolean(value(values, columns, "enabled")))
+                        .description(value(values, columns, "description"))
+                        .bandMinAmount(toMinorUnits(value(values, columns, "bandminamount")))
+                        .bandMaxAmount(toMinorUnits(value(values, columns, "bandmaxamount")))
+                        .activeFrom(toTime(value(values, columns, "activefrom")))
+                        .activeUntil(toTime(value(values, columns, "activeuntil")))
+                        .priority(toInteger(value(values, columns, "priority")))
+                        .build();
+                parsed.rules().add(rule);
+                parsed.rowNumbers().add(lineNumber);
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                parsed.errors().add(String.format("Line %d: %s", lineNumber, e.getMessage()));
+                if (parsed.errors().size() >= MAX_ERRORS) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private static String value(List<String> values, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= values.size()) {
+            return null;
+        }
+        String value = values.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static Long toMinorUnits(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Money.parse(value);
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("amount '" + value + "' has more than " + Money.SCALE + " decimals");
+        }
+    }
+
+    private static Currency toCurrency(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Currency.getInstance(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("unknown currency '" + value + "'");
+        }
+    }
+
+    private static LocalTime toTime(String value) {
+        return value == null ? null : LocalTime.parse(value);
+    }
+
+    private static Integer toInteger(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("priority must be a whole number but was '" + value + "'");
+        }
+    }
+
+    private static Boolean toBoolean(String value) {
+        if (value == null) {
+            return true; // Imported rules are enabled unless stated otherwise
+        }
+        if (!value.equalsIgnoreCase("true") && !value.equalsIgnoreCase("false")) {
+            throw new IllegalArgumentException("enabled must be true or false but was '" + value + "'");
+        }
+        return Boolean.valueOf(value);
+    }
+
+    private static String stripBom(String line) {
+        return !line.isEmpty() && line.charAt(0) == '﻿' ? line.substring(1) : line;
+    }
+
+    /**
+     * Split one CSV line, honouring double-quoted fields with embedded commas and "" escapes
+     */
+    static List<String> splitCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted field");
+        }
+        values.add(current.toString());
+        return values;
+    }
+}
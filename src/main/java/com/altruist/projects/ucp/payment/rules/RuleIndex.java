@@ -0,0 +1,205 @@
+package com.altruist.projects.ucp.payment.rules;
+
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import com.altruist.projects.ucp.payment.fx.FxRateSnapshot;
+import com.altruist.projects.ucp.payment.rules.RuleSet.ActiveRule;
+
+/**
+ * Bitmap index over the enabled rules of one country, wildcard-country rules included.
+ *
+ * <p>Rules are numbered in precedence order, best first, and every dimension maps a value to the
+ * bitmap of rules matching it: a hash map per payment method, and per currency (amount band) or
+ * timezone (time band) a sorted list of band edges with one bitmap per interval between them, found by
+ * binary search. Rules with a wildcard are set in every bitmap of that dimension. A payment's match is
+ * the lowest bit of the AND of its bitmaps, so a lookup costs a few map lookups and binary searches
+ * plus one word per 64 rules, however many rules there are.</p>
+ */
+final class RuleIndex {
+
+    private static final long SECONDS_PER_DAY = 86_400L;
+
+    private final ActiveRule[] ranked;
+    private final Map<String, long[]> byMethod;
+    private final long[] anyMethod;
+    private final long[] anyAmount;
+    private final Map<Currency, Bands> amountBands;
+    private final long[] anyTime;
+    private final Map<ZoneId, Bands> timeBands;
+
+    /**
+     * @param ranked rules in precedence order, best first
+     */
+    RuleIndex(List<ActiveRule> ranked) {
+        this.ranked = ranked.toArray(new ActiveRule[0]);
+        int words = Math.max(1, (this.ranked.length + 63) >>> 6);
+        this.anyMethod = new long[words];
+        this.anyAmount = new long[words];
+        this.anyTime = new long[words];
+
+        Map<String, long[]> methods = new HashMap<>();
+        Map<Currency, List<long[]>> amountIntervals = new LinkedHashMap<>();
+        Map<ZoneId, List<long[]>> timeIntervals = new LinkedHashMap<>();
+        for (int bit = 0; bit < this.ranked.length; bit++) {
+            ActiveRule rule = this.ranked[bit];
+            if (rule.getPaymentMethod() == null) {
+                set(anyMethod, bit);
+            } else {
+                set(methods.computeIfAbsent(rule.getPaymentMethod(), key -> new long[words]), bit);
+            }
+            if (!rule.hasAmountBand()) {
+                set(anyAmount, bit);
+            } else {
+                amountIntervals.computeIfAbsent(rule.getCurrency(), key -> new ArrayList<>())
+                        .add(new long[] {bit, rule.getBandMinAmount(), rule.getBandMaxAmount()});
+            }
+            if (!rule.hasTimeBand()) {
+                set(anyTime, bit);
+            } else {
+                List<long[]> intervals = timeIntervals.computeIfAbsent(rule.getZone(), key -> new ArrayList<>());
+                long from = rule.getActiveFrom().toSecondOfDay();
+                long until = rule.getActiveUntil().toSecondOfDay();
+                if (from < until) {
+                    intervals.add(new long[] {bit, from, until});
+                } else {
+                    // Runs past midnight (or all day when both are equal)
+                    intervals.add(new long[] {bit, from, SECONDS_PER_DAY});
+                    intervals.add(new long[] {bit, 0, until});
+                }
+            }
+        }
+        methods.values().forEach(bits -> or(bits, anyMethod));
+        this.byMethod = Map.copyOf(methods);
+        this.amountBands = bands(amountIntervals, words);
+        this.timeBands = bands(timeIntervals, words);
+    }
+
+    /**
+     * Best rule for a payment of {@code amount} minor units of {@code currency} at {@code now}. An amount
+     * band in another currency than the payment's is matched after conversion at {@code rates}, and never
+     * matches when either currency has no rate.
+     */
+    ActiveRule match(String paymentMethod, long amount, Currency currency, Instant now, FxRateSnapshot rates) {
+        long[] methodBits = methodBits(paymentMethod);
+        long[][] amountHits = new long[amountBands.size()][];
+        int amountCount = 0;
+        for (Map.Entry<Currency, Bands> band : amountBands.entrySet()) {
+            Currency bandCurrency = band.getKey();
+            if (currency.equals(bandCurrency)) {
+                amountHits[amountCount++] = band.getValue().bitsAt(amount);
+            } else if (rates.supports(currency) && rates.supports(bandCurrency)) {
+                amountHits[amountCount++] = band.getValue().bitsAt(rates.convert(amount, currency, bandCurrency));
+            }
+        }
+        long[][] timeHits = new long[timeBands.size()][];
+        int timeCount = 0;
+        for (Map.Entry<ZoneId, Bands> band : timeBands.entrySet()) {
+            timeHits[timeCount++] = band.getValue().bitsAt(LocalTime.ofInstant(now, band.getKey()).toSecondOfDay());
+        }
+
+        for (int word = 0; word < methodBits.length; word++) {
+            long amountWord = anyAmount[word];
+            for (int i = 0; i < amountCount; i++) {
+                if (amountHits[i] != null) {
+                    amountWord |= amountHits[i][word];
+                }
+            }
+            long timeWord = anyTime[word];
+            for (int i = 0; i < timeCount; i++) {
+                if (timeHits[i] != null) {
+                    timeWord |= timeHits[i][word];
+                }
+            }
+            long hits = methodBits[word] & amountWord & timeWord;
+            if (hits != 0) {
+                return ranked[(word << 6) + Long.numberOfTrailingZeros(hits)];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Best rule for a payment method among the rules without an amount or time band; allocation free
+     */
+    ActiveRule matchUnbanded(String paymentMethod) {
+        long[] methodBits = methodBits(paymentMethod);
+        for (int word = 0; word < methodBits.length; word++) {
+            long hits = methodBits[word] & anyAmount[word] & anyTime[word];
+            if (hits != 0) {
+                return ranked[(word << 6) + Long.numberOfTrailingZeros(hits)];
+            }
+        }
+        return null;
+    }
+
+    private long[] methodBits(String paymentMethod) {
+        long[] bits = paymentMethod == null ? null : byMethod.get(paymentMethod);
+        return bits != null ? bits : anyMethod;
+    }
+
+    private static <K> Map<K, Bands> bands(Map<K, List<long[]>> intervalsByUnit, int words) {
+        Map<K, Bands> bands = new LinkedHashMap<>();
+        intervalsByUnit.forEach((unit, intervals) -> bands.put(unit, new Bands(intervals, words)));
+        return bands;
+    }
+
+    private static void set(long[] bits, int bit) {
+        bits[bit >>> 6] |= 1L << bit;
+    }
+
+    private static void or(long[] target, long[] source) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] |= source[i];
+        }
+    }
+
+    /**
+     * Half-open bands of one unit (currency or timezone): interval {@code i} runs from {@code edges[i]}
+     * to {@code edges[i + 1]} (the last one has no end), with the bitmap of the bands covering it
+     */
+    private static final class Bands {
+        private final long[] edges;
+        private final long[][] bits;
+
+        /**
+         * @param intervals {rule bit, inclusive start, exclusive end} per band
+         */
+        private Bands(List<long[]> intervals, int words) {
+            TreeSet<Long> distinct = new TreeSet<>();
+            for (long[] interval : intervals) {
+                distinct.add(interval[1]);
+                distinct.add(interval[2]);
+            }
+            this.edges = distinct.stream().mapToLong(Long::longValue).toArray();
+            this.bits = new long[edges.length][words];
+            for (long[] interval : intervals) {
+                int from = Arrays.binarySearch(edges, interval[1]);
+                int until = Arrays.binarySearch(edges, interval[2]);
+                for (int i = from; i < until; i++) {
+                    set(bits[i], (int) interval[0]);
+                }
+            }
+        }
+
+        /**
+         * Bitmap of the bands containing the value, {@code null} below the first edge
+         */
+        private long[] bitsAt(long value) {
+            int index = Arrays.binarySearch(edges, value);
+            if (index < 0) {
+                index = -index - 2; // Interval starting at the greatest edge below the value
+            }
+            return index < 0 ? null : bits[index];
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.altruist.projects.ucp.payment.rules;
+
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+import com.altruist.projects.ucp.payment.fx.FxRateSnapshot;
+import com.altruist.projects.ucp.payment.model.CountryPaymentRule;
+import com.altruist.projects.ucp.payment.money.Money;
+
+/**
+ * Immutable snapshot of all country payment rules, activated as a whole by
+ * {@link CountryPaymentRuleRegistry}. A payment reads one snapshot, so it never
+ * sees a partially applied rule set. Amount limits are resolved to primitive bounds up front,
+ * so checking a payment against them needs no null checks or unboxing. Each country's rules are
+ * compiled into a {@link RuleIndex} so matching never scans the rules.
+ */
+public final class RuleSet {
+
+    /** Country code of rules that apply to every country */
+    public static final String ANY_COUNTRY = "*";
+
+    private static final Comparator<ActiveRule> PRECEDENCE = Comparator
+            .comparingInt(ActiveRule::getPriority).reversed()
+            .thenComparing(Comparator.comparingInt(ActiveRule::getSpecificity).reversed())
+            .thenComparing(activeRule -> activeRule.getRule().getId(), Comparator.nullsLast(Comparator.naturalOrder()));
+
+    private final long version;
+    private final List<CountryPaymentRule> allRules;
+    private final Map<String, RuleIndex> enabledByCountry;
+    private final RuleIndex anyCountry;
+
+    private RuleSet(long version, List<CountryPaymentRule> allRules) {
+        this.version = version;
+        this.allRules = List.copyOf(allRules);
+
+        List<ActiveRule> wildcards = new ArrayList<>();
+        Map<String, List<ActiveRule>> byCountry = new HashMap<>();
+        for (CountryPaymentRule rule : allRules) {
+            if (!Boolean.TRUE.equals(rule.getEnabled()) || rule.getCountryCode() == null) {
+                continue;
+            }
+            ActiveRule activeRule = new ActiveRule(rule);
+            if (ANY_COUNTRY.equals(rule.getCountryCode())) {
+                wildcards.add(activeRule);
+            } else {
+                byCountry.computeIfAbsent(rule.getCountryCode().toUpperCase(Locale.ROOT), code -> new ArrayList<>())
+                        .add(activeRule);
+            }
+        }
+        Map<String, RuleIndex> indexes = new HashMap<>();
+        byCountry.forEach((countryCode, rules) -> {
+            rules.addAll(wildcards);
+            indexes.put(countryCode, new RuleIndex(ranked(rules)));
+        });
+        this.enabledByCountry = Map.copyOf(indexes);
+        this.anyCountry = wildcards.isEmpty() ? null : new RuleIndex(ranked(wildcards));
+    }
+
+    private static List<ActiveRule> ranked(List<ActiveRule> rules) {
+        List<ActiveRule> ranked = new ArrayList<>(rules);
+        ranked.sort(PRECEDENCE); // Stable: equal rules keep their order in the rule table
+        return ranked;
+    }
+
+    public static RuleSet of(long version, List<CountryPaymentRule> rules) {
+        return new RuleSet(version, rules);
+    }
+
+    public static RuleSet empty() {
+        return new RuleSet(0, List.of());
+    }
+
+    /**
+     * Find the enabled rule for a country, preferring a payment-method specific variant
+     * over the country-wide rule. Rules with an amount or time band are not considered.
+     */
+    public Optional<CountryPaymentRule> find(String countryCode, String paymentMethod) {
+        ActiveRule activeRule = lookup(countryCode, paymentMethod);
+        return activeRule == null ? Optional.empty() : Optional.of(activeRule.getRule());
+    }
+
+    /**
+     * Allocation-free variant of {@link #find} for the payment path
+     * @return the matching rule with its resolved limits, or null if none applies
+     */
+    public ActiveRule lookup(String countryCode, String paymentMethod) {
+        RuleIndex index = index(countryCode);
+        return index == null ? null : index.matchUnbanded(upperCase(paymentMethod));
+    }
+
+    /**
+     * Best enabled rule for a payment across every dimension: highest priority first, then the most
+     * specific match, then the lowest rule id
+     * @param amount payment amount in minor units
+     * @param currency payment currency, null for the country's local currency
+     * @param now time matched against the rules' time bands
+     * @param rates converts the amount for bands in another currency
+     * @return the matching rule with its resolved limits, or null if none applies
+     */
+    public ActiveRule match(String countryCode, String paymentMethod, long amount, Currency currency,
+                            Instant now, FxRateSnapshot rates) {
+        RuleIndex index = index(countryCode);
+        if (index == null) {
+            return null;
+        }
+        Currency paymentCurrency = currency != null ? currency : Money.currencyOf(countryCode.toUpperCase(Locale.ROOT));
+        return index.match(upperCase(paymentMethod), amount, paymentCurrency, now, rates);
+    }
+
+    private RuleIndex index(String countryCode) {
+        if (countryCode == null) {
+            return null;
+        }
+        RuleIndex index = enabledByCountry.get(countryCode.toUpperCase(Locale.ROOT));
+        return index != null ? index : anyCountry;
+    }
+
+    private static String upperCase(String paymentMethod) {
+        return paymentMethod == null ? null : paymentMethod.toUpperCase(Locale.ROOT);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * All rules of the snapshot, including disabled ones
+     */
+    public List<CountryPaymentRule> getAllRules() {
+        return allRules;
+    }
+
+    /**
+     * Enabled rule with its amount limits resolved to minor units; a missing limit becomes
+     * {@code 0} (minimum) or {@link Long#MAX_VALUE} (maximum), and likewise for the amount band
+     */
+    public static final class ActiveRule {
+        private final CountryPaymentRule rule;
+        private final long minAmount;
+        private final long maxAmount;
+        private final Currency currency;
+        private final String paymentMethod;
+        private final boolean amountBand;
+        private final long bandMinAmount;
+        private final long bandMaxAmount;
+        private final boolean timeBand;
+        private final ZoneId zone;
+        private final int priority;
+        private final int specificity;
+
+        private ActiveRule(CountryPaymentRule rule) {
+            this.rule = rule;
+            this.minAmount = rule.getMinAmount() != null ? rule.getMinAmount() : 0L;
+            this.maxAmount = rule.getMaxAmount() != null ? rule.getMaxAmount() : Long.MAX_VALUE;
+            boolean anyCountry = ANY_COUNTRY.equals(rule.getCountryCode());
+            this.currency = rule.getCurrency() != null ? rule.getCurrency()
+                    : Money.currencyOf(anyCountry ? null : rule.getCountryCode());
+            this.paymentMethod = upperCase(rule.getPaymentMethod());
+            this.amountBand = rule.getBandMinAmount() != null || rule.getBandMaxAmount() != null;
+            this.bandMinAmount = rule.getBandMinAmount() != null ? rule.getBandMinAmount() : 0L;
+            this.bandMaxAmount = rule.getBandMaxAmount() != null ? rule.getBandMaxAmount() : Long.MAX_VALUE;
+            this.timeBand = rule.getActiveFrom() != null && rule.getActiveUntil() != null;
+            this.zone = timeBand && rule.getTimezone() != null ? ZoneId.of(rule.getTimezone()) : ZoneOffset.UTC;
+            this.priority = rule.getPriority() != null ? rule.getPriority() : 0;
+            // Country outweighs method, method outweighs the amount band, the amount band the time band
+            this.specificity = (anyCountry ? 0 : 8) + (paymentMethod != null ? 4 : 0)
+                    + (amountBand ? 2 : 0) + (timeBand ? 1 : 0);
+        }
+
+        public CountryPaymentRule getRule() {
+            return rule;
+        }
+
+        public long getMinAmount() {
+            return minAmount;
+        }
+
+        public long getMaxAmount() {
+            return maxAmount;
+        }
+
+        public Currency getCurrency() {
+            return currency;
+        }
+
+        String getPaymentMethod() {
+            return paymentMethod;
+        }
+
+        boolean hasAmountBand() {
+            return amountBand;
+        }
+
+        long getBandMinAmount() {
+            return bandMinAmount;
+        }
+
+        long getBandMaxAmount() {
+            return bandMaxAmount;
+        }
+
+        boolean hasTimeBand() {
+            return timeBand;
+        }
+
+        LocalTime getActiveFrom() {
+            return rule.getActiveFrom();
+        }
+
+        LocalTime getActiveUntil() {
+            return rule.getActiveUntil();
+        }
+
+        ZoneId getZone() {
+            return zone;
+        }
+
+        int getPriority() {
+            return priority;
+        }
+
+        int getSpecificity() {
+            return specificity;
+        }
+    }
+}
@@ -1,172 +1,143 @@
 package com.altruist.projects.ucp.payment.service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.altruist.projects.ucp.payment.archive.PaymentArchive;
 import com.altruist.projects.ucp.payment.dto.PaymentRequest;
 import com.altruist.projects.ucp.payment.dto.PaymentResponse;
 import com.altruist.projects.ucp.payment.gateway.PaymentGateway;
+import com.altruist.projects.ucp.payment.lanes.AccountLanes;
 import com.altruist.projects.ucp.payment.model.Payment;
+import com.altruist.projects.ucp.payment.pipeline.PaymentPipeline;
 import com.altruist.projects.ucp.payment.repository.PaymentRepository;
-import com.altruist.projects.ucp.payment.strategy.ChargeStrategy;
-import com.altruist.projects.ucp.payment.validation.CountryPaymentRuleValidator;
-import com.altruist.projects.ucp.payment.validation.CountryPaymentRuleValidator.ValidationResult;
+import com.altruist.projects.ucp.payment.routing.GatewayRouter;
 
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Payment Facade - Provides a simplified interface for payment processing
- * Implements Facade pattern to hide complexity of gateway selection and charge calculation
+ * Implements Facade pattern to hide the payment pipeline (admission, validation, charges,
+ * gateway selection and execution) behind a single call
  */
 @Slf4j
 @Service
 public class PaymentFacade {
     
-    private final Map<String, PaymentGateway> paymentGateways;
-    private final ChargeStrategy chargeStrategy;
+    private final PaymentPipeline pipeline;
+    private final GatewayRouter gatewayRouter;
     private final PaymentRepository paymentRepository;
-    private final CountryPaymentRuleValidator ruleValidator;
+    private final PaymentArchive paymentArchive;
+    private final AccountLanes accountLanes;
+    private final long laneRetryAfterSeconds;
     
-    @Value("${payment.default.country:IN}")
-    private String defaultCountry;
-    
-    public PaymentFacade(List<PaymentGateway> gateways, 
-                        ChargeStrategy chargeStrategy,
+    public PaymentFacade(PaymentPipeline pipeline,
+                        GatewayRouter gatewayRouter,
                         PaymentRepository paymentRepository,
-                        CountryPaymentRuleValidator ruleValidator) {
-        this.paymentGateways = gateways.stream()
-                .collect(Collectors.toMap(
-                    PaymentGateway::getGatewayType,
-                    Function.identity()
-                ));
-        this.chargeStrategy = chargeStrategy;
+                        PaymentArchive paymentArchive,
+                        AccountLanes accountLanes,
+                        @Value("${payment.lanes.retry-after-seconds:1}") long laneRetryAfterSeconds) {
+        this.pipeline = pipeline;
+        this.gatewayRouter = gatewayRouter;
         this.paymentRepository = paymentRepository;
-        this.ruleValidator = ruleValidator;
+        this.paymentArchive = paymentArchive;
+        this.accountLanes = accountLanes;
+        this.laneRetryAfterSeconds = laneRetryAfterSeconds;
         
-        log.info("Payment Facade initialized with gateways: {}", paymentGateways.keySet());
+        log.info("Payment Facade initialized with gateways: {}", gatewayRouter.getPaymentMethods());
     }
     
     /**
-     * Process payment by selecting appropriate gateway and calculating charges
+     * Process payment by selecting appropriate gateway and calculating charges. Payments debiting
+     * the same account run one at a time, in arrival order.
      */
     public PaymentResponse processPayment(PaymentRequest request) {
         log.info("Processing payment request for: {} via {}", request.getName(), request.getPaymentMethod());
-        
-        // Set default country if not provided
-        if (request.getDestinationCountry() == null || request.getDestinationCountry().isEmpty()) {
-            request.setDestinationCountry(defaultCountry);
-            log.debug("Using default country: {}", defaultCountry);
-        }
-        
-        // Validate request
-        if (request.getPaymentMethod() == null || request.getAmount() == null) {
-            return PaymentResponse.builder()
-                    .status("FAILED")
-                    .message("Payment method and amount are required")
-                    .build();
-        }
-        
-        // Validate country-specific rules (amount range and time window)
-        ValidationResult validationResult = ruleValidator.validate(
-            request.getDestinationCountry(), 
-            request.getAmount()
-        );
-        
-        if (!validationResult.isValid()) {
-            log.warn("Payment validation failed: {}", validationResult.getErrorMessage());
-            return PaymentResponse.builder()
-                    .status("FAILED")
-                    .message(validationResult.getErrorMessage())
-                    .build();
-        }
-        
-        // Select payment gateway based on payment method
-        PaymentGateway gateway = selectGateway(request.getPaymentMethod());
-        
-        if (gateway == null) {
-            log.error("No gateway found for payment method: {}", request.getPaymentMethod());
-            return PaymentResponse.builder()
-                    .status("FAILED")
-                    .message("Unsupported payment method: " + request.getPaymentMethod())
-                    .build();
+        // Synchronous gateway calls complete every stage on the calling thread
+        try {
+            return accountLanes.execute(request.getFromAccount(),
+                    () -> pipeline.execute(request, false).join(), this::accountBusy);
+        } catch (CompletionException e) {
+            throw PaymentPipeline.unwrap(e);
         }
-        
-        // Calculate charges based on destination country
-        Double charges = chargeStrategy.calculateCharges(
-            request.getDestinationCountry(), 
-            request.getAmount()
-        );
-        
-        Double totalAmount = request.getAmount() + charges;
-        
-        log.info("Calculated charges: {} for country: {}, Total amount: {}", 
-                charges, request.getDestinationCountry(), totalAmount);
-        
-        // Save payment record
-        Payment payment = Payment.builder()
-                .name(request.getName())
-                .toAccount(request.getToAccount())
-                .fromAccount(request.getFromAccount())
-                .description(request.getDescription())
-                .amount(request.getAmount())
-                .paymentMethod(request.getPaymentMethod())
-                .destinationCountry(request.getDestinationCountry())
-                .timestamp(LocalDateTime.now())
-                .build();
-        
-        Payment savedPayment = paymentRepository.save(payment);
-        log.debug("Payment record saved with ID: {}", savedPayment.getId());
-        
-        // Process payment through selected gateway
-        PaymentResponse response = gateway.processPayment(request);
-        
-        // Update payment record with status and charges
-        savedPayment.setStatus(response.getStatus());
-        savedPayment.setCharges(charges);
-        savedPayment.setTotalAmount(totalAmount);
-        paymentRepository.save(savedPayment);
-        
-        // Enrich response with charges and total amount
-        response.setPaymentId(savedPayment.getId());
-        response.setCharges(charges);
-        response.setTotalAmount(totalAmount);
-        
-        log.info("Payment processed with status: {}", response.getStatus());
-        
-        return response;
     }
     
     /**
-     * Select payment gateway based on payment method
+     * Non-blocking variant of {@link #processPayment(PaymentRequest)}: gateways are called through
+     * {@link PaymentGateway#processPaymentAsync(PaymentRequest)} and the remaining work runs on the
+     * payment completion executor, so no thread waits for the gateway
      */
-    private PaymentGateway selectGateway(String paymentMethod) {
-        if (paymentMethod == null) {
-            return null;
-        }
-        return paymentGateways.get(paymentMethod.toUpperCase());
+    public CompletableFuture<PaymentResponse> processPaymentAsync(PaymentRequest request) {
+        log.info("Processing payment request for: {} via {}", request.getName(), request.getPaymentMethod());
+        return accountLanes.submit(request.getFromAccount(), () -> pipeline.execute(request, true), this::accountBusy);
+    }
+    
+    private PaymentResponse accountBusy() {
+        return PaymentResponse.builder()
+                .status("REJECTED")
+                .message("Too many payments in progress for the debited account, please retry later")
+                .retryAfterSeconds(laneRetryAfterSeconds)
+                .build();
     }
     
     /**
      * Get list of available payment gateways
      */
     public List<String> getAvailableGateways() {
-        return List.copyOf(paymentGateways.keySet());
+        return gatewayRouter.getPaymentMethods();
     }
     
     /**
-     * Get all payment history
+     * Get all payment history, archived partitions included
      * TODO: Add pagination support for production use to handle large datasets
      * Consider using Pageable parameter and returning Page<Payment>
      */
+    @Transactional(readOnly = true)
     public List<Payment> getPaymentHistory() {
         log.info("Fetching all payment history");
-        return paymentRepository.findAll();
+        return merge(paymentArchive.findAll(), paymentRepository.findAll());
+    }
+    
+    /**
+     * Get payments with a timestamp in {@code [from, to)} from the table and the archived segments
+     */
+    @Transactional(readOnly = true)
+    public List<Payment> getPaymentHistory(LocalDateTime from, LocalDateTime to) {
+        log.info("Fetching payment history from {} to {}", from, to);
+        return merge(paymentArchive.find(from, to),
+                paymentRepository.findByTimestampGreaterThanEqualAndTimestampLessThanOrderByIdAsc(from, to));
+    }
+    
+    /**
+     * A partition being archived can briefly be both on disk and in the table; the table row wins
+     */
+    private static List<Payment> merge(List<Payment> archived, List<Payment> hot) {
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        List<Payment> merged = new ArrayList<>(archived.size() + hot.size());
+        Set<Long> hotIds = new HashSet<>();
+        for (Payment payment : hot) {
+            hotIds.add(payment.getId());
+        }
+        for (Payment payment : archived) {
+            if (!hotIds.contains(payment.getId())) {
+                merged.add(payment);
+            }
+        }
+        merged.addAll(hot);
+        merged.sort(Comparator.comparing(Payment::getId));
+        return merged;
     }
     
 }
@@ -8,9 +8,9 @@ public interface ChargeStrategy {
     /**
      * Calculate charges based on destination country and amount
      * @param destinationCountry The destination country code
-     * @param amount The payment amount
-     * @return The calculated charges
+     * @param amount The payment amount in minor units
+     * @return The calculated charges in minor units of the same currency
      */
-    Double calculateCharges(String destinationCountry, Double amount);
+    long calculateCharges(String destinationCountry, long amount);
     
 }
@@ -2,6 +2,8 @@ package com.altruist.projects.ucp.payment.strategy;
 
 import org.springframework.stereotype.Component;
 
+import com.altruist.projects.ucp.payment.money.Money;
+
 /**
  * Default implementation of ChargeStrategy
  * Calculates charges based on destination country
@@ -10,19 +12,19 @@ import org.springframework.stereotype.Component;
 public class CountryBasedChargeStrategy implements ChargeStrategy {
     
     @Override
-    public Double calculateCharges(String destinationCountry, Double amount) {
-        if (destinationCountry == null || amount == null) {
-            return 0.0;
+    public long calculateCharges(String destinationCountry, long amount) {
+        if (destinationCountry == null) {
+            return 0L;
         }
         
-        // Template for country-based charges
-        return switch (destinationCountry.toUpperCase()) {
-            case "IN", "INDIA" -> amount * 0.01; // 1% for domestic (India)
-            case "US", "USA" -> amount * 0.03; // 3% for USA
-            case "UK", "GB" -> amount * 0.025; // 2.5% for UK
-            case "EU", "EUR" -> amount * 0.028; // 2.8% for Europe
-            default -> amount * 0.035; // 3.5% for other countries
-        };
+        // Template for country-based charges, in basis points (rounded half up to the minor unit)
+        return Money.basisPoints(amount, switch (destinationCountry.toUpperCase()) {
+            case "IN", "INDIA" -> 100; // 1% for domestic (India)
+            case "US", "USA" -> 300; // 3% for USA
+            case "UK", "GB" -> 250; // 2.5% for UK
+            case "EU", "EUR" -> 280; // 2.8% for Europe
+            default -> 350; // 3.5% for other countries
+        });
     }
     
 }
@@ -1,14 +1,23 @@
 package com.altruist.projects.ucp.payment.validation;
 
+import java.time.Clock;
 import java.time.LocalTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
-import java.util.Optional;
+import java.time.format.DateTimeFormatter;
+import java.util.Currency;
 
 import org.springframework.stereotype.Service;
 
+import com.altruist.projects.ucp.payment.calendar.OperatingCalendarService;
+import com.altruist.projects.ucp.payment.calendar.OperatingCalendarService.WindowCheck;
+import com.altruist.projects.ucp.payment.fx.FxRateService;
+import com.altruist.projects.ucp.payment.fx.FxRateSnapshot;
 import com.altruist.projects.ucp.payment.model.CountryPaymentRule;
-import com.altruist.projects.ucp.payment.repository.CountryPaymentRuleRepository;
+import com.altruist.projects.ucp.payment.money.Money;
+import com.altruist.projects.ucp.payment.rules.CountryPaymentRuleRegistry;
+import com.altruist.projects.ucp.payment.rules.RuleSet;
+import com.altruist.projects.ucp.payment.rules.RuleSet.ActiveRule;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -21,32 +30,49 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class CountryPaymentRuleValidator {
     
-    private final CountryPaymentRuleRepository ruleRepository;
+    private final CountryPaymentRuleRegistry ruleRegistry;
+    private final OperatingCalendarService calendarService;
+    private final FxRateService fxRateService;
+    private final Clock clock;
     
     /**
      * Validate payment against country-specific rules
      * @return ValidationResult with success status and error message if failed
      */
-    public ValidationResult validate(String countryCode, Double amount) {
-        log.debug("Validating payment for country: {}, amount: {}", countryCode, amount);
+    public ValidationResult validate(String countryCode, long amount) {
+        return validate(countryCode, null, amount, null);
+    }
+    
+    /**
+     * Validate payment against the best rule for the country, payment method, amount and time of day,
+     * falling back to less specific rules (e.g. the country-wide rule) when no variant matches.
+     * Rules are read from the active in-memory snapshot, not the database.
+     * @param amount payment amount in minor units
+     * @param currency payment currency, null for the country's local currency
+     */
+    public ValidationResult validate(String countryCode, String paymentMethod, long amount, Currency currency) {
+        if (log.isDebugEnabled()) {
+            log.debug("Validating payment for country: {}, method: {}, amount: {} {}",
+                    countryCode, paymentMethod, Money.format(amount), currency);
+        }
         
-        Optional<CountryPaymentRule> ruleOpt = ruleRepository.findByCountryCodeAndEnabledTrue(countryCode);
+        RuleSet ruleSet = ruleRegistry.current();
+        ActiveRule activeRule = ruleSet.match(countryCode, paymentMethod, amount, currency,
+                clock.instant(), fxRateService.current());
         
-        if (ruleOpt.isEmpty()) {
+        if (activeRule == null) {
             log.debug("No rules found for country: {}, allowing payment", countryCode);
             return ValidationResult.success();
         }
         
-        CountryPaymentRule rule = ruleOpt.get();
-        
         // Validate amount range
-        ValidationResult amountResult = validateAmount(rule, amount);
+        ValidationResult amountResult = validateAmount(activeRule, amount, currency);
         if (!amountResult.isValid()) {
             return amountResult;
         }
         
         // Validate time window
-        ValidationResult timeResult = validateTimeWindow(rule);
+        ValidationResult timeResult = validateTimeWindow(ruleSet, activeRule.getRule());
         if (!timeResult.isValid()) {
             return timeResult;
         }
@@ -56,22 +82,38 @@ public class CountryPaymentRuleValidator {
     }
     
     /**
-     * Validate if amount is within allowed range for the country
+     * Validate if amount is within allowed range for the country. Limits are in the rule currency;
+     * a payment in another currency is converted at the active FX snapshot first.
      */
-    private ValidationResult validateAmount(CountryPaymentRule rule, Double amount) {
-        if (rule.getMinAmount() != null && amount < rule.getMinAmount()) {
+    private ValidationResult validateAmount(ActiveRule activeRule, long amount, Currency currency) {
+        CountryPaymentRule rule = activeRule.getRule();
+        Currency ruleCurrency = activeRule.getCurrency();
+        if (currency != null && !currency.equals(ruleCurrency)) {
+            FxRateSnapshot rates = fxRateService.current();
+            if (!rates.supports(currency) || !rates.supports(ruleCurrency)) {
+                String message = String.format(
+                    "No exchange rate from %s to %s to check the limits of country %s",
+                    currency, ruleCurrency, rule.getCountryCode()
+                );
+                log.warn(message);
+                return ValidationResult.failure(message);
+            }
+            amount = rates.convert(amount, currency, ruleCurrency);
+        }
+        
+        if (amount < activeRule.getMinAmount()) {
             String message = String.format(
-                "Payment amount %.2f is below minimum allowed %.2f for country %s",
-                amount, rule.getMinAmount(), rule.getCountryCode()
+                "Payment amount %s %s is below minimum allowed %s for country %s",
+                Money.format(amount), ruleCurrency, Money.format(activeRule.getMinAmount()), rule.getCountryCode()
             );
             log.warn(message);
             return ValidationResult.failure(message);
         }
         
-        if (rule.getMaxAmount() != null && amount > rule.getMaxAmount()) {
+        if (amount > activeRule.getMaxAmount()) {
             String message = String.format(
-                "Payment amount %.2f exceeds maximum allowed %.2f for country %s",
-                amount, rule.getMaxAmount(), rule.getCountryCode()
+                "Payment amount %s %s exceeds maximum allowed %s for country %s",
+                Money.format(amount), ruleCurrency, Money.format(activeRule.getMaxAmount()), rule.getCountryCode()
             );
             log.warn(message);
             return ValidationResult.failure(message);
@@ -82,26 +124,25 @@ public class CountryPaymentRuleValidator {
     
     /**
      * Validate if current time is within operational hours for the country
+     * (operating days, holidays and overnight windows are resolved by the precomputed calendar)
      */
-    private ValidationResult validateTimeWindow(CountryPaymentRule rule) {
+    private ValidationResult validateTimeWindow(RuleSet ruleSet, CountryPaymentRule rule) {
         if (rule.getOperationStartTime() == null || rule.getOperationEndTime() == null) {
             return ValidationResult.success(); // No time restriction
         }
         
-        // Get current time in the country's timezone
-        ZoneId zoneId = ZoneId.of(rule.getTimezone());
-        ZonedDateTime nowInCountry = ZonedDateTime.now(zoneId);
-        LocalTime currentTime = nowInCountry.toLocalTime();
-        
-        LocalTime startTime = rule.getOperationStartTime();
-        LocalTime endTime = rule.getOperationEndTime();
-        
-        boolean isWithinOperationHours = !currentTime.isBefore(startTime) && !currentTime.isAfter(endTime);
-        
-        if (!isWithinOperationHours) {
+        WindowCheck check = calendarService.check(ruleSet, rule);
+        if (!check.open()) {
+            ZoneId zoneId = ZoneId.of(rule.getTimezone());
+            LocalTime currentTime = check.now().atZone(zoneId).toLocalTime();
+            String nextOpen = check.nextOpen() == null
+                    ? "none scheduled"
+                    : ZonedDateTime.ofInstant(check.nextOpen(), zoneId).format(DateTimeFormatter.ISO_OFFSET_DATE_TIME);
             String message = String.format(
-                "Payment not allowed at this time for country %s. Operation hours: %s - %s (Current time: %s %s)",
-                rule.getCountryCode(), startTime, endTime, currentTime, rule.getTimezone()
+                "Payment not allowed at this time for country %s. Operation hours: %s - %s%s (Current time: %s %s, next opening: %s)",
+                rule.getCountryCode(), rule.getOperationStartTime(), rule.getOperationEndTime(),
+                rule.getOperatingDays() != null ? " " + rule.getOperatingDays() : "",
+                currentTime, rule.getTimezone(), nextOpen
             );
             log.warn(message);
             return ValidationResult.failure(message);
@@ -113,14 +154,15 @@ public class CountryPaymentRuleValidator {
     /**
      * Validation result wrapper
      */
-    @lombok.Data
-    @lombok.AllArgsConstructor
+    @lombok.Value
     public static class ValidationResult {
-        private boolean valid;
-        private String errorMessage;
+        private static final ValidationResult SUCCESS = new ValidationResult(true, null);
+        
+        boolean valid;
+        String errorMessage;
         
         public static ValidationResult success() {
-            return new ValidationResult(true, null);
+            return SUCCESS;
         }
         
         public static ValidationResult failure(String message) {
@@ -0,0 +1,88 @@
+package com.altruist.projects.ucp.payment.web;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * JSON response body serialized once, with a strong ETag derived from its bytes.
+ *
+ * <p>Because the tag depends only on the content, every replica and every restart hands out the same
+ * tag for the same body, so clients and proxies (nginx {@code proxy_cache_revalidate}) can keep the
+ * response and revalidate it with {@code If-None-Match}. A match is answered with 304 and no body.</p>
+ */
+public final class CachedJsonResponse {
+
+    // Stored, but revalidated on every use
+    private static final CacheControl CACHE_CONTROL = CacheControl.noCache();
+
+    private final byte[] body;
+    private final String etag;
+
+    private CachedJsonResponse(byte[] body, String etag) {
+        this.body = body;
+        this.etag = etag;
+    }
+
+    public static CachedJsonResponse of(JsonMapper jsonMapper, Object value) {
+        byte[] body = jsonMapper.writeValueAsBytes(value);
+        return new CachedJsonResponse(body, etagOf(body));
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    /**
+     * 304 if {@code ifNoneMatch} names this body, otherwise 200 with the cached bytes
+     */
+    public ResponseEntity<byte[]> toResponse(String ifNoneMatch) {
+        if (matches(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CACHE_CONTROL).build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CACHE_CONTROL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .contentLength(body.length)
+                .body(body);
+    }
+
+    /**
+     * If-None-Match uses the weak comparison: {@code W/} prefixes are ignored, {@code *} matches anything
+     */
+    boolean matches(String ifNoneMatch) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String etagOf(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.altruist.projects.ucp.loadtest;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Collects per-request latencies and outcomes. Each worker thread records into its own
+ * {@link WorkerRecorder} so the measurement path never contends; results are merged at the end.
+ */
+class LoadTestRecorder {
+
+    private final ConcurrentLinkedQueue<WorkerRecorder> workers = new ConcurrentLinkedQueue<>();
+
+    WorkerRecorder newWorker() {
+        WorkerRecorder worker = new WorkerRecorder();
+        workers.add(worker);
+        return worker;
+    }
+
+    long[] allLatencies() {
+        return workers.stream()
+                .flatMap(worker -> worker.latencies.values().stream())
+                .map(LongList::toArray)
+                .reduce(new long[0], LoadTestRecorder::concat);
+    }
+
+    Map<String, long[]> latenciesByMix() {
+        Map<String, long[]> merged = new HashMap<>();
+        workers.forEach(worker -> worker.latencies.forEach((mix, list) ->
+                merged.merge(mix, list.toArray(), LoadTestRecorder::concat)));
+        return merged;
+    }
+
+    long successCount() {
+        return workers.stream().flatMap(worker -> worker.successes.values().stream()).mapToLong(Long::longValue).sum();
+    }
+
+    long successCount(String mix) {
+        return workers.stream().mapToLong(worker -> worker.successes.getOrDefault(mix, 0L)).sum();
+    }
+
+    Map<String, Long> outcomes() {
+        Map<String, Long> merged = new ConcurrentHashMap<>();
+        workers.forEach(worker -> worker.outcomes.forEach((outcome, count) -> merged.merge(outcome, count, Long::sum)));
+        return merged;
+    }
+
+    private static long[] concat(long[] a, long[] b) {
+        long[] result = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+
+    static class WorkerRecorder {
+        private final Map<String, LongList> latencies = new HashMap<>();
+        private final Map<String, Long> successes = new HashMap<>();
+        private final Map<String, Long> outcomes = new HashMap<>();
+
+        void record(String mix, long latencyNanos, boolean success, String outcome) {
+            latencies.computeIfAbsent(mix, key -> new LongList()).add(latencyNanos);
+            if (success) {
+                successes.merge(mix, 1L, Long::sum);
+            }
+            outcomes.merge(outcome, 1L, Long::sum);
+        }
+    }
+
+    /**
+     * Growable primitive list so recording a sample does not box
+     */
+    static class LongList {
+        private long[] values = new long[1024];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
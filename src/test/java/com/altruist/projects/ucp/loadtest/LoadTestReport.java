@@ -0,0 +1,115 @@
+package com.altruist.projects.ucp.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import lombok.Getter;
+import tools.jackson.databind.SerializationFeature;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Result of one load test run. Reports always have the same shape so runs of the
+ * same profile can be diffed against each other.
+ */
+@Getter
+public class LoadTestReport {
+
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final String profile;
+    private final long seed;
+    private final String baseUrl;
+    private final String startedAt;
+    private final int durationSeconds;
+    private final int targetRps;
+    private final int concurrency;
+    private final long totalRequests;
+    private final long successfulRequests;
+    private final double throughputRps;
+    private final double successRps;
+    private final Map<String, Double> latencyMillis;
+    private final Map<String, Map<String, Object>> perMix = new TreeMap<>();
+    private final Map<String, Long> outcomes;
+
+    LoadTestReport(TrafficProfile trafficProfile, String baseUrl, LocalDateTime startedAt,
+                   LoadTestRecorder recorder) {
+        this.profile = trafficProfile.getName();
+        this.seed = trafficProfile.getSeed();
+        this.baseUrl = baseUrl;
+        this.startedAt = startedAt.toString();
+        this.durationSeconds = trafficProfile.getDurationSeconds();
+        this.targetRps = trafficProfile.getTargetRps();
+        this.concurrency = trafficProfile.getConcurrency();
+
+        long[] all = recorder.allLatencies();
+        this.totalRequests = all.length;
+        this.successfulRequests = recorder.successCount();
+        this.throughputRps = (double) totalRequests / durationSeconds;
+        this.successRps = (double) successfulRequests / durationSeconds;
+        this.latencyMillis = summarize(all);
+        this.outcomes = new TreeMap<>(recorder.outcomes());
+
+        recorder.latenciesByMix().forEach((mix, latencies) -> {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("requests", latencies.length);
+            stats.put("successful", recorder.successCount(mix));
+            stats.putAll(summarize(latencies));
+            perMix.put(mix, stats);
+        });
+    }
+
+    /**
+     * Latency percentiles in milliseconds (sorts the given array in place)
+     */
+    static Map<String, Double> summarize(long[] latencyNanos) {
+        Arrays.sort(latencyNanos);
+        Map<String, Double> summary = new LinkedHashMap<>();
+        summary.put("p50", percentile(latencyNanos, 0.50));
+        summary.put("p90", percentile(latencyNanos, 0.90));
+        summary.put("p99", percentile(latencyNanos, 0.99));
+        summary.put("p999", percentile(latencyNanos, 0.999));
+        summary.put("max", latencyNanos.length == 0 ? 0.0 : toMillis(latencyNanos[latencyNanos.length - 1]));
+        summary.put("mean", latencyNanos.length == 0 ? 0.0 : toMillis((long) Arrays.stream(latencyNanos).average().orElse(0)));
+        return summary;
+    }
+
+    static double percentile(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) {
+            return 0.0;
+        }
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return toMillis(sortedNanos[Math.max(0, Math.min(index, sortedNanos.length - 1))]);
+    }
+
+    private static double toMillis(long nanos) {
+        return Math.round(nanos / (double) TimeUnit.MILLISECONDS.toNanos(1) * 100.0) / 100.0;
+    }
+
+    public void print(PrintStream out) {
+        out.printf("%n=== Load test '%s' (seed %d) against %s ===%n", profile, seed, baseUrl);
+        out.printf("Requests: %d total, %d successful over %ds%n", totalRequests, successfulRequests, durationSeconds);
+        out.printf("Throughput: %.1f req/s (%.1f successful req/s)%n", throughputRps, successRps);
+        out.printf("Latency ms: %s%n", latencyMillis);
+        out.println("Per mix:");
+        perMix.forEach((mix, stats) -> out.printf("  %-16s %s%n", mix, stats));
+        out.println("Outcomes:");
+        outcomes.forEach((outcome, count) -> out.printf("  %8d  %s%n", count, outcome));
+    }
+
+    public Path write(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        Path file = directory.resolve(profile + "-" + FILE_TIMESTAMP.format(LocalDateTime.parse(startedAt)) + ".json");
+        JsonMapper mapper = JsonMapper.builder().enable(SerializationFeature.INDENT_OUTPUT).build();
+        mapper.writeValue(file.toFile(), this);
+        return file;
+    }
+}
@@ -0,0 +1,191 @@
+package com.altruist.projects.ucp.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.altruist.projects.ucp.loadtest.TrafficProfile.TrafficMix;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Replays a {@link TrafficProfile} against a locally started application and writes a
+ * {@link LoadTestReport}.
+ *
+ * <p>Start the app with simulated gateways ({@code mvn spring-boot:run -Dspring-boot.run.profiles=loadtest}),
+ * then run {@code mvn -Ploadtest test-compile exec:java -Dloadtest.profile=baseline}.</p>
+ *
+ * <p>With a target rate the generator is open-loop: every request has an intended start time and
+ * latency is measured from it, so a stalled server is not hidden by the generator slowing down
+ * (coordinated omission).</p>
+ */
+@Slf4j
+public class LoadTestRunner {
+
+    private static final Pattern STATUS = Pattern.compile("\"status\"\\s*:\\s*\"(\\w+)\"");
+    private static final Pattern MESSAGE = Pattern.compile("\"message\"\\s*:\\s*\"([^\"]*)\"");
+    private static final int CLOSED_LOOP_REQUESTS = 10_000;
+
+    private final String processUrl;
+    private final TrafficProfile profile;
+    private final HttpClient client;
+
+    public LoadTestRunner(String processUrl, TrafficProfile profile) {
+        this.processUrl = processUrl;
+        this.profile = profile;
+        this.client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newFixedThreadPool(Math.max(4, profile.getConcurrency() / 8)))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = System.getProperty("loadtest.url", "http://localhost:8080");
+        // /api/async/payments/process replays the same traffic against the non-blocking endpoint
+        String endpoint = System.getProperty("loadtest.endpoint", "/api/payments/process");
+        String profileName = System.getProperty("loadtest.profile", "baseline");
+        Path reportDirectory = Path.of(System.getProperty("loadtest.report-dir", "target/loadtest-reports"));
+
+        LoadTestReport report = new LoadTestRunner(baseUrl + endpoint, TrafficProfile.load(profileName)).run();
+        report.print(System.out);
+        System.out.println("Report written to " + report.write(reportDirectory));
+        System.exit(0);
+    }
+
+    public LoadTestReport run() throws Exception {
+        List<GeneratedRequest> requests = generateRequests();
+        LoadTestRecorder recorder = new LoadTestRecorder();
+        AtomicLong sequence = new AtomicLong();
+
+        long intervalNanos = profile.getTargetRps() > 0 ? TimeUnit.SECONDS.toNanos(1) / profile.getTargetRps() : 0;
+        long startNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        long measureFromNanos = startNanos + TimeUnit.SECONDS.toNanos(profile.getWarmupSeconds());
+        long endNanos = measureFromNanos + TimeUnit.SECONDS.toNanos(profile.getDurationSeconds());
+        LocalDateTime startedAt = LocalDateTime.now();
+
+        log.info("Running profile '{}' against {}: {} workers, target {} req/s, {}s warmup + {}s measured",
+                profile.getName(), processUrl, profile.getConcurrency(),
+                profile.getTargetRps() > 0 ? profile.getTargetRps() : "unbounded",
+                profile.getWarmupSeconds(), profile.getDurationSeconds());
+
+        ExecutorService workers = Executors.newFixedThreadPool(profile.getConcurrency());
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < profile.getConcurrency(); i++) {
+            LoadTestRecorder.WorkerRecorder worker = recorder.newWorker();
+            futures.add(workers.submit(() -> {
+                while (true) {
+                    long n = sequence.getAndIncrement();
+                    long intendedNanos = intervalNanos > 0 ? startNanos + n * intervalNanos : System.nanoTime();
+                    if (intendedNanos >= endNanos) {
+                        return;
+                    }
+                    long waitNanos = intendedNanos - System.nanoTime();
+                    if (waitNanos > 0) {
+                        LockSupport.parkNanos(waitNanos);
+                    }
+                    GeneratedRequest request = requests.get((int) (n % requests.size()));
+                    String outcome = send(request);
+                    long latencyNanos = System.nanoTime() - intendedNanos;
+                    if (intendedNanos >= measureFromNanos) {
+                        worker.record(request.mix(), latencyNanos, outcome.startsWith("200 "), outcome);
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        workers.shutdown();
+
+        return new LoadTestReport(profile, processUrl, startedAt, recorder);
+    }
+
+    /**
+     * Pre-generate the request sequence from the profile seed so every run sends identical traffic
+     */
+    List<GeneratedRequest> generateRequests() {
+        int count = profile.getTargetRps() > 0
+                ? profile.getTargetRps() * (profile.getWarmupSeconds() + profile.getDurationSeconds())
+                : CLOSED_LOOP_REQUESTS;
+        int totalWeight = profile.getMixes().stream().mapToInt(TrafficMix::getWeight).sum();
+        Random random = new Random(profile.getSeed());
+
+        List<GeneratedRequest> requests = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            TrafficMix mix = pick(random.nextInt(totalWeight));
+            double amount = mix.getMinAmount() + random.nextDouble() * (mix.getMaxAmount() - mix.getMinAmount());
+            String body = String.format(Locale.ROOT,
+                    "{\"name\":\"Load Test %d\",\"toAccount\":\"TO%08d\",\"fromAccount\":\"FROM%06d\","
+                            + "\"description\":\"%s load test\",\"destinationCountry\":\"%s\","
+                            + "\"paymentMethod\":\"%s\",\"amount\":%.2f}",
+                    i, random.nextInt(100_000_000), random.nextInt(1_000_000), profile.getName(),
+                    mix.getCountry(), mix.getPaymentMethod(), amount);
+            requests.add(new GeneratedRequest(mix.key(), body));
+        }
+        return requests;
+    }
+
+    private TrafficMix pick(int weightedIndex) {
+        for (TrafficMix mix : profile.getMixes()) {
+            weightedIndex -= mix.getWeight();
+            if (weightedIndex < 0) {
+                return mix;
+            }
+        }
+        throw new IllegalStateException("Weighted pick out of range");
+    }
+
+    /**
+     * Send one payment and classify the outcome as "HTTP status + payment status: message"
+     */
+    private String send(GeneratedRequest request) {
+        HttpRequest httpRequest = HttpRequest.newBuilder(URI.create(processUrl))
+                .timeout(Duration.ofMillis(profile.getRequestTimeoutMillis()))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(request.body()))
+                .build();
+        try {
+            HttpResponse<String> response = client.send(httpRequest, HttpResponse.BodyHandlers.ofString());
+            String status = extract(STATUS, response.body());
+            if (response.statusCode() == 200) {
+                return "200 " + status;
+            }
+            // Digits are masked so per-request values (amounts, times) group into one category
+            String message = extract(MESSAGE, response.body()).replaceAll("[0-9]+", "#");
+            return response.statusCode() + " " + status + ": " + message;
+        } catch (HttpTimeoutException e) {
+            return "CLIENT_TIMEOUT";
+        } catch (IOException e) {
+            return "IO_ERROR " + e.getClass().getSimpleName();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "INTERRUPTED";
+        }
+    }
+
+    private static String extract(Pattern pattern, String body) {
+        Matcher matcher = pattern.matcher(body == null ? "" : body);
+        return matcher.find() ? matcher.group(1) : "-";
+    }
+
+    record GeneratedRequest(String mix, String body) {
+    }
+}
@@ -0,0 +1,99 @@
+package com.altruist.projects.ucp.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.TreeSet;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Reproducible traffic profile for {@link LoadTestRunner}.
+ *
+ * <p>Loaded from {@code loadtest/<name>.properties} on the test classpath or from a file path.
+ * Each {@code mix.<COUNTRY>.<METHOD>=<weight>} entry adds a country / payment method pair,
+ * with amounts drawn uniformly from {@code amount.<COUNTRY>.min/max}.</p>
+ */
+@Value
+@Builder
+public class TrafficProfile {
+
+    String name;
+    long seed;
+    int durationSeconds;
+    int warmupSeconds;
+    int concurrency;
+    int targetRps; // 0 = closed loop, as fast as the workers can go
+    int requestTimeoutMillis;
+    List<TrafficMix> mixes;
+
+    @Value
+    public static class TrafficMix {
+        String country;
+        String paymentMethod;
+        int weight;
+        double minAmount;
+        double maxAmount;
+
+        public String key() {
+            return country + "/" + paymentMethod;
+        }
+    }
+
+    public static TrafficProfile load(String nameOrPath) throws IOException {
+        Properties properties = new Properties();
+        Path path = Path.of(nameOrPath);
+        if (Files.isRegularFile(path)) {
+            try (InputStream in = Files.newInputStream(path)) {
+                properties.load(in);
+            }
+        } else {
+            String resource = "loadtest/" + nameOrPath + ".properties";
+            try (InputStream in = TrafficProfile.class.getClassLoader().getResourceAsStream(resource)) {
+                if (in == null) {
+                    throw new IOException("Traffic profile not found: " + nameOrPath);
+                }
+                properties.load(in);
+            }
+        }
+        return fromProperties(nameOrPath, properties);
+    }
+
+    static TrafficProfile fromProperties(String defaultName, Properties properties) {
+        List<TrafficMix> mixes = new ArrayList<>();
+        // Sorted keys keep the mix order, and therefore the generated traffic, stable across JVMs
+        for (String key : new TreeSet<>(properties.stringPropertyNames())) {
+            if (!key.startsWith("mix.")) {
+                continue;
+            }
+            String[] parts = key.split("\\.");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Expected mix.<COUNTRY>.<METHOD> but got: " + key);
+            }
+            String country = parts[1];
+            mixes.add(new TrafficMix(country, parts[2],
+                    Integer.parseInt(properties.getProperty(key).trim()),
+                    Double.parseDouble(properties.getProperty("amount." + country + ".min", "10")),
+                    Double.parseDouble(properties.getProperty("amount." + country + ".max", "1000"))));
+        }
+        if (mixes.isEmpty()) {
+            throw new IllegalArgumentException("Traffic profile " + defaultName + " defines no mix.* entries");
+        }
+
+        return TrafficProfile.builder()
+                .name(properties.getProperty("name", defaultName))
+                .seed(Long.parseLong(properties.getProperty("seed", "42")))
+                .durationSeconds(Integer.parseInt(properties.getProperty("duration-seconds", "60")))
+                .warmupSeconds(Integer.parseInt(properties.getProperty("warmup-seconds", "10")))
+                .concurrency(Integer.parseInt(properties.getProperty("concurrency", "32")))
+                .targetRps(Integer.parseInt(properties.getProperty("target-rps", "0")))
+                .requestTimeoutMillis(Integer.parseInt(properties.getProperty("request-timeout-ms", "10000")))
+                .mixes(List.copyOf(mixes))
+                .build();
+    }
+}
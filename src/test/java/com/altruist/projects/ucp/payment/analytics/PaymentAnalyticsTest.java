@@ -0,0 +1,161 @@
+package com.altruist.projects.ucp.payment.analytics;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Currency;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.altruist.projects.ucp.payment.dto.PaymentRollup;
+import com.altruist.projects.ucp.payment.model.PaymentSummary;
+import com.altruist.projects.ucp.payment.repository.PaymentSummaryRepository;
+
+class PaymentAnalyticsTest {
+
+    private static final Currency INR = Currency.getInstance("INR");
+    private static final Currency USD = Currency.getInstance("USD");
+
+    @Mock
+    private PaymentSummaryRepository summaryRepository;
+
+    private MutableClock clock;
+
+    private PaymentAnalytics analytics;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        clock = new MutableClock(Instant.parse("2026-10-19T10:15:30Z"));
+        analytics = new PaymentAnalytics(summaryRepository, clock, 5, 3);
+    }
+
+    @Test
+    void testRollups_AggregateStatusesPerCountryAndMethod() {
+        // Given
+        analytics.record("IN", "UPI", INR, "SUCCESS", 1_000_00L, 10_00L);
+        analytics.record("IN", "UPI", INR, "SUCCESS", 500_00L, 5_00L);
+        analytics.record("IN", "UPI", INR, "FAILED", 200_00L, 2_00L);
+        analytics.record("US", "CARD", USD, "SUCCESS", 100_00L, 3_00L);
+
+        // When
+        List<PaymentRollup> rollups = analytics.rollups(PaymentAnalytics.MINUTE, 10, "IN");
+
+        // Then
+        assertEquals(1, rollups.size());
+        PaymentRollup rollup = rollups.get(0);
+        assertEquals(Instant.parse("2026-10-19T10:15:00Z"), rollup.getBucketStart());
+        assertEquals(3, rollup.getCount());
+        assertEquals(1, rollup.getFailedCount());
+        assertEquals(1_700_00L, rollup.getVolume());
+        assertEquals(17_00L, rollup.getCharges());
+        assertEquals(1.0 / 3, rollup.getFailureRate(), 1e-9);
+    }
+
+    @Test
+    void testRollups_KeepCurrenciesApart() {
+        // Given
+        analytics.record("IN", "CARD", INR, "SUCCESS", 1_000_00L, 10_00L);
+        analytics.record("IN", "CARD", USD, "SUCCESS", 20_00L, 1_00L);
+        analytics.record("IN", "CARD", USD, "FAILED", 5_00L, 0L);
+
+        // When
+        List<PaymentRollup> rollups = analytics.rollups(PaymentAnalytics.MINUTE, 1, "IN");
+
+        // Then
+        assertEquals(2, rollups.size());
+        PaymentRollup inr = rollups.stream().filter(r -> INR.equals(r.getCurrency())).findFirst().orElseThrow();
+        PaymentRollup usd = rollups.stream().filter(r -> USD.equals(r.getCurrency())).findFirst().orElseThrow();
+        assertEquals(1_000_00L, inr.getVolume());
+        assertEquals(25_00L, usd.getVolume());
+        assertEquals(2, usd.getCount());
+        assertEquals(1, usd.getFailedCount());
+    }
+
+    @Test
+    void testRollups_NewestFirstAndBoundedByRing() {
+        // Given - one payment per minute for 7 minutes, the ring keeps 5
+        for (int i = 0; i < 7; i++) {
+            analytics.record("IN", "UPI", INR, "SUCCESS", 100_00L, 1_00L);
+            clock.advanceSeconds(60);
+        }
+        clock.advanceSeconds(-60);
+
+        // When
+        List<PaymentRollup> minutes = analytics.rollups(PaymentAnalytics.MINUTE, 10, null);
+        List<PaymentRollup> hours = analytics.rollups(PaymentAnalytics.HOUR, 10, null);
+
+        // Then
+        assertEquals(5, minutes.size());
+        assertEquals(Instant.parse("2026-10-19T10:21:00Z"), minutes.get(0).getBucketStart());
+        assertEquals(Instant.parse("2026-10-19T10:17:00Z"), minutes.get(4).getBucketStart());
+        assertEquals(1, hours.size());
+        assertEquals(7, hours.get(0).getCount());
+    }
+
+    @Test
+    void testFlush_PersistsClosedBucketsOnce() {
+        // Given
+        analytics.record("IN", "UPI", INR, "SUCCESS", 1_000_00L, 10_00L);
+        analytics.record("IN", "UPI", INR, "FAILED", 200_00L, 2_00L);
+        analytics.flush();
+        verify(summaryRepository, never()).saveAll(anyList()); // Current bucket is still open
+
+        // When
+        clock.advanceSeconds(60);
+        analytics.flush();
+        analytics.flush();
+
+        // Then
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<PaymentSummary>> saved = ArgumentCaptor.forClass(List.class);
+        verify(summaryRepository, times(1)).saveAll(saved.capture());
+        assertEquals(2, saved.getValue().size());
+        assertTrue(saved.getValue().stream().allMatch(s -> PaymentAnalytics.MINUTE.equals(s.getGranularity())));
+    }
+
+    @Test
+    void testRollups_UnknownGranularity_Rejected() {
+        assertThrows(IllegalArgumentException.class, () -> analytics.rollups("DAY", 1, null));
+    }
+
+    /**
+     * Clock that tests can move forward
+     */
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advanceSeconds(long seconds) {
+            now = now.plusSeconds(seconds);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
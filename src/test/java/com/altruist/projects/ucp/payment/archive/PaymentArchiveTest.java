@@ -0,0 +1,169 @@
+package com.altruist.projects.ucp.payment.archive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
+
+import com.altruist.projects.ucp.payment.dto.ArchiveSegment;
+import com.altruist.projects.ucp.payment.model.Payment;
+import com.altruist.projects.ucp.payment.repository.PaymentRepository;
+
+class PaymentArchiveTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2026-10-19T10:00:00Z"), ZoneOffset.UTC);
+    private static final LocalDateTime JUNE = LocalDateTime.of(2026, 6, 1, 0, 0);
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @TempDir
+    private Path directory;
+
+    private PaymentArchive archive;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        archive = new PaymentArchive(paymentRepository, CLOCK, true, directory.toString(), 3, 1_000, 100);
+    }
+
+    @Test
+    void testArchivedPaymentsRoundTrip() {
+        // Given
+        Payment payment = Payment.builder()
+                .id(7L)
+                .name("John Doe")
+                .toAccount("9876543210")
+                .fromAccount("1234567890")
+                .description("Rent, June")
+                .amount(1_250_00L)
+                .charges(25_00L)
+                .totalAmount(1_275_00L)
+                .currency(Currency.getInstance("USD"))
+                .settlementAmount(104_000_00L)
+                .settlementCurrency(Currency.getInstance("INR"))
+                .paymentMethod("CARD")
+                .destinationCountry("IN")
+                .status("SUCCESS")
+                .externalReference("ref-7")
+                .timestamp(JUNE.plusDays(3).plusNanos(123_000_000))
+                .build();
+        givenPartition(202606, List.of(payment));
+
+        // When
+        List<ArchiveSegment> segments = archive.archiveColdPartitions();
+        List<Payment> archived = archive.findAll();
+
+        // Then
+        assertEquals(1, segments.size());
+        assertEquals(202606, segments.get(0).getPartitionMonth());
+        assertEquals(1, segments.get(0).getRows());
+        payment.setPartitionMonth(202606);
+        assertEquals(List.of(payment), archived);
+        verify(paymentRepository).deletePartition(202606, 7L);
+    }
+
+    @Test
+    void testTimeRangeQueryAcrossRowGroupsAndPartitions() {
+        // Given one payment an hour through June and July, in row groups of 100
+        List<Payment> june = new ArrayList<>();
+        List<Payment> july = new ArrayList<>();
+        for (int hour = 0; hour < 61 * 24; hour++) {
+            LocalDateTime timestamp = JUNE.plusHours(hour);
+            (timestamp.getMonthValue() == 6 ? june : july).add(payment(hour + 1L, timestamp));
+        }
+        givenPartition(202606, june);
+        givenPartition(202607, july);
+        archive.archiveColdPartitions();
+
+        // When
+        List<Payment> found = archive.find(LocalDateTime.of(2026, 6, 30, 22, 0), LocalDateTime.of(2026, 7, 1, 2, 0));
+
+        // Then
+        assertEquals(List.of(719L, 720L, 721L, 722L), found.stream().map(Payment::getId).toList());
+        assertEquals(2, archive.listSegments().size());
+        assertEquals(8, archive.listSegments().get(0).getRowGroups());
+        assertTrue(archive.find(LocalDateTime.of(2026, 8, 1, 0, 0), LocalDateTime.of(2026, 9, 1, 0, 0)).isEmpty());
+    }
+
+    @Test
+    void testPartitionWithUnfinishedPaymentIsNotArchived() throws Exception {
+        // Given
+        Payment retrying = payment(2L, JUNE.plusDays(1));
+        retrying.setStatus("RETRYING");
+        givenPartition(202606, List.of(payment(1L, JUNE), retrying));
+
+        // When
+        List<ArchiveSegment> segments = archive.archiveColdPartitions();
+
+        // Then
+        assertTrue(segments.isEmpty());
+        verify(paymentRepository, never()).deletePartition(anyInt(), anyLong());
+        try (var files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void testHotMonthsStayInTheTable() {
+        // Given
+        when(paymentRepository.findPartitionMonthsBefore(anyInt())).thenReturn(List.of());
+
+        // When
+        archive.archiveColdPartitions();
+
+        // Then October, September and August are hot
+        verify(paymentRepository).assignMissingPartitionMonths();
+        verify(paymentRepository).findPartitionMonthsBefore(202608);
+        assertTrue(archive.listSegments().isEmpty());
+    }
+
+    private void givenPartition(int month, List<Payment> payments) {
+        List<Integer> months = new ArrayList<>(paymentRepository.findPartitionMonthsBefore(202608));
+        months.add(month);
+        when(paymentRepository.findPartitionMonthsBefore(202608)).thenReturn(months);
+        when(paymentRepository.findByPartitionMonthAndIdGreaterThanOrderByIdAsc(eq(month), eq(0L), any(Limit.class)))
+                .thenReturn(payments);
+    }
+
+    private static Payment payment(long id, LocalDateTime timestamp) {
+        return Payment.builder()
+                .id(id)
+                .name("Payer " + id)
+                .toAccount("9876543210")
+                .fromAccount("1234567890")
+                .amount(100_00L)
+                .charges(0L)
+                .totalAmount(100_00L)
+                .currency(Currency.getInstance("USD"))
+                .settlementAmount(100_00L)
+                .settlementCurrency(Currency.getInstance("USD"))
+                .paymentMethod("UPI")
+                .status("SUCCESS")
+                .timestamp(timestamp)
+                .build();
+    }
+}
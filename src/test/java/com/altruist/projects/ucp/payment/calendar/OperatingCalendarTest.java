@@ -0,0 +1,104 @@
+package com.altruist.projects.ucp.payment.calendar;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class OperatingCalendarTest {
+
+    private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+    private static final Set<DayOfWeek> EVERY_DAY = EnumSet.allOf(DayOfWeek.class);
+
+    @Test
+    void testSameDayWindow() {
+        // Given
+        OperatingCalendar calendar = build(LocalTime.of(8, 0), LocalTime.of(20, 0), EVERY_DAY, List.of());
+
+        // Then
+        assertFalse(calendar.isOpen(at("2026-10-19T07:59")));
+        assertTrue(calendar.isOpen(at("2026-10-19T08:00")));
+        assertTrue(calendar.isOpen(at("2026-10-19T20:00"))); // End time is inclusive
+        assertFalse(calendar.isOpen(at("2026-10-19T20:01")));
+        assertEquals(instant("2026-10-20T08:00"), calendar.nextOpen(at("2026-10-19T21:00")));
+    }
+
+    @Test
+    void testOvernightWindow_BelongsToOpeningDay() {
+        // Given - Friday night is open, Saturday night is not
+        OperatingCalendar calendar = build(LocalTime.of(22, 0), LocalTime.of(2, 0),
+                OperatingDays.parse("MON-FRI"), List.of());
+
+        // Then
+        assertTrue(calendar.isOpen(at("2026-10-23T23:00")));  // Friday
+        assertTrue(calendar.isOpen(at("2026-10-24T01:30")));  // Saturday, still Friday's window
+        assertFalse(calendar.isOpen(at("2026-10-24T23:00"))); // Saturday
+        assertEquals(instant("2026-10-26T22:00"), calendar.nextOpen(at("2026-10-24T03:00")));
+    }
+
+    @Test
+    void testHoliday_SkipsDay() {
+        // Given
+        OperatingCalendar calendar = build(LocalTime.of(8, 0), LocalTime.of(20, 0), EVERY_DAY,
+                List.of(LocalDate.of(2026, 10, 20)));
+
+        // Then
+        assertFalse(calendar.isOpen(at("2026-10-20T12:00")));
+        assertEquals(instant("2026-10-21T08:00"), calendar.nextOpen(at("2026-10-20T12:00")));
+        // Answered again from the cached gap
+        assertEquals(instant("2026-10-21T08:00"), calendar.nextOpen(at("2026-10-20T13:00")));
+    }
+
+    @Test
+    void testDstTransition_KeepsLocalHours() {
+        // Given - clocks go back on 2026-11-01 in New York
+        OperatingCalendar calendar = build(LocalTime.of(8, 0), LocalTime.of(20, 0), EVERY_DAY, List.of());
+
+        // Then
+        assertTrue(calendar.isOpen(at("2026-11-01T08:00")));
+        assertFalse(calendar.isOpen(at("2026-11-01T07:59")));
+        assertEquals(ZonedDateTime.of(2026, 11, 2, 8, 0, 0, 0, NEW_YORK).toInstant(),
+                calendar.nextOpen(at("2026-11-01T21:00")));
+    }
+
+    @Test
+    void testAroundTheClock_MergesIntoOneInterval() {
+        // When
+        OperatingCalendar calendar = build(LocalTime.MIDNIGHT, LocalTime.MIDNIGHT, EVERY_DAY, List.of());
+
+        // Then
+        assertEquals(1, calendar.size());
+        assertTrue(calendar.isOpen(at("2026-10-25T23:59")));
+    }
+
+    @Test
+    void testOperatingDays_Parse() {
+        assertEquals(EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY), OperatingDays.parse("MON-FRI"));
+        assertEquals(EnumSet.of(DayOfWeek.FRIDAY, DayOfWeek.SATURDAY, DayOfWeek.SUNDAY, DayOfWeek.MONDAY),
+                OperatingDays.parse("fri-mon"));
+        assertEquals(EnumSet.of(DayOfWeek.MONDAY, DayOfWeek.WEDNESDAY), OperatingDays.parse("MON, WED"));
+        assertThrows(IllegalArgumentException.class, () -> OperatingDays.parse("MON-FUNDAY"));
+    }
+
+    private static OperatingCalendar build(LocalTime start, LocalTime end, Set<DayOfWeek> days, List<LocalDate> holidays) {
+        return OperatingCalendar.build(start, end, NEW_YORK, days, holidays,
+                LocalDate.of(2026, 10, 18), LocalDate.of(2026, 11, 8));
+    }
+
+    private static long at(String localDateTime) {
+        return instant(localDateTime).toEpochMilli();
+    }
+
+    private static Instant instant(String localDateTime) {
+        return ZonedDateTime.of(java.time.LocalDateTime.parse(localDateTime), NEW_YORK).toInstant();
+    }
+}
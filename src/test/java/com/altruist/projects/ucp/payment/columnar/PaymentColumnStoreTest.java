@@ -0,0 +1,151 @@
+package com.altruist.projects.ucp.payment.columnar;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
+
+import com.altruist.projects.ucp.payment.dto.ColumnarAggregate;
+import com.altruist.projects.ucp.payment.model.Payment;
+import com.altruist.projects.ucp.payment.repository.PaymentRepository;
+
+class PaymentColumnStoreTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 10, 1, 0, 0);
+    private static final Currency INR = Currency.getInstance("INR");
+    private static final Currency USD = Currency.getInstance("USD");
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    private PaymentColumnStore store;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        store = new PaymentColumnStore(paymentRepository, 4, 3);
+    }
+
+    @Test
+    void testAggregate_GroupByCountry() {
+        // Given
+        for (int i = 1; i <= 10; i++) {
+            store.append(payment(i, i % 2 == 0 ? "IN" : "US", "UPI", "SUCCESS", i * 100_00L, START.plusHours(i)));
+        }
+
+        // When
+        List<ColumnarAggregate> result = store.aggregate(instant(START), instant(START.plusDays(1)), Dimension.COUNTRY, null);
+
+        // Then
+        assertEquals(2, result.size());
+        ColumnarAggregate india = result.stream().filter(a -> "IN".equals(a.getKey())).findFirst().orElseThrow();
+        assertEquals(5, india.getCount());
+        assertEquals(3_000_00L, india.getTotalAmount()); // 200 + 400 + 600 + 800 + 1000
+        assertEquals(30_00L, india.getTotalCharges());
+        assertEquals(600_00L, india.getP50Amount());
+        assertEquals(1_000_00L, india.getP99Amount());
+    }
+
+    @Test
+    void testAggregate_TimeRangeAndStatusFilter() {
+        // Given
+        store.append(payment(1, "IN", "UPI", "SUCCESS", 100_00L, START));
+        store.append(payment(2, "IN", "CARD", "FAILED", 200_00L, START.plusHours(1)));
+        store.append(payment(3, "IN", "CARD", "SUCCESS", 300_00L, START.plusHours(2)));
+        store.append(payment(4, "IN", "CARD", "SUCCESS", 400_00L, START.plusDays(2)));
+
+        // When
+        List<ColumnarAggregate> byMethod = store.aggregate(instant(START), instant(START.plusDays(1)), Dimension.METHOD, "SUCCESS");
+        List<ColumnarAggregate> unknownStatus = store.aggregate(instant(START), instant(START.plusDays(1)), Dimension.NONE, "PENDING");
+
+        // Then
+        assertEquals(2, byMethod.size());
+        assertTrue(byMethod.stream().allMatch(a -> a.getCount() == 1));
+        assertTrue(unknownStatus.isEmpty());
+    }
+
+    @Test
+    void testAggregate_KeepsCurrenciesApart() {
+        // Given
+        store.append(payment(1, "IN", "UPI", "SUCCESS", 100_00L, START));
+        store.append(payment(2, "IN", "UPI", "SUCCESS", 300_00L, START.plusHours(1)));
+        Payment dollars = payment(3, "IN", "UPI", "SUCCESS", 5_00L, START.plusHours(2));
+        dollars.setCurrency(USD);
+        store.append(dollars);
+
+        // When
+        List<ColumnarAggregate> result = store.aggregate(instant(START), instant(START.plusDays(1)), Dimension.COUNTRY, null);
+
+        // Then
+        assertEquals(2, result.size());
+        ColumnarAggregate rupees = result.stream().filter(a -> INR.equals(a.getCurrency())).findFirst().orElseThrow();
+        ColumnarAggregate usd = result.stream().filter(a -> USD.equals(a.getCurrency())).findFirst().orElseThrow();
+        assertEquals("IN", rupees.getKey());
+        assertEquals(2, rupees.getCount());
+        assertEquals(400_00L, rupees.getTotalAmount());
+        assertEquals(1, usd.getCount());
+        assertEquals(5_00L, usd.getTotalAmount());
+        assertEquals(5_00L, usd.getP99Amount());
+    }
+
+    @Test
+    void testAppend_DropsOldestChunkWhenFull() {
+        // Given - 3 chunks of 4 rows
+        for (int i = 1; i <= 14; i++) {
+            store.append(payment(i, "IN", "UPI", "SUCCESS", 100_00L, START.plusMinutes(i)));
+        }
+
+        // Then
+        assertEquals(10, store.size()); // First chunk of 4 dropped
+        assertEquals(3L * 4 * ColumnChunk.ROW_BYTES, store.getOffHeapBytes());
+    }
+
+    @Test
+    void testRebuild_LoadsCompletedPaymentsAndKeepsNewerAppends() {
+        // Given
+        List<Payment> stored = new ArrayList<>();
+        for (int i = 1; i <= 5; i++) {
+            stored.add(payment(i, "IN", "UPI", i == 5 ? null : "SUCCESS", 100_00L, START.plusMinutes(i)));
+        }
+        when(paymentRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Limit.class))).thenReturn(stored);
+        store.append(payment(5, "IN", "UPI", "SUCCESS", 100_00L, START.plusMinutes(5))); // Completed during rebuild
+        store.append(payment(6, "IN", "UPI", "SUCCESS", 100_00L, START.plusMinutes(6)));
+
+        // When
+        long rows = store.rebuild();
+
+        // Then
+        assertEquals(6, rows);
+        assertEquals(6, store.aggregate(instant(START), instant(START.plusDays(1)), Dimension.NONE, "SUCCESS").get(0).getCount());
+    }
+
+    private static Payment payment(long id, String country, String method, String status, long amount, LocalDateTime timestamp) {
+        return Payment.builder()
+                .id(id)
+                .destinationCountry(country)
+                .paymentMethod(method)
+                .status(status)
+                .amount(amount)
+                .currency(INR)
+                .charges(amount / 100)
+                .timestamp(timestamp)
+                .build();
+    }
+
+    private static Instant instant(LocalDateTime timestamp) {
+        return timestamp.atZone(ZoneId.systemDefault()).toInstant();
+    }
+}
@@ -0,0 +1,135 @@
+package com.altruist.projects.ucp.payment.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.http.ResponseEntity;
+
+import com.altruist.projects.ucp.payment.calendar.OperatingCalendarService;
+import com.altruist.projects.ucp.payment.model.CountryPaymentRule;
+import com.altruist.projects.ucp.payment.repository.CountryPaymentRuleRepository;
+import com.altruist.projects.ucp.payment.repository.PaymentHolidayRepository;
+import com.altruist.projects.ucp.payment.rules.CountryPaymentRuleImportService;
+import com.altruist.projects.ucp.payment.rules.CountryPaymentRuleRegistry;
+
+import tools.jackson.databind.json.JsonMapper;
+
+class CountryPaymentRuleControllerTest {
+
+    @Mock
+    private CountryPaymentRuleRepository ruleRepository;
+
+    @Mock
+    private CountryPaymentRuleImportService importService;
+
+    @Mock
+    private PaymentHolidayRepository holidayRepository;
+
+    @Mock
+    private OperatingCalendarService calendarService;
+
+    private final List<CountryPaymentRule> rules = new ArrayList<>();
+
+    private CountryPaymentRuleController controller;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        rules.add(rule(1L, "IN", null));
+        rules.add(rule(2L, "IN", "CARD"));
+        when(ruleRepository.findAll()).thenAnswer(invocation -> List.copyOf(rules));
+        when(ruleRepository.save(any(CountryPaymentRule.class))).thenAnswer(invocation -> {
+            CountryPaymentRule saved = invocation.getArgument(0);
+            rules.add(saved);
+            return saved;
+        });
+        controller = new CountryPaymentRuleController(ruleRepository, new CountryPaymentRuleRegistry(ruleRepository),
+                importService, holidayRepository, calendarService, JsonMapper.builder().build());
+    }
+
+    @Test
+    void testRulesAreServedFromTheActiveRuleSet() {
+        // When
+        ResponseEntity<byte[]> first = controller.getAllRules(null);
+        ResponseEntity<byte[]> second = controller.getAllRules(null);
+
+        // Then
+        assertEquals(200, first.getStatusCode().value());
+        String json = new String(first.getBody(), StandardCharsets.UTF_8);
+        assertTrue(json.contains("\"countryCode\":\"IN\""));
+        assertTrue(json.contains("\"paymentMethod\":\"CARD\""));
+        assertNotNull(first.getHeaders().getETag());
+        assertEquals(first.getHeaders().getETag(), second.getHeaders().getETag());
+        verify(ruleRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testMatchingEtagIsAnsweredWithNotModified() {
+        // Given
+        String etag = controller.getAllRules(null).getHeaders().getETag();
+
+        // When
+        ResponseEntity<byte[]> response = controller.getAllRules(etag);
+
+        // Then
+        assertEquals(304, response.getStatusCode().value());
+        assertNull(response.getBody());
+        assertEquals(etag, response.getHeaders().getETag());
+        verify(ruleRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testCreatingARuleChangesTheEtag() {
+        // Given
+        String etag = controller.getAllRules(null).getHeaders().getETag();
+
+        // When
+        controller.createRule(rule(3L, "US", null));
+        ResponseEntity<byte[]> response = controller.getAllRules(etag);
+
+        // Then
+        assertEquals(200, response.getStatusCode().value());
+        assertNotEquals(etag, response.getHeaders().getETag());
+        assertTrue(new String(response.getBody(), StandardCharsets.UTF_8).contains("\"countryCode\":\"US\""));
+    }
+
+    @Test
+    void testRuleByCountry() {
+        // When
+        ResponseEntity<byte[]> india = controller.getRuleByCountry("in", null);
+        ResponseEntity<byte[]> revalidated = controller.getRuleByCountry("IN", india.getHeaders().getETag());
+        ResponseEntity<byte[]> unknown = controller.getRuleByCountry("FR", null);
+
+        // Then
+        assertEquals(200, india.getStatusCode().value());
+        String json = new String(india.getBody(), StandardCharsets.UTF_8);
+        assertTrue(json.contains("\"id\":1"));
+        assertTrue(json.contains("\"paymentMethod\":null"));
+        assertEquals(304, revalidated.getStatusCode().value());
+        assertEquals(404, unknown.getStatusCode().value());
+    }
+
+    private static CountryPaymentRule rule(Long id, String countryCode, String paymentMethod) {
+        return CountryPaymentRule.builder()
+                .id(id)
+                .countryCode(countryCode)
+                .paymentMethod(paymentMethod)
+                .enabled(true)
+                .build();
+    }
+}
@@ -2,8 +2,12 @@ package com.altruist.projects.ucp.payment.controller;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
@@ -19,6 +23,8 @@ import com.altruist.projects.ucp.payment.dto.PaymentResponse;
 import com.altruist.projects.ucp.payment.model.Payment;
 import com.altruist.projects.ucp.payment.service.PaymentFacade;
 
+import tools.jackson.databind.json.JsonMapper;
+
 class PaymentControllerTest {
     
     @Mock
@@ -29,7 +35,7 @@ class PaymentControllerTest {
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        paymentController = new PaymentController(paymentFacade);
+        paymentController = new PaymentController(paymentFacade, JsonMapper.builder().build());
     }
     
     @Test
@@ -41,9 +47,9 @@ class PaymentControllerTest {
                 .toAccount("9876543210")
                 .fromAccount("1234567890")
                 .description("Test payment 1")
-                .amount(1000.0)
-                .charges(10.0)
-                .totalAmount(1010.0)
+                .amount(1_000_00L)
+                .charges(10_00L)
+                .totalAmount(1_010_00L)
                 .paymentMethod("UPI")
                 .status("SUCCESS")
                 .destinationCountry("IN")
@@ -56,9 +62,9 @@ class PaymentControllerTest {
                 .toAccount("4111111111111111")
                 .fromAccount("9876543210")
                 .description("Test payment 2")
-                .amount(2000.0)
-                .charges(60.0)
-                .totalAmount(2060.0)
+                .amount(2_000_00L)
+                .charges(60_00L)
+                .totalAmount(2_060_00L)
                 .paymentMethod("CARD")
                 .status("SUCCESS")
                 .destinationCountry("US")
@@ -69,7 +75,7 @@ class PaymentControllerTest {
         when(paymentFacade.getPaymentHistory()).thenReturn(payments);
         
         // When
-        ResponseEntity<List<Payment>> response = paymentController.getPaymentHistory();
+        ResponseEntity<List<Payment>> response = paymentController.getPaymentHistory(null, null);
         
         // Then
         assertNotNull(response);
@@ -78,8 +84,8 @@ class PaymentControllerTest {
         assertEquals(2, response.getBody().size());
         assertEquals("John Doe", response.getBody().get(0).getName());
         assertEquals("Jane Doe", response.getBody().get(1).getName());
-        assertEquals(1000.0, response.getBody().get(0).getAmount());
-        assertEquals(2000.0, response.getBody().get(1).getAmount());
+        assertEquals(1_000_00L, response.getBody().get(0).getAmount());
+        assertEquals(2_000_00L, response.getBody().get(1).getAmount());
     }
     
     @Test
@@ -88,7 +94,7 @@ class PaymentControllerTest {
         when(paymentFacade.getPaymentHistory()).thenReturn(List.of());
         
         // When
-        ResponseEntity<List<Payment>> response = paymentController.getPaymentHistory();
+        ResponseEntity<List<Payment>> response = paymentController.getPaymentHistory(null, null);
         
         // Then
         assertNotNull(response);
@@ -97,6 +103,22 @@ class PaymentControllerTest {
         assertEquals(0, response.getBody().size());
     }
     
+    @Test
+    void testGetPaymentHistoryForTimeRange() {
+        // Given
+        LocalDateTime from = LocalDateTime.of(2026, 6, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2026, 7, 1, 0, 0);
+        Payment archived = Payment.builder().id(1L).name("John Doe").timestamp(from.plusDays(2)).build();
+        when(paymentFacade.getPaymentHistory(from, to)).thenReturn(List.of(archived));
+        
+        // When
+        ResponseEntity<List<Payment>> response = paymentController.getPaymentHistory(from, to);
+        
+        // Then
+        assertEquals(200, response.getStatusCode().value());
+        assertEquals(List.of(archived), response.getBody());
+    }
+    
     @Test
     void testGetAvailableGateways() {
         // Given
@@ -104,13 +126,30 @@ class PaymentControllerTest {
         when(paymentFacade.getAvailableGateways()).thenReturn(gateways);
         
         // When
-        ResponseEntity<List<String>> response = paymentController.getAvailableGateways();
+        ResponseEntity<byte[]> response = paymentController.getAvailableGateways(null);
         
         // Then
         assertNotNull(response);
         assertEquals(200, response.getStatusCode().value());
         assertNotNull(response.getBody());
-        assertEquals(3, response.getBody().size());
+        assertEquals("[\"UPI\",\"CARD\",\"APPLE_PAY\"]", new String(response.getBody(), StandardCharsets.UTF_8));
+        assertNotNull(response.getHeaders().getETag());
+    }
+    
+    @Test
+    void testGetAvailableGatewaysNotModified() {
+        // Given
+        when(paymentFacade.getAvailableGateways()).thenReturn(List.of("CARD", "UPI"));
+        String etag = paymentController.getAvailableGateways(null).getHeaders().getETag();
+        
+        // When
+        ResponseEntity<byte[]> response = paymentController.getAvailableGateways("\"other\", W/" + etag);
+        
+        // Then
+        assertEquals(304, response.getStatusCode().value());
+        assertNull(response.getBody());
+        assertEquals(etag, response.getHeaders().getETag());
+        verify(paymentFacade, times(1)).getAvailableGateways();
     }
     
     @Test
@@ -122,7 +161,7 @@ class PaymentControllerTest {
                 .fromAccount("1234567890")
                 .description("Test payment")
                 .paymentMethod("UPI")
-                .amount(1000.0)
+                .amount(1_000_00L)
                 .destinationCountry("IN")
                 .build();
         
@@ -130,8 +169,8 @@ class PaymentControllerTest {
                 .paymentId(1L)
                 .status("SUCCESS")
                 .message("Payment processed successfully")
-                .totalAmount(1010.0)
-                .charges(10.0)
+                .totalAmount(1_010_00L)
+                .charges(10_00L)
                 .gatewayUsed("UPI")
                 .build();
         
@@ -145,7 +184,7 @@ class PaymentControllerTest {
         assertEquals(200, response.getStatusCode().value());
         assertNotNull(response.getBody());
         assertEquals("SUCCESS", response.getBody().getStatus());
-        assertEquals(1010.0, response.getBody().getTotalAmount());
+        assertEquals(1_010_00L, response.getBody().getTotalAmount());
     }
     
 }
@@ -0,0 +1,77 @@
+package com.altruist.projects.ucp.payment.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class ReadWriteRoutingDataSourceTest {
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate readWrite;
+
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        // Two separate H2 databases, each knowing its own role
+        DataSource primary = database("primary");
+        DataSource replica = database("replica");
+        DataSource routing = ReadWriteRoutingDataSource.lazy(primary, replica);
+
+        jdbcTemplate = new JdbcTemplate(routing);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @Test
+    void testReadOnlyTransactionUsesReadPool() {
+        assertEquals("replica", readOnly.execute(status -> role()));
+    }
+
+    @Test
+    void testReadWriteTransactionUsesWritePool() {
+        assertEquals("primary", readWrite.execute(status -> role()));
+    }
+
+    @Test
+    void testWorkOutsideTransactionUsesWritePool() {
+        assertEquals("primary", role());
+    }
+
+    @Test
+    void testReadOnlyCallInsideReadWriteTransactionStaysOnWritePool() {
+        // Given
+        TransactionTemplate nested = new TransactionTemplate(readOnly.getTransactionManager());
+        nested.setReadOnly(true);
+
+        // When
+        String role = readWrite.execute(status -> nested.execute(inner -> role()));
+
+        // Then - the inner call joins the outer transaction and its connection
+        assertEquals("primary", role);
+    }
+
+    private String role() {
+        return jdbcTemplate.queryForObject("SELECT role FROM database_role", String.class);
+    }
+
+    private static DataSource database(String role) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:routing-" + role + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE IF NOT EXISTS database_role (role VARCHAR(16))");
+        jdbc.execute("DELETE FROM database_role");
+        jdbc.update("INSERT INTO database_role VALUES (?)", role);
+        return dataSource;
+    }
+}
@@ -0,0 +1,113 @@
+package com.altruist.projects.ucp.payment.diagnostics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.aop.framework.ProxyFactory;
+
+import com.altruist.projects.ucp.payment.dto.FlightRecording;
+import com.altruist.projects.ucp.payment.dto.PaymentRequest;
+import com.altruist.projects.ucp.payment.dto.PaymentResponse;
+import com.altruist.projects.ucp.payment.pipeline.PaymentContext;
+import com.altruist.projects.ucp.payment.pipeline.PaymentPipeline;
+import com.altruist.projects.ucp.payment.pipeline.PaymentStage;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+class FlightRecorderServiceTest {
+
+    @TempDir
+    private Path directory;
+
+    private FlightRecorderService flightRecorder;
+
+    @BeforeEach
+    void setUp() {
+        flightRecorder = new FlightRecorderService(Clock.systemUTC(), directory.toString(), 60, 16);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (flightRecorder.status().map(recording -> "RUNNING".equals(recording.getState())).orElse(false)) {
+            flightRecorder.stop();
+        }
+    }
+
+    @Test
+    void testRecordingContainsPaymentAndRepositoryEvents() throws Exception {
+        // Given
+        flightRecorder.start(Duration.ofSeconds(30), "default");
+        PaymentPipeline pipeline = new PaymentPipeline(List.of(new PaymentStage() {
+            @Override
+            public Phase getPhase() {
+                return Phase.VALIDATE;
+            }
+
+            @Override
+            public PaymentResponse process(PaymentContext context) {
+                return PaymentResponse.builder().status("FAILED").build();
+            }
+        }), List.of(), Runnable::run);
+        ProxyFactory proxyFactory = new ProxyFactory((Supplier<String>) () -> "saved");
+        proxyFactory.addInterface(Supplier.class);
+        proxyFactory.addAdvice(RepositoryEventPostProcessor.interceptor("PaymentRepository"));
+        @SuppressWarnings("unchecked")
+        Supplier<String> repository = (Supplier<String>) proxyFactory.getProxy();
+
+        // When
+        pipeline.execute(PaymentRequest.builder().destinationCountry("IN").paymentMethod("UPI").build(), false).join();
+        repository.get();
+        FlightRecording stopped = flightRecorder.stop();
+
+        // Then
+        assertEquals("CLOSED", stopped.getState()); // Closed once written to its destination
+        assertTrue(stopped.getBytes() > 0);
+        Path file = flightRecorder.finishedFile().orElseThrow();
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        RecordedEvent stage = events.stream()
+                .filter(event -> event.getEventType().getName().equals("ucp.PaymentStage"))
+                .findFirst().orElseThrow();
+        assertEquals("VALIDATE", stage.getString("phase"));
+        assertEquals("IN", stage.getString("country"));
+        assertTrue(stage.getBoolean("endedPayment"));
+        // Recording is JVM wide: application contexts of other test classes may add their own calls
+        RecordedEvent call = events.stream()
+                .filter(event -> event.getEventType().getName().equals("ucp.RepositoryCall"))
+                .filter(event -> "PaymentRepository".equals(event.getString("repository")))
+                .findFirst().orElseThrow();
+        assertEquals("get", call.getString("method"));
+        assertTrue(events.stream().anyMatch(event -> event.getEventType().getName().startsWith("jdk.")));
+    }
+
+    @Test
+    void testOnlyOneBoundedRecordingAtATime() throws Exception {
+        // When
+        FlightRecording started = flightRecorder.start(Duration.ofHours(2), "default");
+
+        // Then
+        assertEquals("RUNNING", started.getState());
+        assertEquals(Duration.ofSeconds(60), started.getDuration());
+        assertEquals(16L * 1024 * 1024, started.getMaxBytes());
+        assertTrue(flightRecorder.finishedFile().isEmpty());
+        assertThrows(IllegalStateException.class, () -> flightRecorder.start(Duration.ofSeconds(10), "default"));
+        flightRecorder.stop();
+        assertThrows(IllegalStateException.class, () -> flightRecorder.stop());
+    }
+
+    @Test
+    void testUnknownSettingsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> flightRecorder.start(Duration.ofSeconds(10), "verbose"));
+    }
+}
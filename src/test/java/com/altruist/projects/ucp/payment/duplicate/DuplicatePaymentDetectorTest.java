@@ -0,0 +1,192 @@
+package com.altruist.projects.ucp.payment.duplicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.altruist.projects.ucp.payment.duplicate.DuplicatePaymentDetector.Verdict;
+import com.altruist.projects.ucp.payment.dto.PaymentRequest;
+
+class DuplicatePaymentDetectorTest {
+
+    private MutableClock clock;
+
+    private DuplicatePaymentDetector detector;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2026-10-19T10:00:00Z"));
+        detector = new DuplicatePaymentDetector(clock, "REJECT", 30, 4, 1 << 16, 4, 4096);
+    }
+
+    @Test
+    void testSamePaymentWithinWindowIsDuplicate() {
+        // When
+        Verdict first = detector.check(request("1234567890", "9876543210", 1_000_00L));
+        clock.advanceSeconds(20);
+        Verdict second = detector.check(request("1234567890", "9876543210", 1_000_00L));
+
+        // Then
+        assertEquals(Verdict.UNIQUE, first);
+        assertEquals(Verdict.DUPLICATE, second);
+        assertEquals(1L, detector.snapshot().get("confirmedDuplicates"));
+    }
+
+    @Test
+    void testDifferentAmountOrAccountIsUnique() {
+        // Given
+        detector.check(request("1234567890", "9876543210", 1_000_00L));
+
+        // Then
+        assertEquals(Verdict.UNIQUE, detector.check(request("1234567890", "9876543210", 1_000_01L)));
+        assertEquals(Verdict.UNIQUE, detector.check(request("1234567890", "9876543211", 1_000_00L)));
+        assertEquals(Verdict.UNIQUE, detector.check(request("9876543210", "1234567890", 1_000_00L)));
+    }
+
+    @Test
+    void testSamePaymentAfterWindowIsUnique() {
+        // Given
+        detector.check(request("1234567890", "9876543210", 1_000_00L));
+
+        // When
+        clock.advanceSeconds(31);
+
+        // Then
+        assertEquals(Verdict.UNIQUE, detector.check(request("1234567890", "9876543210", 1_000_00L)));
+    }
+
+    @Test
+    void testReleasedPaymentCanBeResubmitted() {
+        // Given
+        PaymentRequest request = request("1234567890", "9876543210", 1_000_00L);
+        detector.check(request);
+
+        // When
+        detector.release(request);
+
+        // Then
+        assertEquals(Verdict.UNIQUE, detector.check(request));
+        assertEquals(Verdict.DUPLICATE, detector.check(request));
+    }
+
+    @Test
+    void testReleaseAndEvictionAreNotCountedAsFalsePositives() {
+        // Given
+        PaymentRequest request = request("1234567890", "9876543210", 1_000_00L);
+        detector.check(request);
+        detector.release(request);
+
+        // When
+        detector.check(request);
+        clock.advanceSeconds(31);
+        detector.check(request); // Still in the Bloom filter's last generation
+
+        // Then
+        Map<String, Object> stats = detector.snapshot();
+        assertEquals(2L, stats.get("bloomHits"));
+        assertEquals(1L, stats.get("resubmissions"));
+        assertEquals(1L, stats.get("expiredHits"));
+        assertEquals(0L, stats.get("falsePositives"));
+    }
+
+    @Test
+    void testConcurrentIdenticalSubmissionsAdmitOnlyOne() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            for (int round = 0; round < 200; round++) {
+                // Given
+                PaymentRequest request = request("ACC" + round, "9876543210", 1_000_00L);
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<Verdict>> verdicts = new ArrayList<>();
+                for (int thread = 0; thread < 4; thread++) {
+                    verdicts.add(pool.submit(() -> {
+                        start.await();
+                        return detector.check(request);
+                    }));
+                }
+
+                // When
+                start.countDown();
+
+                // Then
+                int admitted = 0;
+                for (Future<Verdict> verdict : verdicts) {
+                    admitted += verdict.get() == Verdict.UNIQUE ? 1 : 0;
+                }
+                assertEquals(1, admitted, "round " + round);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void testFalsePositiveRateStaysLowUnderLoad() {
+        // Given - 5,000 distinct payments in one window against 65,536 bits per generation,
+        // expected false-positive rate (1 - e^(-4 * 5000 / 65536))^4 ~ 0.5%
+        for (int i = 0; i < 5_000; i++) {
+            detector.check(request("ACC" + i, "9876543210", 10_00L + i));
+        }
+
+        // Then
+        Map<String, Object> stats = detector.snapshot();
+        assertEquals(0L, stats.get("confirmedDuplicates"));
+        assertTrue((double) stats.get("observedFalsePositiveRate") < 0.01, "observed " + stats);
+        assertTrue((double) stats.get("estimatedFalsePositiveRate") < 0.01, "estimated " + stats);
+    }
+
+    private static PaymentRequest request(String fromAccount, String toAccount, long amount) {
+        return PaymentRequest.builder()
+                .fromAccount(fromAccount)
+                .toAccount(toAccount)
+                .paymentMethod("UPI")
+                .amount(amount)
+                .currency(Currency.getInstance("INR"))
+                .build();
+    }
+
+    /**
+     * Clock that tests can move forward
+     */
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advanceSeconds(long seconds) {
+            now = now.plusSeconds(seconds);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.altruist.projects.ucp.payment.events;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.altruist.projects.ucp.payment.dto.PaymentEvent;
+import com.altruist.projects.ucp.payment.model.Payment;
+
+class PaymentEventBusTest {
+
+    private final List<PaymentEventBus.Subscription> subscriptions = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        subscriptions.forEach(PaymentEventBus.Subscription::close);
+    }
+
+    @Test
+    void testEverySubscriptionGetsEveryEventInOrder() throws InterruptedException {
+        // Given
+        PaymentEventBus bus = new PaymentEventBus(Clock.systemUTC(), 1 << 10);
+        List<PaymentEvent> first = Collections.synchronizedList(new ArrayList<>());
+        List<PaymentEvent> second = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(2);
+        subscribe(bus, "first", 0, events -> collect(first, events, 100, done));
+        subscribe(bus, "second", 0, events -> collect(second, events, 100, done));
+
+        // When
+        for (long id = 1; id <= 100; id++) {
+            bus.publish(payment(id));
+        }
+
+        // Then
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, first.get(i).getSequence());
+            assertEquals(i + 1L, first.get(i).getPaymentId());
+            assertEquals(first.get(i), second.get(i));
+        }
+        assertEquals("SUCCESS", first.get(0).getStatus());
+        assertEquals(1_000_00L, first.get(0).getAmount());
+    }
+
+    @Test
+    void testConcurrentPublishersLoseNothingWithinCapacity() throws InterruptedException {
+        // Given
+        PaymentEventBus bus = new PaymentEventBus(Clock.systemUTC(), 1 << 16);
+        List<PaymentEvent> received = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(1);
+        subscribe(bus, "all", 0, events -> collect(received, events, 40_000, done));
+
+        // When
+        List<Thread> publishers = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            long base = t * 10_000L;
+            Thread publisher = new Thread(() -> {
+                for (long id = 1; id <= 10_000; id++) {
+                    bus.publish(payment(base + id));
+                }
+            });
+            publishers.add(publisher);
+            publisher.start();
+        }
+        for (Thread publisher : publishers) {
+            publisher.join();
+        }
+
+        // Then
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(40_000, received.stream().mapToLong(PaymentEvent::getPaymentId).distinct().count());
+        for (int i = 0; i < received.size(); i++) {
+            assertEquals(i, received.get(i).getSequence());
+        }
+    }
+
+    @Test
+    void testSlowSubscriptionIsLappedWithoutBlockingPublishers() throws InterruptedException {
+        // Given - a subscription stuck in its handler
+        PaymentEventBus bus = new PaymentEventBus(Clock.systemUTC(), 64);
+        CountDownLatch stuck = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<PaymentEvent> received = Collections.synchronizedList(new ArrayList<>());
+        PaymentEventBus.Subscription slow = subscribe(bus, "slow", 0, events -> {
+            stuck.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            received.addAll(events);
+        });
+        bus.publish(payment(0));
+        assertTrue(stuck.await(5, TimeUnit.SECONDS));
+
+        // When - ten laps are published while it is stuck
+        for (long id = 1; id <= 640; id++) {
+            bus.publish(payment(id));
+        }
+        release.countDown();
+
+        // Then - it resumes with the newest lap and counts the rest as lost
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (received.size() + slow.getLost() < 641 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(641, received.size() + slow.getLost());
+        assertEquals(640, received.get(received.size() - 1).getPaymentId());
+        assertTrue(slow.getLost() >= 640 - 64);
+    }
+
+    @Test
+    void testIdleSubscriptionSleepsUntilAnEventIsPublished() throws InterruptedException {
+        // Given - a subscription with nothing to read
+        PaymentEventBus bus = new PaymentEventBus(Clock.systemUTC(), 64);
+        List<PaymentEvent> received = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(1);
+        subscribe(bus, "idle", 0, events -> collect(received, events, 1, done));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!isSleeping(bus, "idle") && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertTrue(isSleeping(bus, "idle"));
+
+        // When
+        bus.publish(payment(1));
+
+        // Then - woken by the publish rather than by a timer
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(1L, received.get(0).getPaymentId());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static boolean isSleeping(PaymentEventBus bus, String name) {
+        Map<String, Object> subscriptions = (Map<String, Object>) bus.snapshot().get("subscriptions");
+        return Boolean.TRUE.equals(((Map<String, Object>) subscriptions.get(name)).get("sleeping"));
+    }
+
+    private PaymentEventBus.Subscription subscribe(PaymentEventBus bus, String name, long from,
+                                                   Consumer<List<PaymentEvent>> handler) {
+        PaymentEventBus.Subscription subscription = bus.subscribe(name, from, 32, handler);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    private static void collect(List<PaymentEvent> into, List<PaymentEvent> events, int expected, CountDownLatch done) {
+        into.addAll(events);
+        if (into.size() == expected) {
+            done.countDown();
+        }
+    }
+
+    private static Payment payment(long id) {
+        return Payment.builder()
+                .id(id)
+                .status("SUCCESS")
+                .amount(1_000_00L)
+                .totalAmount(1_010_00L)
+                .paymentMethod("UPI")
+                .destinationCountry("IN")
+                .build();
+    }
+}
@@ -0,0 +1,115 @@
+package com.altruist.projects.ucp.payment.events;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.altruist.projects.ucp.payment.model.Payment;
+import com.sun.net.httpserver.HttpServer;
+
+import tools.jackson.databind.json.JsonMapper;
+
+class WebhookDispatcherTest {
+
+    private HttpServer server;
+    private final List<String> bodies = new CopyOnWriteArrayList<>();
+    private final List<String> idempotencyKeys = new CopyOnWriteArrayList<>();
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+
+    private PaymentEventBus eventBus;
+    private WebhookDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/hook", exchange -> {
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            idempotencyKeys.add(exchange.getRequestHeaders().getFirst("Idempotency-Key"));
+            int status = failuresLeft.getAndDecrement() > 0 ? 500 : 204;
+            if (status == 204) {
+                bodies.add(body);
+            }
+            exchange.sendResponseHeaders(status, -1);
+            exchange.close();
+        });
+        server.start();
+        eventBus = new PaymentEventBus(Clock.systemUTC(), 1 << 10);
+        String url = "http://127.0.0.1:" + server.getAddress().getPort() + "/hook";
+        dispatcher = new WebhookDispatcher(eventBus, JsonMapper.builder().build(), url, 10, 100, 3, 10, 100, 200, 2_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.stop();
+        server.stop(0);
+    }
+
+    @Test
+    void testEventsAreDeliveredInBatches() throws InterruptedException {
+        // Given
+        dispatcher.start();
+
+        // When
+        for (long id = 1; id <= 25; id++) {
+            eventBus.publish(payment(id));
+        }
+
+        // Then
+        awaitDelivered(25);
+        assertTrue(bodies.size() >= 3, "batches of at most 10: " + bodies.size());
+        assertTrue(bodies.get(0).startsWith("[{\"sequence\":0,\"paymentId\":\"1\",\"status\":\"SUCCESS\",\"amount\":100.00"));
+        assertEquals("payment-events-0-" + (bodies.get(0).split("\"sequence\"").length - 2), idempotencyKeys.get(0));
+    }
+
+    @Test
+    void testFailedDeliveryIsRetriedWithTheSameIdempotencyKey() throws InterruptedException {
+        // Given
+        failuresLeft.set(2);
+        dispatcher.start();
+
+        // When
+        eventBus.publish(payment(1));
+
+        // Then
+        awaitDelivered(1);
+        assertEquals(List.of("payment-events-0-0", "payment-events-0-0", "payment-events-0-0"), idempotencyKeys);
+        Map<?, ?> stats = (Map<?, ?>) dispatcher.snapshot().values().iterator().next();
+        assertEquals(2L, stats.get("retries"));
+        assertEquals(0L, stats.get("failed"));
+    }
+
+    private void awaitDelivered(long events) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            Map<?, ?> stats = (Map<?, ?>) dispatcher.snapshot().values().iterator().next();
+            if (((Long) stats.get("delivered")) >= events) {
+                return;
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("Events not delivered: " + dispatcher.snapshot());
+    }
+
+    private static Payment payment(long id) {
+        return Payment.builder()
+                .id(id)
+                .status("SUCCESS")
+                .amount(100_00L)
+                .totalAmount(101_00L)
+                .paymentMethod("CARD")
+                .build();
+    }
+}
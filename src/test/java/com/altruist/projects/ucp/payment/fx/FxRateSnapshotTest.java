@@ -0,0 +1,85 @@
+package com.altruist.projects.ucp.payment.fx;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Currency;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.altruist.projects.ucp.payment.model.FxRate;
+import com.altruist.projects.ucp.payment.repository.FxRateRepository;
+
+class FxRateSnapshotTest {
+
+    private static final Currency USD = Currency.getInstance("USD");
+    private static final Currency INR = Currency.getInstance("INR");
+    private static final Currency GBP = Currency.getInstance("GBP");
+
+    @Test
+    void testConvert_ThroughBaseCurrency() {
+        // Given
+        FxRateSnapshot snapshot = FxRateSnapshot.of(1, Instant.EPOCH, USD, List.of(rate(INR, "83.25"), rate(GBP, "0.80")));
+
+        // When / Then
+        assertEquals(8_325_00L, snapshot.convert(100_00L, USD, INR));
+        assertEquals(100_00L, snapshot.convert(8_325_00L, INR, USD));
+        assertEquals(10_406_25L, snapshot.convert(100_00L, GBP, INR)); // 83.25 / 0.80 = 104.0625
+        assertEquals(1L, snapshot.convert(1L, USD, GBP)); // 0.008 rounds half up to 0.01
+        assertEquals(42L, snapshot.convert(42L, INR, INR));
+    }
+
+    @Test
+    void testConvert_MissingRate_Rejected() {
+        // Given
+        FxRateSnapshot snapshot = FxRateSnapshot.of(1, Instant.EPOCH, USD, List.of(rate(INR, "83.25")));
+        Currency jpy = Currency.getInstance("JPY");
+
+        // When / Then
+        assertTrue(snapshot.supports(USD));
+        assertFalse(snapshot.supports(jpy));
+        assertFalse(snapshot.supports(Currency.getInstance("XFU"))); // No ISO numeric code
+        assertThrows(IllegalArgumentException.class, () -> snapshot.convert(100L, jpy, INR));
+        assertEquals(List.of("INR", "USD"), List.copyOf(snapshot.getRates().keySet()));
+    }
+
+    @Test
+    void testSnapshot_NonPositiveRate_Rejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> FxRateSnapshot.of(1, Instant.EPOCH, USD, List.of(rate(INR, "0"))));
+    }
+
+    @Test
+    void testService_RefreshSwapsWholeSnapshot() {
+        // Given
+        FxRateRepository repository = mock(FxRateRepository.class);
+        when(repository.findAll()).thenReturn(List.of(rate(INR, "83.25")), List.of(rate(INR, "84.00")));
+        FxRateService service = new FxRateService(repository, Clock.systemUTC(), mock(PlatformTransactionManager.class), "USD");
+
+        // When
+        FxRateSnapshot first = service.current();
+        FxRateSnapshot second = service.refresh();
+
+        // Then
+        assertNotSame(first, second);
+        assertSame(second, service.current());
+        assertEquals(8_325_00L, first.convert(100_00L, USD, INR)); // Readers of the old snapshot are unaffected
+        assertEquals(8_400_00L, second.convert(100_00L, USD, INR));
+        assertEquals(2, second.getVersion());
+    }
+
+    private static FxRate rate(Currency currency, String rate) {
+        return FxRate.builder().currency(currency).rate(new BigDecimal(rate)).build();
+    }
+}
@@ -0,0 +1,75 @@
+package com.altruist.projects.ucp.payment.gateway.simulation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.Test;
+
+import com.altruist.projects.ucp.payment.dto.PaymentRequest;
+import com.altruist.projects.ucp.payment.dto.PaymentResponse;
+import com.altruist.projects.ucp.payment.gateway.UpiPaymentGateway;
+
+class SimulatedLatencyGatewayTest {
+    
+    private final PaymentRequest request = PaymentRequest.builder()
+            .toAccount("9876543210")
+            .paymentMethod("UPI")
+            .amount(1_000_00L)
+            .build();
+    
+    @Test
+    void testDelegatesWhenNoFailuresConfigured() {
+        SimulatedLatencyGateway gateway = new SimulatedLatencyGateway(new UpiPaymentGateway(), 0, 0, 0.0, 0.0, 0);
+        
+        PaymentResponse response = gateway.processPayment(request);
+        
+        assertEquals("SUCCESS", response.getStatus());
+        assertEquals("UPI", gateway.getGatewayType());
+    }
+    
+    @Test
+    void testDeclinesAtConfiguredErrorRate() {
+        SimulatedLatencyGateway gateway = new SimulatedLatencyGateway(new UpiPaymentGateway(), 0, 0, 1.0, 0.0, 0);
+        
+        PaymentResponse response = gateway.processPayment(request);
+        
+        assertEquals("FAILED", response.getStatus());
+        assertEquals("UPI", response.getGatewayUsed());
+    }
+    
+    @Test
+    void testTimesOutAtConfiguredTimeoutRate() {
+        SimulatedLatencyGateway gateway = new SimulatedLatencyGateway(new UpiPaymentGateway(), 0, 0, 0.0, 1.0, 1);
+        
+        PaymentResponse response = gateway.processPayment(request);
+        
+        assertEquals("FAILED", response.getStatus());
+        assertTrue(response.getMessage().contains("timeout"));
+    }
+    
+    @Test
+    void testLatencyDistributionMatchesMedianAndP99() {
+        SimulatedLatencyGateway gateway = new SimulatedLatencyGateway(new UpiPaymentGateway(), 50, 400, 0.0, 0.0, 0);
+        
+        long[] samples = new long[20_000];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = gateway.sampleLatencyMillis(ThreadLocalRandom.current());
+        }
+        Arrays.sort(samples);
+        
+        long median = samples[samples.length / 2];
+        long p99 = samples[(int) (samples.length * 0.99)];
+        assertTrue(median >= 45 && median <= 55, "median was " + median);
+        assertTrue(p99 >= 320 && p99 <= 500, "p99 was " + p99);
+    }
+    
+    @Test
+    void testRejectsP99BelowMedian() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new SimulatedLatencyGateway(new UpiPaymentGateway(), 100, 50, 0.0, 0.0, 0));
+    }
+}
@@ -0,0 +1,90 @@
+package com.altruist.projects.ucp.payment.health;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+
+import com.altruist.projects.ucp.payment.dto.HealthStatusResponse;
+import com.zaxxer.hikari.HikariDataSource;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentLoadMonitorTest {
+    
+    @Mock
+    private ObjectProvider<HikariDataSource> dataSources;
+    
+    private PaymentLoadMonitor monitor;
+    
+    @BeforeEach
+    void setUp() {
+        monitor = new PaymentLoadMonitor(dataSources, 2, 0.9, 3, 60);
+        monitor.registerGateways(List.of("UPI", "CARD"));
+    }
+    
+    @Test
+    void testTryStartPayment_ShedsAboveLimit() {
+        assertTrue(monitor.tryStartPayment());
+        assertTrue(monitor.tryStartPayment());
+        assertFalse(monitor.tryStartPayment());
+        
+        monitor.paymentFinished();
+        
+        assertTrue(monitor.tryStartPayment());
+    }
+    
+    @Test
+    void testReadiness_UpWhenIdle() {
+        HealthStatusResponse health = monitor.readiness();
+        
+        assertEquals(PaymentLoadMonitor.UP, health.getStatus());
+        assertTrue(health.getReasons().isEmpty());
+    }
+    
+    @Test
+    void testReadiness_DownWhenInFlightLimitReached() {
+        monitor.tryStartPayment();
+        monitor.tryStartPayment();
+        
+        HealthStatusResponse health = monitor.readiness();
+        
+        assertEquals(PaymentLoadMonitor.DOWN, health.getStatus());
+        assertEquals(1, health.getReasons().size());
+    }
+    
+    @Test
+    void testReadiness_DownOnlyWhenAllGatewaysUnhealthy() {
+        for (int i = 0; i < 3; i++) {
+            monitor.recordGatewayOutcome("CARD", false);
+        }
+        
+        HealthStatusResponse degraded = monitor.readiness();
+        assertEquals(PaymentLoadMonitor.UP, degraded.getStatus());
+        assertEquals(Map.of("UPI", "UP", "CARD", "DOWN"), degraded.getDetails().get("gateways"));
+        
+        for (int i = 0; i < 3; i++) {
+            monitor.recordGatewayOutcome("UPI", false);
+        }
+        assertEquals(PaymentLoadMonitor.DOWN, monitor.readiness().getStatus());
+        
+        monitor.recordGatewayOutcome("UPI", true);
+        assertTrue(monitor.isGatewayHealthy("UPI"));
+        assertEquals(PaymentLoadMonitor.UP, monitor.readiness().getStatus());
+    }
+    
+    @Test
+    void testLiveness_UpWithoutStall() {
+        monitor.tryStartPayment();
+        
+        assertEquals(PaymentLoadMonitor.UP, monitor.liveness().getStatus());
+    }
+}
@@ -0,0 +1,77 @@
+package com.altruist.projects.ucp.payment.ids;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+
+import org.junit.jupiter.api.Test;
+
+import com.altruist.projects.ucp.payment.dto.PaymentEvent;
+import com.altruist.projects.ucp.payment.dto.PaymentResponse;
+import com.altruist.projects.ucp.payment.model.Payment;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+class PaymentIdJsonTest {
+
+    private static final long NOW = Instant.parse("2026-10-19T10:00:00Z").toEpochMilli();
+
+    private final JsonMapper mapper = JsonMapper.builder().build();
+
+    // Second id of the millisecond: a non-zero sequence leaves no trailing zero bits for a double to drop
+    private final long id = secondId(new SnowflakeIdGenerator(1023, () -> NOW));
+
+    @Test
+    void testGeneratedIdIsBeyondDoublePrecision() {
+        assertTrue(id > 1L << 53);
+        assertTrue((long) (double) id != id);
+    }
+
+    @Test
+    void testResponseIdRoundTripsAsString() {
+        // Given
+        PaymentResponse response = PaymentResponse.builder().paymentId(id).status("SUCCESS").build();
+
+        // When
+        String json = mapper.writeValueAsString(response);
+        PaymentResponse read = mapper.readValue(json, PaymentResponse.class);
+
+        // Then
+        JsonNode node = mapper.readTree(json).get("paymentId");
+        assertTrue(node.isString());
+        assertEquals(Long.toString(id), node.asString());
+        assertEquals(id, read.getPaymentId());
+    }
+
+    @Test
+    void testPaymentAndEventIdsAreWrittenAsStrings() {
+        // Given
+        Payment payment = Payment.builder().id(id).build();
+        PaymentEvent event = PaymentEvent.builder().paymentId(id).build();
+
+        // When
+        JsonNode paymentJson = mapper.readTree(mapper.writeValueAsString(payment));
+        JsonNode eventJson = mapper.readTree(mapper.writeValueAsString(event));
+
+        // Then
+        assertEquals(Long.toString(id), paymentJson.get("id").asString());
+        assertEquals(Long.toString(id), eventJson.get("paymentId").asString());
+        assertEquals(id, mapper.readValue(paymentJson.toString(), Payment.class).getId());
+    }
+
+    @Test
+    void testNumericIdIsStillAccepted() {
+        // When
+        PaymentResponse read = mapper.readValue("{\"paymentId\":" + id + "}", PaymentResponse.class);
+
+        // Then
+        assertEquals(id, read.getPaymentId());
+    }
+
+    private static long secondId(SnowflakeIdGenerator generator) {
+        generator.nextId();
+        return generator.nextId();
+    }
+}
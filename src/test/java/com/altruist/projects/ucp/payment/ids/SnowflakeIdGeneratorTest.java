@@ -0,0 +1,85 @@
+package com.altruist.projects.ucp.payment.ids;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class SnowflakeIdGeneratorTest {
+
+    private static final long NOW = Instant.parse("2026-10-19T10:00:00Z").toEpochMilli();
+
+    @Test
+    void testIdCarriesTimestampAndNode() {
+        // Given
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(7, () -> NOW);
+
+        // When
+        long id = generator.nextId();
+
+        // Then
+        assertEquals(Instant.ofEpochMilli(NOW), SnowflakeIdGenerator.timestampOf(id));
+        assertEquals(7, SnowflakeIdGenerator.nodeOf(id));
+        assertTrue(id > 0);
+    }
+
+    @Test
+    void testIdsKeepIncreasingWhenSequenceRunsOutOrClockStepsBack() {
+        // Given - a clock stuck on one millisecond, then stepping back a second
+        AtomicLong clock = new AtomicLong(NOW);
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1, clock::get);
+
+        // When
+        long previous = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (i == 5_000) {
+                clock.set(NOW - 1_000);
+            }
+            long id = generator.nextId();
+
+            // Then
+            assertTrue(id > previous, "id " + i + " did not increase");
+            assertEquals(1, SnowflakeIdGenerator.nodeOf(id));
+            previous = id;
+        }
+        // 10,000 ids needed 3 milliseconds of sequence, borrowed ahead of the clock
+        assertEquals(Instant.ofEpochMilli(NOW + 2), SnowflakeIdGenerator.timestampOf(previous));
+    }
+
+    @Test
+    void testConcurrentCallersNeverGetTheSameId() throws InterruptedException {
+        // Given
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(3, System::currentTimeMillis);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+
+        // When
+        for (int thread = 0; thread < 8; thread++) {
+            pool.execute(() -> {
+                for (int i = 0; i < 25_000; i++) {
+                    ids.add(generator.nextId());
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        // Then
+        assertEquals(200_000, ids.size());
+    }
+
+    @Test
+    void testNodeNumberOutOfRangeIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(1024, () -> NOW));
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(-1, () -> NOW));
+    }
+}
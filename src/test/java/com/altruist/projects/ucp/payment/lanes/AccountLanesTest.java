@@ -0,0 +1,142 @@
+package com.altruist.projects.ucp.payment.lanes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+
+import com.altruist.projects.ucp.payment.health.PaymentLoadMonitor;
+import com.zaxxer.hikari.HikariDataSource;
+
+class AccountLanesTest {
+
+    @SuppressWarnings("unchecked")
+    private final PaymentLoadMonitor loadMonitor = new PaymentLoadMonitor(mock(ObjectProvider.class), 2, 0.9, 5, 60);
+
+    private final AccountLanes lanes = new AccountLanes(Runnable::run, loadMonitor, true, 2);
+
+    @Test
+    void testPaymentsOfOneAccountRunInArrivalOrder() {
+        // Given
+        List<String> started = new ArrayList<>();
+        CompletableFuture<String> firstGateway = new CompletableFuture<>();
+        CompletableFuture<String> first = lanes.submit("ACC-1", () -> {
+            started.add("first");
+            return firstGateway;
+        }, () -> "FULL");
+
+        // When
+        CompletableFuture<String> second = lanes.submit("ACC-1", () -> {
+            started.add("second");
+            return CompletableFuture.completedFuture("second");
+        }, () -> "FULL");
+
+        // Then
+        assertEquals(List.of("first"), started);
+        assertFalse(second.isDone());
+
+        firstGateway.complete("first");
+        assertEquals("first", first.join());
+        assertEquals("second", second.join());
+        assertEquals(List.of("first", "second"), started);
+        assertEquals(0, lanes.snapshot().get("activeAccounts"));
+        assertEquals(1L, lanes.snapshot().get("waited"));
+    }
+
+    @Test
+    void testOtherAccountsDoNotWait() {
+        // Given
+        CompletableFuture<String> blocked = lanes.submit("ACC-1", CompletableFuture::new, () -> "FULL");
+
+        // When
+        CompletableFuture<String> other = lanes.submit("ACC-2",
+                () -> CompletableFuture.completedFuture("done"), () -> "FULL");
+
+        // Then
+        assertEquals("done", other.join());
+        assertFalse(blocked.isDone());
+        assertEquals(1, lanes.snapshot().get("activeAccounts"));
+    }
+
+    @Test
+    void testFullMailboxIsRejected() {
+        // Given
+        CompletableFuture<String> gateway = new CompletableFuture<>();
+        lanes.submit("ACC-1", () -> gateway, () -> "FULL");
+        lanes.submit("ACC-1", () -> CompletableFuture.completedFuture("queued"), () -> "FULL");
+
+        // When
+        CompletableFuture<String> third = lanes.submit("ACC-1",
+                () -> CompletableFuture.completedFuture("third"), () -> "FULL");
+
+        // Then
+        assertEquals("FULL", third.join());
+        assertEquals(1, lanes.snapshot().get("queuedPayments"));
+        assertEquals(1L, lanes.snapshot().get("rejected"));
+
+        gateway.complete("first");
+        assertEquals("fourth", lanes.submit("ACC-1",
+                () -> CompletableFuture.completedFuture("fourth"), () -> "FULL").join());
+    }
+
+    @Test
+    void testBlockingPaymentWaitsForThePreviousOne() throws InterruptedException {
+        // Given
+        List<String> finished = Collections.synchronizedList(new ArrayList<>());
+        CompletableFuture<String> gateway = new CompletableFuture<>();
+        lanes.submit("ACC-1", () -> gateway.thenApply(result -> {
+            finished.add(result);
+            return result;
+        }), () -> "FULL");
+        CountDownLatch done = new CountDownLatch(1);
+
+        // When
+        Thread caller = new Thread(() -> {
+            finished.add(lanes.execute("ACC-1", () -> "second", () -> "FULL"));
+            done.countDown();
+        });
+        caller.start();
+
+        // Then - the parked request thread is visible to the load monitor
+        assertFalse(done.await(100, TimeUnit.MILLISECONDS));
+        assertEquals(1, loadMonitor.getLaneWaits());
+        gateway.complete("first");
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("first", "second"), finished);
+        assertEquals(0, loadMonitor.getLaneWaits());
+    }
+
+    @Test
+    void testBlockingWaitIsShedWhenReplicaIsAtCapacity() {
+        // Given - both in-flight slots taken, one by a payment of ACC-1
+        AccountLanes deepLanes = new AccountLanes(Runnable::run, loadMonitor, true, 4);
+        assertTrue(loadMonitor.tryStartPayment());
+        assertTrue(loadMonitor.tryStartPayment());
+        CompletableFuture<String> gateway = new CompletableFuture<>();
+        deepLanes.submit("ACC-1", () -> gateway, () -> "FULL");
+
+        // When
+        String shed = deepLanes.execute("ACC-1", () -> "second", () -> "FULL");
+        CompletableFuture<String> third = deepLanes.submit("ACC-1",
+                () -> CompletableFuture.completedFuture("third"), () -> "FULL");
+
+        // Then - the shed payment held its place, so the next one still waits for the first
+        assertEquals("FULL", shed);
+        assertEquals(1L, deepLanes.snapshot().get("shedWaits"));
+        assertEquals(0, loadMonitor.getLaneWaits());
+        assertFalse(third.isDone());
+        gateway.complete("first");
+        assertEquals("third", third.join());
+        assertEquals(0, deepLanes.snapshot().get("activeAccounts"));
+    }
+}
@@ -0,0 +1,187 @@
+package com.altruist.projects.ucp.payment.ledger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Currency;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.altruist.projects.ucp.payment.dto.AccountBalance;
+import com.altruist.projects.ucp.payment.model.LedgerEntry;
+import com.altruist.projects.ucp.payment.model.LedgerSnapshot;
+import com.altruist.projects.ucp.payment.model.Payment;
+import com.altruist.projects.ucp.payment.repository.LedgerEntryRepository;
+import com.altruist.projects.ucp.payment.repository.LedgerSnapshotRepository;
+import com.altruist.projects.ucp.payment.repository.PaymentRepository;
+
+class AccountLedgerTest {
+
+    private static final Currency USD = Currency.getInstance("USD");
+
+    @Mock
+    private LedgerEntryRepository entryRepository;
+
+    @Mock
+    private LedgerSnapshotRepository snapshotRepository;
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    private AccountLedger ledger;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(snapshotRepository.findLatestThroughEntryId()).thenReturn(null);
+        when(entryRepository.sumBalances(anyLong(), anyLong())).thenReturn(List.of());
+        when(paymentRepository.findUnpostedSuccessful(anyLong(), any())).thenReturn(List.of());
+        ledger = new AccountLedger(entryRepository, snapshotRepository, paymentRepository,
+                Clock.fixed(Instant.parse("2026-10-19T10:00:00Z"), ZoneOffset.UTC), true, "FEES", 100, 5, 1_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ledger.stop();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSuccessfulPaymentPostsBalancedEntriesInOneCommit() {
+        // Given
+        ledger.start();
+
+        // When
+        ledger.post(payment(7L, "SUCCESS", 10_000L, 250L));
+
+        // Then
+        assertEquals(-10_250L, ledger.getBalance("ACC-FROM", USD));
+        assertEquals(10_000L, ledger.getBalance("ACC-TO", USD));
+        assertEquals(250L, ledger.getBalance("FEES", USD));
+
+        ArgumentCaptor<List<LedgerEntry>> commit = ArgumentCaptor.forClass(List.class);
+        verify(entryRepository, timeout(2_000)).saveAll(commit.capture());
+        assertEquals(3, commit.getValue().size());
+        assertEquals(0L, commit.getValue().stream().mapToLong(LedgerEntry::getAmount).sum());
+        assertEquals(7L, commit.getValue().get(0).getPaymentId());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStartPostsSuccessfulPaymentsMissingFromTheLedger() {
+        // Given - a payment whose postings were still queued when the previous process died
+        when(paymentRepository.findUnpostedSuccessful(anyLong(), any()))
+                .thenReturn(List.of(payment(9L, "SUCCESS", 5_000L, 100L)));
+
+        // When
+        ledger.start();
+
+        // Then
+        assertEquals(-5_100L, ledger.getBalance("ACC-FROM", USD));
+        assertEquals(5_000L, ledger.getBalance("ACC-TO", USD));
+        assertEquals(1L, ledger.snapshot().get("reconciled"));
+
+        ArgumentCaptor<List<LedgerEntry>> commit = ArgumentCaptor.forClass(List.class);
+        verify(entryRepository, timeout(2_000)).saveAll(commit.capture());
+        assertEquals(9L, commit.getValue().get(0).getPaymentId());
+    }
+
+    @Test
+    void testUnsuccessfulPaymentPostsNothing() {
+        // When
+        ledger.post(payment(8L, "FAILED", 10_000L, 250L));
+
+        // Then
+        assertEquals(0L, ledger.getBalance("ACC-FROM", USD));
+        assertEquals(List.of(), ledger.getBalances("ACC-TO"));
+        assertEquals(0L, ledger.snapshot().get("posted"));
+    }
+
+    @Test
+    void testRebuildAddsLaterEntriesToTheLatestSnapshot() {
+        // Given
+        when(snapshotRepository.findLatestThroughEntryId()).thenReturn(500L);
+        when(snapshotRepository.findByThroughEntryId(500L)).thenReturn(List.of(
+                snapshotRow(500L, "ACC-TO", 40_000L)));
+        when(entryRepository.sumBalances(500L, Long.MAX_VALUE)).thenReturn(List.of(
+                new AccountBalance("ACC-TO", USD, 1_000L),
+                new AccountBalance("ACC-NEW", USD, -300L)));
+
+        // When
+        ledger.start();
+
+        // Then
+        assertEquals(41_000L, ledger.getBalance("ACC-TO", USD));
+        assertEquals(-300L, ledger.getBalance("ACC-NEW", USD));
+        assertEquals(500L, ledger.snapshot().get("snapshotThroughEntryId"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSnapshotMergesPreviousSnapshotWithNewEntries() {
+        // Given
+        when(snapshotRepository.findLatestThroughEntryId()).thenReturn(500L);
+        when(snapshotRepository.findByThroughEntryId(500L)).thenReturn(List.of(
+                snapshotRow(500L, "ACC-TO", 40_000L)));
+        ledger.start();
+        when(entryRepository.findMaxId()).thenReturn(900L);
+        when(entryRepository.sumBalances(500L, 900L)).thenReturn(List.of(
+                new AccountBalance("ACC-TO", USD, 2_000L),
+                new AccountBalance("ACC-FROM", USD, -2_000L)));
+
+        // When
+        int stored = ledger.takeSnapshot();
+
+        // Then
+        assertEquals(2, stored);
+        ArgumentCaptor<List<LedgerSnapshot>> rows = ArgumentCaptor.forClass(List.class);
+        verify(snapshotRepository).saveAll(rows.capture());
+        assertEquals(42_000L, rows.getValue().get(0).getBalance());
+        assertEquals(900L, rows.getValue().get(0).getThroughEntryId());
+        assertEquals(-2_000L, rows.getValue().get(1).getBalance());
+        verify(snapshotRepository).deleteOlderThan(900L);
+
+        // Nothing committed since, nothing to store
+        assertEquals(0, ledger.takeSnapshot());
+        verify(snapshotRepository, never()).deleteOlderThan(eq(500L));
+        verify(snapshotRepository).saveAll(anyList());
+    }
+
+    private static Payment payment(long id, String status, long amount, long charges) {
+        return Payment.builder()
+                .id(id)
+                .status(status)
+                .fromAccount("ACC-FROM")
+                .toAccount("ACC-TO")
+                .amount(amount)
+                .charges(charges)
+                .totalAmount(amount + charges)
+                .currency(USD)
+                .build();
+    }
+
+    private static LedgerSnapshot snapshotRow(long through, String account, long balance) {
+        return LedgerSnapshot.builder()
+                .throughEntryId(through)
+                .account(account)
+                .currency(USD)
+                .balance(balance)
+                .build();
+    }
+}
@@ -0,0 +1,100 @@
+package com.altruist.projects.ucp.payment.limit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AdaptiveConcurrencyLimiterTest {
+    
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(100);
+    
+    private AdaptiveConcurrencyLimiter limiter;
+    
+    @BeforeEach
+    void setUp() {
+        limiter = new AdaptiveConcurrencyLimiter("TEST", 2, 1, 4, 0.5, 2.0);
+    }
+    
+    @Test
+    void testRejectsAboveLimit() {
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(1, limiter.getRejected());
+        
+        limiter.onIgnore();
+        
+        assertTrue(limiter.tryAcquire());
+    }
+    
+    @Test
+    void testLimitGrowsWhileUtilizedAndFast() {
+        limiter.tryAcquire();
+        limiter.tryAcquire();
+        limiter.onSuccess(FAST);
+        
+        assertEquals(3, limiter.getLimit());
+        assertEquals(1, limiter.getInFlight());
+    }
+    
+    @Test
+    void testLimitDoesNotGrowWhenUnderutilized() {
+        limiter = new AdaptiveConcurrencyLimiter("TEST", 4, 1, 8, 0.5, 2.0);
+        limiter.tryAcquire();
+        limiter.onSuccess(FAST);
+        
+        assertEquals(4, limiter.getLimit());
+    }
+    
+    @Test
+    void testLimitBacksOffOnSustainedLatencyIncrease() {
+        limiter = new AdaptiveConcurrencyLimiter("TEST", 4, 1, 8, 0.5, 2.0);
+        limiter.tryAcquire();
+        limiter.onSuccess(FAST);
+        
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire();
+            limiter.onSuccess(SLOW);
+        }
+        
+        assertTrue(limiter.getLimit() < 4, "limit was " + limiter.getLimit());
+    }
+    
+    @Test
+    void testSingleSlowOutlierDoesNotBackOff() {
+        limiter = new AdaptiveConcurrencyLimiter("TEST", 4, 1, 8, 0.5, 2.0);
+        for (int i = 0; i < 20; i++) {
+            limiter.tryAcquire();
+            limiter.onSuccess(FAST);
+        }
+        
+        limiter.tryAcquire();
+        limiter.onSuccess(SLOW);
+        
+        assertEquals(4, limiter.getLimit());
+    }
+    
+    @Test
+    void testLimitBacksOffOnDropAndRespectsMinimum() {
+        limiter.tryAcquire();
+        limiter.onDropped();
+        limiter.tryAcquire();
+        limiter.onDropped();
+        
+        assertEquals(1, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+    
+    @Test
+    void testInvalidLimitsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new AdaptiveConcurrencyLimiter("TEST", 10, 1, 4, 0.5, 2.0));
+    }
+}
@@ -0,0 +1,113 @@
+package com.altruist.projects.ucp.payment.money;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Currency;
+import java.util.List;
+
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import com.altruist.projects.ucp.payment.dto.PaymentRequest;
+import com.altruist.projects.ucp.payment.dto.PaymentResponse;
+import com.altruist.projects.ucp.payment.model.CountryPaymentRule;
+import com.altruist.projects.ucp.payment.rules.RuleSet;
+import com.altruist.projects.ucp.payment.rules.RuleSet.ActiveRule;
+import com.altruist.projects.ucp.payment.strategy.CountryBasedChargeStrategy;
+
+import tools.jackson.databind.DatabindException;
+import tools.jackson.databind.json.JsonMapper;
+
+class MoneyTest {
+
+    private final JsonMapper mapper = JsonMapper.builder().build();
+
+    @Test
+    void testParseAndFormat() {
+        assertEquals(100_050L, Money.parse("1000.5"));
+        assertEquals(100_000L, Money.parse("1000"));
+        assertEquals(-1L, Money.parse("-0.01"));
+        assertEquals("1000.50", Money.format(100_050L));
+        assertThrows(ArithmeticException.class, () -> Money.parse("0.001"));
+        assertThrows(NumberFormatException.class, () -> Money.parse("ten"));
+    }
+
+    @Test
+    void testCurrencyOfCountry() {
+        assertEquals(Currency.getInstance("INR"), Money.currencyOf("IN"));
+        assertEquals(Currency.getInstance("GBP"), Money.currencyOf("UK"));
+        assertEquals(Currency.getInstance("EUR"), Money.currencyOf("EU"));
+        assertEquals(Money.DEFAULT_CURRENCY, Money.currencyOf("XX"));
+        assertFalse(Money.isSupported(Currency.getInstance("KWD")));
+        assertTrue(Money.isSupported(Currency.getInstance("JPY")));
+    }
+
+    @Test
+    void testJsonAmountsAreDecimalOnTheWire() {
+        // Given
+        String json = "{\"paymentMethod\":\"UPI\",\"amount\":1000.10,\"currency\":\"INR\"}";
+        PaymentResponse response = PaymentResponse.builder().totalAmount(1_010_10L).charges(10_00L).build();
+
+        // When
+        PaymentRequest request = mapper.readValue(json, PaymentRequest.class);
+        String written = mapper.writeValueAsString(response);
+
+        // Then
+        assertEquals(1_000_10L, request.getAmount());
+        assertEquals(Currency.getInstance("INR"), request.getCurrency());
+        assertTrue(written.contains("\"totalAmount\":1010.10"), written);
+        assertTrue(written.contains("\"charges\":10.00"), written);
+        assertThrows(DatabindException.class,
+                () -> mapper.readValue("{\"amount\":10.005}", PaymentRequest.class));
+    }
+
+    @Test
+    void testTotalsAreExact() {
+        // 0.1 + 0.2 style drift would show up after a few thousand doubles
+        long total = 0;
+        for (int i = 0; i < 10_000; i++) {
+            total += Money.parse("0.10");
+        }
+        assertEquals("1000.00", Money.format(total));
+    }
+
+    @Test
+    void testRuleLookupAndChargesDoNotAllocate() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        Assumptions.assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+        Assumptions.assumeTrue(allocations.isThreadAllocatedMemorySupported() && allocations.isThreadAllocatedMemoryEnabled());
+
+        // Given
+        RuleSet ruleSet = RuleSet.of(1, List.of(CountryPaymentRule.builder()
+                .countryCode("IN").minAmount(100_00L).maxAmount(200_000_00L).enabled(true).build()));
+        CountryBasedChargeStrategy chargeStrategy = new CountryBasedChargeStrategy();
+        long threadId = Thread.currentThread().getId();
+        long checksum = run(ruleSet, chargeStrategy, 10_000); // Warm up
+
+        // When - boxing one long per iteration would allocate ~16 MB here
+        long before = allocations.getThreadAllocatedBytes(threadId);
+        checksum += run(ruleSet, chargeStrategy, 1_000_000);
+        long allocated = allocations.getThreadAllocatedBytes(threadId) - before;
+
+        // Then
+        assertTrue(checksum > 0);
+        assertTrue(allocated < 64 * 1024, "hot path allocated " + allocated + " bytes");
+    }
+
+    private static long run(RuleSet ruleSet, CountryBasedChargeStrategy chargeStrategy, int iterations) {
+        long checksum = 0;
+        for (int i = 0; i < iterations; i++) {
+            long amount = 100_00L + i;
+            ActiveRule rule = ruleSet.lookup("IN", "UPI");
+            if (amount >= rule.getMinAmount() && amount <= rule.getMaxAmount()) {
+                checksum += Math.addExact(amount, chargeStrategy.calculateCharges("IN", amount));
+            }
+        }
+        return checksum;
+    }
+}
@@ -0,0 +1,170 @@
+package com.altruist.projects.ucp.payment.pipeline;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+
+import com.altruist.projects.ucp.payment.dto.PaymentRequest;
+import com.altruist.projects.ucp.payment.dto.PaymentResponse;
+import com.altruist.projects.ucp.payment.pipeline.PaymentStage.Phase;
+
+class PaymentPipelineTest {
+
+    private final List<String> events = new ArrayList<>();
+
+    @Test
+    void testStagesRunInPhaseAndOrder() {
+        // Given
+        StageTimings timings = new StageTimings();
+        PaymentPipeline pipeline = new PaymentPipeline(List.of(
+                stage("persist", Phase.PERSIST, 0, context -> null),
+                stage("rules", Phase.VALIDATE, 100, context -> null),
+                stage("admit", Phase.ADMIT, 0, context -> null),
+                stage("required", Phase.VALIDATE, 0, context -> {
+                    context.setResponse(success());
+                    return null;
+                })), List.of(timings), Runnable::run);
+
+        // When
+        PaymentResponse response = pipeline.execute(new PaymentRequest(), false).join();
+
+        // Then
+        assertEquals("SUCCESS", response.getStatus());
+        assertEquals(List.of("admit", "required", "rules", "persist",
+                "persist done", "rules done", "required done", "admit done"), events);
+        assertEquals(List.of("ADMIT:admit", "VALIDATE:required", "VALIDATE:rules", "PERSIST:persist"),
+                pipeline.getStageNames());
+        assertEquals(4, timings.snapshot().size());
+        assertEquals(1L, timings.snapshot().get(2).get("calls"));
+    }
+
+    @Test
+    void testResponseEndsChainAndOnlyPassedStagesComplete() {
+        // Given
+        PaymentResponse declined = PaymentResponse.builder().status("FAILED").build();
+        PaymentPipeline pipeline = new PaymentPipeline(List.of(
+                stage("admit", Phase.ADMIT, 0, context -> null),
+                stage("rules", Phase.VALIDATE, 0, context -> declined),
+                stage("route", Phase.ROUTE, 0, context -> null)), List.of(), Runnable::run);
+
+        // When
+        PaymentResponse response = pipeline.execute(new PaymentRequest(), false).join();
+
+        // Then
+        assertSame(declined, response);
+        assertEquals(List.of("admit", "rules", "admit done"), events);
+    }
+
+    @Test
+    void testSuspendedChainResumesOnCompletionExecutor() {
+        // Given
+        CompletableFuture<PaymentResponse> gatewayCall = new CompletableFuture<>();
+        List<Runnable> completionTasks = new ArrayList<>();
+        Executor executor = completionTasks::add;
+        PaymentPipeline pipeline = new PaymentPipeline(List.of(
+                stage("execute", Phase.EXECUTE, 0, context -> {
+                    context.suspend(gatewayCall);
+                    return null;
+                }),
+                stage("persist", Phase.PERSIST, 0, context -> {
+                    context.getResponse().setPaymentId(42L);
+                    return null;
+                })), List.of(), executor);
+
+        // When
+        CompletableFuture<PaymentResponse> result = pipeline.execute(new PaymentRequest(), true);
+        gatewayCall.complete(success());
+
+        // Then
+        assertFalse(result.isDone());
+        assertEquals(1, completionTasks.size());
+        completionTasks.get(0).run();
+        assertEquals(42L, result.join().getPaymentId());
+        assertEquals(List.of("execute", "persist", "persist done", "execute done"), events);
+    }
+
+    @Test
+    void testGatewayFailureSkipsLaterStagesAndReachesHooks() {
+        // Given
+        List<Throwable> errors = new ArrayList<>();
+        PaymentPipeline pipeline = new PaymentPipeline(List.of(
+                new RecordingStage("execute", Phase.EXECUTE, 0, context -> {
+                    context.suspend(CompletableFuture.failedFuture(new IllegalStateException("Gateway down")));
+                    return null;
+                }) {
+                    @Override
+                    public void onComplete(PaymentContext context, PaymentResponse response, Throwable error) {
+                        errors.add(error);
+                    }
+                },
+                stage("persist", Phase.PERSIST, 0, context -> null)), List.of(), Runnable::run);
+
+        // When
+        CompletableFuture<PaymentResponse> result = pipeline.execute(new PaymentRequest(), false);
+
+        // Then
+        CompletionException thrown = assertThrows(CompletionException.class, result::join);
+        assertTrue(thrown.getCause() instanceof IllegalStateException);
+        assertEquals(List.of("execute"), events);
+        assertEquals("Gateway down", errors.get(0).getMessage());
+    }
+
+    private PaymentStage stage(String name, Phase phase, int order, Function<PaymentContext, PaymentResponse> body) {
+        return new RecordingStage(name, phase, order, body);
+    }
+
+    private static PaymentResponse success() {
+        return PaymentResponse.builder().status("SUCCESS").build();
+    }
+
+    private class RecordingStage implements PaymentStage {
+        private final String name;
+        private final Phase phase;
+        private final int order;
+        private final Function<PaymentContext, PaymentResponse> body;
+
+        RecordingStage(String name, Phase phase, int order, Function<PaymentContext, PaymentResponse> body) {
+            this.name = name;
+            this.phase = phase;
+            this.order = order;
+            this.body = body;
+        }
+
+        @Override
+        public Phase getPhase() {
+            return phase;
+        }
+
+        @Override
+        public int getOrder() {
+            return order;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public PaymentResponse process(PaymentContext context) {
+            events.add(name);
+            return body.apply(context);
+        }
+
+        @Override
+        public void onComplete(PaymentContext context, PaymentResponse response, Throwable error) {
+            events.add(name + " done");
+        }
+    }
+}
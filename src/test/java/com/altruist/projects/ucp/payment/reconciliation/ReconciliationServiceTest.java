@@ -0,0 +1,167 @@
+package com.altruist.projects.ucp.payment.reconciliation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+import java.io.BufferedWriter;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
+import org.springframework.mock.env.MockEnvironment;
+
+import com.altruist.projects.ucp.payment.dto.ReconciliationReport;
+import com.altruist.projects.ucp.payment.gateway.CardPaymentGateway;
+import com.altruist.projects.ucp.payment.model.Payment;
+import com.altruist.projects.ucp.payment.repository.PaymentRepository;
+import com.altruist.projects.ucp.payment.routing.GatewayRouter;
+
+class ReconciliationServiceTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2026-10-19T10:00:00Z"), ZoneOffset.UTC);
+    private static final LocalDateTime YESTERDAY = LocalDateTime.of(2026, 10, 18, 10, 0);
+    private static final Currency USD = Currency.getInstance("USD");
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @TempDir
+    private Path reportDirectory;
+
+    private GatewayRouter gatewayRouter;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        gatewayRouter = new GatewayRouter(List.of(new CardPaymentGateway()), new MockEnvironment());
+        when(paymentRepository.findByPaymentMethodAndIdGreaterThanOrderByIdAsc(eq("CARD"), eq(0L), any(Limit.class)))
+                .thenReturn(List.of(
+                        payment(1, "ref-1", "SUCCESS", 100_00L, YESTERDAY),
+                        payment(2, "ref-2", "FAILED", 250_00L, YESTERDAY),
+                        payment(3, "ref-3", "SUCCESS", 75_00L, YESTERDAY),
+                        payment(4, "ref-4", "SUCCESS", 50_00L, YESTERDAY),      // Not settled
+                        payment(5, null, null, 30_00L, YESTERDAY),              // Stuck before the gateway answered
+                        payment(6, "ref-6", "SUCCESS", 20_00L, YESTERDAY),
+                        payment(7, "ref-7", "SUCCESS", 40_00L, LocalDateTime.of(2026, 10, 19, 9, 30)))); // Too recent
+    }
+
+    @Test
+    void testReconcileInMemory() throws Exception {
+        // When
+        ReconciliationReport report = service(fixtureDirectory(), 1 << 20).reconcileAll().get(0);
+
+        // Then
+        assertExpectedDiscrepancies(report);
+        assertEquals(1, report.getPartitions());
+        List<String> lines = Files.readAllLines(Paths.get(report.getReportFile()));
+        assertEquals(7, lines.size()); // Header and one line per discrepancy
+        assertTrue(lines.contains("AMOUNT_MISMATCH,3,ref-3,SUCCESS,SUCCESS,75.00,75.50,USD"));
+    }
+
+    @Test
+    void testReconcilePartitionedMatchesInMemory() throws Exception {
+        // When - a 64 byte budget spills the fixture into several partitions
+        ReconciliationReport report = service(fixtureDirectory(), 64).reconcileAll().get(0);
+
+        // Then
+        assertExpectedDiscrepancies(report);
+        assertTrue(report.getPartitions() > 1);
+        try (var files = Files.list(reportDirectory)) {
+            assertEquals(1, files.count()); // Spill files removed
+        }
+    }
+
+    @Test
+    void testReconcileLargeFileInKeysetPages() throws Exception {
+        // Given - 100,000 settled payments served in pages of 5,000, every 1,000th settled as FAILED
+        Path settlementDirectory = Files.createDirectory(reportDirectory.resolve("settlements"));
+        int rows = 100_000;
+        try (BufferedWriter writer = Files.newBufferedWriter(settlementDirectory.resolve("CARD.csv"))) {
+            writer.write("externalReference,status,amount,currency");
+            writer.newLine();
+            for (int i = 1; i <= rows; i++) {
+                writer.write("txn-" + i + "," + (i % 1_000 == 0 ? "FAILED" : "SUCCESS") + ",12.34,USD");
+                writer.newLine();
+            }
+        }
+        when(paymentRepository.findByPaymentMethodAndIdGreaterThanOrderByIdAsc(eq("CARD"), anyLong(), any(Limit.class)))
+                .thenAnswer(invocation -> {
+                    long after = invocation.getArgument(1);
+                    int limit = invocation.<Limit>getArgument(2).max();
+                    List<Payment> page = new ArrayList<>(limit);
+                    for (long id = after + 1; id <= Math.min(rows, after + limit); id++) {
+                        page.add(payment(id, "txn-" + id, "SUCCESS", 12_34L, YESTERDAY));
+                    }
+                    return page;
+                });
+
+        // When
+        ReconciliationReport report = new ReconciliationService(paymentRepository, gatewayRouter, CLOCK,
+                settlementDirectory.toString(), reportDirectory.resolve("reports").toString(), 5_000, 256 * 1024, 60)
+                .reconcileAll().get(0);
+
+        // Then
+        assertNull(report.getError());
+        assertTrue(report.getPartitions() > 1);
+        assertEquals(rows, report.getSettlementRows());
+        assertEquals(rows, report.getPaymentsScanned());
+        assertEquals(rows, report.getMatched());
+        assertEquals(100L, report.getDiscrepancies().get(DiscrepancyType.STATUS_MISMATCH));
+        assertEquals(0L, report.getDiscrepancies().get(DiscrepancyType.UNKNOWN_PAYMENT));
+    }
+
+    private void assertExpectedDiscrepancies(ReconciliationReport report) {
+        assertNull(report.getError());
+        assertEquals(5, report.getSettlementRows());
+        assertEquals(7, report.getPaymentsScanned());
+        assertEquals(4, report.getMatched());
+        Map<DiscrepancyType, Long> discrepancies = report.getDiscrepancies();
+        assertEquals(1L, discrepancies.get(DiscrepancyType.STATUS_MISMATCH));
+        assertEquals(1L, discrepancies.get(DiscrepancyType.AMOUNT_MISMATCH));
+        assertEquals(1L, discrepancies.get(DiscrepancyType.MISSING_SETTLEMENT));
+        assertEquals(1L, discrepancies.get(DiscrepancyType.UNKNOWN_PAYMENT));
+        assertEquals(1L, discrepancies.get(DiscrepancyType.STUCK));
+        assertEquals(1L, discrepancies.get(DiscrepancyType.MALFORMED_ROW));
+    }
+
+    private ReconciliationService service(Path settlementDirectory, long partitionBytes) {
+        return new ReconciliationService(paymentRepository, gatewayRouter, CLOCK,
+                settlementDirectory.toString(), reportDirectory.toString(), 100, partitionBytes, 60);
+    }
+
+    private Path fixtureDirectory() throws URISyntaxException {
+        return Paths.get(getClass().getResource("/reconciliation").toURI());
+    }
+
+    private static Payment payment(long id, String reference, String status, long amount, LocalDateTime timestamp) {
+        return Payment.builder()
+                .id(id)
+                .paymentMethod("CARD")
+                .externalReference(reference)
+                .status(status)
+                .amount(amount)
+                .currency(USD)
+                .timestamp(timestamp)
+                .build();
+    }
+}
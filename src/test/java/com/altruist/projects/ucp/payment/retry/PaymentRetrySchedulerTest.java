@@ -0,0 +1,309 @@
+package com.altruist.projects.ucp.payment.retry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
+import org.springframework.mock.env.MockEnvironment;
+
+import com.altruist.projects.ucp.payment.analytics.PaymentAnalytics;
+import com.altruist.projects.ucp.payment.columnar.PaymentColumnStore;
+import com.altruist.projects.ucp.payment.dto.PaymentRequest;
+import com.altruist.projects.ucp.payment.dto.PaymentResponse;
+import com.altruist.projects.ucp.payment.events.PaymentEventBus;
+import com.altruist.projects.ucp.payment.gateway.CardPaymentGateway;
+import com.altruist.projects.ucp.payment.health.PaymentLoadMonitor;
+import com.altruist.projects.ucp.payment.ledger.AccountLedger;
+import com.altruist.projects.ucp.payment.limit.ConcurrencyLimiterRegistry;
+import com.altruist.projects.ucp.payment.model.Payment;
+import com.altruist.projects.ucp.payment.model.PaymentRetry;
+import com.altruist.projects.ucp.payment.model.PaymentStatus;
+import com.altruist.projects.ucp.payment.repository.PaymentRepository;
+import com.altruist.projects.ucp.payment.repository.PaymentRetryRepository;
+import com.altruist.projects.ucp.payment.routing.GatewayRouter;
+
+class PaymentRetrySchedulerTest {
+
+    @Mock
+    private PaymentRetryRepository retryRepository;
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private AccountLedger ledger;
+
+    @Mock
+    private PaymentLoadMonitor loadMonitor;
+
+    @Mock
+    private PaymentAnalytics paymentAnalytics;
+
+    private ConcurrencyLimiterRegistry concurrencyLimiters;
+
+    private MutableClock clock;
+
+    private String gatewayStatus;
+
+    private AtomicInteger gatewayCalls;
+
+    private PaymentEventBus eventBus;
+
+    private PaymentRetryScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        clock = new MutableClock(Instant.parse("2026-10-19T10:00:00Z"));
+        gatewayStatus = "SUCCESS";
+        gatewayCalls = new AtomicInteger();
+        CardPaymentGateway gateway = new CardPaymentGateway() {
+            @Override
+            public PaymentResponse processPayment(PaymentRequest request) {
+                gatewayCalls.incrementAndGet();
+                return PaymentResponse.builder()
+                        .status(gatewayStatus)
+                        .message("Processor answered " + gatewayStatus)
+                        .externalReference("SUCCESS".equals(gatewayStatus) ? "ref-42" : null)
+                        .build();
+            }
+        };
+        eventBus = new PaymentEventBus(clock, 64);
+        concurrencyLimiters = new ConcurrencyLimiterRegistry(1, 1, 10, 0.9, 2.0, 1);
+        scheduler = scheduler(gateway, Runnable::run);
+    }
+
+    private PaymentRetryScheduler scheduler(CardPaymentGateway gateway, Executor executor) {
+        return new PaymentRetryScheduler(retryRepository, paymentRepository,
+                new GatewayRouter(List.of(gateway), new MockEnvironment()),
+                new PaymentColumnStore(paymentRepository, 16, 4), eventBus, ledger, concurrencyLimiters,
+                loadMonitor, paymentAnalytics, clock, executor,
+                "node-a", true, 3, 1_000, 8_000, 100, 1_000, 30, 300, 100, 1_000);
+    }
+
+    @Test
+    void testBackoffGrowsExponentiallyWithJitterUpToCap() {
+        for (int i = 0; i < 100; i++) {
+            long first = scheduler.backoffMillis(1);
+            long third = scheduler.backoffMillis(3);
+            long tenth = scheduler.backoffMillis(10);
+            assertTrue(first >= 500 && first <= 1_000, "attempt 1: " + first);
+            assertTrue(third >= 2_000 && third <= 4_000, "attempt 3: " + third);
+            assertTrue(tenth >= 4_000 && tenth <= 8_000, "attempt 10: " + tenth);
+        }
+    }
+
+    @Test
+    void testClaimedRetryFiresWhenDueAndCompletesPayment() {
+        // Given - one retry due in 2 seconds, leased by this node
+        PaymentRetry retry = retry(1, clock.instant().plusSeconds(2));
+        Payment payment = payment(PaymentStatus.RETRYING);
+        when(retryRepository.findClaimable(any(), any(), any(Limit.class))).thenReturn(List.of(42L), List.of());
+        when(retryRepository.claim(anyCollection(), anyString(), eq("node-a"), any(), any())).thenReturn(1);
+        when(retryRepository.findByClaimToken(anyString())).thenReturn(List.of(retry));
+        when(paymentRepository.findById(42L)).thenReturn(Optional.of(payment));
+
+        // When
+        scheduler.tick();
+        int callsBeforeDue = gatewayCalls.get();
+        clock.advanceMillis(2_000);
+        scheduler.tick();
+
+        // Then
+        assertEquals(0, callsBeforeDue);
+        assertEquals(1, gatewayCalls.get());
+        assertEquals("SUCCESS", payment.getStatus());
+        assertEquals("ref-42", payment.getExternalReference());
+        verify(retryRepository).delete(retry);
+        assertEquals(1L, scheduler.snapshot().get("succeeded"));
+        assertEquals(1, eventBus.getPublished());
+        verify(loadMonitor).recordGatewayOutcome("CARD", true);
+        verify(paymentAnalytics).record("US", "CARD", null, "SUCCESS", 2_000_00L, 0L);
+        assertEquals(0, concurrencyLimiters.forGateway("CARD").getInFlight());
+    }
+
+    @Test
+    void testRetryRejectedByTheExecutorIsReleasedAtOnce() {
+        // Given - a retry due now and an executor that is full
+        scheduler = scheduler(new CardPaymentGateway(), runnable -> {
+            throw new RejectedExecutionException("full");
+        });
+        PaymentRetry retry = retry(1, clock.instant());
+        when(retryRepository.findClaimable(any(), any(), any(Limit.class))).thenReturn(List.of(42L), List.of());
+        when(retryRepository.claim(anyCollection(), anyString(), eq("node-a"), any(), any())).thenReturn(1);
+        when(retryRepository.findByClaimToken(anyString())).thenReturn(List.of(retry));
+
+        // When
+        clock.advanceMillis(100);
+        scheduler.tick();
+
+        // Then - unleased and due at the next poll instead of waiting out its lease
+        assertNull(retry.getLeaseUntil());
+        assertNull(retry.getClaimToken());
+        assertEquals(clock.instant().plusMillis(1_000), retry.getDueAt());
+        assertEquals(1, retry.getAttempt());
+        verify(retryRepository).save(retry);
+        assertEquals(1L, scheduler.snapshot().get("rejected"));
+    }
+
+    @Test
+    void testRetryIsDeferredWhileGatewayIsAtItsConcurrencyLimit() {
+        // Given - the only CARD permit is taken
+        PaymentRetry retry = retry(2, clock.instant());
+        Payment payment = payment(PaymentStatus.RETRYING);
+        when(paymentRepository.findById(42L)).thenReturn(Optional.of(payment));
+        assertTrue(concurrencyLimiters.forGateway("CARD").tryAcquire());
+
+        // When
+        scheduler.attempt(retry);
+
+        // Then - back in the queue for the same attempt, gateway not called
+        assertEquals(0, gatewayCalls.get());
+        assertEquals("RETRYING", payment.getStatus());
+        assertEquals(2, retry.getAttempt());
+        assertNull(retry.getLeaseUntil());
+        assertTrue(retry.getDueAt().isAfter(clock.instant()));
+        verify(retryRepository).save(retry);
+        assertEquals(1L, scheduler.snapshot().get("deferred"));
+        verify(paymentAnalytics, never()).record(any(), any(), any(), any(), anyLong(), anyLong());
+    }
+
+    @Test
+    void testFailedRetryIsRescheduledUntilAttemptsRunOut() {
+        // Given
+        gatewayStatus = "FAILED";
+        PaymentRetry retry = retry(1, clock.instant());
+        Payment payment = payment(PaymentStatus.RETRYING);
+        when(paymentRepository.findById(42L)).thenReturn(Optional.of(payment));
+
+        // When - first of three attempts
+        scheduler.attempt(retry);
+
+        // Then - back in the queue, unleased, with a backed-off due time
+        assertEquals("RETRYING", payment.getStatus());
+        assertEquals(2, retry.getAttempt());
+        assertNull(retry.getLeaseUntil());
+        assertTrue(retry.getDueAt().isAfter(clock.instant().plusMillis(999)));
+        verify(retryRepository).save(retry);
+        verify(retryRepository, never()).delete(any());
+
+        // When - last attempt
+        retry.setAttempt(3);
+        retry.setLeaseUntil(clock.instant().plusSeconds(60));
+        scheduler.attempt(retry);
+
+        // Then
+        assertEquals("FAILED", payment.getStatus());
+        verify(retryRepository).delete(retry);
+        assertEquals(2, gatewayCalls.get());
+        verify(paymentAnalytics).record("US", "CARD", null, "FAILED", 2_000_00L, 0L);
+    }
+
+    @Test
+    void testRetryOfCompletedPaymentIsDropped() {
+        // Given
+        PaymentRetry retry = retry(1, clock.instant());
+        when(paymentRepository.findById(42L)).thenReturn(Optional.of(payment(PaymentStatus.SUCCESS)));
+
+        // When
+        scheduler.attempt(retry);
+
+        // Then
+        assertEquals(0, gatewayCalls.get());
+        verify(retryRepository).delete(retry);
+    }
+
+    @Test
+    void testEnqueueSchedulesFirstAttemptAfterBackoff() {
+        // When
+        scheduler.enqueue(payment(PaymentStatus.RETRYING), "Processor unavailable");
+
+        // Then
+        verify(retryRepository).save(argThat(retry -> retry.getPaymentId() == 42L
+                && retry.getAttempt() == 1
+                && !retry.getDueAt().isBefore(clock.instant().plusMillis(500))
+                && retry.getLeaseUntil() == null));
+        assertEquals(1L, scheduler.snapshot().get("enqueued"));
+    }
+
+    private PaymentRetry retry(int attempt, Instant dueAt) {
+        return PaymentRetry.builder()
+                .paymentId(42L)
+                .attempt(attempt)
+                .dueAt(dueAt)
+                .claimToken("node-a-token")
+                .leaseOwner("node-a")
+                .leaseUntil(clock.instant().plusSeconds(330))
+                .version(1L)
+                .build();
+    }
+
+    private static Payment payment(PaymentStatus status) {
+        return Payment.builder()
+                .id(42L)
+                .name("Jane Doe")
+                .toAccount("4111111111111111")
+                .fromAccount("1234567890")
+                .paymentMethod("CARD")
+                .amount(2_000_00L)
+                .destinationCountry("US")
+                .status(status.name())
+                .timestamp(LocalDateTime.of(2026, 10, 19, 9, 59))
+                .build();
+    }
+
+    /**
+     * Clock that tests can move forward
+     */
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advanceMillis(long millis) {
+            now = now.plusMillis(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.altruist.projects.ucp.payment.retry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class TimingWheelTest {
+
+    @Test
+    void testFiresAtDeadlineInOrder() {
+        // Given - 100 ms ticks, 8 slots, 3 levels (6.4 s on the first two levels)
+        TimingWheel<String> wheel = new TimingWheel<>(100, 8, 3, 0);
+        wheel.schedule("late", 5_000);
+        wheel.schedule("early", 300);
+        wheel.schedule("middle", 1_000);
+        List<String> fired = new ArrayList<>();
+
+        // When / Then
+        wheel.advance(250, fired::add);
+        assertTrue(fired.isEmpty());
+        wheel.advance(1_000, fired::add);
+        assertEquals(List.of("early", "middle"), fired);
+        wheel.advance(4_999, fired::add);
+        assertEquals(2, fired.size());
+        wheel.advance(5_000, fired::add);
+        assertEquals(List.of("early", "middle", "late"), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void testPastDeadlineFiresOnNextTick() {
+        // Given
+        TimingWheel<String> wheel = new TimingWheel<>(100, 8, 3, 10_000);
+        List<String> fired = new ArrayList<>();
+
+        // When
+        wheel.schedule("overdue", 1_000);
+        wheel.advance(10_100, fired::add);
+
+        // Then
+        assertEquals(List.of("overdue"), fired);
+    }
+
+    @Test
+    void testCascadesBeyondTopLevelSpan() {
+        // Given - deadlines up to 4x the 51.2 s span of the wheel, in random order
+        TimingWheel<Long> wheel = new TimingWheel<>(100, 8, 3, 0);
+        Random random = new Random(42);
+        for (int i = 0; i < 1_000; i++) {
+            long deadline = 100 + random.nextInt(200_000) / 100 * 100;
+            wheel.schedule(deadline, deadline);
+        }
+
+        // When - advanced in uneven steps
+        List<Long> misplaced = new ArrayList<>();
+        List<Long> fired = new ArrayList<>();
+        for (long now = 0; now <= 201_000; now += 700) {
+            long stepEnd = now;
+            wheel.advance(stepEnd, deadline -> {
+                if (deadline > stepEnd || deadline <= stepEnd - 700) {
+                    misplaced.add(deadline);
+                }
+                fired.add(deadline);
+            });
+        }
+
+        // Then - every item fired once, in the step of its deadline and in deadline order
+        assertEquals(1_000, fired.size());
+        assertTrue(misplaced.isEmpty(), "fired outside their step: " + misplaced);
+        assertEquals(fired.stream().sorted().toList(), fired);
+        assertEquals(0, wheel.size());
+    }
+}
@@ -0,0 +1,179 @@
+package com.altruist.projects.ucp.payment.risk;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Currency;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.altruist.projects.ucp.payment.dto.PaymentRequest;
+import com.altruist.projects.ucp.payment.fx.FxRateService;
+import com.altruist.projects.ucp.payment.model.FxRate;
+import com.altruist.projects.ucp.payment.repository.FxRateRepository;
+import com.altruist.projects.ucp.payment.risk.RiskAssessment.Decision;
+
+class VelocityRiskScorerTest {
+
+    @Mock
+    private FxRateRepository fxRateRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private MutableClock clock;
+
+    private VelocityRiskScorer scorer;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        clock = new MutableClock(Instant.parse("2026-10-19T10:00:00Z"));
+        FxRateService fxRateService = new FxRateService(fxRateRepository, clock, transactionManager, "USD");
+        fxRateService.activate(List.of(
+                FxRate.builder().currency(Currency.getInstance("INR")).rate(new BigDecimal("80")).build()));
+        // 3 per minute, 10 per hour, 20 per day, 1,000 USD per hour, 2,000 USD per day, 2 countries
+        scorer = new VelocityRiskScorer(clock, fxRateService, true, 4, 1000,
+                3, 10, 20, "1000.00", "2000.00", 2, 40, 70, 1000);
+    }
+
+    @Test
+    void testLowVelocityIsAllowed() {
+        // When
+        RiskAssessment assessment = scorer.assess(request("ACC1", 100_00L, "USD", "US"));
+
+        // Then
+        assertSame(RiskAssessment.allow(), assessment);
+    }
+
+    @Test
+    void testBurstIsReviewedAndSlidesOutOfTheMinute() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            assertEquals(Decision.ALLOW, scorer.assess(request("ACC1", 10_00L, "USD", "US")).getDecision());
+        }
+
+        // When
+        RiskAssessment burst = scorer.assess(request("ACC1", 10_00L, "USD", "US"));
+        clock.advanceSeconds(70);
+        RiskAssessment later = scorer.assess(request("ACC1", 10_00L, "USD", "US"));
+
+        // Then
+        assertEquals(Decision.REVIEW, burst.getDecision());
+        assertEquals(List.of("4 payments in the last minute"), burst.getReasons());
+        assertEquals(Decision.ALLOW, later.getDecision());
+        assertEquals(Decision.ALLOW, scorer.assess(request("ACC2", 10_00L, "USD", "US")).getDecision());
+    }
+
+    @Test
+    void testAmountsAddUpAcrossCurrencies() {
+        // Given - 800 USD and 24,000 INR (300 USD)
+        scorer.assess(request("ACC1", 800_00L, "USD", "US"));
+
+        // When
+        RiskAssessment assessment = scorer.assess(request("ACC1", 24_000_00L, "INR", "IN"));
+
+        // Then
+        assertEquals(30, assessment.getScore());
+        assertEquals(List.of("1100.00 USD paid in the last hour"), assessment.getReasons());
+    }
+
+    @Test
+    void testManyCountriesAndAmountIsBlocked() {
+        // Given
+        scorer.assess(request("ACC1", 10_00L, "USD", "US"));
+        scorer.assess(request("ACC1", 10_00L, "USD", "GB"));
+
+        // When
+        RiskAssessment assessment = scorer.assess(request("ACC1", 2_500_00L, "USD", "SG"));
+
+        // Then - 30 (countries) + 30 (hour amount) + 25 (day amount)
+        assertEquals(85, assessment.getScore());
+        assertEquals(Decision.BLOCK, assessment.getDecision());
+        assertEquals(1L, scorer.snapshot().get("blocked"));
+    }
+
+    @Test
+    void testDistinctCountriesAreCountedExactlyAndExpire() {
+        // Given - every ISO country code from AA to BZ, far more than a 64-bit mask could tell apart
+        AccountVelocityTracker tracker = new AccountVelocityTracker(1, 10);
+        long now = clock.millis();
+        VelocityFeatures features = null;
+        for (char first = 'A'; first <= 'B'; first++) {
+            for (char second = 'A'; second <= 'Z'; second++) {
+                features = tracker.record("ACC1", now, 1_00L, "" + first + second);
+            }
+        }
+        tracker.record("ACC1", now, 1_00L, "AA");
+
+        // When
+        VelocityFeatures nextDay = tracker.record("ACC1", now + 24 * 3_600_000L, 1_00L, "US");
+
+        // Then
+        assertEquals(52, features.getDistinctCountriesLastDay());
+        assertEquals(1, nextDay.getDistinctCountriesLastDay());
+    }
+
+    @Test
+    void testScoringStaysWithinBudget() {
+        // Given - warm up across many accounts
+        for (int i = 0; i < 20_000; i++) {
+            scorer.assess(request("ACC" + (i % 2_000), 10_00L, "USD", "US"));
+        }
+
+        // Then
+        assertTrue((double) scorer.snapshot().get("avgScoringMicros") < 1_000.0, "stats " + scorer.snapshot());
+    }
+
+    private static PaymentRequest request(String fromAccount, long amount, String currency, String country) {
+        return PaymentRequest.builder()
+                .fromAccount(fromAccount)
+                .toAccount("9876543210")
+                .paymentMethod("CARD")
+                .amount(amount)
+                .currency(Currency.getInstance(currency))
+                .destinationCountry(country)
+                .build();
+    }
+
+    /**
+     * Clock that tests can move forward
+     */
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advanceSeconds(long seconds) {
+            now = now.plusSeconds(seconds);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
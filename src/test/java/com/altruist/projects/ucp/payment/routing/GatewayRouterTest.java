@@ -0,0 +1,152 @@
+package com.altruist.projects.ucp.payment.routing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import com.altruist.projects.ucp.payment.dto.PaymentRequest;
+import com.altruist.projects.ucp.payment.dto.PaymentResponse;
+import com.altruist.projects.ucp.payment.gateway.PaymentGateway;
+import com.altruist.projects.ucp.payment.gateway.UpiPaymentGateway;
+
+class GatewayRouterTest {
+    
+    private MockEnvironment environment;
+    
+    @BeforeEach
+    void setUp() {
+        environment = new MockEnvironment();
+    }
+    
+    @Test
+    void testSingleProviderGroup() {
+        GatewayRouter router = new GatewayRouter(List.of(new UpiPaymentGateway()), environment);
+        
+        RoutedProvider provider = router.select("upi", 0L);
+        
+        assertEquals("UPI", provider.getProviderId());
+        assertNull(router.select("UPI", GatewayRouter.markTried(0L, provider)));
+        assertNull(router.select("CARD", 0L));
+        assertNull(router.select(null, 0L));
+    }
+    
+    @Test
+    void testFailoverVisitsEveryProviderOnce() {
+        GatewayRouter router = new GatewayRouter(
+                List.of(card("CARD_A"), card("CARD_B"), card("CARD_C")), environment);
+        
+        RoutedProvider first = router.select("CARD", 0L);
+        long tried = GatewayRouter.markTried(0L, first);
+        RoutedProvider second = router.select("CARD", tried);
+        tried = GatewayRouter.markTried(tried, second);
+        RoutedProvider third = router.select("CARD", tried);
+        tried = GatewayRouter.markTried(tried, third);
+        
+        assertNotEquals(first.getProviderId(), second.getProviderId());
+        assertNotEquals(second.getProviderId(), third.getProviderId());
+        assertNotEquals(first.getProviderId(), third.getProviderId());
+        assertNull(router.select("CARD", tried));
+    }
+    
+    @Test
+    void testTrafficFollowsConfiguredWeights() {
+        environment.setProperty("payment.routing.weights.CARD_A", "300");
+        environment.setProperty("payment.routing.weights.CARD_B", "100");
+        GatewayRouter router = new GatewayRouter(List.of(card("CARD_A"), card("CARD_B")), environment);
+        
+        Map<String, Integer> counts = selectMany(router, 10_000);
+        
+        double share = counts.get("CARD_A") / 10_000.0;
+        assertTrue(share > 0.70 && share < 0.80, "CARD_A share was " + share);
+    }
+    
+    @Test
+    void testTrafficShiftsAwayFromFailingProvider() {
+        GatewayRouter router = new GatewayRouter(List.of(card("CARD_A"), card("CARD_B")), environment);
+        RoutedProvider failing = router.select("CARD", 0L);
+        RoutedProvider healthy = router.select("CARD", GatewayRouter.markTried(0L, failing));
+        for (int i = 0; i < 20; i++) {
+            failing.record(TimeUnit.MILLISECONDS.toNanos(50), false);
+            healthy.record(TimeUnit.MILLISECONDS.toNanos(50), true);
+        }
+        
+        Map<String, Integer> counts = selectMany(router, 10_000);
+        
+        // Probe floor 0.05 -> expected share 0.05 / 1.05 ~ 4.8% (476 of 10,000, sd ~21)
+        assertTrue(counts.getOrDefault(failing.getProviderId(), 0) < 600);
+        assertTrue(counts.getOrDefault(failing.getProviderId(), 0) > 0, "failing provider still gets probe traffic");
+        assertEquals(healthy.getProviderId(), router.select("CARD", GatewayRouter.markTried(0L, failing)).getProviderId());
+    }
+    
+    @Test
+    void testFastFailingProviderDoesNotOutrankSlowerHealthyOne() {
+        GatewayRouter router = new GatewayRouter(List.of(card("CARD_A"), card("CARD_B")), environment);
+        RoutedProvider failing = router.select("CARD", 0L);
+        RoutedProvider healthy = router.select("CARD", GatewayRouter.markTried(0L, failing));
+        failing.record(TimeUnit.MILLISECONDS.toNanos(1), true);
+        for (int i = 0; i < 20; i++) {
+            failing.record(TimeUnit.MILLISECONDS.toNanos(1), false);
+            healthy.record(TimeUnit.MILLISECONDS.toNanos(100), true);
+        }
+        
+        Map<String, Integer> counts = selectMany(router, 10_000);
+        
+        // Failing: 0.05 (probe floor); healthy: latency 2/101 floored at 0.25 -> failing share ~17%
+        assertEquals(1.0, failing.getLatencyMillis(), 0.01, "failed calls leave latency alone");
+        assertTrue(counts.getOrDefault(failing.getProviderId(), 0) < 2_000,
+                "failing provider share was " + counts.get(failing.getProviderId()));
+        assertTrue(counts.getOrDefault(failing.getProviderId(), 0) > 0, "failing provider still gets probe traffic");
+    }
+    
+    @Test
+    void testDuplicateProviderIdRejected() {
+        assertThrows(IllegalStateException.class,
+                () -> new GatewayRouter(List.of(card("CARD_A"), card("CARD_A")), environment));
+    }
+    
+    @Test
+    void testPaymentMethodsAreDistinctGatewayTypes() {
+        GatewayRouter router = new GatewayRouter(
+                List.of(new UpiPaymentGateway(), card("CARD_A"), card("CARD_B")), environment);
+        
+        assertEquals(List.of("CARD", "UPI"), router.getPaymentMethods());
+    }
+    
+    private Map<String, Integer> selectMany(GatewayRouter router, int times) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < times; i++) {
+            counts.merge(router.select("CARD", 0L).getProviderId(), 1, Integer::sum);
+        }
+        return counts;
+    }
+    
+    private static PaymentGateway card(String providerId) {
+        return new PaymentGateway() {
+            @Override
+            public PaymentResponse processPayment(PaymentRequest request) {
+                return PaymentResponse.builder().status("SUCCESS").gatewayUsed("CARD").build();
+            }
+            
+            @Override
+            public String getGatewayType() {
+                return "CARD";
+            }
+            
+            @Override
+            public String getProviderId() {
+                return providerId;
+            }
+        };
+    }
+}
@@ -0,0 +1,181 @@
+package com.altruist.projects.ucp.payment.rules;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.altruist.projects.ucp.payment.dto.RuleImportResponse;
+import com.altruist.projects.ucp.payment.gateway.CardPaymentGateway;
+import com.altruist.projects.ucp.payment.gateway.UpiPaymentGateway;
+import com.altruist.projects.ucp.payment.model.CountryPaymentRule;
+import com.altruist.projects.ucp.payment.repository.CountryPaymentRuleRepository;
+import com.altruist.projects.ucp.payment.routing.GatewayRouter;
+
+import tools.jackson.databind.json.JsonMapper;
+
+class CountryPaymentRuleImportServiceTest {
+
+    @Mock
+    private CountryPaymentRuleRepository ruleRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CountryPaymentRuleRegistry ruleRegistry;
+
+    private CountryPaymentRuleImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(ruleRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ruleRegistry = new CountryPaymentRuleRegistry(ruleRepository);
+        importService = new CountryPaymentRuleImportService(
+            ruleRepository,
+            ruleRegistry,
+            new GatewayRouter(Arrays.asList(new UpiPaymentGateway(), new CardPaymentGateway()), new MockEnvironment()),
+            JsonMapper.builder().build(),
+            transactionManager
+        );
+    }
+
+    @Test
+    void testImport_CommitsAndActivatesUnderTheRegistryLock() throws Exception {
+        // Given - a commit that records whether it ran holding the lock every activation takes
+        boolean[] committedUnderLock = new boolean[1];
+        when(ruleRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            committedUnderLock[0] = Thread.holdsLock(ruleRegistry);
+            return invocation.getArgument(0);
+        });
+        String csv = "countryCode,paymentMethod,minAmount,maxAmount\nIN,,100,200000\n";
+
+        // When
+        RuleImportResponse response = importService.importRules(stream(csv), RuleImportFormat.CSV);
+
+        // Then - no other activation can land between this commit and its activation
+        assertEquals(CountryPaymentRuleImportService.ACTIVATED, response.getStatus());
+        assertTrue(committedUnderLock[0]);
+        assertEquals(response.getRuleSetVersion(), ruleRegistry.current().getVersion());
+    }
+
+    @Test
+    void testImportCsv_ValidSet_ReplacesAndActivates() throws Exception {
+        // Given
+        String csv = "countryCode,paymentMethod,minAmount,maxAmount,operationStartTime,operationEndTime,timezone,enabled,description\n"
+                + "IN,,100,200000,06:00,22:00,Asia/Kolkata,true,\"India, all methods\"\n"
+                + "in,card,500,100000,,,,,India cards\n";
+
+        // When
+        RuleImportResponse response = importService.importRules(stream(csv), RuleImportFormat.CSV);
+
+        // Then
+        assertEquals(CountryPaymentRuleImportService.ACTIVATED, response.getStatus());
+        assertEquals(2, response.getRulesImported());
+        verify(ruleRepository).deleteAllInBatch();
+
+        RuleSet active = ruleRegistry.current();
+        assertEquals(response.getRuleSetVersion(), active.getVersion());
+        CountryPaymentRule cardRule = active.find("IN", "CARD").orElseThrow();
+        assertEquals(500_00L, cardRule.getMinAmount());
+        CountryPaymentRule countryRule = active.find("IN", "UPI").orElseThrow();
+        assertEquals("India, all methods", countryRule.getDescription());
+        assertEquals(LocalTime.of(6, 0), countryRule.getOperationStartTime());
+    }
+
+    @Test
+    void testImportJson_ValidSet_Activates() throws Exception {
+        // Given
+        String json = "[{\"countryCode\":\"US\",\"minAmount\":10,\"maxAmount\":10000,"
+                + "\"operationStartTime\":\"08:00\",\"operationEndTime\":\"20:00\",\"timezone\":\"America/New_York\",\"enabled\":true},"
+                + "{\"countryCode\":\"GB\",\"paymentMethod\":\"UPI\",\"maxAmount\":5000,\"enabled\":false}]";
+
+        // When
+        RuleImportResponse response = importService.importRules(stream(json), RuleImportFormat.JSON);
+
+        // Then
+        assertEquals(CountryPaymentRuleImportService.ACTIVATED, response.getStatus());
+        assertEquals(2, response.getRulesImported());
+        assertTrue(ruleRegistry.current().find("US", null).isPresent());
+        assertTrue(ruleRegistry.current().find("GB", "UPI").isEmpty());
+    }
+
+    @Test
+    void testImport_InvalidSet_RejectedWithoutTouchingStoredRules() throws Exception {
+        // Given
+        ruleRegistry.activate(List.of(CountryPaymentRule.builder().countryCode("IN").enabled(true).build()));
+        long activeVersion = ruleRegistry.current().getVersion();
+        String csv = "countryCode,paymentMethod,minAmount,maxAmount,operationStartTime,operationEndTime,timezone\n"
+                + "IND,,1,2,,,\n"
+                + "US,BITCOIN,1,2,,,\n"
+                + "GB,,50,10,,,\n"
+                + "SG,,1,2,08:00,,Asia/Singapore\n"
+                + "AU,,1,2,08:00,20:00,Mars/Olympus\n"
+                + "FR,,abc,2,,,\n"
+                + "DE,,1,2,,,\n"
+                + "DE,,1,3,,,\n";
+
+        // When
+        RuleImportResponse response = importService.importRules(stream(csv), RuleImportFormat.CSV);
+
+        // Then
+        assertEquals(CountryPaymentRuleImportService.REJECTED, response.getStatus());
+        assertEquals(1, response.getErrors().size()); // Unparseable rows are reported before validation runs
+        assertTrue(response.getErrors().get(0).startsWith("Line 7:"));
+        verifyNoInteractions(transactionManager);
+        verify(ruleRepository, never()).deleteAllInBatch();
+        assertEquals(activeVersion, ruleRegistry.current().getVersion());
+
+        // When the parse error is fixed every validation error is reported with its row
+        response = importService.importRules(stream(csv.replace("abc", "1")), RuleImportFormat.CSV);
+
+        // Then
+        assertEquals(CountryPaymentRuleImportService.REJECTED, response.getStatus());
+        List<String> errors = response.getErrors();
+        assertEquals(6, errors.size());
+        assertTrue(errors.get(0).startsWith("Row 2:"));
+        assertTrue(errors.get(1).contains("unsupported paymentMethod 'BITCOIN'"));
+        assertTrue(errors.get(2).contains("maxAmount must not be below minAmount"));
+        assertTrue(errors.get(3).contains("must be given together"));
+        assertTrue(errors.get(4).contains("unknown timezone"));
+        assertTrue(errors.get(5).contains("duplicate rule for DE/*"));
+    }
+
+    @Test
+    void testImport_Empty_Rejected() throws Exception {
+        // When
+        RuleImportResponse csvResponse = importService.importRules(stream("countryCode\n"), RuleImportFormat.CSV);
+        RuleImportResponse jsonResponse = importService.importRules(stream("[]"), RuleImportFormat.JSON);
+
+        // Then
+        assertEquals(CountryPaymentRuleImportService.REJECTED, csvResponse.getStatus());
+        assertEquals(CountryPaymentRuleImportService.REJECTED, jsonResponse.getStatus());
+    }
+
+    @Test
+    void testSplitCsvLine_QuotedFields() {
+        // When
+        List<String> values = RuleImportParser.splitCsvLine("IN,\"a, \"\"quoted\"\" b\",,x");
+
+        // Then
+        assertEquals(List.of("IN", "a, \"quoted\" b", "", "x"), values);
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
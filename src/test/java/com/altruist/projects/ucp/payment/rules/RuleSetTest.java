@@ -0,0 +1,163 @@
+package com.altruist.projects.ucp.payment.rules;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.altruist.projects.ucp.payment.fx.FxRateSnapshot;
+import com.altruist.projects.ucp.payment.model.CountryPaymentRule;
+import com.altruist.projects.ucp.payment.model.FxRate;
+
+class RuleSetTest {
+
+    private static final Currency USD = Currency.getInstance("USD");
+    private static final Currency INR = Currency.getInstance("INR");
+    private static final Instant NOON_IST = Instant.parse("2026-10-19T06:30:00Z");
+    private static final FxRateSnapshot RATES = FxRateSnapshot.of(1, NOON_IST, USD, List.of(
+            FxRate.builder().currency(INR).rate(new BigDecimal("83.25")).build()));
+
+    @Test
+    void testMostSpecificMatchingRuleWins() {
+        // Given
+        RuleSet ruleSet = RuleSet.of(1, List.of(
+                rule(1L, "IN", null).build(),
+                rule(2L, "IN", "CARD").build(),
+                rule(3L, "IN", "CARD").bandMinAmount(50_000_00L).build(),
+                rule(4L, "IN", "UPI").bandMaxAmount(1_000_00L).build()));
+
+        // When / Then
+        assertEquals(3L, matchId(ruleSet, "IN", "CARD", 75_000_00L));
+        assertEquals(2L, matchId(ruleSet, "IN", "card", 10_000_00L));
+        assertEquals(4L, matchId(ruleSet, "IN", "UPI", 999_99L));
+        assertEquals(1L, matchId(ruleSet, "IN", "UPI", 1_000_00L)); // Band end is exclusive
+        assertEquals(1L, matchId(ruleSet, "IN", "APPLE_PAY", 75_000_00L));
+        assertNull(ruleSet.match("US", "CARD", 100L, null, NOON_IST, RATES));
+        // Banded rules are not considered by the band-agnostic lookup
+        assertEquals(2L, ruleSet.lookup("IN", "CARD").getRule().getId());
+    }
+
+    @Test
+    void testTimeBandRunsPastMidnightInRuleTimezone() {
+        // Given - CARD limits between 22:00 and 06:00 India time
+        RuleSet ruleSet = RuleSet.of(1, List.of(
+                rule(1L, "IN", "CARD").build(),
+                rule(2L, "IN", "CARD").activeFrom(LocalTime.of(22, 0)).activeUntil(LocalTime.of(6, 0))
+                        .timezone("Asia/Kolkata").build()));
+
+        // When / Then
+        assertEquals(1L, ruleSet.match("IN", "CARD", 100L, null, NOON_IST, RATES).getRule().getId());
+        assertEquals(2L, ruleSet.match("IN", "CARD", 100L, null,
+                Instant.parse("2026-10-19T20:30:00Z"), RATES).getRule().getId()); // 02:00 IST
+        assertEquals(2L, ruleSet.match("IN", "CARD", 100L, null,
+                Instant.parse("2026-10-19T16:30:00Z"), RATES).getRule().getId()); // 22:00 IST
+        assertEquals(1L, ruleSet.match("IN", "CARD", 100L, null,
+                Instant.parse("2026-10-20T00:30:00Z"), RATES).getRule().getId()); // 06:00 IST
+    }
+
+    @Test
+    void testPriorityOverridesSpecificityAndWildcardCountryApplies() {
+        // Given
+        RuleSet ruleSet = RuleSet.of(1, List.of(
+                rule(1L, "IN", "CARD").build(),
+                rule(2L, "*", null).currency(USD).bandMinAmount(10_000_00L).priority(10).build(),
+                rule(3L, "*", "UPI").build()));
+
+        // When / Then - amounts in INR are compared with the USD band after conversion
+        assertEquals(2L, matchId(ruleSet, "IN", "CARD", 1_000_000_00L)); // ~12,012 USD
+        assertEquals(1L, matchId(ruleSet, "IN", "CARD", 100_000_00L));   // ~1,201 USD
+        assertEquals(3L, matchId(ruleSet, "US", "UPI", 100_00L));
+        assertEquals(2L, ruleSet.match("GB", "CARD", 20_000_00L, USD, NOON_IST, RATES).getRule().getId());
+        assertNull(ruleSet.match("GB", "CARD", 100_00L, USD, NOON_IST, RATES));
+    }
+
+    @Test
+    void testIndexAgreesWithLinearScanOverThousandsOfRules() {
+        // Given
+        Random random = new Random(42);
+        String[] methods = {null, "CARD", "UPI", "APPLE_PAY"};
+        List<CountryPaymentRule> rules = new ArrayList<>();
+        for (long id = 1; id <= 3_000; id++) {
+            CountryPaymentRule.CountryPaymentRuleBuilder rule = rule(id, random.nextInt(20) == 0 ? "*" : "IN",
+                    methods[random.nextInt(methods.length)]).currency(INR).priority(random.nextInt(3));
+            if (random.nextBoolean()) {
+                long from = random.nextInt(1_000) * 1_000_00L;
+                rule.bandMinAmount(from).bandMaxAmount(from + (1 + random.nextInt(200)) * 1_000_00L);
+            }
+            if (random.nextInt(3) == 0) {
+                rule.activeFrom(LocalTime.of(random.nextInt(24), 0)).activeUntil(LocalTime.of(random.nextInt(24), 30))
+                        .timezone("Asia/Kolkata");
+            }
+            rules.add(rule.build());
+        }
+        RuleSet ruleSet = RuleSet.of(1, rules);
+
+        for (int i = 0; i < 2_000; i++) {
+            String method = methods[1 + random.nextInt(methods.length - 1)];
+            long amount = random.nextInt(1_200_000) * 100L;
+            Instant now = NOON_IST.plusSeconds(random.nextInt(86_400));
+
+            // When
+            RuleSet.ActiveRule match = ruleSet.match("IN", method, amount, INR, now, RATES);
+
+            // Then
+            assertEquals(linearScan(rules, method, amount, now), match == null ? null : match.getRule().getId());
+        }
+    }
+
+    /**
+     * Reference matcher: every rule checked in turn, the best by priority, specificity and id
+     */
+    private static Long linearScan(List<CountryPaymentRule> rules, String method, long amount, Instant now) {
+        CountryPaymentRule best = null;
+        int[] bestRank = null;
+        for (CountryPaymentRule rule : rules) {
+            if (rule.getPaymentMethod() != null && !rule.getPaymentMethod().equals(method)) {
+                continue;
+            }
+            if (rule.getBandMinAmount() != null && (amount < rule.getBandMinAmount() || amount >= rule.getBandMaxAmount())) {
+                continue;
+            }
+            boolean timeBand = rule.getActiveFrom() != null;
+            if (timeBand) {
+                LocalTime time = LocalTime.ofInstant(now, ZoneId.of(rule.getTimezone()));
+                boolean inside = rule.getActiveFrom().isBefore(rule.getActiveUntil())
+                        ? !time.isBefore(rule.getActiveFrom()) && time.isBefore(rule.getActiveUntil())
+                        : !time.isBefore(rule.getActiveFrom()) || time.isBefore(rule.getActiveUntil());
+                if (!inside) {
+                    continue;
+                }
+            }
+            int specificity = ("*".equals(rule.getCountryCode()) ? 0 : 8) + (rule.getPaymentMethod() != null ? 4 : 0)
+                    + (rule.getBandMinAmount() != null ? 2 : 0) + (timeBand ? 1 : 0);
+            int[] rank = {rule.getPriority(), specificity};
+            if (bestRank == null || rank[0] > bestRank[0] || (rank[0] == bestRank[0] && rank[1] > bestRank[1])) {
+                best = rule;
+                bestRank = rank;
+            }
+        }
+        return best == null ? null : best.getId();
+    }
+
+    private static Long matchId(RuleSet ruleSet, String country, String method, long amount) {
+        RuleSet.ActiveRule match = ruleSet.match(country, method, amount, null, NOON_IST, RATES);
+        return match == null ? null : match.getRule().getId();
+    }
+
+    private static CountryPaymentRule.CountryPaymentRuleBuilder rule(long id, String country, String method) {
+        return CountryPaymentRule.builder()
+                .id(id)
+                .countryCode(country)
+                .paymentMethod(method)
+                .enabled(true);
+    }
+}
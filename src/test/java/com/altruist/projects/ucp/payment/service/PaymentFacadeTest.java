@@ -1,29 +1,75 @@
 package com.altruist.projects.ucp.payment.service;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.math.BigDecimal;
+import java.time.Clock;
 import java.util.Arrays;
+import java.util.Currency;
+import java.util.concurrent.CompletableFuture;
+import java.util.List;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import com.altruist.projects.ucp.payment.analytics.PaymentAnalytics;
+import com.altruist.projects.ucp.payment.archive.PaymentArchive;
+import com.altruist.projects.ucp.payment.columnar.PaymentColumnStore;
 import com.altruist.projects.ucp.payment.dto.PaymentRequest;
+import com.altruist.projects.ucp.payment.dto.PaymentRollup;
 import com.altruist.projects.ucp.payment.dto.PaymentResponse;
+import com.altruist.projects.ucp.payment.duplicate.DuplicatePaymentDetector;
+import com.altruist.projects.ucp.payment.events.PaymentEventBus;
+import com.altruist.projects.ucp.payment.fx.FxRateService;
 import com.altruist.projects.ucp.payment.gateway.ApplePayPaymentGateway;
 import com.altruist.projects.ucp.payment.gateway.CardPaymentGateway;
+import com.altruist.projects.ucp.payment.gateway.PaymentGateway;
 import com.altruist.projects.ucp.payment.gateway.UpiPaymentGateway;
+import com.altruist.projects.ucp.payment.health.PaymentLoadMonitor;
+import com.altruist.projects.ucp.payment.lanes.AccountLanes;
+import com.altruist.projects.ucp.payment.ledger.AccountLedger;
+import com.altruist.projects.ucp.payment.limit.ConcurrencyLimiterRegistry;
+import com.altruist.projects.ucp.payment.model.FxRate;
 import com.altruist.projects.ucp.payment.model.Payment;
+import com.altruist.projects.ucp.payment.pipeline.PaymentPipeline;
+import com.altruist.projects.ucp.payment.pipeline.PaymentStage;
+import com.altruist.projects.ucp.payment.pipeline.stage.AdmissionStage;
+import com.altruist.projects.ucp.payment.pipeline.stage.DuplicateCheckStage;
+import com.altruist.projects.ucp.payment.pipeline.stage.EventPublishingStage;
+import com.altruist.projects.ucp.payment.pipeline.stage.GatewayExecutionStage;
+import com.altruist.projects.ucp.payment.pipeline.stage.LedgerPostingStage;
+import com.altruist.projects.ucp.payment.pipeline.stage.PaymentDefaultsStage;
+import com.altruist.projects.ucp.payment.pipeline.stage.PersistenceStage;
+import com.altruist.projects.ucp.payment.pipeline.stage.PricingStage;
+import com.altruist.projects.ucp.payment.pipeline.stage.RequestValidationStage;
+import com.altruist.projects.ucp.payment.pipeline.stage.RetrySchedulingStage;
+import com.altruist.projects.ucp.payment.pipeline.stage.RiskCheckStage;
+import com.altruist.projects.ucp.payment.pipeline.stage.RoutingStage;
+import com.altruist.projects.ucp.payment.pipeline.stage.RuleValidationStage;
+import com.altruist.projects.ucp.payment.repository.FxRateRepository;
 import com.altruist.projects.ucp.payment.repository.PaymentRepository;
+import com.altruist.projects.ucp.payment.repository.PaymentRetryRepository;
+import com.altruist.projects.ucp.payment.repository.PaymentSummaryRepository;
+import com.altruist.projects.ucp.payment.retry.PaymentRetryScheduler;
+import com.altruist.projects.ucp.payment.risk.VelocityRiskScorer;
+import com.altruist.projects.ucp.payment.routing.GatewayRouter;
 import com.altruist.projects.ucp.payment.strategy.CountryBasedChargeStrategy;
 import com.altruist.projects.ucp.payment.validation.CountryPaymentRuleValidator;
 import com.altruist.projects.ucp.payment.validation.CountryPaymentRuleValidator.ValidationResult;
+import com.zaxxer.hikari.HikariDataSource;
 
 class PaymentFacadeTest {
     
@@ -33,29 +79,62 @@ class PaymentFacadeTest {
     @Mock
     private CountryPaymentRuleValidator ruleValidator;
     
+    @Mock
+    private ObjectProvider<HikariDataSource> dataSources;
+    
+    private PaymentLoadMonitor loadMonitor;
+    
+    private ConcurrencyLimiterRegistry concurrencyLimiters;
+    
+    @Mock
+    private PaymentSummaryRepository summaryRepository;
+    
+    @Mock
+    private FxRateRepository fxRateRepository;
+    
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    
+    @Mock
+    private PaymentRetryRepository retryRepository;
+    
+    @Mock
+    private PaymentArchive paymentArchive;
+    
+    @Mock
+    private AccountLedger ledger;
+    
+    private PaymentAnalytics paymentAnalytics;
+    
+    private FxRateService fxRateService;
+    
+    private DuplicatePaymentDetector duplicateDetector;
+    
+    private VelocityRiskScorer riskScorer;
+    
+    private PaymentEventBus eventBus;
+    
     private PaymentFacade paymentFacade;
     
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
         
-        UpiPaymentGateway upiGateway = new UpiPaymentGateway();
-        CardPaymentGateway cardGateway = new CardPaymentGateway();
-        ApplePayPaymentGateway applePayGateway = new ApplePayPaymentGateway();
-        CountryBasedChargeStrategy chargeStrategy = new CountryBasedChargeStrategy();
-        
         // Mock successful validation by default
-        when(ruleValidator.validate(any(), any())).thenReturn(ValidationResult.success());
+        when(ruleValidator.validate(any(), any(), anyLong(), any())).thenReturn(ValidationResult.success());
         
-        paymentFacade = new PaymentFacade(
-            Arrays.asList(upiGateway, cardGateway, applePayGateway),
-            chargeStrategy,
-            paymentRepository,
-            ruleValidator
-        );
+        loadMonitor = new PaymentLoadMonitor(dataSources, 1, 0.9, 5, 60);
+        concurrencyLimiters = new ConcurrencyLimiterRegistry(1, 1, 10, 0.9, 2.0, 1);
+        paymentAnalytics = new PaymentAnalytics(summaryRepository, Clock.systemUTC(), 10, 2);
+        fxRateService = new FxRateService(fxRateRepository, Clock.systemUTC(), transactionManager, "USD");
+        fxRateService.activate(List.of(
+                FxRate.builder().currency(Currency.getInstance("INR")).rate(new BigDecimal("83.25")).build()));
+        duplicateDetector = new DuplicatePaymentDetector(Clock.systemUTC(), "REJECT", 30, 4, 1 << 16, 4, 1024);
+        riskScorer = new VelocityRiskScorer(Clock.systemUTC(), fxRateService, true, 4, 100,
+                2, 60, 200, "20000.00", "100000.00", 3, 40, 70, 1000);
+        eventBus = new PaymentEventBus(Clock.systemUTC(), 64);
         
-        // Set default country using reflection since @Value won't be injected in tests
-        ReflectionTestUtils.setField(paymentFacade, "defaultCountry", "IN");
+        paymentFacade = facade(Arrays.asList(new UpiPaymentGateway(), new CardPaymentGateway(), new ApplePayPaymentGateway()));
     }
     
     @Test
@@ -77,7 +156,7 @@ class PaymentFacadeTest {
                 .fromAccount("1234567890")
                 .description("Test payment")
                 .paymentMethod("UPI")
-                .amount(1000.0)
+                .amount(1_000_00L)
                 .destinationCountry("IN")
                 .build();
         
@@ -89,8 +168,15 @@ class PaymentFacadeTest {
         assertEquals("SUCCESS", response.getStatus());
         assertEquals("UPI", response.getGatewayUsed());
         assertEquals(1L, response.getPaymentId());
-        assertEquals(10.0, response.getCharges()); // 1% of 1000
-        assertEquals(1010.0, response.getTotalAmount());
+        assertEquals(10_00L, response.getCharges()); // 1% of 1000
+        assertEquals(1_010_00L, response.getTotalAmount());
+        assertEquals(1, eventBus.getPublished());
+        
+        List<PaymentRollup> rollups = paymentAnalytics.rollups(PaymentAnalytics.MINUTE, 1, "IN");
+        assertEquals(1, rollups.size());
+        assertEquals(1, rollups.get(0).getCount());
+        assertEquals(1_000_00L, rollups.get(0).getVolume());
+        assertEquals(10_00L, rollups.get(0).getCharges());
     }
     
     @Test
@@ -112,7 +198,7 @@ class PaymentFacadeTest {
                 .fromAccount("1234567890")
                 .description("Card payment")
                 .paymentMethod("CARD")
-                .amount(2000.0)
+                .amount(2_000_00L)
                 .destinationCountry("US")
                 .build();
         
@@ -124,8 +210,8 @@ class PaymentFacadeTest {
         assertEquals("SUCCESS", response.getStatus());
         assertEquals("CARD", response.getGatewayUsed());
         assertEquals(2L, response.getPaymentId());
-        assertEquals(60.0, response.getCharges()); // 3% of 2000
-        assertEquals(2060.0, response.getTotalAmount());
+        assertEquals(60_00L, response.getCharges()); // 3% of 2000
+        assertEquals(2_060_00L, response.getTotalAmount());
     }
     
     @Test
@@ -147,7 +233,7 @@ class PaymentFacadeTest {
                 .fromAccount("1234567890")
                 .description("Apple Pay payment")
                 .paymentMethod("APPLE_PAY")
-                .amount(1500.0)
+                .amount(1_500_00L)
                 .destinationCountry("GB")
                 .build();
         
@@ -159,8 +245,8 @@ class PaymentFacadeTest {
         assertEquals("SUCCESS", response.getStatus());
         assertEquals("APPLE_PAY", response.getGatewayUsed());
         assertEquals(3L, response.getPaymentId());
-        assertEquals(37.5, response.getCharges()); // 2.5% of 1500
-        assertEquals(1537.5, response.getTotalAmount());
+        assertEquals(37_50L, response.getCharges()); // 2.5% of 1500
+        assertEquals(1_537_50L, response.getTotalAmount());
     }
     
     @Test
@@ -182,7 +268,7 @@ class PaymentFacadeTest {
                 .fromAccount("1234567890")
                 .description("Payment without country")
                 .paymentMethod("UPI")
-                .amount(1000.0)
+                .amount(1_000_00L)
                 .destinationCountry(null) // No country specified
                 .build();
         
@@ -194,8 +280,52 @@ class PaymentFacadeTest {
         assertEquals("SUCCESS", response.getStatus());
         assertEquals("UPI", response.getGatewayUsed());
         assertEquals(4L, response.getPaymentId());
-        assertEquals(10.0, response.getCharges()); // 1% of 1000 (default to IN)
-        assertEquals(1010.0, response.getTotalAmount());
+        assertEquals(10_00L, response.getCharges()); // 1% of 1000 (default to IN)
+        assertEquals(1_010_00L, response.getTotalAmount());
+    }
+    
+    @Test
+    void testProcessPaymentInForeignCurrencySettlesInLocalCurrency() {
+        // Given
+        when(paymentRepository.save(any(Payment.class))).thenReturn(Payment.builder().id(1L).build());
+        
+        PaymentRequest request = PaymentRequest.builder()
+                .name("John Doe")
+                .paymentMethod("UPI")
+                .amount(100_00L)
+                .currency(Currency.getInstance("USD"))
+                .destinationCountry("IN")
+                .build();
+        
+        // When
+        PaymentResponse response = paymentFacade.processPayment(request);
+        
+        // Then
+        assertEquals("SUCCESS", response.getStatus());
+        assertEquals(1_00L, response.getCharges()); // 1% in the payment currency
+        assertEquals(101_00L, response.getTotalAmount());
+        assertEquals(Currency.getInstance("USD"), response.getCurrency());
+        assertEquals(8_325_00L, response.getSettlementAmount()); // USD 100 at 83.25
+        assertEquals(Currency.getInstance("INR"), response.getSettlementCurrency());
+    }
+    
+    @Test
+    void testProcessPaymentWithoutExchangeRateFails() {
+        // Given
+        PaymentRequest request = PaymentRequest.builder()
+                .name("John Doe")
+                .paymentMethod("UPI")
+                .amount(100_00L)
+                .currency(Currency.getInstance("JPY"))
+                .destinationCountry("IN")
+                .build();
+        
+        // When
+        PaymentResponse response = paymentFacade.processPayment(request);
+        
+        // Then
+        assertEquals("FAILED", response.getStatus());
+        assertEquals("No exchange rate from JPY to INR", response.getMessage());
     }
     
     @Test
@@ -207,7 +337,7 @@ class PaymentFacadeTest {
                 .fromAccount("654321")
                 .description("Invalid payment")
                 .paymentMethod("INVALID")
-                .amount(500.0)
+                .amount(500_00L)
                 .destinationCountry("IN")
                 .build();
         
@@ -220,6 +350,207 @@ class PaymentFacadeTest {
         assertEquals("Unsupported payment method: INVALID", response.getMessage());
     }
     
+    @Test
+    void testProcessPaymentRejectsDuplicateSubmission() {
+        // Given
+        when(paymentRepository.save(any(Payment.class))).thenReturn(Payment.builder().id(1L).build());
+        PaymentRequest.PaymentRequestBuilder request = PaymentRequest.builder()
+                .name("Test User")
+                .toAccount("9876543210")
+                .fromAccount("1234567890")
+                .paymentMethod("UPI")
+                .amount(1_000_00L)
+                .destinationCountry("IN");
+
+        // When
+        PaymentResponse first = paymentFacade.processPayment(request.build());
+        PaymentResponse second = paymentFacade.processPayment(request.build());
+        request.paymentMethod("INVALID").amount(5_00L);
+        paymentFacade.processPayment(request.build());
+        PaymentResponse retried = paymentFacade.processPayment(request.build());
+
+        // Then
+        assertEquals("SUCCESS", first.getStatus());
+        assertEquals("DUPLICATE", second.getStatus());
+        assertEquals("Unsupported payment method: INVALID", retried.getMessage()); // Failed payments are released
+        assertEquals(1L, duplicateDetector.snapshot().get("confirmedDuplicates"));
+    }
+
+    @Test
+    void testProcessPaymentDeclinedByRiskChecks() {
+        // Given - three payments in a minute from one account, the third also over the hourly amount
+        when(paymentRepository.save(any(Payment.class))).thenReturn(Payment.builder().id(1L).build());
+        PaymentRequest.PaymentRequestBuilder request = PaymentRequest.builder()
+                .name("Test User")
+                .fromAccount("1234567890")
+                .paymentMethod("UPI")
+                .currency(Currency.getInstance("USD"))
+                .destinationCountry("IN");
+
+        // When
+        PaymentResponse first = paymentFacade.processPayment(request.toAccount("111").amount(100_00L).build());
+        PaymentResponse second = paymentFacade.processPayment(request.toAccount("222").amount(100_00L).build());
+        PaymentResponse third = paymentFacade.processPayment(request.toAccount("333").amount(25_000_00L).build());
+
+        // Then
+        assertEquals("SUCCESS", first.getStatus());
+        assertEquals("SUCCESS", second.getStatus());
+        assertEquals("DECLINED", third.getStatus());
+        assertTrue(third.getMessage().contains("3 payments in the last minute"));
+    }
+
+    @Test
+    void testProcessPaymentRejectedWhenAtCapacity() {
+        // Given
+        assertTrue(loadMonitor.tryStartPayment()); // occupy the only in-flight slot
+        
+        PaymentRequest request = PaymentRequest.builder()
+                .name("Test User")
+                .toAccount("9876543210")
+                .fromAccount("1234567890")
+                .paymentMethod("UPI")
+                .amount(1_000_00L)
+                .destinationCountry("IN")
+                .build();
+        
+        // When
+        PaymentResponse response = paymentFacade.processPayment(request);
+        
+        // Then
+        assertEquals("REJECTED", response.getStatus());
+        assertEquals(1L, response.getRetryAfterSeconds());
+        assertEquals(1, loadMonitor.getInFlightPayments());
+    }
+    
+    @Test
+    void testProcessPaymentRejectedWhenGatewayLimitReached() {
+        // Given
+        assertTrue(concurrencyLimiters.forGateway("CARD").tryAcquire()); // saturate the CARD limiter
+        
+        PaymentRequest request = PaymentRequest.builder()
+                .name("Test User")
+                .toAccount("4111111111111111")
+                .fromAccount("1234567890")
+                .paymentMethod("CARD")
+                .amount(1_000_00L)
+                .destinationCountry("US")
+                .build();
+        
+        // When
+        PaymentResponse response = paymentFacade.processPayment(request);
+        
+        // Then
+        assertEquals("REJECTED", response.getStatus());
+        assertEquals(0, concurrencyLimiters.global().getInFlight());
+        assertEquals(0, loadMonitor.getInFlightPayments());
+    }
+    
+    @Test
+    void testProcessPaymentFailsOverToSecondProvider() {
+        // Given
+        PaymentGateway failingCard = new CardPaymentGateway() {
+            @Override
+            public PaymentResponse processPayment(PaymentRequest request) {
+                throw new IllegalStateException("Processor unavailable");
+            }
+            
+            @Override
+            public String getProviderId() {
+                return "CARD_PRIMARY";
+            }
+        };
+        paymentFacade = facade(Arrays.asList(failingCard, new CardPaymentGateway()));
+        when(paymentRepository.save(any(Payment.class))).thenReturn(Payment.builder().id(5L).build());
+        
+        PaymentRequest request = PaymentRequest.builder()
+                .name("Jane Doe")
+                .toAccount("4111111111111111")
+                .fromAccount("1234567890")
+                .paymentMethod("CARD")
+                .amount(2_000_00L)
+                .destinationCountry("US")
+                .build();
+        
+        // When - whichever provider is picked first, the payment ends up on the healthy one
+        PaymentResponse response = paymentFacade.processPayment(request);
+        
+        // Then
+        assertEquals("SUCCESS", response.getStatus());
+        assertEquals("CARD", response.getGatewayUsed());
+        assertEquals(5L, response.getPaymentId());
+    }
+    
+    @Test
+    void testProcessPaymentQueuedForRetryWhenGatewayFails() {
+        // Given
+        PaymentGateway failingCard = new CardPaymentGateway() {
+            @Override
+            public PaymentResponse processPayment(PaymentRequest request) {
+                throw new IllegalStateException("Processor unavailable");
+            }
+        };
+        paymentFacade = facade(Arrays.asList(failingCard));
+        Payment saved = Payment.builder().id(9L).build();
+        when(paymentRepository.save(any(Payment.class))).thenReturn(saved);
+        
+        PaymentRequest request = PaymentRequest.builder()
+                .name("Jane Doe")
+                .toAccount("4111111111111111")
+                .fromAccount("1234567890")
+                .paymentMethod("CARD")
+                .amount(2_000_00L)
+                .destinationCountry("US")
+                .build();
+        
+        // When
+        PaymentResponse response = paymentFacade.processPayment(request);
+        
+        // Then
+        assertEquals("RETRYING", response.getStatus());
+        assertEquals(9L, response.getPaymentId());
+        assertEquals("RETRYING", saved.getStatus());
+        verify(retryRepository).save(argThat(retry -> retry.getPaymentId() == 9L && retry.getAttempt() == 1));
+        assertEquals(0, eventBus.getPublished()); // Published once the retry completes
+    }
+    
+    @Test
+    void testProcessPaymentAsyncDoesNotWaitForGateway() {
+        // Given
+        CompletableFuture<PaymentResponse> gatewayAnswer = new CompletableFuture<>();
+        PaymentGateway asyncCard = new CardPaymentGateway() {
+            @Override
+            public CompletableFuture<PaymentResponse> processPaymentAsync(PaymentRequest request) {
+                return gatewayAnswer;
+            }
+        };
+        paymentFacade = facade(Arrays.asList(asyncCard));
+        when(paymentRepository.save(any(Payment.class))).thenReturn(Payment.builder().id(7L).build());
+        
+        PaymentRequest request = PaymentRequest.builder()
+                .name("Jane Doe")
+                .toAccount("4111111111111111")
+                .fromAccount("1234567890")
+                .paymentMethod("CARD")
+                .amount(2_000_00L)
+                .destinationCountry("US")
+                .build();
+        
+        // When
+        CompletableFuture<PaymentResponse> future = paymentFacade.processPaymentAsync(request);
+        
+        // Then - the caller gets control back while the gateway call is in flight
+        assertFalse(future.isDone());
+        assertEquals(1, loadMonitor.getInFlightPayments());
+        
+        gatewayAnswer.complete(new CardPaymentGateway().processPayment(request));
+        PaymentResponse response = future.join();
+        assertEquals("SUCCESS", response.getStatus());
+        assertEquals(7L, response.getPaymentId());
+        assertEquals(60_00L, response.getCharges()); // 3% of 2000
+        assertEquals(0, loadMonitor.getInFlightPayments());
+        assertEquals(0, concurrencyLimiters.forGateway("CARD").getInFlight());
+    }
+    
     @Test
     void testGetAvailableGateways() {
         // When
@@ -264,4 +595,49 @@ class PaymentFacadeTest {
         assertEquals("Jane Doe", history.get(1).getName());
     }
     
+    @Test
+    void testGetPaymentHistoryIncludesArchivedPayments() {
+        // Given
+        Payment archived = Payment.builder().id(1L).name("Archived").build();
+        Payment stillInTable = Payment.builder().id(2L).name("Stale copy").build();
+        Payment hot = Payment.builder().id(2L).name("Hot").build();
+        Payment recent = Payment.builder().id(3L).name("Recent").build();
+        when(paymentArchive.findAll()).thenReturn(List.of(archived, stillInTable));
+        when(paymentRepository.findAll()).thenReturn(List.of(recent, hot));
+        
+        // When
+        var history = paymentFacade.getPaymentHistory();
+        
+        // Then
+        assertEquals(List.of(1L, 2L, 3L), history.stream().map(Payment::getId).toList());
+        assertEquals("Hot", history.get(1).getName());
+    }
+    
+    /**
+     * Facade over the built-in stages, with the default country IN and synchronous completion
+     */
+    private PaymentFacade facade(List<PaymentGateway> gateways) {
+        GatewayRouter router = new GatewayRouter(gateways, new MockEnvironment());
+        PaymentColumnStore columnStore = new PaymentColumnStore(paymentRepository, 16, 4);
+        PaymentRetryScheduler retryScheduler = new PaymentRetryScheduler(retryRepository, paymentRepository, router,
+                columnStore, eventBus, ledger, concurrencyLimiters, loadMonitor, paymentAnalytics, Clock.systemUTC(), Runnable::run, "test", true, 5, 2_000, 300_000, 100, 1_000, 30, 300, 500, 1_000);
+        List<PaymentStage> stages = List.of(
+            new AdmissionStage(loadMonitor, concurrencyLimiters, paymentAnalytics),
+            new PaymentDefaultsStage("IN"),
+            new RequestValidationStage(fxRateService),
+            new RuleValidationStage(ruleValidator),
+            new DuplicateCheckStage(duplicateDetector),
+            new RiskCheckStage(riskScorer),
+            new PricingStage(new CountryBasedChargeStrategy(), fxRateService),
+            new RoutingStage(router, loadMonitor, concurrencyLimiters),
+            new GatewayExecutionStage(router, paymentRepository, loadMonitor, retryScheduler),
+            new PersistenceStage(paymentRepository, columnStore),
+            new RetrySchedulingStage(retryScheduler),
+            new LedgerPostingStage(ledger),
+            new EventPublishingStage(eventBus)
+        );
+        return new PaymentFacade(new PaymentPipeline(stages, List.of(), Runnable::run), router, paymentRepository,
+                paymentArchive, new AccountLanes(Runnable::run, loadMonitor, true, 32), 1);
+    }
+    
 }
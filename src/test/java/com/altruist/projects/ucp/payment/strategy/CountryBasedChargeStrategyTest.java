@@ -16,44 +16,45 @@ class CountryBasedChargeStrategyTest {
     
     @Test
     void testCalculateChargesForIndia() {
-        Double charges = chargeStrategy.calculateCharges("IN", 1000.0);
-        assertEquals(10.0, charges); // 1% of 1000
+        long charges = chargeStrategy.calculateCharges("IN", 1_000_00L);
+        assertEquals(10_00L, charges); // 1% of 1000.00
     }
     
     @Test
     void testCalculateChargesForUSA() {
-        Double charges = chargeStrategy.calculateCharges("US", 1000.0);
-        assertEquals(30.0, charges); // 3% of 1000
+        long charges = chargeStrategy.calculateCharges("US", 1_000_00L);
+        assertEquals(30_00L, charges); // 3% of 1000.00
     }
     
     @Test
     void testCalculateChargesForUK() {
-        Double charges = chargeStrategy.calculateCharges("GB", 1000.0);
-        assertEquals(25.0, charges); // 2.5% of 1000
+        long charges = chargeStrategy.calculateCharges("GB", 1_000_00L);
+        assertEquals(25_00L, charges); // 2.5% of 1000.00
     }
     
     @Test
     void testCalculateChargesForEurope() {
-        Double charges = chargeStrategy.calculateCharges("EU", 1000.0);
-        assertEquals(28.0, charges); // 2.8% of 1000
+        long charges = chargeStrategy.calculateCharges("EU", 1_000_00L);
+        assertEquals(28_00L, charges); // 2.8% of 1000.00
     }
     
     @Test
     void testCalculateChargesForOtherCountries() {
-        Double charges = chargeStrategy.calculateCharges("AU", 1000.0);
-        assertEquals(35.0, charges); // 3.5% of 1000 (default)
+        long charges = chargeStrategy.calculateCharges("AU", 1_000_00L);
+        assertEquals(35_00L, charges); // 3.5% of 1000.00 (default)
     }
     
     @Test
     void testCalculateChargesWithNullCountry() {
-        Double charges = chargeStrategy.calculateCharges(null, 1000.0);
-        assertEquals(0.0, charges);
+        long charges = chargeStrategy.calculateCharges(null, 1_000_00L);
+        assertEquals(0L, charges);
     }
     
     @Test
-    void testCalculateChargesWithNullAmount() {
-        Double charges = chargeStrategy.calculateCharges("IN", null);
-        assertEquals(0.0, charges);
+    void testCalculateChargesRoundsHalfUpToMinorUnit() {
+        assertEquals(13L, chargeStrategy.calculateCharges("IN", 12_50L)); // 1% of 12.50 = 0.125
+        assertEquals(3L, chargeStrategy.calculateCharges("GB", 1_00L)); // 2.5% of 1.00 = 0.025
+        assertEquals(0L, chargeStrategy.calculateCharges("US", 16L)); // 3% of 0.16 = 0.0048
     }
     
 }
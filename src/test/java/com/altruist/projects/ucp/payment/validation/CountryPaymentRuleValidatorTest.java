@@ -3,37 +3,58 @@ package com.altruist.projects.ucp.payment.validation;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
 import java.time.LocalTime;
-import java.util.Optional;
+import java.time.ZoneOffset;
+import java.util.Currency;
+import java.util.List;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import com.altruist.projects.ucp.payment.calendar.OperatingCalendarService;
+import com.altruist.projects.ucp.payment.fx.FxRateService;
+import com.altruist.projects.ucp.payment.model.FxRate;
 import com.altruist.projects.ucp.payment.model.CountryPaymentRule;
-import com.altruist.projects.ucp.payment.repository.CountryPaymentRuleRepository;
+import com.altruist.projects.ucp.payment.repository.FxRateRepository;
+import com.altruist.projects.ucp.payment.repository.PaymentHolidayRepository;
+import com.altruist.projects.ucp.payment.rules.CountryPaymentRuleRegistry;
+import com.altruist.projects.ucp.payment.rules.RuleSet;
 import com.altruist.projects.ucp.payment.validation.CountryPaymentRuleValidator.ValidationResult;
 
 @ExtendWith(MockitoExtension.class)
 class CountryPaymentRuleValidatorTest {
     
     @Mock
-    private CountryPaymentRuleRepository ruleRepository;
+    private CountryPaymentRuleRegistry ruleRegistry;
+    
+    @Mock
+    private PaymentHolidayRepository holidayRepository;
+    
+    @Mock
+    private FxRateRepository fxRateRepository;
+    
+    @Mock
+    private PlatformTransactionManager transactionManager;
     
-    @InjectMocks
     private CountryPaymentRuleValidator validator;
     
     private CountryPaymentRule indiaRule;
     
     @BeforeEach
     void setUp() {
+        validator = validatorAt("2026-10-19T06:30:00Z"); // Monday 12:00 IST
+        
         indiaRule = CountryPaymentRule.builder()
                 .countryCode("IN")
-                .minAmount(100.0)
-                .maxAmount(200000.0)
+                .minAmount(100_00L)
+                .maxAmount(200_000_00L)
                 .operationStartTime(LocalTime.of(6, 0))
                 .operationEndTime(LocalTime.of(22, 0))
                 .timezone("Asia/Kolkata")
@@ -44,11 +65,10 @@ class CountryPaymentRuleValidatorTest {
     @Test
     void testValidateAmount_WithinRange_Success() {
         // Given
-        when(ruleRepository.findByCountryCodeAndEnabledTrue("IN"))
-                .thenReturn(Optional.of(indiaRule));
+        when(ruleRegistry.current()).thenReturn(RuleSet.of(1, List.of(indiaRule)));
         
         // When
-        ValidationResult result = validator.validate("IN", 5000.0);
+        ValidationResult result = validator.validate("IN", 5_000_00L);
         
         // Then
         assertTrue(result.isValid());
@@ -58,11 +78,10 @@ class CountryPaymentRuleValidatorTest {
     @Test
     void testValidateAmount_BelowMinimum_Failure() {
         // Given
-        when(ruleRepository.findByCountryCodeAndEnabledTrue("IN"))
-                .thenReturn(Optional.of(indiaRule));
+        when(ruleRegistry.current()).thenReturn(RuleSet.of(1, List.of(indiaRule)));
         
         // When
-        ValidationResult result = validator.validate("IN", 50.0);
+        ValidationResult result = validator.validate("IN", 50_00L);
         
         // Then
         assertFalse(result.isValid());
@@ -73,11 +92,10 @@ class CountryPaymentRuleValidatorTest {
     @Test
     void testValidateAmount_AboveMaximum_Failure() {
         // Given
-        when(ruleRepository.findByCountryCodeAndEnabledTrue("IN"))
-                .thenReturn(Optional.of(indiaRule));
+        when(ruleRegistry.current()).thenReturn(RuleSet.of(1, List.of(indiaRule)));
         
         // When
-        ValidationResult result = validator.validate("IN", 300000.0);
+        ValidationResult result = validator.validate("IN", 300_000_00L);
         
         // Then
         assertFalse(result.isValid());
@@ -88,11 +106,10 @@ class CountryPaymentRuleValidatorTest {
     @Test
     void testValidateAmount_NoRuleForCountry_Success() {
         // Given
-        when(ruleRepository.findByCountryCodeAndEnabledTrue("XX"))
-                .thenReturn(Optional.empty());
+        when(ruleRegistry.current()).thenReturn(RuleSet.of(1, List.of(indiaRule)));
         
         // When
-        ValidationResult result = validator.validate("XX", 1000.0);
+        ValidationResult result = validator.validate("XX", 1_000_00L);
         
         // Then
         assertTrue(result.isValid());
@@ -102,11 +119,10 @@ class CountryPaymentRuleValidatorTest {
     @Test
     void testValidateAmount_EdgeCase_MinAmount_Success() {
         // Given
-        when(ruleRepository.findByCountryCodeAndEnabledTrue("IN"))
-                .thenReturn(Optional.of(indiaRule));
+        when(ruleRegistry.current()).thenReturn(RuleSet.of(1, List.of(indiaRule)));
         
         // When
-        ValidationResult result = validator.validate("IN", 100.0);
+        ValidationResult result = validator.validate("IN", 100_00L);
         
         // Then
         assertTrue(result.isValid());
@@ -115,13 +131,122 @@ class CountryPaymentRuleValidatorTest {
     @Test
     void testValidateAmount_EdgeCase_MaxAmount_Success() {
         // Given
-        when(ruleRepository.findByCountryCodeAndEnabledTrue("IN"))
-                .thenReturn(Optional.of(indiaRule));
+        when(ruleRegistry.current()).thenReturn(RuleSet.of(1, List.of(indiaRule)));
         
         // When
-        ValidationResult result = validator.validate("IN", 200000.0);
+        ValidationResult result = validator.validate("IN", 200_000_00L);
         
         // Then
         assertTrue(result.isValid());
     }
+    
+    @Test
+    void testValidateAmount_PaymentMethodVariant_OverridesCountryRule() {
+        // Given
+        CountryPaymentRule indiaCardRule = CountryPaymentRule.builder()
+                .countryCode("IN")
+                .paymentMethod("CARD")
+                .minAmount(500_00L)
+                .enabled(true)
+                .build();
+        when(ruleRegistry.current()).thenReturn(RuleSet.of(1, List.of(indiaRule, indiaCardRule)));
+        
+        // When
+        ValidationResult cardResult = validator.validate("IN", "CARD", 300_00L, null);
+        ValidationResult upiResult = validator.validate("IN", "UPI", 300_000_00L, null);
+        
+        // Then
+        assertFalse(cardResult.isValid());
+        assertTrue(cardResult.getErrorMessage().contains("below minimum"));
+        assertFalse(upiResult.isValid());
+        assertTrue(upiResult.getErrorMessage().contains("exceeds maximum"));
+    }
+
+    @Test
+    void testValidateTimeWindow_AmountBandRule_RestrictsLargePaymentsToBusinessHours() {
+        // Given - CARD payments from 1,00,000 INR only between 09:00 and 11:00 IST
+        CountryPaymentRule largeCardRule = CountryPaymentRule.builder()
+                .countryCode("IN")
+                .paymentMethod("CARD")
+                .bandMinAmount(100_000_00L)
+                .operationStartTime(LocalTime.of(9, 0))
+                .operationEndTime(LocalTime.of(11, 0))
+                .timezone("Asia/Kolkata")
+                .enabled(true)
+                .build();
+        when(ruleRegistry.current()).thenReturn(RuleSet.of(1, List.of(indiaRule, largeCardRule)));
+
+        // When - at 12:00 IST
+        ValidationResult smallResult = validator.validate("IN", "CARD", 5_000_00L, null);
+        ValidationResult largeResult = validator.validate("IN", "CARD", 150_000_00L, null);
+
+        // Then
+        assertTrue(smallResult.isValid());
+        assertFalse(largeResult.isValid());
+        assertTrue(largeResult.getErrorMessage().contains("not allowed at this time"));
+    }
+
+    @Test
+    void testValidateAmount_ForeignCurrency_ConvertedToRuleCurrency() {
+        // Given - limits are INR 100 - 200,000, USD 1 = INR 83.25
+        when(ruleRegistry.current()).thenReturn(RuleSet.of(1, List.of(indiaRule)));
+        Currency usd = Currency.getInstance("USD");
+        
+        // When
+        ValidationResult withinResult = validator.validate("IN", null, 1_000_00L, usd); // INR 83,250
+        ValidationResult belowResult = validator.validate("IN", null, 1_00L, usd); // INR 83.25
+        ValidationResult noRateResult = validator.validate("IN", null, 1_000_00L, Currency.getInstance("JPY"));
+        
+        // Then
+        assertTrue(withinResult.isValid());
+        assertFalse(belowResult.isValid());
+        assertTrue(belowResult.getErrorMessage().contains("83.25 INR is below minimum"));
+        assertFalse(noRateResult.isValid());
+        assertTrue(noRateResult.getErrorMessage().contains("No exchange rate from JPY to INR"));
+    }
+    
+    @Test
+    void testValidateTimeWindow_Closed_ReportsNextOpening() {
+        // Given
+        validator = validatorAt("2026-10-19T17:30:00Z"); // Monday 23:00 IST
+        when(ruleRegistry.current()).thenReturn(RuleSet.of(1, List.of(indiaRule)));
+        
+        // When
+        ValidationResult result = validator.validate("IN", 5_000_00L);
+        
+        // Then
+        assertFalse(result.isValid());
+        assertTrue(result.getErrorMessage().contains("not allowed at this time"));
+        assertTrue(result.getErrorMessage().contains("next opening: 2026-10-20T06:00:00+05:30"));
+    }
+    
+    @Test
+    void testValidateTimeWindow_OvernightWindow_OpenAfterMidnight() {
+        // Given
+        validator = validatorAt("2026-10-19T20:30:00Z"); // Tuesday 02:00 IST
+        CountryPaymentRule overnightRule = CountryPaymentRule.builder()
+                .countryCode("IN")
+                .operationStartTime(LocalTime.of(20, 0))
+                .operationEndTime(LocalTime.of(4, 0))
+                .timezone("Asia/Kolkata")
+                .operatingDays("MON-FRI")
+                .enabled(true)
+                .build();
+        when(ruleRegistry.current()).thenReturn(RuleSet.of(1, List.of(overnightRule)));
+        
+        // When
+        ValidationResult result = validator.validate("IN", 5_000_00L);
+        
+        // Then
+        assertTrue(result.isValid());
+    }
+    
+    private CountryPaymentRuleValidator validatorAt(String instant) {
+        Clock clock = Clock.fixed(Instant.parse(instant), ZoneOffset.UTC);
+        FxRateService fxRateService = new FxRateService(fxRateRepository, clock, transactionManager, "USD");
+        fxRateService.activate(List.of(
+                FxRate.builder().currency(Currency.getInstance("INR")).rate(new BigDecimal("83.25")).build()));
+        return new CountryPaymentRuleValidator(ruleRegistry, new OperatingCalendarService(holidayRepository, clock, 14),
+                fxRateService, clock);
+    }
 }